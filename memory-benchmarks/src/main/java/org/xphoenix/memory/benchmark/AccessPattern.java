@@ -0,0 +1,94 @@
+package org.xphoenix.memory.benchmark;
+
+import java.util.Random;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Order in which benchmark touches memory
+ *
+ * <p> Both patterns produce the same set of indexes, so the only difference between
+ * them is the order. Benchmarks read next index from the table on each call for
+ * both patterns, i.e. table lookup cost is the same and cancels out.
+ * </p>
+ *
+ * @author andrphi
+ */
+public enum AccessPattern {
+
+	/**
+	 * Indexes go one by one from the memory start, hardware prefetcher works
+	 */
+	SEQUENTIAL {
+		@Override
+		void arrange(@NotNull long[] indexes, @NotNull Random random) {
+		}
+	},
+
+	/**
+	 * Indexes are shuffled, each access is likely a cache miss for large memory
+	 */
+	RANDOM {
+		@Override
+		void arrange(@NotNull long[] indexes, @NotNull Random random) {
+			for (int i=indexes.length-1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				long tmp = indexes[i];
+				indexes[i] = indexes[j];
+				indexes[j] = tmp;
+			}
+		}
+	};
+
+	/*
+	 * Fixed seed, so each run and each fork touches memory in the same order
+	 */
+	private static final long SEED = 0x5DEECE66DL;
+
+	/*
+	 * Max indexes table length. Table must not be much bigger then L2 cache,
+	 * otherwise table misses are measured instead of memory access
+	 */
+	private static final int MAX_INDEXES = 1 << 16;
+
+	/**
+	 * Creates table of evenly spaced aligned indexes covering [0, size) region.
+	 * For large region indexes are sparse to keep table small
+	 *
+	 * @param size region size, must be a power of two
+	 * @param alignment index alignment, must be a power of two
+	 * @return indexes table
+	 */
+	@NotNull
+	public long[] indexes(long size, long alignment) {
+		int count = (int)Math.min(size / alignment, MAX_INDEXES);
+		return indexes(0, size / count, count);
+	}
+
+	/**
+	 * Creates table of indexes <code>first + i * stride</code>, ordered by that
+	 * pattern. Table length is a power of two, so it could be cycled by mask
+	 *
+	 * @param first the first index
+	 * @param stride distance between adjacent indexes
+	 * @param count number of indexes, must be a power of two
+	 * @return indexes table
+	 */
+	@NotNull
+	public long[] indexes(long first, long stride, int count) {
+		if (count <= 0 || (count & (count - 1)) != 0) {
+			throw new IllegalArgumentException("Indexes count must be a power of two: "+count);
+		}
+
+		long[] result = new long[count];
+		for (int i=0; i < count; i++) {
+			result[i] = first + i * stride;
+		}
+		arrange(result, new Random(SEED));
+		return result;
+	}
+
+	void arrange(@NotNull long[] indexes, @NotNull Random random) {
+		throw new RuntimeException("Method must be implemented in childs");
+	}
+}
@@ -0,0 +1,129 @@
+package org.xphoenix.memory.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JDK baseline: the same operations as in {@link MemoryAccessUnsafeImplBenchmark}
+ * done by absolute ByteBuffer put/get
+ *
+ * @author andrphi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ByteBufferBenchmark {
+
+	@Param({"4096", "67108864"})
+	private int size;
+
+	@Param({"true", "false"})
+	private boolean direct;
+
+	/*
+	 * Native order is NO_OP conversion, big endian is SWAP on x86
+	 */
+	@Param({"NATIVE", "BIG_ENDIAN"})
+	private String order;
+
+	@Param
+	private AccessPattern pattern;
+
+	private ByteBuffer buffer;
+
+	private int[] indexes;
+
+	private int mask;
+
+	private int cursor;
+
+	@Setup
+	public void setUp() {
+		buffer = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+		buffer.order("NATIVE".equals(order) ? ByteOrder.nativeOrder() : ByteOrder.BIG_ENDIAN);
+
+		// ByteBuffer has int indexes, so they are converted once here instead
+		// of casting on each access
+		long[] table = pattern.indexes(size, 8);
+		indexes = new int[table.length];
+		for (int i=0; i < table.length; i++) {
+			indexes[i] = (int)table[i];
+		}
+		mask = indexes.length - 1;
+	}
+
+	private int next() {
+		return indexes[cursor++ & mask];
+	}
+
+	@Benchmark
+	public byte getByte() {
+		return buffer.get(next());
+	}
+
+	@Benchmark
+	public short getShort() {
+		return buffer.getShort(next());
+	}
+
+	@Benchmark
+	public int getInt() {
+		return buffer.getInt(next());
+	}
+
+	@Benchmark
+	public long getLong() {
+		return buffer.getLong(next());
+	}
+
+	@Benchmark
+	public double getDouble() {
+		return buffer.getDouble(next());
+	}
+
+	@Benchmark
+	public ByteBuffer putByte() {
+		int index = next();
+		return buffer.put(index, (byte)index);
+	}
+
+	@Benchmark
+	public ByteBuffer putShort() {
+		int index = next();
+		return buffer.putShort(index, (short)index);
+	}
+
+	@Benchmark
+	public ByteBuffer putInt() {
+		int index = next();
+		return buffer.putInt(index, index);
+	}
+
+	@Benchmark
+	public ByteBuffer putLong() {
+		int index = next();
+		return buffer.putLong(index, index);
+	}
+
+	@Benchmark
+	public ByteBuffer putDouble() {
+		int index = next();
+		return buffer.putDouble(index, index);
+	}
+}
@@ -0,0 +1,128 @@
+package org.xphoenix.memory.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ByteOrderConvertor;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Measures access to one memory chunk shared by a few threads
+ *
+ * <p> Each thread walks the whole memory in its own order, so threads touch the
+ * same cache lines from time to time. Numbers must be compared with single
+ * threaded {@link MemoryAccessUnsafeImplBenchmark} to see scalability.
+ * </p>
+ *
+ * @author andrphi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConcurrentAccessBenchmark {
+
+	/**
+	 * Memory shared by all threads
+	 */
+	@State(Scope.Benchmark)
+	public static class SharedMemory {
+
+		@Param({"4096", "67108864"})
+		int size;
+
+		@Param
+		MemoryFactory factory;
+
+		@Param
+		BoundsChecker checker;
+
+		MemoryAccessW memory;
+
+		@Setup
+		public void setUp() {
+			memory = factory.create(checker, ByteOrderConvertor.NO_OP, size);
+		}
+	}
+
+	/**
+	 * Thread own indexes
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		@Param
+		AccessPattern pattern;
+
+		private long[] indexes;
+
+		private int mask;
+
+		private int cursor;
+
+		@Setup
+		public void setUp(SharedMemory shared) {
+			indexes = pattern.indexes(shared.size, 8);
+			mask = indexes.length - 1;
+
+			// Threads start from different points, otherwise sequential
+			// threads go in lockstep over the same lines
+			cursor = System.identityHashCode(this);
+		}
+
+		long next() {
+			return indexes[cursor++ & mask];
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public long getLong(SharedMemory shared, Cursor cursor) {
+		return shared.memory.getLong(cursor.next());
+	}
+
+	@Benchmark
+	@Threads(4)
+	public MemoryAccessW putLong(SharedMemory shared, Cursor cursor) {
+		long index = cursor.next();
+		return shared.memory.putLong(index, index);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean compareAndSwapLong(SharedMemory shared, Cursor cursor) {
+		long index = cursor.next();
+		long value = shared.memory.getLong(index);
+		return shared.memory.compareAndSwap(index, value, value + 1);
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(3)
+	public long reader(SharedMemory shared, Cursor cursor) {
+		return shared.memory.getLong(cursor.next());
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(1)
+	public MemoryAccessW writer(SharedMemory shared, Cursor cursor) {
+		long index = cursor.next();
+		return shared.memory.putLong(index, index);
+	}
+}
@@ -0,0 +1,175 @@
+package org.xphoenix.memory.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ByteOrderConvertor;
+import org.xphoenix.memory.core.MemoryAccessAggregationImpl;
+import org.xphoenix.memory.core.MemoryAccessPow2AggregationImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Measures single put/get of primitive types for aggregation of direct buffers
+ *
+ * <p> ALIGNED accesses never cross segment boundary, so they show the cost of
+ * segment lookup. STRADDLING accesses always cross boundary, so they show the
+ * cost of overflow control.
+ * </p>
+ *
+ * @author andrphi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MemoryAccessAggregationImplBenchmark {
+
+	@Param({"4096", "1048576"})
+	private int segmentSize;
+
+	/*
+	 * Number of segments, must be a power of two
+	 */
+	@Param({"64"})
+	private int segments;
+
+	@Param
+	private Aggregation aggregation;
+
+	@Param
+	private Alignment alignment;
+
+	@Param
+	private BoundsChecker checker;
+
+	@Param
+	private AccessPattern pattern;
+
+	private MemoryAccessW memory;
+
+	private long[] indexes;
+
+	private int mask;
+
+	private int cursor;
+
+	@Setup
+	public void setUp() {
+		// One more segment, so there is a boundary after each of the
+		// first segments
+		MemoryAccessW[] chunks = new MemoryAccessW[segments + 2];
+		for (int i=0; i < segments + 1; i++) {
+			chunks[i] = MemoryFactory.DIRECT_BUFFER.create(checker, ByteOrderConvertor.NO_OP, segmentSize);
+		}
+
+		memory = aggregation.create(chunks);
+		indexes = alignment.indexes(pattern, segmentSize, segments);
+		mask = indexes.length - 1;
+	}
+
+	private long next() {
+		return indexes[cursor++ & mask];
+	}
+
+	@Benchmark
+	public short getShort() {
+		return memory.getShort(next());
+	}
+
+	@Benchmark
+	public int getInt() {
+		return memory.getInt(next());
+	}
+
+	@Benchmark
+	public long getLong() {
+		return memory.getLong(next());
+	}
+
+	@Benchmark
+	public MemoryAccessW putShort() {
+		long index = next();
+		return memory.putShort(index, (short)index);
+	}
+
+	@Benchmark
+	public MemoryAccessW putInt() {
+		long index = next();
+		return memory.putInt(index, (int)index);
+	}
+
+	@Benchmark
+	public MemoryAccessW putLong() {
+		long index = next();
+		return memory.putLong(index, index);
+	}
+
+	public enum Aggregation {
+		/**
+		 * Division based segment lookup
+		 */
+		GENERIC {
+			@Override @NotNull
+			MemoryAccessW create(@NotNull MemoryAccessW[] segments) {
+				return new MemoryAccessAggregationImpl<>(segments);
+			}
+		},
+
+		/**
+		 * Shift and mask based segment lookup
+		 */
+		POW2 {
+			@Override @NotNull
+			MemoryAccessW create(@NotNull MemoryAccessW[] segments) {
+				return new MemoryAccessPow2AggregationImpl<>(segments);
+			}
+		};
+
+		@NotNull
+		MemoryAccessW create(@NotNull MemoryAccessW[] segments) {
+			throw new RuntimeException("Method must be implemented in childs");
+		}
+	}
+
+	public enum Alignment {
+		/**
+		 * Long aligned indexes over all segments except the last one
+		 */
+		ALIGNED {
+			@Override @NotNull
+			long[] indexes(@NotNull AccessPattern pattern, int segmentSize, int segments) {
+				return pattern.indexes((long)segmentSize * segments, 8);
+			}
+		},
+
+		/**
+		 * Indexes of the last byte in each segment, so all values are split
+		 * by boundary
+		 */
+		STRADDLING {
+			@Override @NotNull
+			long[] indexes(@NotNull AccessPattern pattern, int segmentSize, int segments) {
+				return pattern.indexes(segmentSize - 1, segmentSize, segments);
+			}
+		};
+
+		@NotNull
+		long[] indexes(@NotNull AccessPattern pattern, int segmentSize, int segments) {
+			throw new RuntimeException("Method must be implemented in childs");
+		}
+	}
+}
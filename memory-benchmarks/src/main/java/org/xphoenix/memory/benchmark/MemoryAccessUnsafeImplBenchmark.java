@@ -0,0 +1,134 @@
+package org.xphoenix.memory.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ByteOrderConvertor;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Measures single put/get of primitive types for {@link MemoryAccessUnsafeImpl}
+ * over byte array and direct ByteBuffer
+ *
+ * <p> {@link BoundsChecker} and {@link ByteOrderConvertor} are parameters, so
+ * REAL vs NO_OP checks and SWAP vs NO_OP conversion are compared on the same
+ * memory. Compare with {@link ByteBufferBenchmark} for JDK baseline.
+ * </p>
+ *
+ * @author andrphi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MemoryAccessUnsafeImplBenchmark {
+
+	/*
+	 * L1 resident vs larger then any cache memory
+	 */
+	@Param({"4096", "67108864"})
+	private int size;
+
+	@Param
+	private MemoryFactory factory;
+
+	@Param
+	private BoundsChecker checker;
+
+	@Param
+	private ByteOrderConvertor order;
+
+	@Param
+	private AccessPattern pattern;
+
+	private MemoryAccessW memory;
+
+	/*
+	 * Long aligned indexes covering whole memory
+	 */
+	private long[] indexes;
+
+	private int mask;
+
+	private int cursor;
+
+	@Setup
+	public void setUp() {
+		memory = factory.create(checker, order, size);
+		indexes = pattern.indexes(size, 8);
+		mask = indexes.length - 1;
+	}
+
+	private long next() {
+		return indexes[cursor++ & mask];
+	}
+
+	@Benchmark
+	public byte getByte() {
+		return memory.getByte(next());
+	}
+
+	@Benchmark
+	public short getShort() {
+		return memory.getShort(next());
+	}
+
+	@Benchmark
+	public int getInt() {
+		return memory.getInt(next());
+	}
+
+	@Benchmark
+	public long getLong() {
+		return memory.getLong(next());
+	}
+
+	@Benchmark
+	public double getDouble() {
+		return memory.getDouble(next());
+	}
+
+	@Benchmark
+	public MemoryAccessW putByte() {
+		long index = next();
+		return memory.putByte(index, (byte)index);
+	}
+
+	@Benchmark
+	public MemoryAccessW putShort() {
+		long index = next();
+		return memory.putShort(index, (short)index);
+	}
+
+	@Benchmark
+	public MemoryAccessW putInt() {
+		long index = next();
+		return memory.putInt(index, (int)index);
+	}
+
+	@Benchmark
+	public MemoryAccessW putLong() {
+		long index = next();
+		return memory.putLong(index, index);
+	}
+
+	@Benchmark
+	public MemoryAccessW putDouble() {
+		long index = next();
+		return memory.putDouble(index, index);
+	}
+}
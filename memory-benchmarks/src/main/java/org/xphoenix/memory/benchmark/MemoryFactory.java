@@ -0,0 +1,36 @@
+package org.xphoenix.memory.benchmark;
+
+import java.nio.ByteBuffer;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ByteOrderConvertor;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Memory kinds covered by benchmarks
+ *
+ * @author andrphi
+ */
+public enum MemoryFactory {
+
+	BYTE_ARRAY {
+		@Override @NotNull
+		public MemoryAccessW create(@NotNull BoundsChecker checker, @NotNull ByteOrderConvertor order, int size) {
+			return MemoryAccessUnsafeImpl.wrap(checker, order, new byte[size]);
+		}
+	},
+
+	DIRECT_BUFFER {
+		@Override @NotNull
+		public MemoryAccessW create(@NotNull BoundsChecker checker, @NotNull ByteOrderConvertor order, int size) {
+			return MemoryAccessUnsafeImpl.wrap(checker, order, ByteBuffer.allocateDirect(size));
+		}
+	};
+
+	@NotNull
+	public MemoryAccessW create(@NotNull BoundsChecker checker, @NotNull ByteOrderConvertor order, int size) {
+		throw new RuntimeException("Method must be implemented in childs");
+	}
+}
@@ -1,10 +1,13 @@
 package org.xphoenix.memory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-
-import javax.print.DocFlavor.BYTE_ARRAY;
+import java.nio.ByteOrder;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -15,11 +18,85 @@ public final class UnsafeUtils {
 	
 	private static final Unsafe theUnsafe;
 	
-	private static final Field memoryAddressInByteBuffer;
+	private static final long memoryAddressInByteBuffer;
+
+	private static final long capacityInByteBuffer;
+
+	/*
+	 * Object DirectByteBuffer view keeps alive, its parent buffer by default
+	 */
+	private static final long attachmentInDirectByteBuffer;
+
+	private static final Method invokeCleaner;
+
+	/*
+	 * Unsafe atomics and fences exist since JDK8 only, null on older JDKs where
+	 * they are emulated by CAS loops and volatile accesses
+	 */
+	private static final MethodHandle GET_AND_ADD_INT;
+
+	private static final MethodHandle GET_AND_ADD_LONG;
+
+	private static final MethodHandle GET_AND_SET_INT;
+
+	private static final MethodHandle GET_AND_SET_LONG;
+
+	private static final MethodHandle LOAD_FENCE;
+
+	private static final MethodHandle STORE_FENCE;
+
+	private static final MethodHandle FULL_FENCE;
+
+	/*
+	 * Target of volatile read used as load fence where Unsafe#loadFence is
+	 * missing. It is never written, so readers do not contend
+	 */
+	private static final int[] FENCE = new int[1];
+
+	private static final long FENCE_OFFSET = Unsafe.ARRAY_INT_BASE_OFFSET;
+
+	/*
+	 * Targets of CAS used as full fence where Unsafe#fullFence is missing. Each
+	 * thread has its own word in the middle of cache line sized array, so fences
+	 * of different threads do not contend on one cache line
+	 */
+	private static final ThreadLocal<int[]> FENCE_WORDS = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[32];
+		}
+	};
+
+	private static final long FENCE_WORD_OFFSET = Unsafe.ARRAY_INT_BASE_OFFSET + 16L * Unsafe.ARRAY_INT_INDEX_SCALE;
+
+	/*
+	 * Template for ByteBuffer views over raw memory, see newDirectByteBuffer
+	 */
+	private static final ByteBuffer directBufferTemplate = ByteBuffer.allocateDirect(0);
 	
 	public static final long BYTE_ARRAY_OFFSET;
 
 	public static final long BYTE_ARRAY_SHIFT;
+
+	/*
+	 * Large Unsafe copy is not interruptible by safepoint, so it is split into
+	 * chunks not to delay GC. The same threshold as java.nio.Bits has
+	 */
+	private static final long UNSAFE_COPY_THRESHOLD = 1024L * 1024L;
+
+	private static final boolean NATIVE_LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+	public static final long CHAR_ARRAY_OFFSET = Unsafe.ARRAY_CHAR_BASE_OFFSET;
+
+	public static final long SHORT_ARRAY_OFFSET = Unsafe.ARRAY_SHORT_BASE_OFFSET;
+
+	public static final long INT_ARRAY_OFFSET = Unsafe.ARRAY_INT_BASE_OFFSET;
+
+	public static final long FLOAT_ARRAY_OFFSET = Unsafe.ARRAY_FLOAT_BASE_OFFSET;
+
+	public static final long LONG_ARRAY_OFFSET = Unsafe.ARRAY_LONG_BASE_OFFSET;
+
+	public static final long DOUBLE_ARRAY_OFFSET = Unsafe.ARRAY_DOUBLE_BASE_OFFSET;
 	
 	static {
 		try {
@@ -27,11 +104,49 @@ public final class UnsafeUtils {
 			f.setAccessible(true);
 			theUnsafe = (Unsafe) f.get(null);
 			
-			memoryAddressInByteBuffer = Buffer.class.getDeclaredField("address");
-			memoryAddressInByteBuffer.setAccessible(true);
+			// Field offset is used instead of reflective access, so it works on
+			// modular JDKs where java.nio is not open for reflection
+			memoryAddressInByteBuffer = theUnsafe.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+			capacityInByteBuffer = theUnsafe.objectFieldOffset(Buffer.class.getDeclaredField("capacity"));
+			attachmentInDirectByteBuffer = theUnsafe.objectFieldOffset(Class.forName("java.nio.DirectByteBuffer").getDeclaredField("att"));
 		} catch (Exception e) {
 			throw new RuntimeException ("Failed to initialize UnsafeUtils: ", e);
 		} 
+
+		// Unsafe#invokeCleaner exists since JDK9, older JDKs are handled
+		// by DirectBuffer#cleaner in freeDirectBuffer
+		Method cleaner = null;
+		try {
+			cleaner = Unsafe.class.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (NoSuchMethodException e) {
+			cleaner = null;
+		}
+		invokeCleaner = cleaner;
+
+		// Handles are bound to theUnsafe and kept in static finals, so JIT
+		// inlines them down to the intrinsics
+		MethodHandle addInt = null, addLong = null, setInt = null, setLong = null;
+		MethodHandle load = null, store = null, full = null;
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			addInt = lookup.findVirtual(Unsafe.class, "getAndAddInt", MethodType.methodType(int.class, Object.class, long.class, int.class)).bindTo(theUnsafe);
+			addLong = lookup.findVirtual(Unsafe.class, "getAndAddLong", MethodType.methodType(long.class, Object.class, long.class, long.class)).bindTo(theUnsafe);
+			setInt = lookup.findVirtual(Unsafe.class, "getAndSetInt", MethodType.methodType(int.class, Object.class, long.class, int.class)).bindTo(theUnsafe);
+			setLong = lookup.findVirtual(Unsafe.class, "getAndSetLong", MethodType.methodType(long.class, Object.class, long.class, long.class)).bindTo(theUnsafe);
+			load = lookup.findVirtual(Unsafe.class, "loadFence", MethodType.methodType(void.class)).bindTo(theUnsafe);
+			store = lookup.findVirtual(Unsafe.class, "storeFence", MethodType.methodType(void.class)).bindTo(theUnsafe);
+			full = lookup.findVirtual(Unsafe.class, "fullFence", MethodType.methodType(void.class)).bindTo(theUnsafe);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			addInt = addLong = setInt = setLong = null;
+			load = store = full = null;
+		}
+		GET_AND_ADD_INT = addInt;
+		GET_AND_ADD_LONG = addLong;
+		GET_AND_SET_INT = setInt;
+		GET_AND_SET_LONG = setLong;
+		LOAD_FENCE = load;
+		STORE_FENCE = store;
+		FULL_FENCE = full;
 		
 		// Scale cahecks
 		if ((Unsafe.ARRAY_BYTE_INDEX_SCALE & (Unsafe.ARRAY_BYTE_INDEX_SCALE - 1)) != 0) {
@@ -47,11 +162,85 @@ public final class UnsafeUtils {
 	}
 
 	public static long getMemoryAddress(@NotNull ByteBuffer buf) {
+		assert buf.isDirect();
+		return theUnsafe.getLong(buf, memoryAddressInByteBuffer);
+	}
+
+	public static final long allocateMemory(long size) {
+		return theUnsafe.allocateMemory(size);
+	}
+
+	public static final void freeMemory(long address) {
+		theUnsafe.freeMemory(address);
+	}
+
+	public static final void setMemory(long address, long size, byte value) {
+		theUnsafe.setMemory(address, size, value);
+	}
+
+	/**
+	 * Creates direct ByteBuffer view over raw memory region owned by the given
+	 * object. Buffer refers owner as JDK buffer views refer their parent, so
+	 * owner could not be collected and release memory while buffer is in use
+	 *
+	 * @param address memory region start address
+	 * @param capacity memory region size
+	 * @param owner object owning memory region, null only if region is never
+	 *        released, i.e. static memory
+	 * @return direct ByteBuffer over the given memory
+	 */
+	public static ByteBuffer newDirectByteBuffer(long address, int capacity, Object owner) {
+		// Duplicate gives properly initialized DirectByteBuffer, so only
+		// memory region must be replaced
+		ByteBuffer buf = directBufferTemplate.duplicate();
+		repointDirectByteBuffer(buf, address, capacity, owner);
+		return buf;
+	}
+
+	/**
+	 * Moves view created by {@link #newDirectByteBuffer(long, int, Object)} to
+	 * another memory region, so views could be reused instead of allocated.
+	 * Buffer is cleared and gets big endian byte order
+	 *
+	 * @param buf view over raw memory, must not be used by anyone else
+	 * @param address memory region start address
+	 * @param capacity memory region size
+	 * @param owner object owning memory region, or null
+	 */
+	public static void repointDirectByteBuffer(@NotNull ByteBuffer buf, long address, int capacity, Object owner) {
+		assert buf.isDirect();
+		theUnsafe.putLong(buf, memoryAddressInByteBuffer, address);
+		theUnsafe.putInt(buf, capacityInByteBuffer, capacity);
+		theUnsafe.putObject(buf, attachmentInDirectByteBuffer, owner);
+		buf.clear();
+		buf.order(ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * Releases memory of the given direct buffer (or unmaps mapped buffer) immediately
+	 * instead of waiting for GC.
+	 *
+	 * <p> Buffer and any MemoryAccess over it must not be used after that call, otherwise
+	 * JVM will crash
+	 * </p>
+	 *
+	 * @param buf direct buffer to release
+	 */
+	public static void freeDirectBuffer(@NotNull ByteBuffer buf) {
 		assert buf.isDirect();
 		try {
-			return memoryAddressInByteBuffer.getLong(buf);
+			if (invokeCleaner != null) {
+				invokeCleaner.invoke(theUnsafe, buf);
+			} else {
+				Method cleaner = buf.getClass().getMethod("cleaner");
+				cleaner.setAccessible(true);
+				Object clean = cleaner.invoke(buf);
+				if (clean != null) {
+					clean.getClass().getMethod("clean").invoke(clean);
+				}
+			}
 		} catch (Exception e) {
-			throw new RuntimeException("Failed to get ByteBuffer memory address: ", e);
+			throw new RuntimeException("Failed to free ByteBuffer memory: ", e);
 		}
 	}
 
@@ -63,6 +252,162 @@ public final class UnsafeUtils {
 		return theUnsafe.compareAndSwapLong(object, address, expected, value);
 	}
 
+	public static final int getAndAddInt(Object object, long address, int delta) {
+		if (GET_AND_ADD_INT != null) {
+			try {
+				return (int)GET_AND_ADD_INT.invokeExact(object, address, delta);
+			} catch (Throwable e) {
+				throw unchecked(e);
+			}
+		}
+
+		int value;
+		do {
+			value = theUnsafe.getIntVolatile(object, address);
+		} while (!theUnsafe.compareAndSwapInt(object, address, value, value + delta));
+		return value;
+	}
+
+	public static final long getAndAddLong(Object object, long address, long delta) {
+		if (GET_AND_ADD_LONG != null) {
+			try {
+				return (long)GET_AND_ADD_LONG.invokeExact(object, address, delta);
+			} catch (Throwable e) {
+				throw unchecked(e);
+			}
+		}
+
+		long value;
+		do {
+			value = theUnsafe.getLongVolatile(object, address);
+		} while (!theUnsafe.compareAndSwapLong(object, address, value, value + delta));
+		return value;
+	}
+
+	public static final int getAndSetInt(Object object, long address, int value) {
+		if (GET_AND_SET_INT != null) {
+			try {
+				return (int)GET_AND_SET_INT.invokeExact(object, address, value);
+			} catch (Throwable e) {
+				throw unchecked(e);
+			}
+		}
+
+		int old;
+		do {
+			old = theUnsafe.getIntVolatile(object, address);
+		} while (!theUnsafe.compareAndSwapInt(object, address, old, value));
+		return old;
+	}
+
+	public static final long getAndSetLong(Object object, long address, long value) {
+		if (GET_AND_SET_LONG != null) {
+			try {
+				return (long)GET_AND_SET_LONG.invokeExact(object, address, value);
+			} catch (Throwable e) {
+				throw unchecked(e);
+			}
+		}
+
+		long old;
+		do {
+			old = theUnsafe.getLongVolatile(object, address);
+		} while (!theUnsafe.compareAndSwapLong(object, address, old, value));
+		return old;
+	}
+
+	public static final int getIntVolatile(Object object, long address) {
+		return theUnsafe.getIntVolatile(object, address);
+	}
+
+	public static final long getLongVolatile(Object object, long address) {
+		return theUnsafe.getLongVolatile(object, address);
+	}
+
+	public static final void putIntVolatile(Object object, long address, int value) {
+		theUnsafe.putIntVolatile(object, address, value);
+	}
+
+	public static final void putLongVolatile(Object object, long address, long value) {
+		theUnsafe.putLongVolatile(object, address, value);
+	}
+
+	public static final void putOrderedInt(Object object, long address, int value) {
+		theUnsafe.putOrderedInt(object, address, value);
+	}
+
+	public static final void putOrderedLong(Object object, long address, long value) {
+		theUnsafe.putOrderedLong(object, address, value);
+	}
+
+	/**
+	 * Ensures that loads before the fence are not reordered with loads and
+	 * stores after the fence
+	 */
+	public static final void loadFence() {
+		if (LOAD_FENCE != null) {
+			try {
+				LOAD_FENCE.invokeExact();
+			} catch (Throwable e) {
+				throw unchecked(e);
+			}
+			return;
+		}
+
+		// Volatile read has acquire semantic
+		theUnsafe.getIntVolatile(FENCE, FENCE_OFFSET);
+	}
+
+	/**
+	 * Ensures that loads and stores before the fence are not reordered with
+	 * stores after the fence
+	 */
+	public static final void storeFence() {
+		if (STORE_FENCE != null) {
+			try {
+				STORE_FENCE.invokeExact();
+			} catch (Throwable e) {
+				throw unchecked(e);
+			}
+			return;
+		}
+
+		// There is no weaker fence without Unsafe#storeFence
+		fullFence();
+	}
+
+	/**
+	 * Ensures that loads and stores before the fence are not reordered with
+	 * loads and stores after the fence
+	 */
+	public static final void fullFence() {
+		if (FULL_FENCE != null) {
+			try {
+				FULL_FENCE.invokeExact();
+			} catch (Throwable e) {
+				throw unchecked(e);
+			}
+			return;
+		}
+
+		// CAS has volatile read and write semantic at once
+		theUnsafe.compareAndSwapInt(FENCE_WORDS.get(), FENCE_WORD_OFFSET, 0, 0);
+	}
+
+	/*
+	 * Unsafe methods throw unchecked exceptions only, invokeExact declares
+	 * Throwable nevertheless
+	 */
+	private static RuntimeException unchecked(Throwable e) {
+		if (e instanceof RuntimeException) {
+			return (RuntimeException)e;
+		}
+		if (e instanceof Error) {
+			throw (Error)e;
+		}
+		return new RuntimeException(e);
+	}
+
 	public static final boolean getBoolean(long address) {
 		return theUnsafe.getBoolean(null, address);
 	}
@@ -127,6 +472,59 @@ public final class UnsafeUtils {
 		theUnsafe.putShort(object, address, value);
 	}
 	
+	public static final void copyMemory(Object src, long srcAddress, Object dest, long destAddress, long len) {
+		// Chunks are copied in the direction which keeps overlapping regions correct
+		if (src != dest || destAddress <= srcAddress || destAddress >= srcAddress + len) {
+			while (len > 0) {
+				long size = Math.min(len, UNSAFE_COPY_THRESHOLD);
+				theUnsafe.copyMemory(src, srcAddress, dest, destAddress, size);
+				len -= size;
+				srcAddress += size;
+				destAddress += size;
+			}
+		} else {
+			while (len > 0) {
+				long size = Math.min(len, UNSAFE_COPY_THRESHOLD);
+				len -= size;
+				theUnsafe.copyMemory(src, srcAddress + len, dest, destAddress + len, size);
+			}
+		}
+	}
+
+	public static final void setMemory(Object object, long address, long len, byte value) {
+		while (len > 0) {
+			long size = Math.min(len, UNSAFE_COPY_THRESHOLD);
+			theUnsafe.setMemory(object, address, size, value);
+			len -= size;
+			address += size;
+		}
+	}
+
+	/**
+	 * Finds the first byte which differs in two memory regions. Regions are
+	 * compared by 8 bytes words
+	 *
+	 * @return index of the first different byte or -1 if regions are equal
+	 */
+	public static final long mismatch(Object a, long aAddress, Object b, long bAddress, long len) {
+		long i = 0;
+		for (; i + 8 <= len; i += 8) {
+			long x = theUnsafe.getLong(a, aAddress + i);
+			long y = theUnsafe.getLong(b, bAddress + i);
+			if (x != y) {
+				long diff = x ^ y;
+				return i + ((NATIVE_LITTLE_ENDIAN ? Long.numberOfTrailingZeros(diff) : Long.numberOfLeadingZeros(diff)) >>> 3);
+			}
+		}
+
+		for (; i < len; i++) {
+			if (theUnsafe.getByte(a, aAddress + i) != theUnsafe.getByte(b, bAddress + i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	public static final void copyMemory(byte[] array, long address, int len) {
 		theUnsafe.copyMemory(array, Unsafe.ARRAY_BYTE_BASE_OFFSET, null, address, len);
 	}
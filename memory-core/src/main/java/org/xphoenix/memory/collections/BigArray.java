@@ -0,0 +1,243 @@
+package org.xphoenix.memory.collections;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Base of primitive arrays addressed by long index over a memory chunk
+ *
+ * <p> Array could have more then Integer.MAX_VALUE elements and be placed in any
+ * memory, i.e in aggregation of mapped segments. Element access is checked
+ * against array length by memory BoundsChecker, as array could be placed in a
+ * part of shared memory, so NO_OP checker leaves it unchecked as memory access
+ * is. Ranges of sort, fill and search are always checked. Values are stored in
+ * memory byte order.
+ * </p>
+ *
+ * @author andrphi
+ */
+public abstract class BigArray {
+
+	/*
+	 * Partitions smaller then that are sorted by insertion
+	 */
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	final @NotNull MemoryAccessW memory;
+
+	/*
+	 * Checker of the memory, applied to array length
+	 */
+	private final @NotNull BoundsChecker checker;
+
+	/*
+	 * Index in memory of the first element
+	 */
+	final long base;
+
+	final long length;
+
+	/*
+	 * log2 of element size
+	 */
+	private final int shift;
+
+	BigArray(@NotNull MemoryAccessW memory, long offset, long length, int shift) {
+		if (length < 0 || length > (Long.MAX_VALUE >> shift)) {
+			throw new IllegalArgumentException("Invalid array length: "+length);
+		}
+		BoundsChecker.checkRegion(offset, length << shift, memory.size());
+
+		this.memory = memory;
+		this.checker = memory.getBoundsChecker();
+		this.base = offset;
+		this.length = length;
+		this.shift = shift;
+	}
+
+	/**
+	 * Returns memory array is kept in
+	 *
+	 * @return array memory
+	 */
+	public MemoryAccessW getMemory() {
+		return memory;
+	}
+
+	/**
+	 * Returns number of elements
+	 *
+	 * @return array length
+	 */
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * Sorts [from, to) range in ascending order
+	 *
+	 * <p> Sort is in place, introspective (quicksort falling back to heapsort)
+	 * and not stable
+	 * </p>
+	 *
+	 * @param from index of the first element, inclusive
+	 * @param to index of the last element, exclusive
+	 */
+	public void sort(long from, long to) {
+		checkRange(from, to);
+		if (to - from > 1) {
+			sort(from, to - 1, 2 * (64 - Long.numberOfLeadingZeros(to - from)));
+		}
+	}
+
+	/**
+	 * Compares elements, indexes are already checked
+	 *
+	 * @param i index of the first element
+	 * @param j index of the second element
+	 * @return true if the first element is less then the second one
+	 */
+	abstract boolean less(long i, long j);
+
+	/**
+	 * Swaps elements, indexes are already checked
+	 *
+	 * @param i index of the first element
+	 * @param j index of the second element
+	 */
+	abstract void swap(long i, long j);
+
+	/**
+	 * Returns index in memory of the element
+	 *
+	 * @param index element index
+	 * @return memory index
+	 * @throws ArrayIndexOutOfBoundsException if index is out of array bounds
+	 *         and memory checks bounds
+	 */
+	final long offset(long index) {
+		checker.checkBounds(index, length);
+		return base + (index << shift);
+	}
+
+	/**
+	 * Returns index in memory of the first element of the range
+	 *
+	 * @param index index of the first element
+	 * @param count number of elements
+	 * @return memory index
+	 * @throws ArrayIndexOutOfBoundsException if range is out of array bounds
+	 *         and memory checks bounds
+	 */
+	final long offset(long index, int count) {
+		checker.checkBounds(index, count, length);
+		return base + (index << shift);
+	}
+
+	final void checkRange(long from, long to) {
+		if (from < 0 || from > to || to > length) {
+			throw new ArrayIndexOutOfBoundsException("Range ["+from+", "+to+") is out of array bounds: "+length);
+		}
+	}
+
+	/*
+	 * Sorts [lo, hi] range. Recursion goes to the smaller partition, so
+	 * stack depth is logarithmic
+	 */
+	private void sort(long lo, long hi, int depth) {
+		while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+			if (depth-- == 0) {
+				heapSort(lo, hi);
+				return;
+			}
+
+			long pivot = partition(lo, hi);
+			if (pivot - lo < hi - pivot) {
+				sort(lo, pivot - 1, depth);
+				lo = pivot + 1;
+			} else {
+				sort(pivot + 1, hi, depth);
+				hi = pivot - 1;
+			}
+		}
+		insertionSort(lo, hi);
+	}
+
+	/*
+	 * Partitions [lo, hi] range around median of three and returns
+	 * final pivot index. Elements equal to pivot stop both scans, so
+	 * many duplicates still give balanced partitions
+	 */
+	private long partition(long lo, long hi) {
+		long mid = (lo + hi) >>> 1;
+		if (less(mid, lo)) {
+			swap(lo, mid);
+		}
+		if (less(hi, lo)) {
+			swap(lo, hi);
+		}
+		if (less(hi, mid)) {
+			swap(mid, hi);
+		}
+
+		// a[lo] <= pivot <= a[hi], so both scans have sentinels. Pivot
+		// stays at hi - 1 until scans meet
+		long pivot = hi - 1;
+		swap(mid, pivot);
+		long i = lo;
+		long j = pivot;
+		for (;;) {
+			while (less(++i, pivot)) {
+			}
+			while (less(pivot, --j)) {
+			}
+			if (i >= j) {
+				break;
+			}
+			swap(i, j);
+		}
+		swap(i, pivot);
+		return i;
+	}
+
+	private void insertionSort(long lo, long hi) {
+		for (long i = lo + 1; i <= hi; i++) {
+			for (long j = i; j > lo && less(j, j - 1); j--) {
+				swap(j, j - 1);
+			}
+		}
+	}
+
+	private void heapSort(long lo, long hi) {
+		long n = hi - lo + 1;
+		for (long i = (n >>> 1) - 1; i >= 0; i--) {
+			siftDown(lo, i, n);
+		}
+		for (long last = n - 1; last > 0; last--) {
+			swap(lo, lo + last);
+			siftDown(lo, 0, last);
+		}
+	}
+
+	private void siftDown(long lo, long node, long n) {
+		for (long child = 2 * node + 1; child < n; child = 2 * node + 1) {
+			if (child + 1 < n && less(lo + child, lo + child + 1)) {
+				child++;
+			}
+			if (!less(lo + node, lo + child)) {
+				break;
+			}
+			swap(lo + node, lo + child);
+			node = child;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" [length="+length
+				+", offset="+base
+				+", memory="+memory
+				+"]";
+	}
+}
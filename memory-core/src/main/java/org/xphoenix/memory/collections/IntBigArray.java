@@ -0,0 +1,166 @@
+package org.xphoenix.memory.collections;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Array of int values addressed by long index over a memory chunk, see {@link BigArray}
+ *
+ * @author andrphi
+ */
+public final class IntBigArray extends BigArray {
+
+	/*
+	 * log2 of element size
+	 */
+	private static final int SHIFT = 2;
+
+	/*
+	 * Number of values written by one bulk put on fill
+	 */
+	private static final int FILL_CHUNK = 1024;
+
+	/**
+	 * Creates array over the whole memory
+	 *
+	 * @param memory memory to keep values in
+	 */
+	public IntBigArray(@NotNull MemoryAccessW memory) {
+		this(memory, 0, memory.size() >> SHIFT);
+	}
+
+	/**
+	 * Creates array over a part of memory
+	 *
+	 * @param memory memory to keep values in
+	 * @param offset index in memory of the first element
+	 * @param length number of elements
+	 * @throws IndexOutOfBoundsException if array does not fit memory
+	 */
+	public IntBigArray(@NotNull MemoryAccessW memory, long offset, long length) {
+		super(memory, offset, length, SHIFT);
+	}
+
+	/**
+	 * Returns element
+	 *
+	 * @param index element index
+	 * @return element value
+	 * @throws ArrayIndexOutOfBoundsException if index is out of array bounds
+	 */
+	public int get(long index) {
+		return memory.getInt(offset(index));
+	}
+
+	/**
+	 * Sets element
+	 *
+	 * @param index element index
+	 * @param value value to set
+	 * @throws ArrayIndexOutOfBoundsException if index is out of array bounds
+	 */
+	public void set(long index, int value) {
+		memory.putInt(offset(index), value);
+	}
+
+	/**
+	 * Copies <code>count</code> elements starting from the given index to java array
+	 *
+	 * @param index index of the first element to copy
+	 * @param values array to copy elements to
+	 * @param offset index of the first array element to fill
+	 * @param count number of elements to copy
+	 * @throws ArrayIndexOutOfBoundsException if range is out of array bounds
+	 */
+	public void get(long index, @NotNull int[] values, int offset, int count) {
+		memory.getInts(offset(index, count), values, offset, count);
+	}
+
+	/**
+	 * Copies <code>count</code> elements from java array starting from the given index
+	 *
+	 * @param index index of the first element to write
+	 * @param values array to copy elements from
+	 * @param offset index of the first array element to copy
+	 * @param count number of elements to copy
+	 * @throws ArrayIndexOutOfBoundsException if range is out of array bounds
+	 */
+	public void set(long index, @NotNull int[] values, int offset, int count) {
+		memory.putInts(offset(index, count), values, offset, count);
+	}
+
+	/**
+	 * Sets all elements in [from, to) range to the given value
+	 *
+	 * @param from index of the first element, inclusive
+	 * @param to index of the last element, exclusive
+	 * @param value value to set
+	 */
+	public void fill(long from, long to, int value) {
+		checkRange(from, to);
+
+		int bits = value;
+		if (bits == (bits & 0xFF) * 0x01010101) {
+			// All value bytes are equal, so byte order does not matter
+			memory.fill(base + (from << SHIFT), (to - from) << SHIFT, (byte)bits);
+			return;
+		}
+
+		int[] chunk = new int[(int)Math.min(to - from, FILL_CHUNK)];
+		Arrays.fill(chunk, value);
+		for (long index = from; index < to; index += chunk.length) {
+			set(index, chunk, 0, (int)Math.min(to - index, chunk.length));
+		}
+	}
+
+	/**
+	 * Searches sorted [from, to) range for the given value. Contract is the same
+	 * as {@link Arrays#binarySearch(int[], int, int, int)} has
+	 *
+	 * @param from index of the first element, inclusive
+	 * @param to index of the last element, exclusive
+	 * @param key value to search for
+	 * @return index of the value if it is found, otherwise (-(insertion point) - 1)
+	 */
+	public long binarySearch(long from, long to, int key) {
+		checkRange(from, to);
+
+		long low = from;
+		long high = to - 1;
+		while (low <= high) {
+			long mid = (low + high) >>> 1;
+			int value = value(mid);
+			if (value < key) {
+				low = mid + 1;
+			} else if (key < value) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	@Override
+	boolean less(long i, long j) {
+		int a = value(i);
+		int b = value(j);
+		return a < b;
+	}
+
+	@Override
+	void swap(long i, long j) {
+		int tmp = value(i);
+		memory.putInt(base + (i << SHIFT), value(j));
+		memory.putInt(base + (j << SHIFT), tmp);
+	}
+
+	/*
+	 * Reads element which index is already checked
+	 */
+	private int value(long index) {
+		return memory.getInt(base + (index << SHIFT));
+	}
+}
@@ -0,0 +1,430 @@
+package org.xphoenix.memory.collections;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Open addressing long to long hash map which lives entirely in a memory chunk
+ *
+ * <p> Map keeps no per entry objects, so it could hold billions of entries off heap,
+ * i.e in {@link org.xphoenix.memory.core.NativeMemory} or in mapped file. All state
+ * including size is stored in memory, so map over mapped file could be reopened by
+ * {@link #open(MemoryAccessW)} without rebuilding.
+ * </p>
+ *
+ * <p> Memory layout:
+ * <pre>
+ * +--------+---------------------------------------------+
+ * | header | capacity * [key (8 bytes), value (8 bytes)] |
+ * +--------+---------------------------------------------+
+ * </pre>
+ * Collisions are resolved by linear probing. Removed entries are marked by tombstone
+ * and never reused, so entry never moves while the map is alive. Keys which are used
+ * as empty and tombstone markers are stored in header.
+ * </p>
+ *
+ * <p> Map is safe for any number of readers and a single writer: writer publishes
+ * entries by ordered writes and readers use volatile reads. Map never grows by itself,
+ * once {@link #remaining()} is 0 writer has to {@link #resize(MemoryAccessW)} it into
+ * a new memory chunk and hand the new instance to readers.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class LongLongMap {
+
+	/*
+	 * Marks map header, "LLMAP" + layout version
+	 */
+	private static final long MAGIC = 0x4C4C4D4150000001L;
+
+	private static final long MAGIC_OFFSET = 0;
+
+	private static final long CAPACITY_OFFSET = 8;
+
+	private static final long SIZE_OFFSET = 16;
+
+	/*
+	 * Number of non empty slots, i.e entries + tombstones
+	 */
+	private static final long USED_OFFSET = 24;
+
+	/*
+	 * Max number of non empty slots, derived from load factor
+	 */
+	private static final long LIMIT_OFFSET = 32;
+
+	/*
+	 * Presence flags and values of EMPTY and TOMBSTONE keys
+	 */
+	private static final long EMPTY_KEY_OFFSET = 40;
+
+	private static final long EMPTY_VALUE_OFFSET = 48;
+
+	private static final long TOMBSTONE_KEY_OFFSET = 56;
+
+	private static final long TOMBSTONE_VALUE_OFFSET = 64;
+
+	/*
+	 * Header takes two cache lines, so table starts from aligned offset
+	 */
+	private static final long HEADER_SIZE = 128;
+
+	private static final int ENTRY_SHIFT = 4;
+
+	private static final long EMPTY = 0;
+
+	private static final long TOMBSTONE = Long.MIN_VALUE;
+
+	/**
+	 * Default max ratio of used slots to capacity
+	 */
+	public static final double DEFAULT_LOAD_FACTOR = 0.75;
+
+	/**
+	 * Returns memory size needed for the map to hold the given number of entries
+	 *
+	 * @param entries number of entries
+	 * @param loadFactor max ratio of used slots to capacity
+	 * @return size of memory in bytes
+	 */
+	public static long sizeOf(long entries, double loadFactor) {
+		checkLoadFactor(loadFactor);
+
+		long slots = Math.max(2, (long)Math.ceil(entries / loadFactor) + 1);
+		long capacity = Long.highestOneBit(slots - 1) << 1;
+		return HEADER_SIZE + (capacity << ENTRY_SHIFT);
+	}
+
+	/**
+	 * Creates empty map with default load factor in the given memory
+	 *
+	 * @param memory memory to keep map in, whole memory is used
+	 * @return new map
+	 */
+	@NotNull
+	public static LongLongMap create(@NotNull MemoryAccessW memory) {
+		return create(memory, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Creates empty map in the given memory. Capacity is the largest power of
+	 * two which fits memory. Memory content is overwritten
+	 *
+	 * @param memory memory to keep map in
+	 * @param loadFactor max ratio of used slots to capacity
+	 * @return new map
+	 * @throws IllegalArgumentException if memory is too small
+	 */
+	@NotNull
+	public static LongLongMap create(@NotNull MemoryAccessW memory, double loadFactor) {
+		checkLoadFactor(loadFactor);
+
+		long slots = (memory.size() - HEADER_SIZE) >> ENTRY_SHIFT;
+		if (slots < 2) {
+			throw new IllegalArgumentException("Memory is too small for map: "+memory.size());
+		}
+
+		long capacity = Long.highestOneBit(slots);
+		long limit = Math.min(capacity - 1, Math.max(1, (long)(capacity * loadFactor)));
+		memory.fill(0, HEADER_SIZE + (capacity << ENTRY_SHIFT), (byte)0);
+		memory.putLong(CAPACITY_OFFSET, capacity);
+		memory.putLong(LIMIT_OFFSET, limit);
+		memory.putLongVolatile(MAGIC_OFFSET, MAGIC);
+		return new LongLongMap(memory);
+	}
+
+	/**
+	 * Opens map created before in the given memory, i.e in reopened mapped file
+	 *
+	 * @param memory memory map is kept in
+	 * @return map
+	 * @throws IllegalArgumentException if memory does not contain map
+	 */
+	@NotNull
+	public static LongLongMap open(@NotNull MemoryAccessW memory) {
+		if (memory.size() < HEADER_SIZE || memory.getLongVolatile(MAGIC_OFFSET) != MAGIC) {
+			throw new IllegalArgumentException("Memory does not contain map: "+memory);
+		}
+
+		long capacity = memory.getLong(CAPACITY_OFFSET);
+		if (capacity < 2 || Long.bitCount(capacity) != 1 || HEADER_SIZE + (capacity << ENTRY_SHIFT) > memory.size()) {
+			throw new IllegalArgumentException("Map capacity is corrupted: "+capacity);
+		}
+		return new LongLongMap(memory);
+	}
+
+	private static void checkLoadFactor(double loadFactor) {
+		if (!(loadFactor > 0 && loadFactor < 1)) {
+			throw new IllegalArgumentException("Load factor must be in (0, 1): "+loadFactor);
+		}
+	}
+
+	/**
+	 * Spreads key bits, so sequential keys don't form long probe chains
+	 * (murmur3 finalizer)
+	 */
+	private static long hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+	private final @NotNull MemoryAccessW memory;
+
+	/*
+	 * Capacity - 1
+	 */
+	private final long mask;
+
+	private final long limit;
+
+	private LongLongMap(@NotNull MemoryAccessW memory) {
+		this.memory = memory;
+		this.mask = memory.getLong(CAPACITY_OFFSET) - 1;
+		this.limit = memory.getLong(LIMIT_OFFSET);
+	}
+
+	/**
+	 * Returns memory map is kept in
+	 *
+	 * @return map memory
+	 */
+	public MemoryAccessW getMemory() {
+		return memory;
+	}
+
+	/**
+	 * Returns number of slots in table
+	 *
+	 * @return capacity
+	 */
+	public long capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Returns number of entries
+	 *
+	 * @return map size
+	 */
+	public long size() {
+		return memory.getLongVolatile(SIZE_OFFSET);
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns number of new keys which could be put before map must be resized.
+	 * Removed keys are not reclaimed until resize
+	 *
+	 * @return number of free slots
+	 */
+	public long remaining() {
+		return limit - memory.getLongVolatile(USED_OFFSET);
+	}
+
+	/**
+	 * Returns value of the given key
+	 *
+	 * @param key key
+	 * @param missing value to return if there is no such key
+	 * @return key value or missing
+	 */
+	public long get(long key, long missing) {
+		if (key == EMPTY || key == TOMBSTONE) {
+			long flag = key == EMPTY ? EMPTY_KEY_OFFSET : TOMBSTONE_KEY_OFFSET;
+			return memory.getLongVolatile(flag) != 0 ? memory.getLongVolatile(flag + 8) : missing;
+		}
+
+		for (long slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+			long address = HEADER_SIZE + (slot << ENTRY_SHIFT);
+			long k = memory.getLongVolatile(address);
+			if (k == key) {
+				return memory.getLongVolatile(address + 8);
+			} else if (k == EMPTY) {
+				return missing;
+			}
+		}
+	}
+
+	/**
+	 * Checks if map contains the given key
+	 *
+	 * @param key key
+	 * @return true if map has that key
+	 */
+	public boolean containsKey(long key) {
+		if (key == EMPTY) {
+			return memory.getLongVolatile(EMPTY_KEY_OFFSET) != 0;
+		} else if (key == TOMBSTONE) {
+			return memory.getLongVolatile(TOMBSTONE_KEY_OFFSET) != 0;
+		}
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Associates value with the given key
+	 *
+	 * @param key key
+	 * @param value value
+	 * @return true if key is new, false if its value is replaced
+	 * @throws IllegalStateException if key is new and map has no free slots
+	 */
+	public boolean put(long key, long value) {
+		if (key == EMPTY || key == TOMBSTONE) {
+			long flag = key == EMPTY ? EMPTY_KEY_OFFSET : TOMBSTONE_KEY_OFFSET;
+			memory.putOrderedLong(flag + 8, value);
+			if (memory.getLong(flag) != 0) {
+				return false;
+			}
+			memory.putOrderedLong(flag, 1);
+			memory.putOrderedLong(SIZE_OFFSET, memory.getLong(SIZE_OFFSET) + 1);
+			return true;
+		}
+
+		long slot = hash(key) & mask;
+		for (;; slot = (slot + 1) & mask) {
+			long address = HEADER_SIZE + (slot << ENTRY_SHIFT);
+			long k = memory.getLong(address);
+			if (k == key) {
+				memory.putOrderedLong(address + 8, value);
+				return false;
+			} else if (k == EMPTY) {
+				break;
+			}
+		}
+
+		long used = memory.getLong(USED_OFFSET);
+		if (used >= limit) {
+			throw new IllegalStateException("Map has no free slots, it must be resized: size="+size()+", capacity="+capacity());
+		}
+
+		// Value must be visible before key, so reader never sees key
+		// with garbage value
+		long address = HEADER_SIZE + (slot << ENTRY_SHIFT);
+		memory.putLong(address + 8, value);
+		memory.putOrderedLong(address, key);
+		memory.putOrderedLong(USED_OFFSET, used + 1);
+		memory.putOrderedLong(SIZE_OFFSET, memory.getLong(SIZE_OFFSET) + 1);
+		return true;
+	}
+
+	/**
+	 * Removes the given key. Slot of the key is not reused until resize
+	 *
+	 * @param key key
+	 * @return true if key was in map
+	 */
+	public boolean remove(long key) {
+		if (key == EMPTY || key == TOMBSTONE) {
+			long flag = key == EMPTY ? EMPTY_KEY_OFFSET : TOMBSTONE_KEY_OFFSET;
+			if (memory.getLong(flag) == 0) {
+				return false;
+			}
+			memory.putOrderedLong(flag, 0);
+			memory.putOrderedLong(SIZE_OFFSET, memory.getLong(SIZE_OFFSET) - 1);
+			return true;
+		}
+
+		long address = find(key);
+		if (address < 0) {
+			return false;
+		}
+
+		memory.putOrderedLong(address, TOMBSTONE);
+		memory.putOrderedLong(SIZE_OFFSET, memory.getLong(SIZE_OFFSET) - 1);
+		return true;
+	}
+
+	/**
+	 * Removes all entries
+	 */
+	public void clear() {
+		memory.fill(HEADER_SIZE, capacity() << ENTRY_SHIFT, (byte)0);
+		memory.fill(SIZE_OFFSET, 16, (byte)0);
+		memory.fill(EMPTY_KEY_OFFSET, HEADER_SIZE - EMPTY_KEY_OFFSET, (byte)0);
+	}
+
+	/**
+	 * Copies all entries to a new map in the given memory. Tombstones are dropped.
+	 * That map stays valid, so readers could use it until new map is published
+	 *
+	 * @param target memory for the new map, see {@link #sizeOf(long, double)}
+	 * @return new map
+	 * @throws IllegalStateException if entries do not fit the new map
+	 */
+	@NotNull
+	public LongLongMap resize(@NotNull MemoryAccessW target) {
+		final LongLongMap result = create(target, (double)limit / capacity());
+		if (result.limit < size()) {
+			throw new IllegalStateException("Map of "+size()+" entries does not fit "+target.size()+" bytes");
+		}
+
+		forEach(new EntryVisitor() {
+			@Override
+			public void visit(long key, long value) {
+				result.put(key, value);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Calls visitor for each entry. Order of entries is not defined
+	 *
+	 * @param visitor entry visitor
+	 */
+	public void forEach(@NotNull EntryVisitor visitor) {
+		if (memory.getLongVolatile(EMPTY_KEY_OFFSET) != 0) {
+			visitor.visit(EMPTY, memory.getLongVolatile(EMPTY_VALUE_OFFSET));
+		}
+		if (memory.getLongVolatile(TOMBSTONE_KEY_OFFSET) != 0) {
+			visitor.visit(TOMBSTONE, memory.getLongVolatile(TOMBSTONE_VALUE_OFFSET));
+		}
+
+		for (long slot = 0; slot <= mask; slot++) {
+			long address = HEADER_SIZE + (slot << ENTRY_SHIFT);
+			long key = memory.getLongVolatile(address);
+			if (key != EMPTY && key != TOMBSTONE) {
+				visitor.visit(key, memory.getLongVolatile(address + 8));
+			}
+		}
+	}
+
+	/*
+	 * Returns address of the key entry or -1
+	 */
+	private long find(long key) {
+		for (long slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+			long address = HEADER_SIZE + (slot << ENTRY_SHIFT);
+			long k = memory.getLongVolatile(address);
+			if (k == key) {
+				return address;
+			} else if (k == EMPTY) {
+				return -1;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "LongLongMap [size="+size()
+				+", capacity="+capacity()
+				+", memory="+memory
+				+"]";
+	}
+
+	/**
+	 * Map entries visitor
+	 */
+	public interface EntryVisitor {
+
+		public void visit(long key, long value);
+	}
+}
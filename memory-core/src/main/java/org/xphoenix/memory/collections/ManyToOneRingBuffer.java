@@ -0,0 +1,80 @@
+package org.xphoenix.memory.collections;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Ring buffer with many producers and single consumer. Producers reserve records
+ * by CAS on tail, so they could live in different threads or processes
+ *
+ * @author andrphi
+ */
+public final class ManyToOneRingBuffer extends RingBuffer {
+
+	static final int PRODUCER = 2;
+
+	/**
+	 * Initializes new empty ring in memory, previous memory content is lost
+	 *
+	 * @param memory memory to keep ring in
+	 * @return ring over memory
+	 */
+	public static ManyToOneRingBuffer create(@NotNull MemoryAccessW memory) {
+		init(memory, PRODUCER);
+		return new ManyToOneRingBuffer(memory);
+	}
+
+	/**
+	 * Opens ring created before, i.e. by other process over the same mapped file
+	 *
+	 * @param memory memory ring is kept in
+	 * @return ring over memory
+	 */
+	public static ManyToOneRingBuffer open(@NotNull MemoryAccessW memory) {
+		check(memory, PRODUCER);
+		return new ManyToOneRingBuffer(memory);
+	}
+
+	/*
+	 * Last known consumer position, shared by producer threads
+	 */
+	private volatile long headCache;
+
+	private ManyToOneRingBuffer(@NotNull MemoryAccessW memory) {
+		super(memory);
+		this.headCache = memory.getLongVolatile(HEAD_OFFSET);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.collections.RingBuffer#reserve(int)
+	 */
+	@Override
+	long reserve(int record) {
+		long head = headCache;
+		long tail;
+		int toEnd;
+		int required;
+
+		do {
+			tail = memory.getLongVolatile(TAIL_OFFSET);
+			toEnd = capacity - (int)(tail & mask);
+			required = record > toEnd ? toEnd + record : record;
+
+			if (tail + required - head > capacity) {
+				head = memory.getLongVolatile(HEAD_OFFSET);
+				if (tail + required - head > capacity) {
+					return -1;
+				}
+				headCache = head;
+			}
+		} while (!memory.compareAndSwap(TAIL_OFFSET, tail, tail + required));
+
+		// Record is reserved, but consumer stops on its zero length till
+		// header is written
+		if (required != record) {
+			padding(tail, toEnd);
+			tail += toEnd;
+		}
+		return tail;
+	}
+}
@@ -0,0 +1,73 @@
+package org.xphoenix.memory.collections;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Ring buffer with single producer and single consumer. Producer moves tail by
+ * ordered writes and re-reads consumer head only when cached one says ring is full
+ *
+ * @author andrphi
+ */
+public final class OneToOneRingBuffer extends RingBuffer {
+
+	static final int PRODUCER = 1;
+
+	/**
+	 * Initializes new empty ring in memory, previous memory content is lost
+	 *
+	 * @param memory memory to keep ring in
+	 * @return ring over memory
+	 */
+	public static OneToOneRingBuffer create(@NotNull MemoryAccessW memory) {
+		init(memory, PRODUCER);
+		return new OneToOneRingBuffer(memory);
+	}
+
+	/**
+	 * Opens ring created before, i.e. by other process over the same mapped file
+	 *
+	 * @param memory memory ring is kept in
+	 * @return ring over memory
+	 */
+	public static OneToOneRingBuffer open(@NotNull MemoryAccessW memory) {
+		check(memory, PRODUCER);
+		return new OneToOneRingBuffer(memory);
+	}
+
+	/*
+	 * Last known consumer position
+	 */
+	private long headCache;
+
+	private OneToOneRingBuffer(@NotNull MemoryAccessW memory) {
+		super(memory);
+		this.headCache = memory.getLongVolatile(HEAD_OFFSET);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.collections.RingBuffer#reserve(int)
+	 */
+	@Override
+	long reserve(int record) {
+		long tail = memory.getLong(TAIL_OFFSET);
+		int toEnd = capacity - (int)(tail & mask);
+		int required = record > toEnd ? toEnd + record : record;
+
+		if (tail + required - headCache > capacity) {
+			headCache = memory.getLongVolatile(HEAD_OFFSET);
+			if (tail + required - headCache > capacity) {
+				return -1;
+			}
+		}
+
+		// Consumer stops on zero length of the reserved record, so tail could
+		// be moved before its header is written
+		if (required != record) {
+			padding(tail, toEnd);
+			tail += toEnd;
+		}
+		memory.putOrderedLong(TAIL_OFFSET, tail + record);
+		return tail;
+	}
+}
@@ -0,0 +1,423 @@
+package org.xphoenix.memory.collections;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.core.MemoryAccessR;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Lock free ring buffer of variable length messages which lives entirely in a
+ * memory chunk
+ *
+ * <p> Header and messages are stored in memory, so ring over mapped file could be
+ * used to pass messages between processes. Memory layout:
+ * <pre>
+ * +--------+------------+------------+---------------------------+
+ * | header | tail (pad) | head (pad) | capacity bytes of records |
+ * +--------+------------+------------+---------------------------+
+ * </pre>
+ * Tail and head counters take separate 128 bytes blocks, so producer and consumer
+ * never share cache line (adjacent line prefetch included). Each record is
+ * <code>[length (4 bytes), type (4 bytes), payload]</code> aligned by 8 bytes.
+ * Record which doesn't fit till the ring end is preceded by padding record.
+ * </p>
+ *
+ * <p> Producer claims record, fills its payload and commits it. Record is published
+ * by ordered write of its length, so consumer never sees partially written message.
+ * Producer could also claim one region for a batch of records by {@link #tryClaim(int)},
+ * fill it by {@link #append(long, int, int)} and publish all of them by one
+ * {@link #commitBatch(long, long)}. Consumer handles all available records and
+ * moves head once per batch.
+ * See {@link OneToOneRingBuffer} and {@link ManyToOneRingBuffer} for producer
+ * variants. There must be only one consumer.
+ * </p>
+ *
+ * @author andrphi
+ */
+public abstract class RingBuffer {
+
+	/*
+	 * Marks ring header, "RING" + layout version
+	 */
+	private static final long MAGIC = 0x52494E4700000001L;
+
+	static final long MAGIC_OFFSET = 0;
+
+	static final long CAPACITY_OFFSET = 8;
+
+	/*
+	 * Producer variant, ring must be opened by the same one it is created
+	 */
+	static final long PRODUCER_OFFSET = 16;
+
+	static final long TAIL_OFFSET = 128;
+
+	static final long HEAD_OFFSET = 256;
+
+	static final long HEADER_SIZE = 384;
+
+	/*
+	 * Record header: length and type
+	 */
+	static final int RECORD_HEADER = 8;
+
+	static final int ALIGNMENT = 8;
+
+	/*
+	 * Type of padding records
+	 */
+	static final int PADDING = -1;
+
+	/**
+	 * Returns memory size needed for ring of the given capacity
+	 *
+	 * @param capacity ring capacity, power of two
+	 * @return size of memory in bytes
+	 */
+	public static long sizeOf(long capacity) {
+		if (capacity < 64 || (capacity & (capacity - 1)) != 0 || capacity > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Ring capacity must be a power of two in [64, 2^30]: "+capacity);
+		}
+		return HEADER_SIZE + capacity;
+	}
+
+	/*
+	 * Initializes ring header in memory, capacity is the largest power of two
+	 * which fits memory
+	 */
+	static void init(@NotNull MemoryAccessW memory, int producer) {
+		long available = Math.min(memory.size() - HEADER_SIZE, 1L << 30);
+		if (available < 64) {
+			throw new IllegalArgumentException("Memory is too small for ring: "+memory.size());
+		}
+
+		long capacity = Long.highestOneBit(available);
+		memory.fill(0, HEADER_SIZE + capacity, (byte)0);
+		memory.putLong(CAPACITY_OFFSET, capacity);
+		memory.putLong(PRODUCER_OFFSET, producer);
+		memory.putLongVolatile(MAGIC_OFFSET, MAGIC);
+	}
+
+	/*
+	 * Validates ring header in memory
+	 */
+	static void check(@NotNull MemoryAccessW memory, int producer) {
+		if (memory.size() < HEADER_SIZE || memory.getLongVolatile(MAGIC_OFFSET) != MAGIC) {
+			throw new IllegalArgumentException("Memory does not contain ring: "+memory);
+		}
+
+		long capacity = memory.getLong(CAPACITY_OFFSET);
+		if (capacity < 64 || Long.bitCount(capacity) != 1 || HEADER_SIZE + capacity > memory.size()) {
+			throw new IllegalArgumentException("Ring capacity is corrupted: "+capacity);
+		} else if (memory.getLong(PRODUCER_OFFSET) != producer) {
+			throw new IllegalArgumentException("Ring is created for other producer variant: "+memory.getLong(PRODUCER_OFFSET));
+		}
+	}
+
+	static int align(int length) {
+		return (length + ALIGNMENT - 1) & -ALIGNMENT;
+	}
+
+	/**
+	 * Returns number of ring bytes taken by message, including record header
+	 * and alignment
+	 *
+	 * @param length payload length
+	 * @return record size in bytes
+	 */
+	public static int recordSize(int length) {
+		return align(length + RECORD_HEADER);
+	}
+
+	protected final @NotNull MemoryAccessW memory;
+
+	protected final int capacity;
+
+	/*
+	 * Capacity - 1
+	 */
+	protected final int mask;
+
+	/**
+	 * Creates ring over memory initialized before
+	 *
+	 * @param memory memory ring is kept in
+	 */
+	protected RingBuffer(@NotNull MemoryAccessW memory) {
+		this.memory = memory;
+		this.capacity = (int)memory.getLong(CAPACITY_OFFSET);
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Returns memory ring is kept in
+	 *
+	 * @return ring memory
+	 */
+	public MemoryAccessW getMemory() {
+		return memory;
+	}
+
+	/**
+	 * Returns number of bytes available for records
+	 *
+	 * @return ring capacity
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns max payload length of one message
+	 *
+	 * @return max message length
+	 */
+	public int maxMessageLength() {
+		return (capacity >> 3) - RECORD_HEADER;
+	}
+
+	/**
+	 * Returns number of bytes taken by records which are not consumed yet,
+	 * including claimed but not committed records
+	 *
+	 * @return used bytes
+	 */
+	public long size() {
+		// Head first, otherwise head could pass read tail
+		long head = memory.getLongVolatile(HEAD_OFFSET);
+		return memory.getLongVolatile(TAIL_OFFSET) - head;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Claims record for the message. Caller must write payload to the returned
+	 * region and {@link #commit(long)} it, consumer is blocked on that record
+	 * till commit
+	 *
+	 * @param type message type, must not be negative
+	 * @param length payload length
+	 * @return index in {@link #getMemory()} of the first payload byte or -1 if ring is full
+	 */
+	public long claim(int type, int length) {
+		int record = recordLength(type, length);
+		long tail = reserve(record);
+		return tail < 0 ? -1 : claimed(tail, type, length);
+	}
+
+	/**
+	 * Claims continuous region for batch of records. Caller writes records by
+	 * {@link #append(long, int, int)} one after other starting from the returned
+	 * index, next record starts {@link #recordSize(int)} bytes after the previous
+	 * one. Consumer is blocked on the batch till {@link #commitBatch(long, long)}
+	 *
+	 * @param bytes total size of batch records, multiple of 8 not greater then
+	 *        {@link #maxMessageLength()}
+	 * @return index in {@link #getMemory()} of the first batch record or -1 if ring is full
+	 */
+	public long tryClaim(int bytes) {
+		if (bytes <= 0 || bytes > maxMessageLength() || (bytes & (ALIGNMENT - 1)) != 0) {
+			throw new IllegalArgumentException("Batch length must be a multiple of "+ALIGNMENT+" in [8, "+maxMessageLength()+"]: "+bytes);
+		}
+
+		// Batch is preceded by padding record which keeps consumer till commit
+		long tail = reserve(bytes + RECORD_HEADER);
+		return tail < 0 ? -1 : claimed(tail, PADDING, bytes);
+	}
+
+	/**
+	 * Writes header of the next record of the batch claimed by {@link #tryClaim(int)}.
+	 * Record is published by {@link #commitBatch(long, long)}
+	 *
+	 * @param record index of the record, batch start or previous record index plus its {@link #recordSize(int)}
+	 * @param type message type, must not be negative
+	 * @param length payload length
+	 * @return index in {@link #getMemory()} of the first payload byte
+	 */
+	public long append(long record, int type, int length) {
+		recordLength(type, length);
+		memory.putInt(record + 4, type);
+		memory.putInt(record, length + RECORD_HEADER);
+		return record + RECORD_HEADER;
+	}
+
+	/**
+	 * Publishes records of the batch to consumer, the rest of claimed region is
+	 * skipped
+	 *
+	 * @param batch index returned by {@link #tryClaim(int)}
+	 * @param end index after the last batch record, batch start if batch is empty
+	 * @throws IllegalArgumentException if records do not fit claimed region
+	 */
+	public void commitBatch(long batch, long end) {
+		long header = batch - RECORD_HEADER;
+		long claimed = -memory.getInt(header) - RECORD_HEADER;
+		long used = end - batch;
+		if (used < 0 || used > claimed || (used & (ALIGNMENT - 1)) != 0) {
+			throw new IllegalArgumentException("Batch records take "+used+" bytes of "+claimed+" claimed");
+		}
+
+		if (used < claimed) {
+			memory.putInt(end + 4, PADDING);
+			memory.putInt(end, (int)(claimed - used));
+		}
+		// Header becomes empty padding record, ordered write publishes records
+		// written before
+		memory.putOrderedInt(header, RECORD_HEADER);
+	}
+
+	/**
+	 * Publishes claimed record to consumer
+	 *
+	 * @param index index returned by {@link #claim(int, int)}
+	 */
+	public void commit(long index) {
+		long record = index - RECORD_HEADER;
+		memory.putOrderedInt(record, -memory.getInt(record));
+	}
+
+	/**
+	 * Writes message to the ring
+	 *
+	 * @param type message type, must not be negative
+	 * @param src array to copy payload from
+	 * @param offset index of the first array byte
+	 * @param length payload length
+	 * @return false if ring is full
+	 */
+	public boolean write(int type, @NotNull byte[] src, int offset, int length) {
+		long index = claim(type, length);
+		if (index < 0) {
+			return false;
+		}
+
+		memory.putBuffer(index, src, offset, length);
+		commit(index);
+		return true;
+	}
+
+	/**
+	 * Writes message to the ring
+	 *
+	 * @param type message type, must not be negative
+	 * @param src memory to copy payload from
+	 * @param srcIndex index of the first payload byte
+	 * @param length payload length
+	 * @return false if ring is full
+	 */
+	public boolean write(int type, @NotNull MemoryAccessR src, long srcIndex, int length) {
+		long index = claim(type, length);
+		if (index < 0) {
+			return false;
+		}
+
+		src.copyTo(srcIndex, memory, index, length);
+		commit(index);
+		return true;
+	}
+
+	/**
+	 * Passes available messages to handler, stops on the first not committed
+	 * record. Must be called by the single consumer only
+	 *
+	 * @param handler message handler
+	 * @param limit max number of messages to handle
+	 * @return number of handled messages
+	 */
+	public int read(@NotNull MessageHandler handler, int limit) {
+		long head = memory.getLong(HEAD_OFFSET);
+		int messages = 0;
+		int bytes = 0;
+		try {
+			while (messages < limit && bytes < capacity) {
+				long record = HEADER_SIZE + ((head + bytes) & mask);
+				int length = memory.getIntVolatile(record);
+				if (length <= 0) {
+					break;
+				}
+
+				bytes += align(length);
+				int type = memory.getInt(record + 4);
+				if (type != PADDING) {
+					messages++;
+					handler.onMessage(type, memory, record + RECORD_HEADER, length - RECORD_HEADER);
+				}
+			}
+		} finally {
+			if (bytes > 0) {
+				// Producers detect free record by zero length, so consumed records
+				// must be cleared before head is moved
+				int offset = (int)(head & mask);
+				int first = Math.min(bytes, capacity - offset);
+				memory.fill(HEADER_SIZE + offset, first, (byte)0);
+				memory.fill(HEADER_SIZE, bytes - first, (byte)0);
+				memory.putOrderedLong(HEAD_OFFSET, head + bytes);
+			}
+		}
+		return messages;
+	}
+
+	/*
+	 * Reserves record of the given aligned length, pads ring end if record does
+	 * not fit it. Returns position of the record or -1 if ring is full
+	 */
+	abstract long reserve(int record);
+
+	/*
+	 * Validates claim arguments and returns aligned record length
+	 */
+	int recordLength(int type, int length) {
+		if (type < 0) {
+			throw new IllegalArgumentException("Message type must not be negative: "+type);
+		} else if (length < 0 || length > maxMessageLength()) {
+			throw new IllegalArgumentException("Message length must be in [0, "+maxMessageLength()+"]: "+length);
+		}
+		return align(length + RECORD_HEADER);
+	}
+
+	/*
+	 * Writes claimed record header at the given position. Length is negative
+	 * till commit, so consumer stops on it
+	 */
+	long claimed(long tail, int type, int length) {
+		long record = HEADER_SIZE + (tail & mask);
+		memory.putInt(record + 4, type);
+		memory.putOrderedInt(record, -(length + RECORD_HEADER));
+		return record + RECORD_HEADER;
+	}
+
+	/*
+	 * Writes committed padding record from the given position till ring end
+	 */
+	void padding(long tail, int length) {
+		long record = HEADER_SIZE + (tail & mask);
+		memory.putInt(record + 4, PADDING);
+		memory.putOrderedInt(record, length);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" [capacity="+capacity
+				+", size="+size()
+				+", memory="+memory
+				+"]";
+	}
+
+	/**
+	 * Consumer callback
+	 */
+	public interface MessageHandler {
+
+		/**
+		 * Handles one message. Payload region is reused by producers after
+		 * return, so it must not be referenced later
+		 *
+		 * @param type message type
+		 * @param memory ring memory
+		 * @param index index of the first payload byte
+		 * @param length payload length
+		 */
+		public void onMessage(int type, @NotNull MemoryAccessR memory, long index, int length);
+	}
+}
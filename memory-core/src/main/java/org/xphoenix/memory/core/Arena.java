@@ -0,0 +1,144 @@
+package org.xphoenix.memory.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Bump pointer allocator over one large memory chunk
+ *
+ * <p> Arena carves regions out of its memory sequentially and never frees them one
+ * by one, instead all regions are reclaimed at once by {@link #reset()}. Regions
+ * are returned either as slice views or, to avoid any garbage, as offsets in the
+ * arena memory to be used with {@link MemoryAccessFlyweight}.
+ * </p>
+ *
+ * <p> Arena is not thread safe, it is meant to be used as per thread/per request
+ * scratch space. Memory of regions is not cleared on reset.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class Arena {
+
+	/*
+	 * Memory to allocate regions from
+	 */
+	private final @NotNull MemoryAccessW memory;
+
+	/*
+	 * Offset of the first free byte
+	 */
+	private long position;
+
+	/**
+	 * Creates arena over the given memory chunk
+	 *
+	 * @param memory memory to allocate regions from, i.e heap, direct or mapped
+	 */
+	public Arena(@NotNull MemoryAccessW memory) {
+		this.memory = memory;
+	}
+
+	/**
+	 * Returns memory regions are allocated from
+	 *
+	 * @return arena memory
+	 */
+	public MemoryAccessW getMemory() {
+		return memory;
+	}
+
+	/**
+	 * Returns arena capacity
+	 *
+	 * @return total number of bytes
+	 */
+	public long capacity() {
+		return memory.size();
+	}
+
+	/**
+	 * Returns number of allocated bytes, including alignment padding
+	 *
+	 * @return allocated bytes
+	 */
+	public long used() {
+		return position;
+	}
+
+	/**
+	 * Returns number of bytes available for allocation
+	 *
+	 * @return free bytes
+	 */
+	public long remaining() {
+		return memory.size() - position;
+	}
+
+	/**
+	 * Allocates region and returns view over it
+	 *
+	 * @param size region size in bytes
+	 * @return view over allocated region
+	 * @throws IllegalStateException if arena has not enough free space
+	 */
+	@NotNull
+	public MemoryAccessW allocate(long size) {
+		return allocate(size, 1);
+	}
+
+	/**
+	 * Allocates region with the start offset aligned by the given number of bytes
+	 * and returns view over it
+	 *
+	 * @param size region size in bytes
+	 * @param alignment power of two alignment, relative to arena memory start
+	 * @return view over allocated region
+	 * @throws IllegalStateException if arena has not enough free space
+	 */
+	@NotNull
+	public MemoryAccessW allocate(long size, long alignment) {
+		long offset = allocateOffset(size, alignment);
+		return memory.slice(offset, size);
+	}
+
+	/**
+	 * Allocates region and returns its offset in arena memory. Does not
+	 * create any objects
+	 *
+	 * @param size region size in bytes
+	 * @param alignment power of two alignment, relative to arena memory start
+	 * @return index of the first region byte in {@link #getMemory()}
+	 * @throws IllegalStateException if arena has not enough free space
+	 */
+	public long allocateOffset(long size, long alignment) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Region size must be positive: "+size);
+		} else if (alignment <= 0 || (alignment & (alignment - 1)) != 0) {
+			throw new IllegalArgumentException("Alignment must be a power of two: "+alignment);
+		}
+
+		long offset = (position + alignment - 1) & -alignment;
+		if (offset + size > memory.size()) {
+			throw new IllegalStateException("Arena has no "+size+" bytes left: used="+position+", capacity="+memory.size());
+		}
+
+		position = offset + size;
+		return offset;
+	}
+
+	/**
+	 * Reclaims all allocated regions. Views returned before must not be
+	 * used after that call, as their memory will be given out again
+	 */
+	public void reset() {
+		position = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "Arena [used="+position
+				+", capacity="+memory.size()
+				+", memory="+memory
+				+"]";
+	}
+}
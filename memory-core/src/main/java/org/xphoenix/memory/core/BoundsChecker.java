@@ -6,6 +6,14 @@ public enum BoundsChecker {
 		@Override
 		public void checkBounds (long index, long size) {
 		}		
+
+		@Override
+		public void checkBounds (long index, long length, long size) {
+		}		
+
+		@Override
+		public void checkAlignment (long index, int width) {
+		}
 	},
 	
 	REAL {
@@ -15,9 +23,78 @@ public enum BoundsChecker {
 				throw new ArrayIndexOutOfBoundsException();
 			}
 		}		
+
+		@Override
+		public void checkBounds (long index, long length, long size) {
+			if (index < 0 || length < 0 || index + length > size) {
+				throw new ArrayIndexOutOfBoundsException();
+			}
+		}		
+
+		@Override
+		public void checkAlignment (long index, int width) {
+			if ((index & (width - 1)) != 0) {
+				throw new IllegalArgumentException("Unaligned atomic access: index="+index+", width="+width);
+			}
+		}
 	};
 	
 	public void checkBounds (long index, long size) {
 		throw new RuntimeException("Method must be implemented in childs");
 	}
+
+	/**
+	 * Checks that [index, index + length) range is within [0, size)
+	 *
+	 * @param index range start
+	 * @param length range length
+	 * @param size number of addressable bytes
+	 */
+	public void checkBounds (long index, long length, long size) {
+		throw new RuntimeException("Method must be implemented in childs");
+	}
+
+	/**
+	 * Checks that index is multiple of the value width. Used by memory which
+	 * start is known to be aligned, so aligned index means aligned address
+	 *
+	 * @param index index of the value
+	 * @param width value size in bytes, power of two
+	 * @throws IllegalArgumentException if index is not aligned
+	 */
+	public void checkAlignment (long index, int width) {
+		throw new RuntimeException("Method must be implemented in childs");
+	}
+
+	/**
+	 * Checks that [offset, offset + length) region is within memory bounds. Unlike
+	 * {@link #checkBounds(long, long, long)} check is done regardless of configured
+	 * checker, it is used for operations which are not on the hot path
+	 *
+	 * @param offset region start
+	 * @param length region length
+	 * @param size memory size
+	 * @throws IndexOutOfBoundsException if region is out of memory bounds
+	 */
+	public static void checkRegion (long offset, long length, long size) {
+		if (offset < 0 || length < 0 || offset + length > size) {
+			throw new IndexOutOfBoundsException("Region ["+offset+", "+(offset+length)+") is out of memory bounds: "+size);
+		}
+	}
+
+	/**
+	 * Checks that [offset, offset + length) range is within java array. Must be
+	 * done for any bulk Unsafe copy regardless of configured checker, as invalid
+	 * range corrupts heap
+	 *
+	 * @param arrayLength array length
+	 * @param offset range start
+	 * @param length range length
+	 * @throws ArrayIndexOutOfBoundsException if range is out of array bounds
+	 */
+	public static void checkArray (int arrayLength, int offset, int length) {
+		if (offset < 0 || length < 0 || offset > arrayLength - length) {
+			throw new ArrayIndexOutOfBoundsException("Range ["+offset+", "+((long)offset+length)+") is out of array bounds: "+arrayLength);
+		}
+	}
 }
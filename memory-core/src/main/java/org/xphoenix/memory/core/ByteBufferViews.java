@@ -0,0 +1,189 @@
+package org.xphoenix.memory.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.UnsafeUtils;
+
+/**
+ * Reusable holder of ByteBuffer views over memory ranges
+ *
+ * <p> Views are filled by {@link MemoryAccessW#toByteBuffer(long, long, ByteBufferViews)}
+ * and kept after {@link #clear()}, so next fill reuses them: off heap views
+ * are re-pointed to the new region and heap views are reused while they wrap
+ * the same array. Steady state I/O over the same memory creates no garbage at
+ * all, see {@link MemoryChannels}.
+ * </p>
+ *
+ * <p> Views are valid until the holder is refilled. Like JDK buffer views they
+ * refer memory they are created from, so it is not collected while they are
+ * in use, but explicitly freed memory must not be accessed through them. Holder
+ * is not thread safe.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class ByteBufferViews {
+
+	/*
+	 * Views, first count of them are filled and the rest are kept for reuse
+	 */
+	private @NotNull ByteBuffer[] buffers;
+
+	private int count;
+
+	public ByteBufferViews() {
+		this(4);
+	}
+
+	/**
+	 * Creates holder
+	 *
+	 * @param capacity expected number of views
+	 */
+	public ByteBufferViews(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: "+capacity);
+		}
+		this.buffers = new ByteBuffer[capacity];
+	}
+
+	/**
+	 * Removes all views, view objects are kept for reuse
+	 *
+	 * @return this holder
+	 */
+	@NotNull
+	public ByteBufferViews clear() {
+		count = 0;
+		return this;
+	}
+
+	/**
+	 * Returns number of filled views
+	 *
+	 * @return views count
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Returns filled view
+	 *
+	 * @param i view index
+	 * @return view
+	 * @throws IndexOutOfBoundsException if there is no such view
+	 */
+	@NotNull
+	public ByteBuffer get(int i) {
+		if (i < 0 || i >= count) {
+			throw new IndexOutOfBoundsException("View "+i+" is out of [0, "+count+")");
+		}
+		return buffers[i];
+	}
+
+	/**
+	 * Returns backing array of views, only first {@link #count()} elements are
+	 * valid. Array could be passed to gathering or scattering channel as is
+	 *
+	 * @return views array
+	 */
+	@NotNull
+	public ByteBuffer[] buffers() {
+		return buffers;
+	}
+
+	/**
+	 * Returns total number of bytes remaining in filled views
+	 *
+	 * @return remaining bytes
+	 */
+	public long remaining() {
+		long result = 0;
+		for (int i=0; i < count; i++) {
+			result += buffers[i].remaining();
+		}
+		return result;
+	}
+
+	/**
+	 * Copies filled views to a new array
+	 *
+	 * @return views array
+	 */
+	@NotNull
+	public ByteBuffer[] toArray() {
+		return Arrays.copyOf(buffers, count);
+	}
+
+	/**
+	 * Refills holder by views of the given range and passes them to visitor
+	 *
+	 * @param memory memory to visit
+	 * @param index index of the first byte
+	 * @param length range size in bytes
+	 * @param visitor callback for views
+	 * @return true if all views are visited, false if visitor stopped iteration
+	 * @throws IndexOutOfBoundsException if range is out of memory bounds
+	 */
+	public boolean forEachByteBuffer(@NotNull MemoryAccessW memory, long index, long length, @NotNull ByteBufferVisitor visitor) {
+		clear();
+		memory.toByteBuffer(index, length, this);
+		for (int i=0; i < count; i++) {
+			if (!visitor.visit(buffers[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Appends view over part of byte array
+	 *
+	 * @param array array to view
+	 * @param offset index of the first byte
+	 * @param length number of bytes
+	 */
+	void add(@NotNull byte[] array, int offset, int length) {
+		ByteBuffer buf = next();
+		if (buf == null || buf.isDirect() || buf.array() != array) {
+			buf = ByteBuffer.wrap(array);
+			buffers[count] = buf;
+		} else {
+			buf.clear();
+			buf.order(ByteOrder.BIG_ENDIAN);
+		}
+		buf.limit(offset + length).position(offset);
+		count++;
+	}
+
+	/**
+	 * Appends view over raw memory region
+	 *
+	 * @param address region start address
+	 * @param length region size
+	 * @param owner memory owning region, kept alive by view
+	 */
+	void add(long address, int length, @NotNull Object owner) {
+		ByteBuffer buf = next();
+		if (buf == null || !buf.isDirect()) {
+			buffers[count] = UnsafeUtils.newDirectByteBuffer(address, length, owner);
+		} else {
+			UnsafeUtils.repointDirectByteBuffer(buf, address, length, owner);
+		}
+		count++;
+	}
+
+	/*
+	 * Returns view to reuse for the next slot, null if there is none
+	 */
+	private ByteBuffer next() {
+		if (count == buffers.length) {
+			buffers = Arrays.copyOf(buffers, count * 2);
+		}
+		return buffers[count];
+	}
+}
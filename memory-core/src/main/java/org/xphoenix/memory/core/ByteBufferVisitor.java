@@ -0,0 +1,22 @@
+package org.xphoenix.memory.core;
+
+import java.nio.ByteBuffer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Callback receiving ByteBuffer views of memory range one by one
+ *
+ * @see ByteBufferViews#forEachByteBuffer(MemoryAccessW, long, long, ByteBufferVisitor)
+ * @author andrphi
+ */
+public interface ByteBufferVisitor {
+
+	/**
+	 * Handles next view of the range
+	 *
+	 * @param buffer view positioned to the range part, valid until views are refilled
+	 * @return true to continue, false to stop iteration
+	 */
+	public boolean visit(@NotNull ByteBuffer buffer);
+}
@@ -56,12 +56,12 @@ public enum ByteOrderConvertor {
 
 		@Override
 		public final double decode(double value) {
-			return Double.longBitsToDouble(Long.reverseBytes(Double.doubleToLongBits(value)));
+			return Double.longBitsToDouble(Long.reverseBytes(Double.doubleToRawLongBits(value)));
 		}
 
 		@Override
 		public final float decode(float value) {
-			return Float.intBitsToFloat(Integer.reverseBytes(Float.floatToIntBits(value)));
+			return Float.intBitsToFloat(Integer.reverseBytes(Float.floatToRawIntBits(value)));
 		}
 
 		@Override
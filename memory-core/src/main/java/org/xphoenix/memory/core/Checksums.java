@@ -0,0 +1,368 @@
+package org.xphoenix.memory.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.UnsafeUtils;
+
+/**
+ * Checksums and hashes of memory ranges
+ *
+ * <p> Ranges are read directly by 8 bytes little endian words, including ranges
+ * which cross segments of {@link MemoryAccessAggregationImpl}, so there is no
+ * copy to intermediate array. Results do not depend on memory byte order and
+ * are the same as reference implementations give for the same bytes.
+ * </p>
+ *
+ * <p> When JDK has java.util.zip.CRC32C (Java 9+) CRC32C of heap, direct and
+ * native memory is computed by it over array or ByteBuffer view of the memory,
+ * so JIT intrinsics are used. Otherwise table driven slicing-by-8 is used.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class Checksums {
+
+	private static final long P1 = 0x9E3779B185EBCA87L;
+
+	private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+
+	private static final long P3 = 0x165667B19E3779F9L;
+
+	private static final long P4 = 0x85EBCA77C2B2AE63L;
+
+	private static final long P5 = 0x27D4EB2F165667C5L;
+
+	private static final int C1 = 0xCC9E2D51;
+
+	private static final int C2 = 0x1B873593;
+
+	/*
+	 * Reflected Castagnoli polynomial
+	 */
+	private static final int CASTAGNOLI = 0x82F63B78;
+
+	/*
+	 * Slicing-by-8 tables
+	 */
+	private static final int[][] CRC_TABLES = new int[8][256];
+
+	/*
+	 * CRC32C constructor and update(ByteBuffer), null before Java 9
+	 */
+	private static final MethodHandle NEW_CRC32C;
+
+	private static final MethodHandle UPDATE_BUFFER;
+
+	static {
+		for (int i=0; i < 256; i++) {
+			int crc = i;
+			for (int bit=0; bit < 8; bit++) {
+				crc = (crc >>> 1) ^ (CASTAGNOLI & -(crc & 1));
+			}
+			CRC_TABLES[0][i] = crc;
+		}
+		for (int i=0; i < 256; i++) {
+			for (int t=1; t < 8; t++) {
+				int prev = CRC_TABLES[t - 1][i];
+				CRC_TABLES[t][i] = (prev >>> 8) ^ CRC_TABLES[0][prev & 0xFF];
+			}
+		}
+
+		MethodHandle create = null;
+		MethodHandle update = null;
+		try {
+			Class<?> crc32c = Class.forName("java.util.zip.CRC32C");
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			create = lookup.findConstructor(crc32c, MethodType.methodType(void.class)).asType(MethodType.methodType(Checksum.class));
+			update = lookup.findVirtual(crc32c, "update", MethodType.methodType(void.class, ByteBuffer.class))
+					.asType(MethodType.methodType(void.class, Checksum.class, ByteBuffer.class));
+		} catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+			create = null;
+			update = null;
+		}
+		NEW_CRC32C = create;
+		UPDATE_BUFFER = update;
+	}
+
+	private Checksums() {
+	}
+
+	/**
+	 * Computes CRC32C (Castagnoli) of the range
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first byte
+	 * @param length number of bytes
+	 * @return CRC32C value
+	 */
+	public static int crc32c(@NotNull MemoryAccessR memory, long index, long length) {
+		memory.getBoundsChecker().checkBounds(index, length, memory.size());
+		if (NEW_CRC32C == null) {
+			return ~updateCrc32c(~0, memory, index, length);
+		}
+
+		try {
+			Checksum crc = (Checksum)NEW_CRC32C.invokeExact();
+			update(crc, memory, index, length);
+			return (int)crc.getValue();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException("CRC32C failed", e);
+		}
+	}
+
+	/**
+	 * Computes 64 bits xxHash of the range with zero seed
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first byte
+	 * @param length number of bytes
+	 * @return hash value
+	 */
+	public static long hash(@NotNull MemoryAccessR memory, long index, long length) {
+		return xxHash64(memory, index, length, 0);
+	}
+
+	/**
+	 * Computes XXH64 of the range
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first byte
+	 * @param length number of bytes
+	 * @param seed hash seed
+	 * @return hash value
+	 */
+	public static long xxHash64(@NotNull MemoryAccessR memory, long index, long length, long seed) {
+		memory.getBoundsChecker().checkBounds(index, length, memory.size());
+		long end = index + length;
+		long runEnd = index;
+		long h;
+
+		if (length >= 32) {
+			long v1 = seed + P1 + P2;
+			long v2 = seed + P2;
+			long v3 = seed;
+			long v4 = seed - P1;
+
+			for (; index + 32 <= end; index += 32) {
+				if (index + 32 > runEnd) {
+					runEnd = index + MemoryAccessUnsafeImpl.contiguous(memory, index);
+				}
+				v1 = round(v1, word(memory, index, runEnd));
+				v2 = round(v2, word(memory, index + 8, runEnd));
+				v3 = round(v3, word(memory, index + 16, runEnd));
+				v4 = round(v4, word(memory, index + 24, runEnd));
+			}
+
+			h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+			h = merge(h, v1);
+			h = merge(h, v2);
+			h = merge(h, v3);
+			h = merge(h, v4);
+		} else {
+			h = seed + P5;
+		}
+
+		h += length;
+		for (; index + 8 <= end; index += 8) {
+			if (index + 8 > runEnd) {
+				runEnd = index + MemoryAccessUnsafeImpl.contiguous(memory, index);
+			}
+			h ^= round(0, word(memory, index, runEnd));
+			h = Long.rotateLeft(h, 27) * P1 + P4;
+		}
+		if (index + 4 <= end) {
+			h ^= (bytes(memory, index, 4) & 0xFFFFFFFFL) * P1;
+			h = Long.rotateLeft(h, 23) * P2 + P3;
+			index += 4;
+		}
+		for (; index < end; index++) {
+			h ^= (memory.getByte(index) & 0xFF) * P5;
+			h = Long.rotateLeft(h, 11) * P1;
+		}
+
+		h ^= h >>> 33;
+		h *= P2;
+		h ^= h >>> 29;
+		h *= P3;
+		h ^= h >>> 32;
+		return h;
+	}
+
+	/**
+	 * Computes MurmurHash3 x86 32 bits of the range
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first byte
+	 * @param length number of bytes
+	 * @param seed hash seed
+	 * @return hash value
+	 */
+	public static int murmur3(@NotNull MemoryAccessR memory, long index, long length, int seed) {
+		memory.getBoundsChecker().checkBounds(index, length, memory.size());
+		long end = index + length;
+		long runEnd = index;
+		int h = seed;
+
+		// Two 4 bytes blocks per word read
+		for (; index + 8 <= end; index += 8) {
+			if (index + 8 > runEnd) {
+				runEnd = index + MemoryAccessUnsafeImpl.contiguous(memory, index);
+			}
+			long w = word(memory, index, runEnd);
+			h = mix(h, (int)w);
+			h = mix(h, (int)(w >>> 32));
+		}
+		if (index + 4 <= end) {
+			h = mix(h, (int)bytes(memory, index, 4));
+			index += 4;
+		}
+		if (index < end) {
+			int k = (int)bytes(memory, index, (int)(end - index));
+			k *= C1;
+			k = Integer.rotateLeft(k, 15);
+			k *= C2;
+			h ^= k;
+		}
+
+		h ^= (int)length;
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	/*
+	 * Feeds range to JDK CRC32C, directly when memory has array or raw address
+	 */
+	private static void update(Checksum crc, MemoryAccessR memory, long index, long length) throws Throwable {
+		if (length == 0) {
+			return;
+		}
+
+		if (memory instanceof MemoryAccessUnsafeImpl) {
+			MemoryAccessUnsafeImpl m = (MemoryAccessUnsafeImpl)memory;
+			Object object = m.object();
+			if (object == null) {
+				// View refers memory, so it is not released while CRC reads it
+				for (long done = 0; done < length;) {
+					int chunk = (int)Math.min(length - done, 1 << 30);
+					UPDATE_BUFFER.invokeExact(crc, UnsafeUtils.newDirectByteBuffer(m.address(index + done), chunk, m));
+					done += chunk;
+				}
+				return;
+			} else if (object instanceof byte[]) {
+				crc.update((byte[])object, (int)(m.address(index) - UnsafeUtils.BYTE_ARRAY_OFFSET), (int)length);
+				return;
+			}
+		} else if (memory instanceof MemoryAccessAggregationImpl) {
+			MemoryAccessAggregationImpl<?> m = (MemoryAccessAggregationImpl<?>)memory;
+			while (length > 0) {
+				long run = Math.min(length, m.contiguous(index));
+				update(crc, m.segmentOf(index), m.segmentIndex(index), run);
+				index += run;
+				length -= run;
+			}
+			return;
+		} else if (memory instanceof ExpandableMemory) {
+			ExpandableMemory m = (ExpandableMemory)memory;
+			while (length > 0) {
+				long run = Math.min(length, m.contiguous(index));
+				update(crc, m.segmentOf(index), m.segmentIndex(index), run);
+				index += run;
+				length -= run;
+			}
+			return;
+		} else if (memory instanceof MemoryAccessSlice) {
+			MemoryAccessSlice m = (MemoryAccessSlice)memory;
+			update(crc, m.getParent(), m.getOffset() + index, length);
+			return;
+		} else if (memory instanceof ReadOnlyMemoryAccess) {
+			update(crc, ((ReadOnlyMemoryAccess)memory).getMemory(), index, length);
+			return;
+		}
+
+		for (long i=0; i < length; i++) {
+			crc.update(memory.getByte(index + i));
+		}
+	}
+
+	/**
+	 * Table driven slicing-by-8 CRC32C, used when JDK has no CRC32C
+	 *
+	 * @param crc current not inverted CRC value
+	 * @param memory memory to read from
+	 * @param index index of the first byte
+	 * @param length number of bytes
+	 * @return updated not inverted CRC value
+	 */
+	static int updateCrc32c(int crc, MemoryAccessR memory, long index, long length) {
+		long end = index + length;
+		long runEnd = index;
+		int[] t0 = CRC_TABLES[0];
+
+		for (; index + 8 <= end; index += 8) {
+			if (index + 8 > runEnd) {
+				runEnd = index + MemoryAccessUnsafeImpl.contiguous(memory, index);
+			}
+			long w = word(memory, index, runEnd) ^ (crc & 0xFFFFFFFFL);
+			crc = CRC_TABLES[7][(int)w & 0xFF]
+					^ CRC_TABLES[6][(int)(w >>> 8) & 0xFF]
+					^ CRC_TABLES[5][(int)(w >>> 16) & 0xFF]
+					^ CRC_TABLES[4][(int)(w >>> 24) & 0xFF]
+					^ CRC_TABLES[3][(int)(w >>> 32) & 0xFF]
+					^ CRC_TABLES[2][(int)(w >>> 40) & 0xFF]
+					^ CRC_TABLES[1][(int)(w >>> 48) & 0xFF]
+					^ t0[(int)(w >>> 56)];
+		}
+		for (; index < end; index++) {
+			crc = (crc >>> 8) ^ t0[(crc ^ memory.getByte(index)) & 0xFF];
+		}
+		return crc;
+	}
+
+	/*
+	 * Reads little endian word, by one access when it is inside continuous run
+	 */
+	private static long word(MemoryAccessR memory, long index, long runEnd) {
+		return index + 8 <= runEnd
+				? MemoryAccessUnsafeImpl.getLittleEndianLong(memory, index)
+				: bytes(memory, index, 8);
+	}
+
+	/*
+	 * Reads up to 8 bytes one by one as little endian value
+	 */
+	private static long bytes(MemoryAccessR memory, long index, int count) {
+		long value = 0;
+		for (int i=0; i < count; i++) {
+			value |= (memory.getByte(index + i) & 0xFFL) << (i << 3);
+		}
+		return value;
+	}
+
+	private static long round(long acc, long input) {
+		return Long.rotateLeft(acc + input * P2, 31) * P1;
+	}
+
+	private static long merge(long acc, long value) {
+		return (acc ^ round(0, value)) * P1 + P4;
+	}
+
+	private static int mix(int h, int k) {
+		k *= C1;
+		k = Integer.rotateLeft(k, 15);
+		k *= C2;
+		h ^= k;
+		h = Integer.rotateLeft(h, 13);
+		return h * 5 + 0xE6546B64;
+	}
+}
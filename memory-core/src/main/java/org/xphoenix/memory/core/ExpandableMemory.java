@@ -0,0 +1,1172 @@
+package org.xphoenix.memory.core;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Memory chunk which grows by appending fixed size segments when data is
+ * written after its end
+ *
+ * <p> Segments are never moved, so growth does not copy data and costs one
+ * segment allocation plus amortized copy of the segments reference array.
+ * Reads and writes inside current size take no locks, only growth is done
+ * under the lock and is published by one volatile write. Index is mapped to
+ * segment by shift and mask, segment size is power of two.
+ * </p>
+ *
+ * <p> Unlike {@link MemoryAccessAggregationImpl} values crossing segment
+ * boundary have exactly the same layout as in one continuous chunk, so data
+ * could be written and read by values of any size at any index. Atomic
+ * access could not be split between segments and must not cross boundary.
+ * </p>
+ *
+ * <p> Segments are allocated by {@link SegmentFactory}, i.e. on heap, off heap or
+ * as regions of mapped file. {@link #close()} returns them to the factory.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class ExpandableMemory implements MemoryAccessW, Closeable {
+
+	/**
+	 * Allocates segments of the expandable memory
+	 */
+	public interface SegmentFactory {
+
+		/**
+		 * Allocates segment, all segments must have the same bounds checker
+		 * and byte order
+		 *
+		 * @param segment number of segment, segments are allocated in order
+		 * @param size segment size in bytes
+		 * @return segment memory
+		 */
+		@NotNull
+		public MemoryAccessW allocate(int segment, int size);
+
+		/**
+		 * Releases segment when expandable memory is closed
+		 *
+		 * @param segment segment memory
+		 */
+		public void free(@NotNull MemoryAccessW segment);
+	}
+
+	/*
+	 * Segments and size are published together, so reader never sees size
+	 * which is not covered by segments
+	 */
+	private static final class Segments {
+
+		private final @NotNull MemoryAccessW[] array;
+
+		private final long size;
+
+		private Segments(@NotNull MemoryAccessW[] array, long size) {
+			this.array = array;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Creates factory of heap segments
+	 *
+	 * @param checker segments bounds checker
+	 * @param convertor segments byte order convertor
+	 * @return segment factory
+	 */
+	@NotNull
+	public static SegmentFactory heapSegments(@NotNull final BoundsChecker checker, @NotNull final ByteOrderConvertor convertor) {
+		return new SegmentFactory() {
+
+			@Override
+			public MemoryAccessW allocate(int segment, int size) {
+				return MemoryAccessUnsafeImpl.wrap(checker, convertor, new byte[size]);
+			}
+
+			@Override
+			public void free(MemoryAccessW segment) {
+			}
+		};
+	}
+
+	/**
+	 * Creates factory of off heap segments, see {@link NativeMemory}
+	 *
+	 * @param checker segments bounds checker
+	 * @param convertor segments byte order convertor
+	 * @return segment factory
+	 */
+	@NotNull
+	public static SegmentFactory nativeSegments(@NotNull final BoundsChecker checker, @NotNull final ByteOrderConvertor convertor) {
+		return new SegmentFactory() {
+
+			@Override
+			public MemoryAccessW allocate(int segment, int size) {
+				return NativeMemory.allocate(checker, convertor, size, true);
+			}
+
+			@Override
+			public void free(MemoryAccessW segment) {
+				((NativeMemory)segment).close();
+			}
+		};
+	}
+
+	private final @NotNull SegmentFactory factory;
+
+	private final int segmentSize;
+
+	/*
+	 * log2 of segment size
+	 */
+	private final int shift;
+
+	private final long mask;
+
+	private final long maxSize;
+
+	private final @NotNull BoundsChecker checker;
+
+	private final @NotNull ByteOrderConvertor order;
+
+	/*
+	 * True if values are stored least significant byte first
+	 */
+	private final boolean littleEndian;
+
+	private volatile @NotNull Segments segments;
+
+	private boolean closed;
+
+	/**
+	 * Creates memory of one segment which could grow without limit
+	 *
+	 * @param factory segment factory
+	 * @param segmentSize segment size, power of two not less then 8
+	 */
+	public ExpandableMemory(@NotNull SegmentFactory factory, int segmentSize) {
+		this(factory, segmentSize, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Creates memory of one segment
+	 *
+	 * @param factory segment factory
+	 * @param segmentSize segment size, power of two not less then 8
+	 * @param maxSize max memory size in bytes, it is limited by
+	 *        {@link Integer#MAX_VALUE} segments
+	 */
+	public ExpandableMemory(@NotNull SegmentFactory factory, int segmentSize, long maxSize) {
+		if (segmentSize < 8 || (segmentSize & (segmentSize - 1)) != 0) {
+			throw new IllegalArgumentException("Segment size must be power of two not less then 8: "+segmentSize);
+		} else if (maxSize < segmentSize) {
+			throw new IllegalArgumentException("Max size "+maxSize+" is less then segment size "+segmentSize);
+		}
+
+		this.factory = factory;
+		this.segmentSize = segmentSize;
+		this.shift = Integer.numberOfTrailingZeros(segmentSize);
+		this.mask = segmentSize - 1;
+		// Segment number must fit int
+		this.maxSize = Math.min(maxSize, (long)Integer.MAX_VALUE << shift);
+
+		MemoryAccessW first = allocate(0);
+		this.checker = first.getBoundsChecker();
+		this.order = first.getByteOrderConvertor();
+		this.littleEndian = (order == ByteOrderConvertor.NO_OP) == (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN);
+		this.segments = new Segments(new MemoryAccessW[] {first}, segmentSize);
+	}
+
+	/**
+	 * Returns size of the single segment
+	 *
+	 * @return segment size in bytes
+	 */
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	/**
+	 * Returns max memory size
+	 *
+	 * @return max size in bytes
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Grows memory to have at least the given size
+	 *
+	 * @param size required size in bytes
+	 * @throws IllegalStateException if size exceeds max size or memory is closed
+	 */
+	public void ensureCapacity(long size) {
+		if (size > segments.size) {
+			grow(size);
+		}
+	}
+
+	/**
+	 * Returns all segments to the factory, memory must not be used after that
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+		Segments current = segments;
+		for (int i=0; i < segmentCount(current); i++) {
+			factory.free(current.array[i]);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#size()
+	 */
+	@Override
+	public long size() {
+		return segments.size;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBoundsChecker()
+	 */
+	@Override
+	public BoundsChecker getBoundsChecker() {
+		return checker;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getByteOrderConvertor()
+	 */
+	@Override
+	public ByteOrderConvertor getByteOrderConvertor() {
+		return order;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getByte(long)
+	 */
+	@Override
+	public byte getByte(long index) {
+		Segments current = segments;
+		checker.checkBounds(index, current.size);
+		return current.array[(int)(index >>> shift)].getByte(index & mask);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(byte[] buffer, int index, int size) {
+		getBuffer(index, buffer, 0, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull byte[] buffer, int offset, int size) {
+		BoundsChecker.checkArray(buffer.length, offset, size);
+		Segments current = segments;
+		checker.checkBounds(index, size, current.size);
+		while (size > 0) {
+			int count = (int)Math.min(size, segmentSize - (index & mask));
+			current.array[(int)(index >>> shift)].getBuffer(index & mask, buffer, offset, count);
+			index += count;
+			offset += count;
+			size -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, java.nio.ByteBuffer)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull ByteBuffer buffer) {
+		Segments current = segments;
+		checker.checkBounds(index, buffer.remaining(), current.size);
+		int limit = buffer.limit();
+		try {
+			while (buffer.hasRemaining()) {
+				int count = (int)Math.min(buffer.remaining(), segmentSize - (index & mask));
+				buffer.limit(buffer.position() + count);
+				current.array[(int)(index >>> shift)].getBuffer(index & mask, buffer);
+				index += count;
+				buffer.limit(limit);
+			}
+		} finally {
+			buffer.limit(limit);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChar(long)
+	 */
+	@Override
+	public char getChar(long index) {
+		return (char)getShort(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDouble(long)
+	 */
+	@Override
+	public double getDouble(long index) {
+		return Double.longBitsToDouble(getLong(index));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloat(long)
+	 */
+	@Override
+	public float getFloat(long index) {
+		return Float.intBitsToFloat(getInt(index));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInt(long)
+	 */
+	@Override
+	public int getInt(long index) {
+		Segments current = segments;
+		checker.checkBounds(index, 4, current.size);
+		long offset = index & mask;
+		if (offset + 4 <= segmentSize) {
+			return current.array[(int)(index >>> shift)].getInt(offset);
+		}
+		return (int)getSplit(current, index, 4);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLong(long)
+	 */
+	@Override
+	public long getLong(long index) {
+		Segments current = segments;
+		checker.checkBounds(index, 8, current.size);
+		long offset = index & mask;
+		if (offset + 8 <= segmentSize) {
+			return current.array[(int)(index >>> shift)].getLong(offset);
+		}
+		return getSplit(current, index, 8);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShort(long)
+	 */
+	@Override
+	public short getShort(long index) {
+		Segments current = segments;
+		checker.checkBounds(index, 2, current.size);
+		long offset = index & mask;
+		if (offset + 2 <= segmentSize) {
+			return current.array[(int)(index >>> shift)].getShort(offset);
+		}
+		return (short)getSplit(current, index, 2);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getIntVolatile(long)
+	 */
+	@Override
+	public int getIntVolatile(long index) {
+		return atomicSegment(segments, index, 4).getIntVolatile(index & mask);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongVolatile(long)
+	 */
+	@Override
+	public long getLongVolatile(long index) {
+		return atomicSegment(segments, index, 8).getLongVolatile(index & mask);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChars(long, char[], int, int)
+	 */
+	@Override
+	public void getChars(long index, char[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = segments;
+		checker.checkBounds(index, (long)length << 1, current.size);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 1);
+			if (count == 0) {
+				values[offset] = getChar(index);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].getChars(index & mask, values, offset, count);
+			}
+			index += (long)count << 1;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShorts(long, short[], int, int)
+	 */
+	@Override
+	public void getShorts(long index, short[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = segments;
+		checker.checkBounds(index, (long)length << 1, current.size);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 1);
+			if (count == 0) {
+				values[offset] = getShort(index);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].getShorts(index & mask, values, offset, count);
+			}
+			index += (long)count << 1;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInts(long, int[], int, int)
+	 */
+	@Override
+	public void getInts(long index, int[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = segments;
+		checker.checkBounds(index, (long)length << 2, current.size);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 2);
+			if (count == 0) {
+				values[offset] = getInt(index);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].getInts(index & mask, values, offset, count);
+			}
+			index += (long)count << 2;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloats(long, float[], int, int)
+	 */
+	@Override
+	public void getFloats(long index, float[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = segments;
+		checker.checkBounds(index, (long)length << 2, current.size);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 2);
+			if (count == 0) {
+				values[offset] = getFloat(index);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].getFloats(index & mask, values, offset, count);
+			}
+			index += (long)count << 2;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongs(long, long[], int, int)
+	 */
+	@Override
+	public void getLongs(long index, long[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = segments;
+		checker.checkBounds(index, (long)length << 3, current.size);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 3);
+			if (count == 0) {
+				values[offset] = getLong(index);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].getLongs(index & mask, values, offset, count);
+			}
+			index += (long)count << 3;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDoubles(long, double[], int, int)
+	 */
+	@Override
+	public void getDoubles(long index, double[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = segments;
+		checker.checkBounds(index, (long)length << 3, current.size);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 3);
+			if (count == 0) {
+				values[offset] = getDouble(index);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].getDoubles(index & mask, values, offset, count);
+			}
+			index += (long)count << 3;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#copyTo(long, org.xphoenix.memory.core.MemoryAccessW, long, long)
+	 */
+	@Override
+	public void copyTo(long index, @NotNull MemoryAccessW dst, long dstIndex, long length) {
+		Segments current = segments;
+		checker.checkBounds(index, length, current.size);
+		if (dst instanceof ExpandableMemory) {
+			((ExpandableMemory)dst).copyFrom(dstIndex, this, index, length);
+			return;
+		}
+
+		while (length > 0) {
+			long count = Math.min(length, segmentSize - (index & mask));
+			current.array[(int)(index >>> shift)].copyTo(index & mask, dst, dstIndex, count);
+			index += count;
+			dstIndex += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Copies bytes from other memory chunk, growing memory if needed. Each
+	 * chunk fits in one segment, so copy between continuous memories is done
+	 * by memory copy. Overlapping regions of the same memory are handled
+	 *
+	 * @param index index of the first byte to write
+	 * @param src memory to copy from
+	 * @param srcIndex index of the first byte in source
+	 * @param length number of bytes to copy
+	 */
+	void copyFrom(long index, @NotNull MemoryAccessR src, long srcIndex, long length) {
+		Segments current = reserve(index, length);
+		if (src == this && index > srcIndex && index < srcIndex + length) {
+			// Copy from the end, so source is not overwritten before it is read
+			while (length > 0) {
+				long last = index + length - 1;
+				long count = Math.min(length, (last & mask) + 1);
+				long srcLast = srcIndex + length - 1;
+				count = Math.min(count, (srcLast & mask) + 1);
+				src.copyTo(srcIndex + length - count, current.array[(int)(last >>> shift)], (last & mask) - count + 1, count);
+				length -= count;
+			}
+			return;
+		}
+
+		while (length > 0) {
+			long count = Math.min(length, segmentSize - (index & mask));
+			src.copyTo(srcIndex, current.array[(int)(index >>> shift)], index & mask, count);
+			index += count;
+			srcIndex += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#mismatch(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public long mismatch(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		Segments current = segments;
+		checker.checkBounds(index, length, current.size);
+		for (long done = 0; done < length; ) {
+			long position = index + done;
+			long count = Math.min(length - done, segmentSize - (position & mask));
+			long result = current.array[(int)(position >>> shift)].mismatch(position & mask, other, otherIndex + done, count);
+			if (result >= 0) {
+				return done + result;
+			}
+			done += count;
+		}
+		return -1;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#compare(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public int compare(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		long i = mismatch(index, other, otherIndex, length);
+		return i < 0 ? 0 : (getByte(index + i) & 0xFF) - (other.getByte(otherIndex + i) & 0xFF);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#isAligned(long, int)
+	 */
+	@Override
+	public boolean isAligned(long index, int alignment) {
+		Segments current = segments;
+		checker.checkBounds(index, current.size);
+		return current.array[(int)(index >>> shift)].isAligned(index & mask, alignment);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#alignUp(long, int)
+	 */
+	@Override
+	public long alignUp(long index, int alignment) {
+		Segments current = segments;
+		int last = segmentCount(current) - 1;
+		int segment = (int)Math.min(index >>> shift, last);
+		while (true) {
+			long start = (long)segment << shift;
+			long result = start + current.array[segment].alignUp(index - start, alignment);
+			if (segment == last || result < start + segmentSize) {
+				return result;
+			}
+			index = start + segmentSize;
+			segment++;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putBuffer(long, java.nio.ByteBuffer)
+	 */
+	@Override
+	public MemoryAccessW putBuffer(long index, @NotNull ByteBuffer value) {
+		Segments current = reserve(index, value.remaining());
+		int limit = value.limit();
+		try {
+			while (value.hasRemaining()) {
+				int count = (int)Math.min(value.remaining(), segmentSize - (index & mask));
+				value.limit(value.position() + count);
+				current.array[(int)(index >>> shift)].putBuffer(index & mask, value);
+				index += count;
+				value.limit(limit);
+			}
+		} finally {
+			value.limit(limit);
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putBuffer(long, byte[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putBuffer(long index, @NotNull byte[] value, int offset, int size) {
+		BoundsChecker.checkArray(value.length, offset, size);
+		Segments current = reserve(index, size);
+		while (size > 0) {
+			int count = (int)Math.min(size, segmentSize - (index & mask));
+			current.array[(int)(index >>> shift)].putBuffer(index & mask, value, offset, count);
+			index += count;
+			offset += count;
+			size -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putByte(long, byte)
+	 */
+	@Override
+	public MemoryAccessW putByte(long index, byte value) {
+		Segments current = reserve(index, 1);
+		current.array[(int)(index >>> shift)].putByte(index & mask, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putChar(long, char)
+	 */
+	@Override
+	public MemoryAccessW putChar(long index, char value) {
+		return putShort(index, (short)value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putDouble(long, double)
+	 */
+	@Override
+	public MemoryAccessW putDouble(long index, double value) {
+		return putLong(index, Double.doubleToRawLongBits(value));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putFloat(long, float)
+	 */
+	@Override
+	public MemoryAccessW putFloat(long index, float value) {
+		return putInt(index, Float.floatToRawIntBits(value));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putInt(long, int)
+	 */
+	@Override
+	public MemoryAccessW putInt(long index, int value) {
+		Segments current = reserve(index, 4);
+		long offset = index & mask;
+		if (offset + 4 <= segmentSize) {
+			current.array[(int)(index >>> shift)].putInt(offset, value);
+		} else {
+			putSplit(current, index, value, 4);
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLong(long, long)
+	 */
+	@Override
+	public MemoryAccessW putLong(long index, long value) {
+		Segments current = reserve(index, 8);
+		long offset = index & mask;
+		if (offset + 8 <= segmentSize) {
+			current.array[(int)(index >>> shift)].putLong(offset, value);
+		} else {
+			putSplit(current, index, value, 8);
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putShort(long, short)
+	 */
+	@Override
+	public MemoryAccessW putShort(long index, short value) {
+		Segments current = reserve(index, 2);
+		long offset = index & mask;
+		if (offset + 2 <= segmentSize) {
+			current.array[(int)(index >>> shift)].putShort(offset, value);
+		} else {
+			putSplit(current, index, value, 2);
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putChars(long, char[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putChars(long index, @NotNull char[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = reserve(index, (long)length << 1);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 1);
+			if (count == 0) {
+				putSplit(current, index, values[offset], 2);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].putChars(index & mask, values, offset, count);
+			}
+			index += (long)count << 1;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putShorts(long, short[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putShorts(long index, @NotNull short[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = reserve(index, (long)length << 1);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 1);
+			if (count == 0) {
+				putSplit(current, index, values[offset], 2);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].putShorts(index & mask, values, offset, count);
+			}
+			index += (long)count << 1;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putInts(long, int[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putInts(long index, @NotNull int[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = reserve(index, (long)length << 2);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 2);
+			if (count == 0) {
+				putSplit(current, index, values[offset], 4);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].putInts(index & mask, values, offset, count);
+			}
+			index += (long)count << 2;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putFloats(long, float[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putFloats(long index, @NotNull float[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = reserve(index, (long)length << 2);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 2);
+			if (count == 0) {
+				putSplit(current, index, Float.floatToRawIntBits(values[offset]), 4);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].putFloats(index & mask, values, offset, count);
+			}
+			index += (long)count << 2;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongs(long, long[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putLongs(long index, @NotNull long[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = reserve(index, (long)length << 3);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 3);
+			if (count == 0) {
+				putSplit(current, index, values[offset], 8);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].putLongs(index & mask, values, offset, count);
+			}
+			index += (long)count << 3;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putDoubles(long, double[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putDoubles(long index, @NotNull double[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		Segments current = reserve(index, (long)length << 3);
+		while (length > 0) {
+			int count = (int)Math.min(length, (segmentSize - (index & mask)) >> 3);
+			if (count == 0) {
+				putSplit(current, index, Double.doubleToRawLongBits(values[offset]), 8);
+				count = 1;
+			} else {
+				current.array[(int)(index >>> shift)].putDoubles(index & mask, values, offset, count);
+			}
+			index += (long)count << 3;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#fill(long, long, byte)
+	 */
+	@Override
+	public MemoryAccessW fill(long index, long length, byte value) {
+		Segments current = reserve(index, length);
+		while (length > 0) {
+			long count = Math.min(length, segmentSize - (index & mask));
+			current.array[(int)(index >>> shift)].fill(index & mask, count, value);
+			index += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#compareAndSwap(long, int, int)
+	 */
+	@Override
+	public boolean compareAndSwap(long index, int expected, int value) {
+		return atomicSegment(reserve(index, 4), index, 4).compareAndSwap(index & mask, expected, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#compareAndSwap(long, long, long)
+	 */
+	@Override
+	public boolean compareAndSwap(long index, long expected, long value) {
+		return atomicSegment(reserve(index, 8), index, 8).compareAndSwap(index & mask, expected, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddInt(long, int)
+	 */
+	@Override
+	public int getAndAddInt(long index, int delta) {
+		return atomicSegment(reserve(index, 4), index, 4).getAndAddInt(index & mask, delta);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddLong(long, long)
+	 */
+	@Override
+	public long getAndAddLong(long index, long delta) {
+		return atomicSegment(reserve(index, 8), index, 8).getAndAddLong(index & mask, delta);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetInt(long, int)
+	 */
+	@Override
+	public int getAndSetInt(long index, int value) {
+		return atomicSegment(reserve(index, 4), index, 4).getAndSetInt(index & mask, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetLong(long, long)
+	 */
+	@Override
+	public long getAndSetLong(long index, long value) {
+		return atomicSegment(reserve(index, 8), index, 8).getAndSetLong(index & mask, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putIntVolatile(long, int)
+	 */
+	@Override
+	public MemoryAccessW putIntVolatile(long index, int value) {
+		atomicSegment(reserve(index, 4), index, 4).putIntVolatile(index & mask, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongVolatile(long, long)
+	 */
+	@Override
+	public MemoryAccessW putLongVolatile(long index, long value) {
+		atomicSegment(reserve(index, 8), index, 8).putLongVolatile(index & mask, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedInt(long, int)
+	 */
+	@Override
+	public MemoryAccessW putOrderedInt(long index, int value) {
+		atomicSegment(reserve(index, 4), index, 4).putOrderedInt(index & mask, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedLong(long, long)
+	 */
+	@Override
+	public MemoryAccessW putOrderedLong(long index, long value) {
+		atomicSegment(reserve(index, 8), index, 8).putOrderedLong(index & mask, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#toByteBuffer()
+	 */
+	@Override
+	public ByteBuffer[] toByteBuffer() {
+		Segments current = segments;
+		ByteBuffer[][] views = new ByteBuffer[segmentCount(current)][];
+		int count = 0;
+		for (int i=0; i < views.length; i++) {
+			views[i] = current.array[i].toByteBuffer();
+			count += views[i].length;
+		}
+
+		ByteBuffer[] result = new ByteBuffer[count];
+		count = 0;
+		for (ByteBuffer[] segmentViews : views) {
+			System.arraycopy(segmentViews, 0, result, count, segmentViews.length);
+			count += segmentViews.length;
+		}
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#toByteBuffer(long, long, org.xphoenix.memory.core.ByteBufferViews)
+	 */
+	@Override
+	public int toByteBuffer(long index, long length, @NotNull ByteBufferViews views) {
+		Segments current = segments;
+		BoundsChecker.checkRegion(index, length, current.size);
+
+		int count = 0;
+		while (length > 0) {
+			long size = Math.min(length, segmentSize - (index & mask));
+			count += current.array[(int)(index >>> shift)].toByteBuffer(index & mask, size, views);
+			index += size;
+			length -= size;
+		}
+		return count;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#slice(long, long)
+	 */
+	@Override
+	public MemoryAccessW slice(long offset, long length) {
+		return new MemoryAccessSlice(this, offset, length);
+	}
+
+	@Override
+	public String toString() {
+		return "ExpandableMemory [size="+size()
+				+", segmentSize="+segmentSize
+				+", maxSize="+maxSize
+				+"]";
+	}
+
+	/**
+	 * Returns number of bytes from index till the end of its segment
+	 *
+	 * @param index index of the first byte
+	 * @return number of bytes in the same segment
+	 */
+	long contiguous(long index) {
+		return segmentSize - (index & mask);
+	}
+
+	/**
+	 * Returns segment the given byte belongs to
+	 *
+	 * @param index index of the byte
+	 * @return segment memory
+	 */
+	MemoryAccessW segmentOf(long index) {
+		return segments.array[(int)(index >>> shift)];
+	}
+
+	/**
+	 * Returns index of the given byte in its segment
+	 *
+	 * @param index index of the byte
+	 * @return index in segment
+	 */
+	long segmentIndex(long index) {
+		return index & mask;
+	}
+
+	/**
+	 * Returns segments covering the region, grows memory if region ends after
+	 * memory end
+	 *
+	 * @param index region start
+	 * @param length region length
+	 * @return segments covering the region
+	 * @throws ArrayIndexOutOfBoundsException if index or length is negative
+	 */
+	private Segments reserve(long index, long length) {
+		if ((index | length | (index + length)) < 0) {
+			// Negative or overflowing region must never grow memory or wrap
+			// around segments, regardless of the bounds checker
+			throw new ArrayIndexOutOfBoundsException("Region ["+index+", "+(index+length)+") is out of memory bounds");
+		}
+
+		Segments current = segments;
+		if (index + length > current.size) {
+			current = grow(index + length);
+		}
+		checker.checkBounds(index, length, current.size);
+		return current;
+	}
+
+	/*
+	 * Appends segments until memory has the given size. Segments array is
+	 * doubled when full, so growth is amortized O(1)
+	 */
+	private synchronized Segments grow(long size) {
+		Segments current = segments;
+		if (size <= current.size) {
+			return current;
+		} else if (size > maxSize) {
+			throw new IllegalStateException("Expandable memory could not grow to "+size+" bytes, max size is "+maxSize);
+		} else if (closed) {
+			throw new IllegalStateException("Memory is closed");
+		}
+
+		MemoryAccessW[] array = current.array;
+		int count = segmentCount(current);
+		int required = (int)((size + mask) >>> shift);
+		if (required > array.length) {
+			array = Arrays.copyOf(array, Math.max(required, array.length * 2));
+		}
+		for (; count < required; count++) {
+			array[count] = allocate(count);
+		}
+
+		current = new Segments(array, (long)count << shift);
+		segments = current;
+		return current;
+	}
+
+	private MemoryAccessW allocate(int segment) {
+		MemoryAccessW memory = factory.allocate(segment, segmentSize);
+		if (memory.size() != segmentSize) {
+			throw new IllegalStateException("Factory allocated segment of "+memory.size()+" bytes instead of "+segmentSize);
+		} else if (segment > 0 && (memory.getBoundsChecker() != checker || memory.getByteOrderConvertor() != order)) {
+			throw new IllegalStateException("All segments must have the same bounds checker and byte order");
+		}
+		return memory;
+	}
+
+	private int segmentCount(Segments segments) {
+		return (int)(segments.size >>> shift);
+	}
+
+	/*
+	 * Atomic access could not be split between segments
+	 */
+	private MemoryAccessW atomicSegment(Segments current, long index, int width) {
+		checker.checkBounds(index, width, current.size);
+		if ((index & mask) + width > segmentSize) {
+			throw new IllegalArgumentException("Atomic access crosses segment boundary: index="+index+", width="+width);
+		}
+		return current.array[(int)(index >>> shift)];
+	}
+
+	/*
+	 * Reads value crossing segments byte by byte, in memory byte order
+	 */
+	private long getSplit(Segments current, long index, int width) {
+		long value = 0;
+		for (int i=0; i < width; i++) {
+			long position = index + i;
+			long b = current.array[(int)(position >>> shift)].getByte(position & mask) & 0xFFL;
+			value |= littleEndian ? b << (i << 3) : b << ((width - 1 - i) << 3);
+		}
+		return value;
+	}
+
+	/*
+	 * Writes value crossing segments byte by byte, in memory byte order
+	 */
+	private void putSplit(Segments current, long index, long value, int width) {
+		for (int i=0; i < width; i++) {
+			long position = index + i;
+			int bits = littleEndian ? i << 3 : (width - 1 - i) << 3;
+			current.array[(int)(position >>> shift)].putByte(position & mask, (byte)(value >>> bits));
+		}
+	}
+}
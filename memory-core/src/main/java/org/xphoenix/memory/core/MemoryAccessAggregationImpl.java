@@ -1,12 +1,10 @@
 package org.xphoenix.memory.core;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
-import java.util.ListIterator;
+import java.nio.ReadOnlyBufferException;
 
 import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.UnsafeUtils;
 
 /**
  * Aggregates a few memory chunk into one continues area
@@ -43,6 +41,37 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 	 */
 	private final @NotNull T[] segments;
 
+	/**
+	 * Creates aggregation over the given segments choosing the fastest
+	 * implementation for their size
+	 *
+	 * @param segments memory chunks followed by null
+	 * @return aggregation over all segments
+	 * @see #aggregate(MemoryAccessW[], long, long)
+	 */
+	@NotNull
+	public static <T extends MemoryAccessW> MemoryAccessAggregationImpl<T> aggregate(@NotNull T[] segments) {
+		return aggregate(segments, 0, segments[segments.length-2].size());
+	}
+
+	/**
+	 * Creates aggregation over the given segments choosing the fastest
+	 * implementation for their size. If segment size is a power of two
+	 * {@link MemoryAccessPow2AggregationImpl} is returned
+	 *
+	 * @param segments memory chunks followed by null
+	 * @param firstSegmentOffset index of the first addressable byte in the first segment
+	 * @param lastSegmentLimit number of addressable bytes in the last segment
+	 * @return aggregation over all segments
+	 */
+	@NotNull
+	public static <T extends MemoryAccessW> MemoryAccessAggregationImpl<T> aggregate(@NotNull T[] segments, long firstSegmentOffset, long lastSegmentLimit) {
+		if (MemoryAccessPow2AggregationImpl.isPowerOfTwo(segments[0].size())) {
+			return new MemoryAccessPow2AggregationImpl<>(segments, firstSegmentOffset, lastSegmentLimit);
+		}
+		return new MemoryAccessAggregationImpl<>(segments, firstSegmentOffset, lastSegmentLimit);
+	}
+
 	public MemoryAccessAggregationImpl (@NotNull T[] segments) {
 		this (segments, 0);
 	}
@@ -51,6 +80,19 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 		this(segments, firstSegmentOffset, segments[segments.length-2].size());
 	}
 
+	/**
+	 * Creates aggregation over the given segments
+	 *
+	 * <p> All segments except the last one must be equal in size. The last segment
+	 * could be shorter, but it must have at least <code>lastSegmentLimit</code> bytes.
+	 * That allows to aggregate memory which size is not a multiple of segment size,
+	 * i.e mapped file tail
+	 * </p>
+	 *
+	 * @param segments memory chunks followed by null
+	 * @param firstSegmentOffset index of the first addressable byte in the first segment
+	 * @param lastSegmentLimit number of addressable bytes in the last segment
+	 */
 	public MemoryAccessAggregationImpl (@NotNull T[] segments, long firstSegmentOffset, long lastSegmentLimit) {
 		this.segments = segments;
 		this.segmentSize = segments[0].size();
@@ -69,8 +111,10 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 		long size = 0;
 		for (int i =0; i < segments.length-1; i++) {
 			MemoryAccessW acs  = segments[i];
-			if (acs.size() != segmentSize) {
+			if (i < segments.length-2 && acs.size() != segmentSize) {
 				throw new RuntimeException("All segments must be equal in size");
+			} else if (acs.size() > segmentSize || (i == segments.length-2 && acs.size() < lastSegmentLimit)) {
+				throw new RuntimeException("Last segment must fit segment size and limit");
 			} else if (acs.getBoundsChecker() != segments[0].getBoundsChecker()) {
 				throw new RuntimeException("All segments must have the same bounds checker");
 			} else if (acs.getByteOrderConvertor() != segments[0].getByteOrderConvertor()) {
@@ -80,7 +124,7 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 		}
 
 		size -= firstSegmentOffset;
-		size -= (segmentSize - lastSegmentLimit);
+		size -= (segments[segments.length-2].size() - lastSegmentLimit);
 
 		this.size = size;
 		this.lastSegmentLimit = lastSegmentLimit;
@@ -118,57 +162,84 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 	 */
 	@Override
 	public ByteBuffer[] toByteBuffer() {
-		ArrayList<ByteBuffer> result = new ArrayList<>(segments.length-1);
-		for (int i=0; i < segments.length-1; i++) {
-			result.addAll(Arrays.asList(segments[i].toByteBuffer()));
-		}
-
-		// Lets say first segment returns 2 buffers 1024 bytes each
-		// and firstSegmentOffset is 1025 bytes.
-		//
-		// That means first buffer should be removed from result and
-		// the second buffer position must be set to 1
-		long offs = firstSegmentOffset;
-		for (Iterator<ByteBuffer> it = result.iterator(); offs > 0 && it.hasNext(); ) {
-			ByteBuffer buf = it.next();
-			if (buf.limit() < offs) {
-				offs -= buf.limit();
-				it.remove();
-			} else {
-				buf.position((int)offs);
-				offs = 0;
-			}
+		ByteBuffer[][] views = new ByteBuffer[segments.length-1][];
+		int count = 0;
+		for (int i=0; i < views.length; i++) {
+			views[i] = segments[i].toByteBuffer();
+			count += views[i].length;
 		}
 
-		// Now we need to remove buffer from the tail to
-		// take into account last segment limit
-		long limit = segments[segments.length-2].size() - lastSegmentLimit;
-		for (ListIterator<ByteBuffer> it = result.listIterator(result.size()); limit > 0 && it.hasPrevious(); ) {
-			ByteBuffer buf = it.previous();
-			if (buf.remaining() < limit ) {
-				it.remove();
-				limit -= buf.remaining();
-			} else {
-				buf.limit(buf.limit() - (int)limit);
-				limit = 0;
-			}
+		ByteBuffer[] result = new ByteBuffer[count];
+		count = 0;
+		for (ByteBuffer[] segmentViews : views) {
+			System.arraycopy(segmentViews, 0, result, count, segmentViews.length);
+			count += segmentViews.length;
 		}
-		return result.toArray(new ByteBuffer[result.size()]);
+
+		// Views cover whole segments, so they are trimmed by first segment
+		// offset and last segment limit
+		return MemoryAccessSlice.slice(result, firstSegmentOffset, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#toByteBuffer(long, long, org.xphoenix.memory.core.ByteBufferViews)
+	 */
+	@Override
+	public int toByteBuffer(long index, long length, @NotNull ByteBufferViews views) {
+		BoundsChecker.checkRegion(index, length, size);
+
+		int count = 0;
+		int segment = segment(index);
+		long offset = segmentOffset(index, segment);
+		for (long rem = length; rem > 0; segment++, offset = 0) {
+			T acs = segments[segment];
+			long cpy = Math.min(rem, acs.size() - offset);
+			count += acs.toByteBuffer(offset, cpy, views);
+			rem -= cpy;
+		}
+		return count;
 	}
 
 	/* (non-Javadoc)
 	 * @see org.xphoenix.memory.core.MemoryAccess#putBuffer(long, java.nio.ByteBuffer)
 	 */
 	@Override
-	public MemoryAccessW putBuffer(long index, ByteBuffer value) {
+	public MemoryAccessW putBuffer(long index, @NotNull ByteBuffer value) {
+		int size = value.remaining();
+		getBoundsChecker().checkBounds(index, size, this.size);
+
+		int position = value.position();
+		int limit = value.limit();
+		boolean unsafe = value.isDirect() || value.hasArray();
+
 		int segment = segment(index);
 		int offset = segmentOffset(index, segment);
+		for (int rem = size; rem > 0; segment++, offset = 0) {
+			T acs = segments[segment];
+			int cpy = (int)Math.min(rem, acs.size() - offset);
+
+			if (unsafe && acs instanceof MemoryAccessUnsafeImpl) {
+				MemoryAccessUnsafeImpl dst = (MemoryAccessUnsafeImpl) acs;
+				UnsafeUtils.copyMemory(
+						MemoryAccessUnsafeImpl.bufferObject(value),
+						MemoryAccessUnsafeImpl.bufferAddress(value, position),
+						dst.object(),
+						dst.address(offset),
+						cpy
+				);
+			} else {
+				// Segment consumes whole remaining part, so limit is moved instead
+				// of slicing buffer
+				value.limit(position + cpy);
+				acs.putBuffer(offset, value);
+				value.limit(limit);
+			}
 
-		segments[segment].putBuffer(offset, value);
-		for (int i=segment+1; i < segments.length && value.hasRemaining(); i++) {
-			segments[i].putBuffer(0, value);
+			rem -= cpy;
+			position += cpy;
 		}
 
+		value.position(position);
 		return this;
 	}
 
@@ -176,18 +247,25 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 	 * @see org.xphoenix.memory.core.MemoryAccess#putBuffer(long, byte[], int, int)
 	 */
 	@Override
-	public MemoryAccessW putBuffer(long index, byte[] value, int offs, int size) {
+	public MemoryAccessW putBuffer(long index, @NotNull byte[] value, int offs, int size) {
+		BoundsChecker.checkArray(value.length, offs, size);
+		getBoundsChecker().checkBounds(index, size, this.size);
+
 		int segment = segment(index);
 		int offset = segmentOffset(index, segment);
-		int rem = size;
+		for (int rem = size; rem > 0; segment++, offset = 0) {
+			T acs = segments[segment];
+			int cpy = (int)Math.min(rem, acs.size() - offset);
 
-		for (int i=segment; i < segments.length && rem > 0; i++) {
-			int cpy = (int)Math.min(rem, segments[i].size() - offset);
-			segments[i].putBuffer(offset, value, offs, cpy);
+			if (acs instanceof MemoryAccessUnsafeImpl) {
+				MemoryAccessUnsafeImpl dst = (MemoryAccessUnsafeImpl) acs;
+				UnsafeUtils.copyMemory(value, offs, dst.object(), dst.address(offset), cpy);
+			} else {
+				acs.putBuffer(offset, value, offs, cpy);
+			}
 
 			rem  -= cpy;
 			offs += cpy;
-			offset = 0;
 		}
 
 		return this;
@@ -276,12 +354,176 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 		return this;
 	}
 
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putChars(long, char[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putChars(long index, char[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 1);
+			if (count > 0) {
+				segments[segment].putChars(segmentOffset, values, offset, count);
+			} else {
+				putChar(index, values[offset]);
+				count = 1;
+			}
+
+			index  += (long)count << 1;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putShorts(long, short[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putShorts(long index, short[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 1);
+			if (count > 0) {
+				segments[segment].putShorts(segmentOffset, values, offset, count);
+			} else {
+				putShort(index, values[offset]);
+				count = 1;
+			}
+
+			index  += (long)count << 1;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putInts(long, int[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putInts(long index, int[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 2);
+			if (count > 0) {
+				segments[segment].putInts(segmentOffset, values, offset, count);
+			} else {
+				putInt(index, values[offset]);
+				count = 1;
+			}
+
+			index  += (long)count << 2;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putFloats(long, float[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putFloats(long index, float[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 2);
+			if (count > 0) {
+				segments[segment].putFloats(segmentOffset, values, offset, count);
+			} else {
+				putFloat(index, values[offset]);
+				count = 1;
+			}
+
+			index  += (long)count << 2;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongs(long, long[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putLongs(long index, long[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 3);
+			if (count > 0) {
+				segments[segment].putLongs(segmentOffset, values, offset, count);
+			} else {
+				putLong(index, values[offset]);
+				count = 1;
+			}
+
+			index  += (long)count << 3;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putDoubles(long, double[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putDoubles(long index, double[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 3);
+			if (count > 0) {
+				segments[segment].putDoubles(segmentOffset, values, offset, count);
+			} else {
+				putDouble(index, values[offset]);
+				count = 1;
+			}
+
+			index  += (long)count << 3;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#fill(long, long, byte)
+	 */
+	@Override
+	public MemoryAccessW fill(long index, long length, byte value) {
+		getBoundsChecker().checkBounds(index, length, size);
+		for (long done = 0; done < length; ) {
+			int segment = segment(index + done);
+			int offset = segmentOffset(index + done, segment);
+			long count = Math.min(length - done, segments[segment].size() - offset);
+
+			segments[segment].fill(offset, count, value);
+			done += count;
+		}
+		return this;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.xphoenix.memory.core.MemoryAccess#compareAndSwap(long, int, int)
 	 */
 	@Override
 	public boolean compareAndSwap(long index, int expected, int value) {
-		throw new UnsupportedOperationException();
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 4);
+
+		return segments[segment].compareAndSwap(offset, expected, value);
 	}
 
 	/* (non-Javadoc)
@@ -289,7 +531,102 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 	 */
 	@Override
 	public boolean compareAndSwap(long index, long expected, long value) {
-		throw new UnsupportedOperationException();
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 8);
+
+		return segments[segment].compareAndSwap(offset, expected, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddInt(long, int)
+	 */
+	@Override
+	public int getAndAddInt(long index, int delta) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 4);
+
+		return segments[segment].getAndAddInt(offset, delta);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddLong(long, long)
+	 */
+	@Override
+	public long getAndAddLong(long index, long delta) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 8);
+
+		return segments[segment].getAndAddLong(offset, delta);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetInt(long, int)
+	 */
+	@Override
+	public int getAndSetInt(long index, int value) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 4);
+
+		return segments[segment].getAndSetInt(offset, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetLong(long, long)
+	 */
+	@Override
+	public long getAndSetLong(long index, long value) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 8);
+
+		return segments[segment].getAndSetLong(offset, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putIntVolatile(long, int)
+	 */
+	@Override
+	public MemoryAccessW putIntVolatile(long index, int value) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 4);
+
+		segments[segment].putIntVolatile(offset, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongVolatile(long, long)
+	 */
+	@Override
+	public MemoryAccessW putLongVolatile(long index, long value) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 8);
+
+		segments[segment].putLongVolatile(offset, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedInt(long, int)
+	 */
+	@Override
+	public MemoryAccessW putOrderedInt(long index, int value) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 4);
+
+		segments[segment].putOrderedInt(offset, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedLong(long, long)
+	 */
+	@Override
+	public MemoryAccessW putOrderedLong(long index, long value) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 8);
+
+		segments[segment].putOrderedLong(offset, value);
+		return this;
 	}
 
 	/* (non-Javadoc)
@@ -325,7 +662,76 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 	 */
 	@Override
 	public void getBuffer(byte[] buffer, int index, int size) {
-		throw new UnsupportedOperationException();
+		getBuffer(index, buffer, 0, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull byte[] buffer, int offs, int size) {
+		BoundsChecker.checkArray(buffer.length, offs, size);
+		getBoundsChecker().checkBounds(index, size, this.size);
+
+		int segment = segment(index);
+		int offset = segmentOffset(index, segment);
+		for (int rem = size; rem > 0; segment++, offset = 0) {
+			T acs = segments[segment];
+			int cpy = (int)Math.min(rem, acs.size() - offset);
+
+			if (acs instanceof MemoryAccessUnsafeImpl) {
+				MemoryAccessUnsafeImpl src = (MemoryAccessUnsafeImpl) acs;
+				UnsafeUtils.copyMemory(src.object(), src.address(offset), buffer, offs, cpy);
+			} else {
+				acs.getBuffer(offset, buffer, offs, cpy);
+			}
+
+			rem  -= cpy;
+			offs += cpy;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, java.nio.ByteBuffer)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull ByteBuffer buffer) {
+		if (buffer.isReadOnly()) {
+			throw new ReadOnlyBufferException();
+		}
+
+		int size = buffer.remaining();
+		getBoundsChecker().checkBounds(index, size, this.size);
+
+		int position = buffer.position();
+		int limit = buffer.limit();
+
+		int segment = segment(index);
+		int offset = segmentOffset(index, segment);
+		for (int rem = size; rem > 0; segment++, offset = 0) {
+			T acs = segments[segment];
+			int cpy = (int)Math.min(rem, acs.size() - offset);
+
+			if (acs instanceof MemoryAccessUnsafeImpl) {
+				MemoryAccessUnsafeImpl src = (MemoryAccessUnsafeImpl) acs;
+				UnsafeUtils.copyMemory(
+						src.object(),
+						src.address(offset),
+						MemoryAccessUnsafeImpl.bufferObject(buffer),
+						MemoryAccessUnsafeImpl.bufferAddress(buffer, position),
+						cpy
+				);
+			} else {
+				buffer.limit(position + cpy);
+				acs.getBuffer(offset, buffer);
+				buffer.limit(limit);
+			}
+
+			rem -= cpy;
+			position += cpy;
+		}
+
+		buffer.position(position);
 	}
 
 	/* (non-Javadoc)
@@ -392,6 +798,290 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 		return ctl.getShort(offset, segments[segment], segments[segment+1]);
 	}
 
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getIntVolatile(long)
+	 */
+	@Override
+	public int getIntVolatile(long index) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 4);
+
+		return segments[segment].getIntVolatile(offset);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongVolatile(long)
+	 */
+	@Override
+	public long getLongVolatile(long index) {
+		int segment = segment(index);
+		int offset = atomicOffset(index, segment, 8);
+
+		return segments[segment].getLongVolatile(offset);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChars(long, char[], int, int)
+	 */
+	@Override
+	public void getChars(long index, char[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 1);
+			if (count > 0) {
+				segments[segment].getChars(segmentOffset, values, offset, count);
+			} else {
+				values[offset] = getChar(index);
+				count = 1;
+			}
+
+			index  += (long)count << 1;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShorts(long, short[], int, int)
+	 */
+	@Override
+	public void getShorts(long index, short[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 1);
+			if (count > 0) {
+				segments[segment].getShorts(segmentOffset, values, offset, count);
+			} else {
+				values[offset] = getShort(index);
+				count = 1;
+			}
+
+			index  += (long)count << 1;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInts(long, int[], int, int)
+	 */
+	@Override
+	public void getInts(long index, int[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 2);
+			if (count > 0) {
+				segments[segment].getInts(segmentOffset, values, offset, count);
+			} else {
+				values[offset] = getInt(index);
+				count = 1;
+			}
+
+			index  += (long)count << 2;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloats(long, float[], int, int)
+	 */
+	@Override
+	public void getFloats(long index, float[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 2);
+			if (count > 0) {
+				segments[segment].getFloats(segmentOffset, values, offset, count);
+			} else {
+				values[offset] = getFloat(index);
+				count = 1;
+			}
+
+			index  += (long)count << 2;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongs(long, long[], int, int)
+	 */
+	@Override
+	public void getLongs(long index, long[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 3);
+			if (count > 0) {
+				segments[segment].getLongs(segmentOffset, values, offset, count);
+			} else {
+				values[offset] = getLong(index);
+				count = 1;
+			}
+
+			index  += (long)count << 3;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDoubles(long, double[], int, int)
+	 */
+	@Override
+	public void getDoubles(long index, double[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		while (length > 0) {
+			int segment = segment(index);
+			int segmentOffset = segmentOffset(index, segment);
+			int count = (int)Math.min(length, (segments[segment].size() - segmentOffset) >> 3);
+			if (count > 0) {
+				segments[segment].getDoubles(segmentOffset, values, offset, count);
+			} else {
+				values[offset] = getDouble(index);
+				count = 1;
+			}
+
+			index  += (long)count << 3;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#copyTo(long, org.xphoenix.memory.core.MemoryAccessW, long, long)
+	 */
+	@Override
+	public void copyTo(long index, @NotNull MemoryAccessW dst, long dstIndex, long length) {
+		getBoundsChecker().checkBounds(index, length, size);
+		if (dst instanceof MemoryAccessSlice) {
+			// Copy to the parent, so slice of this aggregation is handled as
+			// overlapping copy inside it
+			MemoryAccessSlice target = (MemoryAccessSlice) dst;
+			target.getBoundsChecker().checkBounds(dstIndex, length, target.size());
+			copyTo(index, target.getParent(), target.getOffset() + dstIndex, length);
+			return;
+		} else if (dst instanceof MemoryAccessAggregationImpl) {
+			copyTo(index, (MemoryAccessAggregationImpl<?>) dst, dstIndex, length);
+			return;
+		}
+
+		for (long done = 0; done < length; ) {
+			int segment = segment(index + done);
+			int offset = segmentOffset(index + done, segment);
+			long count = Math.min(length - done, segments[segment].size() - offset);
+
+			segments[segment].copyTo(offset, dst, dstIndex + done, count);
+			done += count;
+		}
+	}
+
+	/*
+	 * Copies data between two aggregations, probably the same one. Each chunk
+	 * fits in one segment on both sides, so it is a single memory copy. For
+	 * overlapping regions chunks are copied from the end
+	 */
+	private void copyTo(long index, @NotNull MemoryAccessAggregationImpl<?> dst, long dstIndex, long length) {
+		dst.getBoundsChecker().checkBounds(dstIndex, length, dst.size);
+		if (dst == this && dstIndex > index && dstIndex < index + length) {
+			for (long left = length; left > 0; ) {
+				long last = index + left - 1;
+				long dstLast = dstIndex + left - 1;
+				int segment = segment(last);
+				int dstSegment = dst.segment(dstLast);
+				int offset = segmentOffset(last, segment);
+				int dstOffset = dst.segmentOffset(dstLast, dstSegment);
+				long count = Math.min(left, Math.min(offset, dstOffset) + 1);
+
+				segments[segment].copyTo(offset - count + 1, dst.segments[dstSegment], dstOffset - count + 1, count);
+				left -= count;
+			}
+			return;
+		}
+
+		for (long done = 0; done < length; ) {
+			int segment = segment(index + done);
+			int dstSegment = dst.segment(dstIndex + done);
+			int offset = segmentOffset(index + done, segment);
+			int dstOffset = dst.segmentOffset(dstIndex + done, dstSegment);
+			long count = Math.min(length - done, Math.min(
+					segments[segment].size() - offset,
+					dst.segments[dstSegment].size() - dstOffset
+			));
+
+			segments[segment].copyTo(offset, dst.segments[dstSegment], dstOffset, count);
+			done += count;
+		}
+	}
+
+	/**
+	 * Copies data from other memory to that aggregation splitting it by
+	 * segments of aggregation
+	 *
+	 * @param index index of the first byte in aggregation
+	 * @param src memory to copy from
+	 * @param srcIndex index of the first byte to copy
+	 * @param length number of bytes to copy
+	 */
+	void copyFrom(long index, @NotNull MemoryAccessR src, long srcIndex, long length) {
+		getBoundsChecker().checkBounds(index, length, size);
+		for (long done = 0; done < length; ) {
+			int segment = segment(index + done);
+			int offset = segmentOffset(index + done, segment);
+			long count = Math.min(length - done, segments[segment].size() - offset);
+
+			src.copyTo(srcIndex + done, segments[segment], offset, count);
+			done += count;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#mismatch(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public long mismatch(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		getBoundsChecker().checkBounds(index, length, size);
+		for (long done = 0; done < length; ) {
+			int segment = segment(index + done);
+			int offset = segmentOffset(index + done, segment);
+			long count = Math.min(length - done, segments[segment].size() - offset);
+
+			long result = segments[segment].mismatch(offset, other, otherIndex + done, count);
+			if (result >= 0) {
+				return done + result;
+			}
+			done += count;
+		}
+		return -1;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#compare(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public int compare(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		long i = mismatch(index, other, otherIndex, length);
+		return i < 0 ? 0 : (getByte(index + i) & 0xFF) - (other.getByte(otherIndex + i) & 0xFF);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#slice(long, long)
+	 */
+	@Override
+	public MemoryAccessW slice(long offset, long length) {
+		return new MemoryAccessSlice(this, offset, length);
+	}
+
 	/**
 	 * Returns SegmentOverflowControl instance to be used for read/write operation
 	 * by the given offset.
@@ -437,6 +1127,87 @@ public class MemoryAccessAggregationImpl<T extends MemoryAccessW> implements Mem
 		}
 	}
 
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#isAligned(long, int)
+	 */
+	@Override
+	public boolean isAligned(long index, int alignment) {
+		getBoundsChecker().checkBounds(index, size);
+		int segment = segment(index);
+		return segments[segment].isAligned(segmentOffset(index, segment), alignment);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#alignUp(long, int)
+	 */
+	@Override
+	public long alignUp(long index, int alignment) {
+		int last = segments.length - 2;
+		int segment = Math.min(segment(index), last);
+		while (true) {
+			// Aggregation index of the segment first byte
+			long start = segment * segmentSize - firstSegmentOffset;
+			long result = start + segments[segment].alignUp(index - start, alignment);
+			if (segment == last || result < start + segmentSize) {
+				return result;
+			}
+			index = start + segmentSize;
+			segment++;
+		}
+	}
+
+	/**
+	 * Returns in segment offset of the value accessed atomically. Atomic access
+	 * could not be split between segments, so value must fit in one segment
+	 *
+	 * @param index index of the value
+	 * @param segment segment contains desired index
+	 * @param width value size in bytes
+	 * @return insegment offset of the value
+	 * @throws IllegalArgumentException if value crosses segment boundary
+	 */
+	private int atomicOffset(long index, int segment, int width) {
+		getBoundsChecker().checkBounds(index, width, size);
+
+		int offset = segmentOffset(index, segment);
+		if (segments[segment].size() - offset < width) {
+			throw new IllegalArgumentException("Atomic access crosses segment boundary: index="+index+", width="+width);
+		}
+		return offset;
+	}
+
+	/**
+	 * Returns number of bytes from index till the end of its segment, so
+	 * access to them does not cross segment boundary
+	 *
+	 * @param index index of the first byte
+	 * @return number of bytes in the same segment
+	 */
+	long contiguous(long index) {
+		int segment = segment(index);
+		return segments[segment].size() - segmentOffset(index, segment);
+	}
+
+	/**
+	 * Returns segment the given byte belongs to
+	 *
+	 * @param index index of the byte
+	 * @return segment memory
+	 */
+	T segmentOf(long index) {
+		return segments[segment(index)];
+	}
+
+	/**
+	 * Returns index of the given byte in its segment
+	 *
+	 * @param index index of the byte
+	 * @return index in segment
+	 */
+	long segmentIndex(long index) {
+		return segmentOffset(index, segment(index));
+	}
+
 	/**
 	 * Return segment for index
 	 *
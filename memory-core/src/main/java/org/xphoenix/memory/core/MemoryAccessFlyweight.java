@@ -0,0 +1,63 @@
+package org.xphoenix.memory.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reusable view which could be re-pointed to any memory region without allocation
+ *
+ * <p> Meant for parsers which need MemoryAccess for each record: one flyweight
+ * is created per parser and wrapped around the next record instead of creating
+ * new slice each time. Flyweight is not thread safe.
+ * </p>
+ *
+ * <pre>
+ * MemoryAccessFlyweight record = new MemoryAccessFlyweight();
+ * for (long pos = 0; pos &lt; data.size(); pos += length) {
+ *     length = data.getInt(pos);
+ *     record.wrap(data, pos + 4, length - 4);
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author andrphi
+ */
+public final class MemoryAccessFlyweight extends MemoryAccessSlice {
+
+	/*
+	 * Initial target for not yet wrapped flyweight
+	 */
+	private static final MemoryAccessW EMPTY = MemoryAccessUnsafeImpl.wrap(new byte[0]);
+
+	/**
+	 * Creates empty view, it must be wrapped around some memory before use
+	 */
+	public MemoryAccessFlyweight() {
+		super(EMPTY, 0, 0);
+	}
+
+	/**
+	 * Points view to the whole given memory
+	 *
+	 * @param memory memory to view
+	 * @return this view
+	 */
+	@NotNull
+	public MemoryAccessFlyweight wrap(@NotNull MemoryAccessW memory) {
+		return wrap(memory, 0, memory.size());
+	}
+
+	/**
+	 * Points view to [offset, offset + size) region of the given memory
+	 *
+	 * @param memory memory to view
+	 * @param offset index of the first byte
+	 * @param size view size in bytes
+	 * @return this view
+	 * @throws IndexOutOfBoundsException if region is out of memory bounds
+	 */
+	@NotNull
+	public MemoryAccessFlyweight wrap(@NotNull MemoryAccessW memory, long offset, long size) {
+		point(memory, offset, size);
+		return this;
+	}
+}
@@ -0,0 +1,470 @@
+package org.xphoenix.memory.core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.UnsafeUtils;
+
+/**
+ * Pool of off heap memory chunks of power of two size classes
+ *
+ * <p> Chunks are allocated once and recycled, so allocation does not hit direct
+ * memory reservation and released chunks do not wait for Cleaner. Acquired chunk
+ * has size of its class, which could be greater then requested, and its content
+ * is not cleared. Chunk must be given back by {@link #release(MemoryAccessW)}
+ * and must not be used after that.
+ * </p>
+ *
+ * <p> Every thread keeps small cache of free chunks per class, extra chunks go
+ * to shared stack of the class by batches. Neither acquire nor release create
+ * objects once pool is warmed up. Chunks idle in shared stacks longer then
+ * idle timeout are freed by {@link #trim()}, which should be called periodically,
+ * i.e. from scheduled executor. Chunks cached by thread are kept till
+ * {@link #flushThreadCache()} or till thread death, caches of dead threads are
+ * moved to shared stacks by {@link #trim()} and when shared stack is empty.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class MemoryAccessPool {
+
+	public static final int DEFAULT_MIN_SIZE = 64;
+
+	public static final int DEFAULT_MAX_SIZE = 1 << 24;
+
+	public static final long DEFAULT_IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	/*
+	 * Max bytes kept in one thread cache per size class, and max number of chunks
+	 */
+	private static final int CACHE_BYTES = 1 << 20;
+
+	private static final int CACHE_CHUNKS = 32;
+
+	/**
+	 * Kind of memory chunks are allocated from
+	 */
+	public static enum Backing {
+		/**
+		 * Direct ByteBuffers, size of the largest class is limited by 1GB
+		 */
+		DIRECT,
+
+		/**
+		 * Memory allocated by Unsafe, like {@link NativeMemory}
+		 */
+		NATIVE;
+	}
+
+	private final @NotNull Backing backing;
+
+	private final @NotNull BoundsChecker checker;
+
+	private final @NotNull ByteOrderConvertor order;
+
+	private final int minShift;
+
+	private final int classes;
+
+	private final long idleNanos;
+
+	/*
+	 * Number of chunks cached by thread per class, zero disables cache for class
+	 */
+	private final int[] cacheLimit;
+
+	/*
+	 * Top of the shared stack of each class
+	 */
+	private final AtomicReferenceArray<PooledMemory> heads;
+
+	/*
+	 * Serializes takes from the shared stack of each class, pushes are lock free
+	 */
+	private final Object[] takeLocks;
+
+	/*
+	 * Time of the last take from the shared stack of each class
+	 */
+	private final AtomicLongArray lastUsed;
+
+	/*
+	 * Number of bytes allocated and not freed yet
+	 */
+	private final AtomicLong allocated = new AtomicLong();
+
+	private final ThreadCaches<Cache> caches = new ThreadCaches<Cache>() {
+		@Override
+		Cache create() {
+			return new Cache(cacheLimit);
+		}
+
+		@Override
+		void drain(Cache c) {
+			for (int cls=0; cls < classes; cls++) {
+				flush(c, cls, c.count[cls]);
+			}
+		}
+	};
+
+	/**
+	 * Creates pool with bounds checks, native byte order and default size classes
+	 *
+	 * @param backing kind of memory to allocate
+	 */
+	public MemoryAccessPool(@NotNull Backing backing) {
+		this(backing, BoundsChecker.REAL, ByteOrderConvertor.NO_OP, DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_IDLE_NANOS);
+	}
+
+	/**
+	 * Creates pool
+	 *
+	 * @param backing kind of memory to allocate
+	 * @param checker {@link MemoryAccessUnsafeImpl#MemoryAccessUnsafeImpl(BoundsChecker, ByteOrderConvertor)}
+	 * @param convertor {@link MemoryAccessUnsafeImpl#MemoryAccessUnsafeImpl(BoundsChecker, ByteOrderConvertor)}
+	 * @param minSize size of the smallest class, power of two
+	 * @param maxSize size of the largest class, power of two
+	 * @param idleNanos time chunk could stay unused in shared stack before trim
+	 */
+	public MemoryAccessPool(@NotNull Backing backing, @NotNull BoundsChecker checker, @NotNull ByteOrderConvertor convertor, int minSize, int maxSize, long idleNanos) {
+		if (minSize <= 0 || Integer.bitCount(minSize) != 1) {
+			throw new IllegalArgumentException("Min size must be a power of two: "+minSize);
+		} else if (maxSize < minSize || Integer.bitCount(maxSize) != 1 || (backing == Backing.DIRECT && maxSize > 1 << 30)) {
+			throw new IllegalArgumentException("Max size must be a power of two not less then min size: "+maxSize);
+		} else if (idleNanos < 0) {
+			throw new IllegalArgumentException("Idle timeout must be positive: "+idleNanos);
+		}
+
+		this.backing = backing;
+		this.checker = checker;
+		this.order = convertor;
+		this.minShift = Integer.numberOfTrailingZeros(minSize);
+		this.classes = Integer.numberOfTrailingZeros(maxSize) - minShift + 1;
+		this.idleNanos = idleNanos;
+		this.heads = new AtomicReferenceArray<>(classes);
+		this.takeLocks = new Object[classes];
+		this.lastUsed = new AtomicLongArray(classes);
+		this.cacheLimit = new int[classes];
+		long now = System.nanoTime();
+		for (int i=0; i < classes; i++) {
+			cacheLimit[i] = Math.min(CACHE_CHUNKS, CACHE_BYTES >> (minShift + i));
+			takeLocks[i] = new Object();
+			lastUsed.set(i, now);
+		}
+	}
+
+	/**
+	 * Takes chunk of the smallest class which fits the given size
+	 *
+	 * @param size requested size in bytes
+	 * @return memory chunk of class size
+	 */
+	@NotNull
+	public MemoryAccessW acquire(int size) {
+		int cls = sizeClass(size);
+		Cache c = caches.get();
+		PooledMemory m;
+		if (c.count[cls] > 0) {
+			m = c.chunks[cls][--c.count[cls]];
+			c.chunks[cls][c.count[cls]] = null;
+		} else {
+			m = refill(c, cls);
+		}
+
+		m.free = false;
+		return m;
+	}
+
+	/**
+	 * Gives chunk back to the pool. Chunk could be released by any thread
+	 *
+	 * @param memory chunk returned by {@link #acquire(int)}
+	 * @throws IllegalArgumentException if chunk does not belong to the pool
+	 * @throws IllegalStateException if chunk is released already
+	 */
+	public void release(@NotNull MemoryAccessW memory) {
+		if (!(memory instanceof PooledMemory) || ((PooledMemory)memory).pool != this) {
+			throw new IllegalArgumentException("Memory does not belong to the pool: "+memory);
+		}
+
+		PooledMemory m = (PooledMemory)memory;
+		if (m.free) {
+			throw new IllegalStateException("Memory is released already: "+memory);
+		}
+
+		m.free = true;
+		Cache c = caches.get();
+		int limit = cacheLimit[m.sizeClass];
+		if (limit == 0) {
+			push(m.sizeClass, m, m);
+			return;
+		}
+
+		if (c.count[m.sizeClass] == limit) {
+			flush(c, m.sizeClass, Math.max(1, limit >> 1));
+		}
+		c.chunks[m.sizeClass][c.count[m.sizeClass]++] = m;
+	}
+
+	/**
+	 * Gives chunks cached by the current thread back to shared stacks
+	 */
+	public void flushThreadCache() {
+		Cache c = caches.get();
+		for (int cls=0; cls < classes; cls++) {
+			flush(c, cls, c.count[cls]);
+		}
+	}
+
+	/**
+	 * Moves chunks cached by dead threads to shared stacks, then frees chunks of
+	 * classes which shared stack was not used longer then idle timeout
+	 *
+	 * @return number of freed bytes
+	 */
+	public long trim() {
+		caches.drainDead();
+		long now = System.nanoTime();
+		long freed = 0;
+		for (int cls=0; cls < classes; cls++) {
+			if (now - lastUsed.get(cls) >= idleNanos) {
+				PooledMemory m;
+				synchronized (takeLocks[cls]) {
+					m = heads.getAndSet(cls, null);
+				}
+				for (; m != null; m = m.next) {
+					freed += m.size;
+					m.dispose();
+				}
+			}
+		}
+
+		allocated.addAndGet(-freed);
+		return freed;
+	}
+
+	/**
+	 * Returns number of bytes allocated by the pool, both acquired and pooled
+	 *
+	 * @return allocated bytes
+	 */
+	public long allocated() {
+		return allocated.get();
+	}
+
+	/**
+	 * Returns number of size classes
+	 *
+	 * @return number of size classes
+	 */
+	public int sizeClasses() {
+		return classes;
+	}
+
+	/**
+	 * Returns chunk size of the class
+	 *
+	 * @param sizeClass class index, from 0 to {@link #sizeClasses()}
+	 * @return chunk size in bytes
+	 */
+	public int classSize(int sizeClass) {
+		return 1 << (minShift + sizeClass);
+	}
+
+	@Override
+	public String toString() {
+		return "MemoryAccessPool [backing="+backing.name()
+				+", minSize="+classSize(0)
+				+", maxSize="+classSize(classes - 1)
+				+", allocated="+allocated.get()
+				+"]";
+	}
+
+	private int sizeClass(int size) {
+		if (size <= 0 || size > classSize(classes - 1)) {
+			throw new IllegalArgumentException("Chunk size must be in [1, "+classSize(classes - 1)+"]: "+size);
+		}
+		return Math.max(0, 32 - Integer.numberOfLeadingZeros(size - 1) - minShift);
+	}
+
+	/*
+	 * Takes chunk from shared stack, caches of dead threads or allocates new one
+	 */
+	private PooledMemory refill(Cache c, int cls) {
+		PooledMemory m = take(c, cls);
+		if (m == null && caches.drainDead() > 0) {
+			m = take(c, cls);
+		}
+		if (m == null) {
+			allocated.addAndGet(classSize(cls));
+			return new PooledMemory(this, cls, classSize(cls));
+		}
+
+		lastUsed.set(cls, System.nanoTime());
+		return m;
+	}
+
+	/*
+	 * Pops chunk from the shared stack and up to half of cache limit chunks
+	 * more to the thread cache, returns null if stack is empty. Chunks are
+	 * recycled, so takes are serialized: while one thread pops, no other could
+	 * pop its top chunk and push it back with other next, which is ABA problem
+	 * of lock free stack. Other chunks stay available to other threads
+	 */
+	private PooledMemory take(Cache c, int cls) {
+		synchronized (takeLocks[cls]) {
+			PooledMemory m = pop(cls);
+			int batch = cacheLimit[cls] >> 1;
+			for (PooledMemory next; m != null && c.count[cls] < batch && (next = pop(cls)) != null;) {
+				c.chunks[cls][c.count[cls]++] = next;
+			}
+			return m;
+		}
+	}
+
+	/*
+	 * Pops top chunk of the class stack, must be called under take lock
+	 */
+	private PooledMemory pop(int cls) {
+		PooledMemory head;
+		do {
+			head = heads.get(cls);
+			if (head == null) {
+				return null;
+			}
+		} while (!heads.compareAndSet(cls, head, head.next));
+
+		head.next = null;
+		return head;
+	}
+
+	/*
+	 * Pushes given number of the thread cache chunks to the shared stack
+	 */
+	private void flush(Cache c, int cls, int count) {
+		if (count == 0) {
+			return;
+		}
+
+		PooledMemory[] chunks = c.chunks[cls];
+		int from = c.count[cls] - count;
+		for (int i=from; i < c.count[cls] - 1; i++) {
+			chunks[i].next = chunks[i + 1];
+		}
+		push(cls, chunks[from], chunks[c.count[cls] - 1]);
+		for (int i=from; i < c.count[cls]; i++) {
+			chunks[i] = null;
+		}
+		c.count[cls] = from;
+	}
+
+	/*
+	 * Pushes chain of chunks linked from first to last on top of the class stack
+	 */
+	private void push(int cls, PooledMemory first, PooledMemory last) {
+		PooledMemory head;
+		do {
+			head = heads.get(cls);
+			last.next = head;
+		} while (!heads.compareAndSet(cls, head, first));
+	}
+
+	/*
+	 * Free chunks cached by one thread
+	 */
+	private static final class Cache {
+
+		private final PooledMemory[][] chunks;
+
+		private final int[] count;
+
+		private Cache(int[] limits) {
+			this.chunks = new PooledMemory[limits.length][];
+			this.count = new int[limits.length];
+			for (int i=0; i < limits.length; i++) {
+				chunks[i] = new PooledMemory[limits[i]];
+			}
+		}
+	}
+
+	/*
+	 * Pooled chunk, also a node of the shared stack
+	 */
+	private static final class PooledMemory extends MemoryAccessUnsafeImpl {
+
+		private final @NotNull MemoryAccessPool pool;
+
+		private final int sizeClass;
+
+		private final int size;
+
+		/*
+		 * Keeps direct memory alive, null for native backing
+		 */
+		private final ByteBuffer buffer;
+
+		private final long address;
+
+		private PooledMemory next;
+
+		private boolean free;
+
+		PooledMemory(@NotNull MemoryAccessPool pool, int sizeClass, int size) {
+			super(pool.checker, pool.order);
+			this.pool = pool;
+			this.sizeClass = sizeClass;
+			this.size = size;
+			if (pool.backing == Backing.DIRECT) {
+				this.buffer = ByteBuffer.allocateDirect(size);
+				this.address = UnsafeUtils.getMemoryAddress(buffer);
+			} else {
+				this.buffer = null;
+				this.address = UnsafeUtils.allocateMemory(size);
+			}
+		}
+
+		/*
+		 * Frees memory, chunk is unreachable for users after trim
+		 */
+		void dispose() {
+			if (buffer != null) {
+				UnsafeUtils.freeDirectBuffer(buffer);
+			} else {
+				UnsafeUtils.freeMemory(address);
+			}
+		}
+
+		@Override
+		public long size() {
+			return size;
+		}
+
+		@Override
+		public ByteBuffer[] toByteBuffer() {
+			return buffer != null ? new ByteBuffer[]{buffer.duplicate()} : toByteBuffer(address, size, this);
+		}
+
+		@Override
+		public String toString() {
+			return "PooledMemory [checker="+checker.name()
+					+", order="+order.name()
+					+", backing="+pool.backing.name()
+					+", size="+size
+					+"]";
+		}
+
+		@Override
+		protected long address(long index) {
+			return address + index;
+		}
+
+		@Override
+		protected Object object() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package org.xphoenix.memory.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Aggregation of segments which size is a power of two
+ *
+ * <p> Segment and offset in segment are resolved by shift and mask instead of
+ * long division. Values which fit in segment are accessed directly, only values
+ * crossing segment boundary go through {@link MemoryAccessAggregationImpl}
+ * overflow control. Use {@link MemoryAccessAggregationImpl#aggregate(MemoryAccessW[], long, long)}
+ * to get that variant automatically.
+ * </p>
+ *
+ * @author andrphi
+ */
+public class MemoryAccessPow2AggregationImpl<T extends MemoryAccessW> extends MemoryAccessAggregationImpl<T> {
+
+	/*
+	 * Same as in MemoryAccessAggregationImpl, copied to avoid getters
+	 * on the hot path
+	 */
+	private final @NotNull T[] segments;
+
+	private final long firstSegmentOffset;
+
+	/*
+	 * log2 of segment size
+	 */
+	private final int shift;
+
+	/*
+	 * Segment size - 1, i.e mask of offset in segment
+	 */
+	private final long mask;
+
+	public MemoryAccessPow2AggregationImpl(@NotNull T[] segments) {
+		this(segments, 0);
+	}
+
+	public MemoryAccessPow2AggregationImpl(@NotNull T[] segments, long firstSegmentOffset) {
+		this(segments, firstSegmentOffset, segments[segments.length-2].size());
+	}
+
+	/**
+	 * Creates aggregation over the given segments
+	 *
+	 * @param segments memory chunks followed by null, first segment size must be a power of two
+	 * @param firstSegmentOffset index of the first addressable byte in the first segment
+	 * @param lastSegmentLimit number of addressable bytes in the last segment
+	 * @see MemoryAccessAggregationImpl#MemoryAccessAggregationImpl(MemoryAccessW[], long, long)
+	 */
+	public MemoryAccessPow2AggregationImpl(@NotNull T[] segments, long firstSegmentOffset, long lastSegmentLimit) {
+		super(segments, firstSegmentOffset, lastSegmentLimit);
+
+		long segmentSize = segments[0].size();
+		if (!isPowerOfTwo(segmentSize)) {
+			throw new RuntimeException("Segment size must be a power of two: "+segmentSize);
+		}
+
+		this.segments = segments;
+		this.firstSegmentOffset = firstSegmentOffset;
+		this.shift = Long.numberOfTrailingZeros(segmentSize);
+		this.mask = segmentSize - 1;
+	}
+
+	/**
+	 * Checks if segment size allows shift and mask indexing
+	 *
+	 * @param segmentSize segment size in bytes
+	 * @return true if size is a power of two
+	 */
+	static boolean isPowerOfTwo(long segmentSize) {
+		return segmentSize > 0 && (segmentSize & (segmentSize - 1)) == 0;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#getByte(long)
+	 */
+	@Override
+	public byte getByte(long index) {
+		long position = firstSegmentOffset + index;
+		return segments[(int)(position >> shift)].getByte(position & mask);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#getChar(long)
+	 */
+	@Override
+	public char getChar(long index) {
+		long position = firstSegmentOffset + index;
+		long offset = position & mask;
+		if (offset < mask) {
+			return segments[(int)(position >> shift)].getChar(offset);
+		}
+		return super.getChar(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#getShort(long)
+	 */
+	@Override
+	public short getShort(long index) {
+		long position = firstSegmentOffset + index;
+		long offset = position & mask;
+		if (offset < mask) {
+			return segments[(int)(position >> shift)].getShort(offset);
+		}
+		return super.getShort(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#getInt(long)
+	 */
+	@Override
+	public int getInt(long index) {
+		long position = firstSegmentOffset + index;
+		long offset = position & mask;
+		if (offset < mask - 2) {
+			return segments[(int)(position >> shift)].getInt(offset);
+		}
+		return super.getInt(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#getLong(long)
+	 */
+	@Override
+	public long getLong(long index) {
+		long position = firstSegmentOffset + index;
+		long offset = position & mask;
+		if (offset < mask - 6) {
+			return segments[(int)(position >> shift)].getLong(offset);
+		}
+		return super.getLong(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#putByte(long, byte)
+	 */
+	@Override
+	public MemoryAccessW putByte(long index, byte value) {
+		long position = firstSegmentOffset + index;
+		segments[(int)(position >> shift)].putByte(position & mask, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#putChar(long, char)
+	 */
+	@Override
+	public MemoryAccessW putChar(long index, char value) {
+		long position = firstSegmentOffset + index;
+		long offset = position & mask;
+		if (offset < mask) {
+			segments[(int)(position >> shift)].putChar(offset, value);
+			return this;
+		}
+		return super.putChar(index, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#putShort(long, short)
+	 */
+	@Override
+	public MemoryAccessW putShort(long index, short value) {
+		long position = firstSegmentOffset + index;
+		long offset = position & mask;
+		if (offset < mask) {
+			segments[(int)(position >> shift)].putShort(offset, value);
+			return this;
+		}
+		return super.putShort(index, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#putInt(long, int)
+	 */
+	@Override
+	public MemoryAccessW putInt(long index, int value) {
+		long position = firstSegmentOffset + index;
+		long offset = position & mask;
+		if (offset < mask - 2) {
+			segments[(int)(position >> shift)].putInt(offset, value);
+			return this;
+		}
+		return super.putInt(index, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessAggregationImpl#putLong(long, long)
+	 */
+	@Override
+	public MemoryAccessW putLong(long index, long value) {
+		long position = firstSegmentOffset + index;
+		long offset = position & mask;
+		if (offset < mask - 6) {
+			segments[(int)(position >> shift)].putLong(offset, value);
+			return this;
+		}
+		return super.putLong(index, value);
+	}
+}
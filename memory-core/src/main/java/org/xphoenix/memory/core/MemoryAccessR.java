@@ -1,5 +1,7 @@
 package org.xphoenix.memory.core;
 
+import java.nio.ByteBuffer;
+
 /**
  * Interface to a memory chunk
  * <p> API is designed to replace ByteBuffer. There are
@@ -26,6 +28,25 @@ public interface MemoryAccessR {
 
 	public abstract void getBuffer(byte[] buffer, int index, int size);
 
+	/**
+	 * Copies <code>size</code> bytes starting from the given index to array
+	 *
+	 * @param index index of the first byte to copy
+	 * @param buffer array to copy bytes to
+	 * @param offset index of the first array element to fill
+	 * @param size number of bytes to copy
+	 */
+	public abstract void getBuffer(long index, byte[] buffer, int offset, int size);
+
+	/**
+	 * Copies bytes starting from the given index to the remaining part of
+	 * buffer. Buffer position is advanced by number of copied bytes
+	 *
+	 * @param index index of the first byte to copy
+	 * @param buffer buffer to copy bytes to
+	 */
+	public abstract void getBuffer(long index, ByteBuffer buffer);
+
 	public abstract char getChar(long index);
 
 	public abstract double getDouble(long index);
@@ -38,4 +59,148 @@ public interface MemoryAccessR {
 
 	public abstract short getShort(long index);
 
+	/**
+	 * Reads int value with volatile semantic, i.e. read is not reordered with
+	 * subsequent memory accesses and sees the latest value written by any thread
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @return value
+	 */
+	public abstract int getIntVolatile(long index);
+
+	/**
+	 * Reads long value with volatile semantic, see {@link #getIntVolatile(long)}
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @return value
+	 */
+	public abstract long getLongVolatile(long index);
+
+	/**
+	 * Reads <code>length</code> char values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to read values to
+	 * @param offset index of the first array element to fill
+	 * @param length number of values to read
+	 */
+	public abstract void getChars(long index, char[] values, int offset, int length);
+
+	/**
+	 * Reads <code>length</code> short values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to read values to
+	 * @param offset index of the first array element to fill
+	 * @param length number of values to read
+	 */
+	public abstract void getShorts(long index, short[] values, int offset, int length);
+
+	/**
+	 * Reads <code>length</code> int values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to read values to
+	 * @param offset index of the first array element to fill
+	 * @param length number of values to read
+	 */
+	public abstract void getInts(long index, int[] values, int offset, int length);
+
+	/**
+	 * Reads <code>length</code> float values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to read values to
+	 * @param offset index of the first array element to fill
+	 * @param length number of values to read
+	 */
+	public abstract void getFloats(long index, float[] values, int offset, int length);
+
+	/**
+	 * Reads <code>length</code> long values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to read values to
+	 * @param offset index of the first array element to fill
+	 * @param length number of values to read
+	 */
+	public abstract void getLongs(long index, long[] values, int offset, int length);
+
+	/**
+	 * Reads <code>length</code> double values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to read values to
+	 * @param offset index of the first array element to fill
+	 * @param length number of values to read
+	 */
+	public abstract void getDoubles(long index, double[] values, int offset, int length);
+
+	/**
+	 * Copies <code>length</code> bytes to other memory chunk. Bytes are copied as is,
+	 * without byte order conversion. Overlapping regions of the same memory chunk are
+	 * handled properly
+	 *
+	 * @param index index of the first byte to copy
+	 * @param dst memory to copy bytes to
+	 * @param dstIndex index of the first byte in destination
+	 * @param length number of bytes to copy
+	 */
+	public abstract void copyTo(long index, MemoryAccessW dst, long dstIndex, long length);
+
+	/**
+	 * Finds the first byte which differs in that and other memory chunk regions
+	 *
+	 * @param index index of the first byte to compare
+	 * @param other memory to compare with
+	 * @param otherIndex index of the first byte to compare in other memory
+	 * @param length number of bytes to compare
+	 * @return offset of the first different byte relative to region start, -1 if regions are equal
+	 */
+	public abstract long mismatch(long index, MemoryAccessR other, long otherIndex, long length);
+
+	/**
+	 * Compares that and other memory chunk regions lexicographically, as unsigned bytes
+	 *
+	 * @param index index of the first byte to compare
+	 * @param other memory to compare with
+	 * @param otherIndex index of the first byte to compare in other memory
+	 * @param length number of bytes to compare
+	 * @return 0 if regions are equal, negative if that region is less, positive otherwise
+	 */
+	public abstract int compare(long index, MemoryAccessR other, long otherIndex, long length);
+
+	/**
+	 * Checks if address of the byte is multiple of alignment. Heap memory could
+	 * be moved by GC, so it keeps alignment up to 8 bytes only
+	 *
+	 * @param index index of the byte
+	 * @param alignment power of two alignment in bytes
+	 * @return true if byte address is aligned
+	 * @throws IllegalArgumentException if alignment is not power of two or is not supported by memory
+	 */
+	public abstract boolean isAligned(long index, int alignment);
+
+	/**
+	 * Returns the first index starting from the given one which byte address is
+	 * multiple of alignment. Result could be out of memory bounds
+	 *
+	 * @param index index of the byte
+	 * @param alignment power of two alignment in bytes
+	 * @return aligned index not less then the given one
+	 * @throws IllegalArgumentException if alignment is not power of two or is not supported by memory
+	 */
+	public abstract long alignUp(long index, int alignment);
+
+	/**
+	 * Creates view over [offset, offset + length) region of that memory chunk.
+	 * View shares memory, bounds checker and byte order with that chunk
+	 *
+	 * @param offset index of the first byte
+	 * @param length view size in bytes
+	 * @return view over the region
+	 * @throws IndexOutOfBoundsException if region is out of memory bounds
+	 */
+	public abstract MemoryAccessR slice(long offset, long length);
+
 }
\ No newline at end of file
@@ -0,0 +1,655 @@
+package org.xphoenix.memory.core;
+
+import java.nio.ByteBuffer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * View over a part of other memory chunk
+ *
+ * <p> Slice shares memory with its parent and has its own base offset and size.
+ * All bounds are checked against the slice size by the parent's BoundsChecker,
+ * byte order conversion is done by parent.
+ * </p>
+ *
+ * <p> Slice of slice refers the original parent directly, so views never form
+ * long delegation chains. See {@link MemoryAccessFlyweight} for the view which
+ * could be re-pointed to other region without allocation.
+ * </p>
+ *
+ * @author andrphi
+ */
+public class MemoryAccessSlice implements MemoryAccessW {
+
+	/*
+	 * Sliced memory chunk
+	 */
+	private @NotNull MemoryAccessW parent;
+
+	/*
+	 * Index in parent of the first slice byte
+	 */
+	private long offset;
+
+	/*
+	 * Number of addressable bytes
+	 */
+	private long size;
+
+	/*
+	 * Parent bounds checker, cached to not do virtual call on each access
+	 */
+	private @NotNull BoundsChecker checker;
+
+	/**
+	 * Creates view over [offset, offset + size) region of the given memory
+	 *
+	 * @param parent memory to slice
+	 * @param offset index of the first byte in parent
+	 * @param size slice size in bytes
+	 * @throws IndexOutOfBoundsException if region is out of parent bounds
+	 */
+	public MemoryAccessSlice(@NotNull MemoryAccessW parent, long offset, long size) {
+		point(parent, offset, size);
+	}
+
+	/**
+	 * Points view to [offset, offset + size) region of the given memory
+	 *
+	 * @param parent memory to slice
+	 * @param offset index of the first byte in parent
+	 * @param size slice size in bytes
+	 * @throws IndexOutOfBoundsException if region is out of parent bounds
+	 */
+	protected final void point(@NotNull MemoryAccessW parent, long offset, long size) {
+		BoundsChecker.checkRegion(offset, size, parent.size());
+
+		// Slice the original memory instead of building chain of views
+		if (parent instanceof MemoryAccessSlice) {
+			MemoryAccessSlice slice = (MemoryAccessSlice) parent;
+			parent = slice.parent;
+			offset += slice.offset;
+		}
+
+		this.parent = parent;
+		this.offset = offset;
+		this.size = size;
+		this.checker = parent.getBoundsChecker();
+	}
+
+	/**
+	 * Returns sliced memory chunk
+	 *
+	 * @return parent memory
+	 */
+	public MemoryAccessW getParent() {
+		return parent;
+	}
+
+	/**
+	 * Returns index in parent of the first slice byte
+	 *
+	 * @return slice offset
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#size()
+	 */
+	@Override
+	public long size() {
+		return size;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBoundsChecker()
+	 */
+	@Override
+	public BoundsChecker getBoundsChecker() {
+		return checker;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getByteOrderConvertor()
+	 */
+	@Override
+	public ByteOrderConvertor getByteOrderConvertor() {
+		return parent.getByteOrderConvertor();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getByte(long)
+	 */
+	@Override
+	public byte getByte(long index) {
+		checker.checkBounds(index, size);
+		return parent.getByte(offset + index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(byte[] buffer, int index, int size) {
+		getBuffer(index, buffer, 0, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull byte[] buffer, int offs, int size) {
+		checker.checkBounds(index, size, this.size);
+		parent.getBuffer(offset + index, buffer, offs, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, java.nio.ByteBuffer)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull ByteBuffer buffer) {
+		checker.checkBounds(index, buffer.remaining(), size);
+		parent.getBuffer(offset + index, buffer);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChar(long)
+	 */
+	@Override
+	public char getChar(long index) {
+		checker.checkBounds(index, 2, size);
+		return parent.getChar(offset + index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDouble(long)
+	 */
+	@Override
+	public double getDouble(long index) {
+		checker.checkBounds(index, 8, size);
+		return parent.getDouble(offset + index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloat(long)
+	 */
+	@Override
+	public float getFloat(long index) {
+		checker.checkBounds(index, 4, size);
+		return parent.getFloat(offset + index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInt(long)
+	 */
+	@Override
+	public int getInt(long index) {
+		checker.checkBounds(index, 4, size);
+		return parent.getInt(offset + index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLong(long)
+	 */
+	@Override
+	public long getLong(long index) {
+		checker.checkBounds(index, 8, size);
+		return parent.getLong(offset + index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShort(long)
+	 */
+	@Override
+	public short getShort(long index) {
+		checker.checkBounds(index, 2, size);
+		return parent.getShort(offset + index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getIntVolatile(long)
+	 */
+	@Override
+	public int getIntVolatile(long index) {
+		checker.checkBounds(index, 4, size);
+		return parent.getIntVolatile(offset + index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongVolatile(long)
+	 */
+	@Override
+	public long getLongVolatile(long index) {
+		checker.checkBounds(index, 8, size);
+		return parent.getLongVolatile(offset + index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChars(long, char[], int, int)
+	 */
+	@Override
+	public void getChars(long index, char[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 1, size);
+		parent.getChars(this.offset + index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShorts(long, short[], int, int)
+	 */
+	@Override
+	public void getShorts(long index, short[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 1, size);
+		parent.getShorts(this.offset + index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInts(long, int[], int, int)
+	 */
+	@Override
+	public void getInts(long index, int[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 2, size);
+		parent.getInts(this.offset + index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloats(long, float[], int, int)
+	 */
+	@Override
+	public void getFloats(long index, float[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 2, size);
+		parent.getFloats(this.offset + index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongs(long, long[], int, int)
+	 */
+	@Override
+	public void getLongs(long index, long[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 3, size);
+		parent.getLongs(this.offset + index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDoubles(long, double[], int, int)
+	 */
+	@Override
+	public void getDoubles(long index, double[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 3, size);
+		parent.getDoubles(this.offset + index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#copyTo(long, org.xphoenix.memory.core.MemoryAccessW, long, long)
+	 */
+	@Override
+	public void copyTo(long index, @NotNull MemoryAccessW dst, long dstIndex, long length) {
+		checker.checkBounds(index, length, size);
+		parent.copyTo(offset + index, dst, dstIndex, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#mismatch(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public long mismatch(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		checker.checkBounds(index, length, size);
+		return parent.mismatch(offset + index, other, otherIndex, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#compare(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public int compare(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		checker.checkBounds(index, length, size);
+		return parent.compare(offset + index, other, otherIndex, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#isAligned(long, int)
+	 */
+	@Override
+	public boolean isAligned(long index, int alignment) {
+		checker.checkBounds(index, size);
+		return parent.isAligned(offset + index, alignment);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#alignUp(long, int)
+	 */
+	@Override
+	public long alignUp(long index, int alignment) {
+		return parent.alignUp(offset + index, alignment) - offset;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putBuffer(long, java.nio.ByteBuffer)
+	 */
+	@Override
+	public MemoryAccessW putBuffer(long index, @NotNull ByteBuffer value) {
+		checker.checkBounds(index, value.remaining(), size);
+		parent.putBuffer(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putBuffer(long, byte[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putBuffer(long index, @NotNull byte[] value, int offs, int size) {
+		checker.checkBounds(index, size, this.size);
+		parent.putBuffer(offset + index, value, offs, size);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putByte(long, byte)
+	 */
+	@Override
+	public MemoryAccessW putByte(long index, byte value) {
+		checker.checkBounds(index, size);
+		parent.putByte(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putChar(long, char)
+	 */
+	@Override
+	public MemoryAccessW putChar(long index, char value) {
+		checker.checkBounds(index, 2, size);
+		parent.putChar(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putDouble(long, double)
+	 */
+	@Override
+	public MemoryAccessW putDouble(long index, double value) {
+		checker.checkBounds(index, 8, size);
+		parent.putDouble(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putFloat(long, float)
+	 */
+	@Override
+	public MemoryAccessW putFloat(long index, float value) {
+		checker.checkBounds(index, 4, size);
+		parent.putFloat(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putInt(long, int)
+	 */
+	@Override
+	public MemoryAccessW putInt(long index, int value) {
+		checker.checkBounds(index, 4, size);
+		parent.putInt(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLong(long, long)
+	 */
+	@Override
+	public MemoryAccessW putLong(long index, long value) {
+		checker.checkBounds(index, 8, size);
+		parent.putLong(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putShort(long, short)
+	 */
+	@Override
+	public MemoryAccessW putShort(long index, short value) {
+		checker.checkBounds(index, 2, size);
+		parent.putShort(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putChars(long, char[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putChars(long index, @NotNull char[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 1, size);
+		parent.putChars(this.offset + index, values, offset, length);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putShorts(long, short[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putShorts(long index, @NotNull short[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 1, size);
+		parent.putShorts(this.offset + index, values, offset, length);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putInts(long, int[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putInts(long index, @NotNull int[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 2, size);
+		parent.putInts(this.offset + index, values, offset, length);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putFloats(long, float[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putFloats(long index, @NotNull float[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 2, size);
+		parent.putFloats(this.offset + index, values, offset, length);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongs(long, long[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putLongs(long index, @NotNull long[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 3, size);
+		parent.putLongs(this.offset + index, values, offset, length);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putDoubles(long, double[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putDoubles(long index, @NotNull double[] values, int offset, int length) {
+		checker.checkBounds(index, (long)length << 3, size);
+		parent.putDoubles(this.offset + index, values, offset, length);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#fill(long, long, byte)
+	 */
+	@Override
+	public MemoryAccessW fill(long index, long length, byte value) {
+		checker.checkBounds(index, length, size);
+		parent.fill(offset + index, length, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#compareAndSwap(long, int, int)
+	 */
+	@Override
+	public boolean compareAndSwap(long index, int expected, int value) {
+		checker.checkBounds(index, 4, size);
+		return parent.compareAndSwap(offset + index, expected, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#compareAndSwap(long, long, long)
+	 */
+	@Override
+	public boolean compareAndSwap(long index, long expected, long value) {
+		checker.checkBounds(index, 8, size);
+		return parent.compareAndSwap(offset + index, expected, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddInt(long, int)
+	 */
+	@Override
+	public int getAndAddInt(long index, int delta) {
+		checker.checkBounds(index, 4, size);
+		return parent.getAndAddInt(offset + index, delta);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddLong(long, long)
+	 */
+	@Override
+	public long getAndAddLong(long index, long delta) {
+		checker.checkBounds(index, 8, size);
+		return parent.getAndAddLong(offset + index, delta);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetInt(long, int)
+	 */
+	@Override
+	public int getAndSetInt(long index, int value) {
+		checker.checkBounds(index, 4, size);
+		return parent.getAndSetInt(offset + index, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetLong(long, long)
+	 */
+	@Override
+	public long getAndSetLong(long index, long value) {
+		checker.checkBounds(index, 8, size);
+		return parent.getAndSetLong(offset + index, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putIntVolatile(long, int)
+	 */
+	@Override
+	public MemoryAccessW putIntVolatile(long index, int value) {
+		checker.checkBounds(index, 4, size);
+		parent.putIntVolatile(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongVolatile(long, long)
+	 */
+	@Override
+	public MemoryAccessW putLongVolatile(long index, long value) {
+		checker.checkBounds(index, 8, size);
+		parent.putLongVolatile(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedInt(long, int)
+	 */
+	@Override
+	public MemoryAccessW putOrderedInt(long index, int value) {
+		checker.checkBounds(index, 4, size);
+		parent.putOrderedInt(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedLong(long, long)
+	 */
+	@Override
+	public MemoryAccessW putOrderedLong(long index, long value) {
+		checker.checkBounds(index, 8, size);
+		parent.putOrderedLong(offset + index, value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#slice(long, long)
+	 */
+	@Override
+	public MemoryAccessW slice(long offset, long length) {
+		BoundsChecker.checkRegion(offset, length, size);
+		return parent.slice(this.offset + offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#toByteBuffer()
+	 */
+	@Override
+	public ByteBuffer[] toByteBuffer() {
+		return slice(parent.toByteBuffer(), offset, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#toByteBuffer(long, long, org.xphoenix.memory.core.ByteBufferViews)
+	 */
+	@Override
+	public int toByteBuffer(long index, long length, @NotNull ByteBufferViews views) {
+		BoundsChecker.checkRegion(index, length, size);
+		return parent.toByteBuffer(offset + index, length, views);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" [offset="+offset
+				+", size="+size
+				+", parent="+parent
+				+"]";
+	}
+
+	/**
+	 * Trims buffers to [offset, offset + size) region of memory they represent.
+	 * Each buffer covers [position, limit) bytes of memory, so buffers before
+	 * region are skipped and intersecting are trimmed
+	 *
+	 * @param buffers ByteBuffer views of the whole memory, modified in place
+	 * @param offset region start
+	 * @param size region length
+	 * @return buffers covering the region
+	 */
+	static ByteBuffer[] slice(ByteBuffer[] buffers, long offset, long size) {
+		long from = offset;
+		long to = offset + size;
+
+		// Buffers intersecting region are counted first, so result is allocated once
+		int count = 0;
+		long start = 0;
+		for (ByteBuffer buf : buffers) {
+			long end = start + buf.remaining();
+			if (end > from && start < to) {
+				count++;
+			}
+			start = end;
+		}
+
+		ByteBuffer[] result = new ByteBuffer[count];
+		count = 0;
+		start = 0;
+		for (ByteBuffer buf : buffers) {
+			long end = start + buf.remaining();
+			if (end > from && start < to) {
+				int pos = buf.position();
+				buf.limit(pos + (int)(Math.min(end, to) - start));
+				buf.position(pos + (int)(Math.max(start, from) - start));
+				result[count++] = buf;
+			}
+			start = end;
+		}
+		return result;
+	}
+}
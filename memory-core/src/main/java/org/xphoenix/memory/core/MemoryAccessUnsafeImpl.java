@@ -1,6 +1,8 @@
 package org.xphoenix.memory.core;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 
 import org.jetbrains.annotations.NotNull;
 import org.xphoenix.memory.UnsafeUtils;
@@ -10,6 +12,13 @@ import org.xphoenix.memory.UnsafeUtils;
  *
  * Used mostly to wrap ByteBuffer | char arrays
  *
+ * <p> Atomic and volatile operations require value address to be multiple of
+ * its width, as otherwise access is not atomic or even faults on some platforms.
+ * By default address is checked on each such operation. Memory which start
+ * is known to be 8 bytes aligned, see {@link #aligned()}, checks index by its
+ * BoundsChecker instead, so the check is free with {@link BoundsChecker#NO_OP}.
+ * </p>
+ *
  * @author andrphi
  */
 public class MemoryAccessUnsafeImpl implements MemoryAccessW {
@@ -133,6 +142,181 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 			}
 		};
 	}
+	/**
+	 * Wraps raw off heap memory region and provides MemoryAccess for it
+	 *
+	 * <p> Created MemoryAccess does not own memory, so it is caller responsibility
+	 * to keep region alive while MemoryAccess is in use and to free it after
+	 * </p>
+	 *
+	 * @param checker {@link MemoryAccessUnsafeImpl#MemoryAccessUnsafeImpl(BoundsChecker, ByteOrderConvertor)}
+	 * @param convertor {@link MemoryAccessUnsafeImpl#MemoryAccessUnsafeImpl(BoundsChecker, ByteOrderConvertor)}
+	 * @param address memory region start address
+	 * @param size memory region size in bytes
+	 * @return MemoryAccess to modify off heap memory
+	 */
+	public static final MemoryAccessW wrap (@NotNull BoundsChecker checker, @NotNull ByteOrderConvertor convertor, final long address, final long size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Memory region size must be positive: "+size);
+		}
+
+		return new MemoryAccessUnsafeImpl(checker, convertor) {
+
+			@Override
+			public long size() {
+				return size;
+			}
+
+			@Override
+			public ByteBuffer[] toByteBuffer() {
+				return toByteBuffer(address, size, this);
+			}
+
+			@Override
+			public String toString() {
+				return "NativeMemoryAccess [checker="+super.checker.name()
+						+", order="+super.order.name()
+						+", address="+Long.toHexString(address)
+						+", size="+size
+						+"]";
+			}
+
+			@Override
+			protected long address(long index) {
+				return address + index;
+			}
+
+			@Override
+			protected Object object() {
+				return null;
+			}
+		};
+	}
+
+	/*
+	 * Max size of ByteBuffer returned for raw memory regions
+	 */
+	private static final long MAX_BUFFER_SIZE = 1L << 30;
+
+	/**
+	 * Creates ByteBuffer views over raw memory region. ByteBuffer could not address
+	 * more then 2GB, so large region is represented by a few buffers
+	 *
+	 * @param address memory region start address
+	 * @param size memory region size in bytes
+	 * @param owner object owning region, kept alive by views
+	 * @return ByteBuffers covering the whole region
+	 */
+	static ByteBuffer[] toByteBuffer(long address, long size, @NotNull Object owner) {
+		int count = (int)Math.max(1, (size + MAX_BUFFER_SIZE - 1) / MAX_BUFFER_SIZE);
+		ByteBuffer[] result = new ByteBuffer[count];
+		for (int i=0; i < count; i++) {
+			long offset = i * MAX_BUFFER_SIZE;
+			result[i] = UnsafeUtils.newDirectByteBuffer(address + offset, (int)Math.min(MAX_BUFFER_SIZE, size - offset), owner);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns object holding buffer content for Unsafe access
+	 *
+	 * @param buffer direct buffer or buffer backed by accessible array
+	 * @return buffer array or null for direct buffer
+	 */
+	static Object bufferObject(@NotNull ByteBuffer buffer) {
+		return buffer.isDirect() ? null : buffer.array();
+	}
+
+	/**
+	 * Returns Unsafe address of the buffer byte, relative to {@link #bufferObject(ByteBuffer)}
+	 *
+	 * @param buffer direct buffer or buffer backed by accessible array
+	 * @param position index of the byte in buffer
+	 * @return byte address
+	 */
+	static long bufferAddress(@NotNull ByteBuffer buffer, int position) {
+		return buffer.isDirect()
+				? UnsafeUtils.getMemoryAddress(buffer) + position
+				: UnsafeUtils.BYTE_ARRAY_OFFSET + buffer.arrayOffset() + position;
+	}
+
+	/**
+	 * Returns number of bytes starting from index which are laid out in one
+	 * continuous region, so multi byte access to them has the same layout as
+	 * byte by byte access. Aggregations place values crossing segment boundary
+	 * in their own way
+	 *
+	 * @param memory memory chunk
+	 * @param index index of the first byte
+	 * @return number of continuous bytes, 0 if unknown
+	 */
+	static long contiguous(@NotNull MemoryAccessR memory, long index) {
+		if (index < 0 || index >= memory.size()) {
+			return 0;
+		} else if (memory instanceof MemoryAccessUnsafeImpl || memory instanceof ExpandableMemory) {
+			// Expandable memory splits values between segments in continuous layout
+			return memory.size() - index;
+		} else if (memory instanceof MemoryAccessAggregationImpl) {
+			return ((MemoryAccessAggregationImpl<?>)memory).contiguous(index);
+		} else if (memory instanceof MemoryAccessSlice) {
+			MemoryAccessSlice slice = (MemoryAccessSlice)memory;
+			return Math.min(slice.size() - index, contiguous(slice.getParent(), slice.getOffset() + index));
+		} else if (memory instanceof ReadOnlyMemoryAccess) {
+			return contiguous(((ReadOnlyMemoryAccess)memory).getMemory(), index);
+		}
+		return 0;
+	}
+
+	/**
+	 * Reads 8 bytes as little endian long, whatever memory byte order is. Bytes
+	 * must be continuous, see {@link #contiguous(MemoryAccessR, long)}
+	 *
+	 * @param memory memory chunk
+	 * @param index index of the first byte
+	 * @return value with the first byte in the lowest bits
+	 */
+	static long getLittleEndianLong(@NotNull MemoryAccessR memory, long index) {
+		long word = memory.getLong(index);
+		return isLittleEndian(memory) ? word : Long.reverseBytes(word);
+	}
+
+	/**
+	 * Writes low bytes of little endian long by at most three stores, whatever
+	 * memory byte order is. Bytes must be continuous, see {@link #contiguous(MemoryAccessR, long)}
+	 *
+	 * @param memory memory chunk
+	 * @param index index of the first byte
+	 * @param word value with the first byte in the lowest bits
+	 * @param length number of bytes to write, up to 8
+	 */
+	static void putLittleEndian(@NotNull MemoryAccessW memory, long index, long word, int length) {
+		boolean little = isLittleEndian(memory);
+		if (length == 8) {
+			memory.putLong(index, little ? word : Long.reverseBytes(word));
+			return;
+		}
+		if ((length & 4) != 0) {
+			memory.putInt(index, little ? (int)word : Integer.reverseBytes((int)word));
+			index += 4;
+			word >>>= 32;
+		}
+		if ((length & 2) != 0) {
+			memory.putShort(index, little ? (short)word : Short.reverseBytes((short)word));
+			index += 2;
+			word >>>= 16;
+		}
+		if ((length & 1) != 0) {
+			memory.putByte(index, (byte)word);
+		}
+	}
+
+	/*
+	 * NO_OP convertor keeps native order
+	 */
+	private static boolean isLittleEndian(@NotNull MemoryAccessR memory) {
+		return (memory.getByteOrderConvertor() == ByteOrderConvertor.NO_OP) == (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN);
+	}
+
 	/**
 	 * Delegate responsible for memory bounds checks
 	 * {@code BoundsChecker#NOOP} is used by default
@@ -145,6 +329,11 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	protected final @NotNull ByteOrderConvertor order;
 
+	/*
+	 * True if address of the first byte is 8 bytes aligned
+	 */
+	private final boolean aligned;
+
 	/**
 	 * Creates new MemoryAccess object with given BoundsChecker and
 	 * ByteOrderConvertor
@@ -154,8 +343,21 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 * @param size of memory to provide access to
 	 */
 	protected MemoryAccessUnsafeImpl(@NotNull BoundsChecker checker, @NotNull ByteOrderConvertor convertor) {
+		this(checker, convertor, false);
+	}
+
+	/**
+	 * Creates new MemoryAccess object with given BoundsChecker and
+	 * ByteOrderConvertor
+	 *
+	 * @param checker bounds checker
+	 * @param convertor byte order convertor
+	 * @param aligned if address of the first byte is known to be 8 bytes aligned
+	 */
+	protected MemoryAccessUnsafeImpl(@NotNull BoundsChecker checker, @NotNull ByteOrderConvertor convertor, boolean aligned) {
 		this.checker = checker;
 		this.order = convertor;
+		this.aligned = aligned;
 	}
 
 	/* (non-Javadoc)
@@ -198,8 +400,33 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public void getBuffer(byte[] buffer, int index, int size) {
-		checker.checkBounds(index + size, size());
-		UnsafeUtils.copyMemory(object(), address(index), buffer, 0, size);
+		getBuffer(index, buffer, 0, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull byte[] buffer, int offset, int size) {
+		BoundsChecker.checkArray(buffer.length, offset, size);
+		checker.checkBounds(index, size, size());
+		UnsafeUtils.copyMemory(object(), address(index), buffer, offset, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, java.nio.ByteBuffer)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull ByteBuffer buffer) {
+		if (buffer.isReadOnly()) {
+			throw new ReadOnlyBufferException();
+		}
+
+		int position = buffer.position();
+		int size = buffer.remaining();
+		checker.checkBounds(index, size, size());
+		UnsafeUtils.copyMemory(object(), address(index), bufferObject(buffer), bufferAddress(buffer, position), size);
+		buffer.position(position + size);
 	}
 
 	/* (non-Javadoc)
@@ -207,7 +434,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public char getChar(long index) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 2, size());
 		char value = UnsafeUtils.getChar(object(), address(index));
 
 		return order.decode(value);
@@ -218,7 +445,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public double getDouble(long index) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 8, size());
 		double value = UnsafeUtils.getDouble(object(), address(index));
 
 		return order.decode(value);
@@ -229,7 +456,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public float getFloat(long index) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 4, size());
 		float value = UnsafeUtils.getFloat(object(), address(index));
 
 		return order.decode(value);
@@ -240,7 +467,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public int getInt(long index) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 4, size());
 		int value = UnsafeUtils.getInt(object(), address(index));
 
 		return order.decode(value);
@@ -251,7 +478,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public long getLong(long index) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 8, size());
 		long value = UnsafeUtils.getLong(object(), address(index));
 
 		return order.decode(value);
@@ -262,18 +489,245 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public short getShort(long index) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 2, size());
 		short value = UnsafeUtils.getShort(object(), address(index));
 
 		return order.decode(value);
 	}
 
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getIntVolatile(long)
+	 */
+	@Override
+	public int getIntVolatile(long index) {
+		checker.checkBounds(index, 4, size());
+		int value = UnsafeUtils.getIntVolatile(object(), atomicAddress(index, 4));
+
+		return order.decode(value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongVolatile(long)
+	 */
+	@Override
+	public long getLongVolatile(long index) {
+		checker.checkBounds(index, 8, size());
+		long value = UnsafeUtils.getLongVolatile(object(), atomicAddress(index, 8));
+
+		return order.decode(value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChars(long, char[], int, int)
+	 */
+	@Override
+	public void getChars(long index, char[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 1, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(object, address, values, UnsafeUtils.CHAR_ARRAY_OFFSET + ((long)offset << 1), (long)length << 1);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 2) {
+				values[i] = order.decode(UnsafeUtils.getChar(object, address));
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShorts(long, short[], int, int)
+	 */
+	@Override
+	public void getShorts(long index, short[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 1, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(object, address, values, UnsafeUtils.SHORT_ARRAY_OFFSET + ((long)offset << 1), (long)length << 1);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 2) {
+				values[i] = order.decode(UnsafeUtils.getShort(object, address));
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInts(long, int[], int, int)
+	 */
+	@Override
+	public void getInts(long index, int[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 2, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(object, address, values, UnsafeUtils.INT_ARRAY_OFFSET + ((long)offset << 2), (long)length << 2);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 4) {
+				values[i] = order.decode(UnsafeUtils.getInt(object, address));
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloats(long, float[], int, int)
+	 */
+	@Override
+	public void getFloats(long index, float[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 2, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(object, address, values, UnsafeUtils.FLOAT_ARRAY_OFFSET + ((long)offset << 2), (long)length << 2);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 4) {
+				values[i] = Float.intBitsToFloat(order.decode(UnsafeUtils.getInt(object, address)));
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongs(long, long[], int, int)
+	 */
+	@Override
+	public void getLongs(long index, long[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 3, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(object, address, values, UnsafeUtils.LONG_ARRAY_OFFSET + ((long)offset << 3), (long)length << 3);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 8) {
+				values[i] = order.decode(UnsafeUtils.getLong(object, address));
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDoubles(long, double[], int, int)
+	 */
+	@Override
+	public void getDoubles(long index, double[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 3, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(object, address, values, UnsafeUtils.DOUBLE_ARRAY_OFFSET + ((long)offset << 3), (long)length << 3);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 8) {
+				values[i] = Double.longBitsToDouble(order.decode(UnsafeUtils.getLong(object, address)));
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#copyTo(long, org.xphoenix.memory.core.MemoryAccessW, long, long)
+	 */
+	@Override
+	public void copyTo(long index, @NotNull MemoryAccessW dst, long dstIndex, long length) {
+		checker.checkBounds(index, length, size());
+		if (dst instanceof MemoryAccessUnsafeImpl) {
+			MemoryAccessUnsafeImpl target = (MemoryAccessUnsafeImpl) dst;
+			target.checker.checkBounds(dstIndex, length, target.size());
+			UnsafeUtils.copyMemory(object(), address(index), target.object(), target.address(dstIndex), length);
+		} else if (dst instanceof MemoryAccessSlice) {
+			MemoryAccessSlice target = (MemoryAccessSlice) dst;
+			target.getBoundsChecker().checkBounds(dstIndex, length, target.size());
+			copyTo(index, target.getParent(), target.getOffset() + dstIndex, length);
+		} else if (dst instanceof MemoryAccessAggregationImpl) {
+			((MemoryAccessAggregationImpl<?>) dst).copyFrom(dstIndex, this, index, length);
+		} else if (dst instanceof ExpandableMemory) {
+			((ExpandableMemory) dst).copyFrom(dstIndex, this, index, length);
+		} else {
+			for (long i=0; i < length; i++) {
+				dst.putByte(dstIndex + i, getByte(index + i));
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#mismatch(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public long mismatch(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		checker.checkBounds(index, length, size());
+		if (other instanceof MemoryAccessUnsafeImpl) {
+			MemoryAccessUnsafeImpl that = (MemoryAccessUnsafeImpl) other;
+			that.checker.checkBounds(otherIndex, length, that.size());
+			return UnsafeUtils.mismatch(object(), address(index), that.object(), that.address(otherIndex), length);
+		} else if (other instanceof MemoryAccessSlice || other instanceof MemoryAccessAggregationImpl) {
+			// Mismatch is symmetric and other memory splits itself to unsafe
+			// chunks, so operands are just swapped
+			return other.mismatch(otherIndex, this, index, length);
+		} else if (other instanceof ReadOnlyMemoryAccess) {
+			return mismatch(index, ((ReadOnlyMemoryAccess)other).getMemory(), otherIndex, length);
+		}
+
+		for (long i=0; i < length; i++) {
+			if (getByte(index + i) != other.getByte(otherIndex + i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#compare(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public int compare(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		long i = mismatch(index, other, otherIndex, length);
+		return i < 0 ? 0 : (getByte(index + i) & 0xFF) - (other.getByte(otherIndex + i) & 0xFF);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#isAligned(long, int)
+	 */
+	@Override
+	public boolean isAligned(long index, int alignment) {
+		checker.checkBounds(index, size());
+		return (address(index) & alignmentMask(alignment)) == 0;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#alignUp(long, int)
+	 */
+	@Override
+	public long alignUp(long index, int alignment) {
+		return index + (-address(index) & alignmentMask(alignment));
+	}
+
 	/* (non-Javadoc)
 	 * @see org.xphoenix.storage.api.memory.MemoryAccess#putBuffer(long, java.nio.ByteBuffer)
 	 */
 	@Override
 	public MemoryAccessW putBuffer(long index, @NotNull ByteBuffer value) {
-		throw new UnsupportedOperationException();
+		int position = value.position();
+		int size = value.remaining();
+		checker.checkBounds(index, size, size());
+
+		if (value.isDirect() || value.hasArray()) {
+			UnsafeUtils.copyMemory(bufferObject(value), bufferAddress(value, position), object(), address(index), size);
+		} else {
+			// Read only heap buffer hides its array
+			for (int i=0; i < size; i++) {
+				UnsafeUtils.putByte(object(), address(index + i), value.get(position + i));
+			}
+		}
+
+		value.position(position + size);
+		return this;
 	}
 
 	/* (non-Javadoc)
@@ -281,7 +735,8 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public MemoryAccessW putBuffer(long index, @NotNull byte []value, int offset, int size) {
-		checker.checkBounds(Math.max(0, index + size-1), size());
+		BoundsChecker.checkArray(value.length, offset, size);
+		checker.checkBounds(index, size, size());
 		UnsafeUtils.copyMemory(value, offset, object(), address(index), size);
 
 		return this;
@@ -303,7 +758,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public MemoryAccessW putChar(long index, char value) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 2, size());
 		value = order.decode(value);
 
 		UnsafeUtils.putChar(object(), address(index), value);
@@ -315,7 +770,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public MemoryAccessW putDouble(long index, double value) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 8, size());
 		value = order.decode(value);
 
 		UnsafeUtils.putDouble(object(), address(index), value);
@@ -327,7 +782,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public MemoryAccessW putFloat(long index, float value) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 4, size());
 		value = order.decode(value);
 
 		UnsafeUtils.putFloat(object(), address(index), value);
@@ -339,7 +794,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public MemoryAccessW putInt(long index, int value) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 4, size());
 		value = order.decode(value);
 
 		UnsafeUtils.putInt(object(), address(index), value);
@@ -351,7 +806,7 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public MemoryAccessW putLong(long index, long value) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 8, size());
 		value = order.decode(value);
 
 		UnsafeUtils.putLong(object(), address(index), value);
@@ -363,23 +818,153 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public MemoryAccessW putShort(long index, short value) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 2, size());
 		value = order.decode(value);
 
 		UnsafeUtils.putShort(object(), address(index), value);
 		return this;
 	}
 
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putChars(long, char[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putChars(long index, @NotNull char[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 1, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(values, UnsafeUtils.CHAR_ARRAY_OFFSET + ((long)offset << 1), object, address, (long)length << 1);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 2) {
+				UnsafeUtils.putChar(object, address, order.decode(values[i]));
+			}
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putShorts(long, short[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putShorts(long index, @NotNull short[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 1, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(values, UnsafeUtils.SHORT_ARRAY_OFFSET + ((long)offset << 1), object, address, (long)length << 1);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 2) {
+				UnsafeUtils.putShort(object, address, order.decode(values[i]));
+			}
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putInts(long, int[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putInts(long index, @NotNull int[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 2, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(values, UnsafeUtils.INT_ARRAY_OFFSET + ((long)offset << 2), object, address, (long)length << 2);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 4) {
+				UnsafeUtils.putInt(object, address, order.decode(values[i]));
+			}
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putFloats(long, float[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putFloats(long index, @NotNull float[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 2, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(values, UnsafeUtils.FLOAT_ARRAY_OFFSET + ((long)offset << 2), object, address, (long)length << 2);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 4) {
+				UnsafeUtils.putInt(object, address, order.decode(Float.floatToRawIntBits(values[i])));
+			}
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongs(long, long[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putLongs(long index, @NotNull long[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 3, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(values, UnsafeUtils.LONG_ARRAY_OFFSET + ((long)offset << 3), object, address, (long)length << 3);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 8) {
+				UnsafeUtils.putLong(object, address, order.decode(values[i]));
+			}
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putDoubles(long, double[], int, int)
+	 */
+	@Override
+	public MemoryAccessW putDoubles(long index, @NotNull double[] values, int offset, int length) {
+		BoundsChecker.checkArray(values.length, offset, length);
+		checker.checkBounds(index, (long)length << 3, size());
+
+		Object object = object();
+		long address = address(index);
+		if (order == ByteOrderConvertor.NO_OP) {
+			UnsafeUtils.copyMemory(values, UnsafeUtils.DOUBLE_ARRAY_OFFSET + ((long)offset << 3), object, address, (long)length << 3);
+		} else {
+			for (int i=offset; i < offset + length; i++, address += 8) {
+				UnsafeUtils.putLong(object, address, order.decode(Double.doubleToRawLongBits(values[i])));
+			}
+		}
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#fill(long, long, byte)
+	 */
+	@Override
+	public MemoryAccessW fill(long index, long length, byte value) {
+		checker.checkBounds(index, length, size());
+		UnsafeUtils.setMemory(object(), address(index), length, value);
+		return this;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.xphoenix.storage.api.memory.MemoryAccess#compareAndSwap(long, int, int)
 	 */
 	@Override
 	public boolean compareAndSwap(long index, int expected, int value) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 4, size());
 		expected = order.decode(expected);
 		value  = order.decode(value);
 
-		return UnsafeUtils.compareAndSwapInt(object(), address(index), expected, value);
+		return UnsafeUtils.compareAndSwapInt(object(), atomicAddress(index, 4), expected, value);
 	}
 
 	/* (non-Javadoc)
@@ -387,11 +972,218 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	 */
 	@Override
 	public boolean compareAndSwap(long index, long expected, long value) {
-		checker.checkBounds(index, size());
+		checker.checkBounds(index, 8, size());
 		expected = order.decode(expected);
 		value  = order.decode(value);
 
-		return UnsafeUtils.compareAndSwapLong(object(), address(index), expected, value);
+		return UnsafeUtils.compareAndSwapLong(object(), atomicAddress(index, 8), expected, value);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddInt(long, int)
+	 */
+	@Override
+	public int getAndAddInt(long index, int delta) {
+		checker.checkBounds(index, 4, size());
+		Object object = object();
+		long address = atomicAddress(index, 4);
+		if (order == ByteOrderConvertor.NO_OP) {
+			return UnsafeUtils.getAndAddInt(object, address, delta);
+		}
+
+		// Swapped value could not be incremented by hardware
+		int current;
+		do {
+			current = UnsafeUtils.getIntVolatile(object, address);
+		} while (!UnsafeUtils.compareAndSwapInt(object, address, current, order.decode(order.decode(current) + delta)));
+		return order.decode(current);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddLong(long, long)
+	 */
+	@Override
+	public long getAndAddLong(long index, long delta) {
+		checker.checkBounds(index, 8, size());
+		Object object = object();
+		long address = atomicAddress(index, 8);
+		if (order == ByteOrderConvertor.NO_OP) {
+			return UnsafeUtils.getAndAddLong(object, address, delta);
+		}
+
+		// Swapped value could not be incremented by hardware
+		long current;
+		do {
+			current = UnsafeUtils.getLongVolatile(object, address);
+		} while (!UnsafeUtils.compareAndSwapLong(object, address, current, order.decode(order.decode(current) + delta)));
+		return order.decode(current);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetInt(long, int)
+	 */
+	@Override
+	public int getAndSetInt(long index, int value) {
+		checker.checkBounds(index, 4, size());
+		value = order.decode(value);
+
+		return order.decode(UnsafeUtils.getAndSetInt(object(), atomicAddress(index, 4), value));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetLong(long, long)
+	 */
+	@Override
+	public long getAndSetLong(long index, long value) {
+		checker.checkBounds(index, 8, size());
+		value = order.decode(value);
+
+		return order.decode(UnsafeUtils.getAndSetLong(object(), atomicAddress(index, 8), value));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putIntVolatile(long, int)
+	 */
+	@Override
+	public MemoryAccessW putIntVolatile(long index, int value) {
+		checker.checkBounds(index, 4, size());
+		value = order.decode(value);
+
+		UnsafeUtils.putIntVolatile(object(), atomicAddress(index, 4), value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongVolatile(long, long)
+	 */
+	@Override
+	public MemoryAccessW putLongVolatile(long index, long value) {
+		checker.checkBounds(index, 8, size());
+		value = order.decode(value);
+
+		UnsafeUtils.putLongVolatile(object(), atomicAddress(index, 8), value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedInt(long, int)
+	 */
+	@Override
+	public MemoryAccessW putOrderedInt(long index, int value) {
+		checker.checkBounds(index, 4, size());
+		value = order.decode(value);
+
+		UnsafeUtils.putOrderedInt(object(), atomicAddress(index, 4), value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedLong(long, long)
+	 */
+	@Override
+	public MemoryAccessW putOrderedLong(long index, long value) {
+		checker.checkBounds(index, 8, size());
+		value = order.decode(value);
+
+		UnsafeUtils.putOrderedLong(object(), atomicAddress(index, 8), value);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#slice(long, long)
+	 */
+	@Override
+	public MemoryAccessW slice(final long offset, final long length) {
+		return slice(offset, length, aligned && (offset & 7) == 0);
+	}
+
+	/**
+	 * Returns view over the whole memory which atomic operations check index
+	 * alignment by BoundsChecker instead of address alignment check on each
+	 * call. Alignment of the memory start is checked once here
+	 *
+	 * @return aligned view, or that memory if it is already known to be aligned
+	 * @throws IllegalArgumentException if the first byte address is not 8 bytes aligned
+	 */
+	@NotNull
+	public MemoryAccessW aligned() {
+		if (aligned) {
+			return this;
+		} else if ((address(0) & 7) != 0) {
+			throw new IllegalArgumentException("Memory start is not 8 bytes aligned: "+this);
+		}
+		return slice(0, size(), true);
+	}
+
+	private MemoryAccessW slice(final long offset, final long length, boolean aligned) {
+		BoundsChecker.checkRegion(offset, length, size());
+
+		// Byte addressing is linear, so slice resolves its base once and
+		// then accesses memory directly without delegating to parent.
+		// Parent reference keeps wrapped array/buffer or NativeMemory alive
+		final MemoryAccessUnsafeImpl parent = this;
+		final Object object = object();
+		final long base = address(offset);
+		return new MemoryAccessUnsafeImpl(checker, order, aligned) {
+
+			@Override
+			public long size() {
+				return length;
+			}
+
+			@Override
+			public ByteBuffer[] toByteBuffer() {
+				return MemoryAccessSlice.slice(parent.toByteBuffer(), offset, length);
+			}
+
+			@Override
+			public String toString() {
+				return "MemoryAccessUnsafeSlice [offset="+offset
+						+", size="+length
+						+", parent="+parent
+						+"]";
+			}
+
+			@Override
+			protected long address(long index) {
+				return base + index;
+			}
+
+			@Override
+			protected Object object() {
+				return object;
+			}
+		};
+	}
+
+	/**
+	 * Returns address of the value accessed atomically
+	 *
+	 * @param index index of the value
+	 * @param width value size in bytes
+	 * @return value address
+	 * @throws IllegalArgumentException if value is not aligned
+	 */
+	private long atomicAddress(long index, int width) {
+		long address = address(index);
+		if (aligned) {
+			checker.checkAlignment(index, width);
+		} else if ((address & (width - 1)) != 0) {
+			throw new IllegalArgumentException("Unaligned atomic access: index="+index+", width="+width);
+		}
+		return address;
+	}
+
+	/*
+	 * Heap arrays are moved by GC and keep only object alignment
+	 */
+	private long alignmentMask(int alignment) {
+		if (alignment <= 0 || (alignment & (alignment - 1)) != 0) {
+			throw new IllegalArgumentException("Alignment must be power of two: "+alignment);
+		} else if (alignment > 8 && object() != null) {
+			throw new IllegalArgumentException("Heap memory could not be aligned by "+alignment+" bytes");
+		}
+		return alignment - 1;
 	}
 
 	/**
@@ -412,4 +1204,31 @@ public class MemoryAccessUnsafeImpl implements MemoryAccessW {
 	public ByteBuffer[] toByteBuffer() {
 		throw new RuntimeException("You must override that method to implement index to address mapping");
 	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#toByteBuffer(long, long, org.xphoenix.memory.core.ByteBufferViews)
+	 */
+	@Override
+	public int toByteBuffer(long index, long length, @NotNull ByteBufferViews views) {
+		BoundsChecker.checkRegion(index, length, size());
+		if (length == 0) {
+			return 0;
+		}
+
+		Object object = object();
+		if (object != null) {
+			// Heap memory is always byte array, view over it is just positioned to the range
+			views.add((byte[])object, (int)((address(index) - UnsafeUtils.BYTE_ARRAY_OFFSET) >> UnsafeUtils.BYTE_ARRAY_SHIFT), (int)length);
+			return 1;
+		}
+
+		int count = 0;
+		for (long offset = 0; offset < length; offset += MAX_BUFFER_SIZE) {
+			// View refers this memory, so it could not be collected and
+			// released while view is passed to channel
+			views.add(address(index + offset), (int)Math.min(MAX_BUFFER_SIZE, length - offset), this);
+			count++;
+		}
+		return count;
+	}
 }
@@ -40,10 +40,191 @@ public interface MemoryAccessW extends MemoryAccessR {
 	public MemoryAccessW putShort(long index, short value);
 
 
+	/**
+	 * Writes <code>length</code> char values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to write values from
+	 * @param offset index of the first array element to write
+	 * @param length number of values to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putChars(long index, @NotNull char[] values, int offset, int length);
+
+	/**
+	 * Writes <code>length</code> short values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to write values from
+	 * @param offset index of the first array element to write
+	 * @param length number of values to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putShorts(long index, @NotNull short[] values, int offset, int length);
+
+	/**
+	 * Writes <code>length</code> int values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to write values from
+	 * @param offset index of the first array element to write
+	 * @param length number of values to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putInts(long index, @NotNull int[] values, int offset, int length);
+
+	/**
+	 * Writes <code>length</code> float values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to write values from
+	 * @param offset index of the first array element to write
+	 * @param length number of values to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putFloats(long index, @NotNull float[] values, int offset, int length);
+
+	/**
+	 * Writes <code>length</code> long values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to write values from
+	 * @param offset index of the first array element to write
+	 * @param length number of values to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putLongs(long index, @NotNull long[] values, int offset, int length);
+
+	/**
+	 * Writes <code>length</code> double values starting from the given byte index
+	 *
+	 * @param index byte index of the first value
+	 * @param values array to write values from
+	 * @param offset index of the first array element to write
+	 * @param length number of values to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putDoubles(long index, @NotNull double[] values, int offset, int length);
+
+
+	/**
+	 * Sets <code>length</code> bytes starting from the given index to the value
+	 *
+	 * @param index index of the first byte
+	 * @param length number of bytes to set
+	 * @param value value to set
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW fill(long index, long length, byte value);
+
 	public boolean compareAndSwap (long index, int expected, int value);
 
 	public boolean compareAndSwap (long index, long expected, long value);
 
+	/**
+	 * Atomically adds delta to int value
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @param delta value to add
+	 * @return previous value
+	 */
+	public int getAndAddInt(long index, int delta);
+
+	/**
+	 * Atomically adds delta to long value
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @param delta value to add
+	 * @return previous value
+	 */
+	public long getAndAddLong(long index, long delta);
+
+	/**
+	 * Atomically replaces int value
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @param value new value
+	 * @return previous value
+	 */
+	public int getAndSetInt(long index, int value);
+
+	/**
+	 * Atomically replaces long value
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @param value new value
+	 * @return previous value
+	 */
+	public long getAndSetLong(long index, long value);
+
+	/**
+	 * Writes int value with volatile semantic, i.e. write is not reordered with
+	 * any memory access and is visible to all threads immediately
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @param value value to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putIntVolatile(long index, int value);
+
+	/**
+	 * Writes long value with volatile semantic, see {@link #putIntVolatile(long, int)}
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @param value value to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putLongVolatile(long index, long value);
+
+	/**
+	 * Writes int value with release semantic (lazySet), i.e. write is not reordered
+	 * with previous writes but could become visible to other threads a bit later.
+	 * That is much cheaper then volatile write and enough to publish data for a
+	 * single writer
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @param value value to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putOrderedInt(long index, int value);
+
+	/**
+	 * Writes long value with release semantic, see {@link #putOrderedInt(long, int)}
+	 *
+	 * @param index byte index of the value, must not cross segment boundary
+	 * @param value value to write
+	 * @return this memory
+	 */
+	@NotNull
+	public MemoryAccessW putOrderedLong(long index, long value);
+
 	@NotNull
 	public ByteBuffer []toByteBuffer();
+
+	/**
+	 * Appends ByteBuffer views of the given range to holder. Unlike
+	 * {@link #toByteBuffer()} views are reused between calls, so it creates no
+	 * garbage on I/O path
+	 *
+	 * @param index index of the first byte
+	 * @param length range size in bytes
+	 * @param views holder to append views to
+	 * @return number of appended views
+	 * @throws IndexOutOfBoundsException if range is out of memory bounds
+	 */
+	public int toByteBuffer(long index, long length, @NotNull ByteBufferViews views);
+
+	@NotNull
+	@Override
+	public MemoryAccessW slice(long offset, long length);
 }
@@ -0,0 +1,147 @@
+package org.xphoenix.memory.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Transfers memory ranges to and from NIO channels without staging copies
+ *
+ * <p> Range is represented by {@link ByteBufferViews}, so range crossing
+ * segments of {@link MemoryAccessAggregationImpl} or {@link ExpandableMemory}
+ * is written by one vectored write of gathering channel and read by one
+ * vectored read of scattering channel. Off heap views
+ * are passed to the OS as is; JDK still copies heap views through its own
+ * temporary direct buffers.
+ * </p>
+ *
+ * <p> Blocking channels transfer the whole range. Non-blocking channels could
+ * transfer less, then caller should retry the rest when channel is ready.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class MemoryChannels {
+
+	/*
+	 * Max number of buffers passed to one vectored call, the same as IOV_MAX
+	 * on most platforms, so JDK does not split the call itself
+	 */
+	private static final int MAX_BUFFERS = 1024;
+
+	private MemoryChannels() {
+	}
+
+	/**
+	 * Writes memory range to channel, see {@link #writeTo(MemoryAccessW, long, long, WritableByteChannel, ByteBufferViews)}
+	 *
+	 * @param memory memory to write from
+	 * @param index index of the first byte to write
+	 * @param length number of bytes to write
+	 * @param channel channel to write to
+	 * @return number of written bytes, less then length if non-blocking channel is full
+	 * @throws IOException if channel write fails
+	 * @throws IndexOutOfBoundsException if range is out of memory bounds
+	 */
+	public static long writeTo(@NotNull MemoryAccessW memory, long index, long length, @NotNull WritableByteChannel channel) throws IOException {
+		return writeTo(memory, index, length, channel, new ByteBufferViews());
+	}
+
+	/**
+	 * Writes memory range to channel using the given views holder, so write
+	 * path which reuses holder creates no garbage
+	 *
+	 * @param memory memory to write from
+	 * @param index index of the first byte to write
+	 * @param length number of bytes to write
+	 * @param channel channel to write to
+	 * @param views holder for range views, refilled by the call
+	 * @return number of written bytes, less then length if non-blocking channel is full
+	 * @throws IOException if channel write fails
+	 * @throws IndexOutOfBoundsException if range is out of memory bounds
+	 */
+	public static long writeTo(@NotNull MemoryAccessW memory, long index, long length, @NotNull WritableByteChannel channel, @NotNull ByteBufferViews views) throws IOException {
+		memory.toByteBuffer(index, length, views.clear());
+		ByteBuffer[] buffers = views.buffers();
+		int count = views.count();
+
+		long written = 0;
+		int first = 0;
+		while (written < length) {
+			while (!buffers[first].hasRemaining()) {
+				first++;
+			}
+
+			long n = channel instanceof GatheringByteChannel
+					? ((GatheringByteChannel)channel).write(buffers, first, Math.min(count - first, MAX_BUFFERS))
+					: channel.write(buffers[first]);
+			if (n <= 0) {
+				break;
+			}
+			written += n;
+		}
+		return written;
+	}
+
+	/**
+	 * Reads memory range from channel, see {@link #readFrom(ReadableByteChannel, MemoryAccessW, long, long, ByteBufferViews)}
+	 *
+	 * @param channel channel to read from
+	 * @param memory memory to read to
+	 * @param index index of the first byte to fill
+	 * @param length number of bytes to read
+	 * @return number of read bytes, less then length if channel reached end of
+	 *         stream or non-blocking channel has no more data, -1 if channel
+	 *         reached end of stream before any byte is read
+	 * @throws IOException if channel read fails
+	 * @throws IndexOutOfBoundsException if range is out of memory bounds
+	 */
+	public static long readFrom(@NotNull ReadableByteChannel channel, @NotNull MemoryAccessW memory, long index, long length) throws IOException {
+		return readFrom(channel, memory, index, length, new ByteBufferViews());
+	}
+
+	/**
+	 * Reads memory range from channel using the given views holder, so read
+	 * path which reuses holder creates no garbage
+	 *
+	 * @param channel channel to read from
+	 * @param memory memory to read to
+	 * @param index index of the first byte to fill
+	 * @param length number of bytes to read
+	 * @param views holder for range views, refilled by the call
+	 * @return number of read bytes, less then length if channel reached end of
+	 *         stream or non-blocking channel has no more data, -1 if channel
+	 *         reached end of stream before any byte is read
+	 * @throws IOException if channel read fails
+	 * @throws IndexOutOfBoundsException if range is out of memory bounds
+	 */
+	public static long readFrom(@NotNull ReadableByteChannel channel, @NotNull MemoryAccessW memory, long index, long length, @NotNull ByteBufferViews views) throws IOException {
+		memory.toByteBuffer(index, length, views.clear());
+		ByteBuffer[] buffers = views.buffers();
+		int count = views.count();
+
+		long read = 0;
+		int first = 0;
+		while (read < length) {
+			while (!buffers[first].hasRemaining()) {
+				first++;
+			}
+
+			long n = channel instanceof ScatteringByteChannel
+					? ((ScatteringByteChannel)channel).read(buffers, first, Math.min(count - first, MAX_BUFFERS))
+					: channel.read(buffers[first]);
+			if (n < 0) {
+				return read == 0 ? -1 : read;
+			} else if (n == 0) {
+				break;
+			}
+			read += n;
+		}
+		return read;
+	}
+}
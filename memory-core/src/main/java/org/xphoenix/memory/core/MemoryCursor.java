@@ -0,0 +1,209 @@
+package org.xphoenix.memory.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Base of sequential cursors over memory chunk
+ *
+ * <p> Cursor has position and limit, values are accessed at position which is
+ * moved forward by their size. Cursor keeps continuous run of memory it is
+ * in, i.e. current segment of {@link MemoryAccessAggregationImpl} or
+ * {@link ExpandableMemory}, or parent of a slice, and accesses it directly
+ * until run end, so sequential access does not look up segment and check
+ * bounds for each value. Values crossing run end are accessed through memory
+ * itself and have the same layout as its absolute access methods give.
+ * </p>
+ *
+ * <p> Cursor is not thread safe. If memory is re-pointed, i.e. it is
+ * {@link MemoryAccessFlyweight}, cursor must be re-pointed too.
+ * </p>
+ *
+ * @author andrphi
+ */
+public abstract class MemoryCursor<T extends MemoryAccessR> {
+
+	/*
+	 * Memory the cursor is over
+	 */
+	@NotNull T memory;
+
+	/*
+	 * Index of the next value
+	 */
+	long position;
+
+	/*
+	 * Index of the first byte which could not be accessed
+	 */
+	long limit;
+
+	/*
+	 * Continuous memory the position is in, memory itself if not known
+	 */
+	@NotNull T run;
+
+	/*
+	 * Difference between index in run and index in memory
+	 */
+	long runDelta;
+
+	/*
+	 * Index in memory of the first byte after run, values which end before
+	 * it are accessed through run
+	 */
+	long runEnd;
+
+	MemoryCursor(@NotNull T memory, long position, long limit) {
+		this.memory = memory;
+		this.run = memory;
+		point(memory, position, limit);
+	}
+
+	/**
+	 * Points cursor to [position, limit) region of the given memory
+	 *
+	 * @param memory memory to access
+	 * @param position index of the first byte
+	 * @param limit index of the first byte after region
+	 * @throws IndexOutOfBoundsException if region is out of memory bounds
+	 */
+	final void point(@NotNull T memory, long position, long limit) {
+		BoundsChecker.checkRegion(position, limit - position, memory.size());
+		this.memory = memory;
+		this.position = position;
+		this.limit = limit;
+		this.run = memory;
+		this.runDelta = 0;
+		this.runEnd = -1;
+	}
+
+	/**
+	 * Returns memory the cursor is over
+	 *
+	 * @return memory chunk
+	 */
+	@NotNull
+	public T getMemory() {
+		return memory;
+	}
+
+	/**
+	 * Returns index of the next value
+	 *
+	 * @return cursor position
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**
+	 * Moves cursor to the given index
+	 *
+	 * @param position index of the next value
+	 * @throws IndexOutOfBoundsException if position is out of [0, limit]
+	 */
+	public void position(long position) {
+		if (position < 0 || position > limit) {
+			throw new IndexOutOfBoundsException("Position "+position+" is out of [0, "+limit+"]");
+		}
+		this.position = position;
+
+		// Run could be before new position
+		this.runEnd = -1;
+	}
+
+	/**
+	 * Returns index of the first byte which could not be accessed
+	 *
+	 * @return cursor limit
+	 */
+	public long limit() {
+		return limit;
+	}
+
+	/**
+	 * Returns number of bytes between position and limit
+	 *
+	 * @return remaining bytes
+	 */
+	public long remaining() {
+		return limit - position;
+	}
+
+	public boolean hasRemaining() {
+		return position < limit;
+	}
+
+	/**
+	 * Moves position forward
+	 *
+	 * @param count number of bytes to skip
+	 * @throws IndexOutOfBoundsException if there are less bytes remaining
+	 */
+	public void skip(long count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Negative skip: "+count);
+		}
+		advance(count);
+	}
+
+	/**
+	 * Checks that value fits before limit and moves position after it
+	 *
+	 * @param width value size in bytes
+	 * @return index of the value
+	 * @throws IndexOutOfBoundsException if there are less bytes remaining
+	 */
+	final long advance(long width) {
+		long index = position;
+		if (index + width > limit) {
+			throw new IndexOutOfBoundsException("Access to "+width+" bytes at "+index+" is out of limit "+limit);
+		}
+		position = index + width;
+		return index;
+	}
+
+	/**
+	 * Finds run the value is in, used when value is not in the current one
+	 *
+	 * @param index index of the value
+	 * @param width value size in bytes
+	 * @return true if value is in the run, false if it crosses run end
+	 */
+	@SuppressWarnings("unchecked")
+	final boolean seek(long index, long width) {
+		MemoryAccessR target = memory;
+		long targetIndex = index;
+		if (target instanceof ReadOnlyMemoryAccess) {
+			// Runs are only read, so reader could go under read only view
+			target = ((ReadOnlyMemoryAccess)target).getMemory();
+		}
+		if (target instanceof MemoryAccessSlice) {
+			// Slice of slice refers the original parent, so one step is enough
+			MemoryAccessSlice slice = (MemoryAccessSlice)target;
+			target = slice.getParent();
+			targetIndex += slice.getOffset();
+		}
+
+		if (target instanceof MemoryAccessAggregationImpl && index < limit) {
+			MemoryAccessAggregationImpl<?> aggregation = (MemoryAccessAggregationImpl<?>)target;
+			run = (T)aggregation.segmentOf(targetIndex);
+			runDelta = aggregation.segmentIndex(targetIndex) - index;
+			runEnd = Math.min(limit, index + aggregation.contiguous(targetIndex));
+		} else if (target instanceof ExpandableMemory && index < limit) {
+			ExpandableMemory expandable = (ExpandableMemory)target;
+			run = (T)expandable.segmentOf(targetIndex);
+			runDelta = expandable.segmentIndex(targetIndex) - index;
+			runEnd = Math.min(limit, index + expandable.contiguous(targetIndex));
+		} else if (target instanceof MemoryAccessUnsafeImpl) {
+			run = (T)target;
+			runDelta = targetIndex - index;
+			runEnd = limit;
+		} else {
+			run = memory;
+			runDelta = 0;
+			runEnd = limit;
+		}
+		return index + width <= runEnd;
+	}
+}
@@ -0,0 +1,223 @@
+package org.xphoenix.memory.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Sequential reader of memory chunk
+ *
+ * <p> Meant for decoders and log replay: one reader is created per decoder and
+ * wrapped around the next memory instead of tracking position by hand. Values
+ * are read in memory byte order, variable length integers and strings as
+ * {@link VarIntCodec} and {@link Utf8Codec} encode them.
+ * </p>
+ *
+ * <pre>
+ * MemoryReader reader = new MemoryReader();
+ * reader.wrap(log);
+ * while (reader.hasRemaining()) {
+ *     int type = reader.readVarInt();
+ *     String key = reader.readUtf8(reader.readVarInt());
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author andrphi
+ */
+public final class MemoryReader extends MemoryCursor<MemoryAccessR> {
+
+	/*
+	 * Initial target for not yet wrapped reader
+	 */
+	private static final MemoryAccessR EMPTY = MemoryAccessUnsafeImpl.wrap(new byte[0]);
+
+	/*
+	 * Holder of the last decoded variable length value
+	 */
+	private final long[] varLong = new long[1];
+
+	/**
+	 * Creates empty reader, it must be wrapped around some memory before use
+	 */
+	public MemoryReader() {
+		super(EMPTY, 0, 0);
+	}
+
+	/**
+	 * Creates reader of the whole memory
+	 *
+	 * @param memory memory to read
+	 */
+	public MemoryReader(@NotNull MemoryAccessR memory) {
+		super(memory, 0, memory.size());
+	}
+
+	/**
+	 * Points reader to the whole given memory
+	 *
+	 * @param memory memory to read
+	 * @return this reader
+	 */
+	@NotNull
+	public MemoryReader wrap(@NotNull MemoryAccessR memory) {
+		return wrap(memory, 0, memory.size());
+	}
+
+	/**
+	 * Points reader to [position, limit) region of the given memory
+	 *
+	 * @param memory memory to read
+	 * @param position index of the first byte to read
+	 * @param limit index of the first byte after region
+	 * @return this reader
+	 * @throws IndexOutOfBoundsException if region is out of memory bounds
+	 */
+	@NotNull
+	public MemoryReader wrap(@NotNull MemoryAccessR memory, long position, long limit) {
+		point(memory, position, limit);
+		return this;
+	}
+
+	public byte readByte() {
+		long index = advance(1);
+		return index < runEnd || seek(index, 1) ? run.getByte(index + runDelta) : memory.getByte(index);
+	}
+
+	public char readChar() {
+		long index = advance(2);
+		return index + 2 <= runEnd || seek(index, 2) ? run.getChar(index + runDelta) : memory.getChar(index);
+	}
+
+	public short readShort() {
+		long index = advance(2);
+		return index + 2 <= runEnd || seek(index, 2) ? run.getShort(index + runDelta) : memory.getShort(index);
+	}
+
+	public int readInt() {
+		long index = advance(4);
+		return index + 4 <= runEnd || seek(index, 4) ? run.getInt(index + runDelta) : memory.getInt(index);
+	}
+
+	public long readLong() {
+		long index = advance(8);
+		return index + 8 <= runEnd || seek(index, 8) ? run.getLong(index + runDelta) : memory.getLong(index);
+	}
+
+	public float readFloat() {
+		long index = advance(4);
+		return index + 4 <= runEnd || seek(index, 4) ? run.getFloat(index + runDelta) : memory.getFloat(index);
+	}
+
+	public double readDouble() {
+		long index = advance(8);
+		return index + 8 <= runEnd || seek(index, 8) ? run.getDouble(index + runDelta) : memory.getDouble(index);
+	}
+
+	/**
+	 * Reads variable length value, see {@link VarIntCodec#getVarLong(MemoryAccessR, long)}
+	 *
+	 * @return decoded value
+	 * @throws IndexOutOfBoundsException if value crosses limit
+	 */
+	public long readVarLong() {
+		long index = advance(1);
+		int length;
+		if (index + VarIntCodec.MAX_VAR_LONG_LENGTH <= runEnd || seek(index, VarIntCodec.MAX_VAR_LONG_LENGTH)) {
+			length = VarIntCodec.getVarLong(run, index + runDelta, varLong);
+		} else {
+			length = VarIntCodec.getVarLong(memory, index, varLong);
+		}
+
+		// Length is known after decoding only. Encoding is not always minimal,
+		// so it is the consumed length rather then size of the value
+		position = index;
+		advance(length);
+		return varLong[0];
+	}
+
+	/**
+	 * Reads variable length value, see {@link VarIntCodec#getVarInt(MemoryAccessR, long)}
+	 *
+	 * @return decoded value
+	 * @throws IndexOutOfBoundsException if value crosses limit
+	 */
+	public int readVarInt() {
+		// Negative int could be written as 10 bytes long, so length is of long
+		return (int)readVarLong();
+	}
+
+	/**
+	 * Reads zig-zag encoded value
+	 *
+	 * @return decoded value
+	 * @throws IndexOutOfBoundsException if value crosses limit
+	 */
+	public long readSignedVarLong() {
+		return VarIntCodec.decodeZigZag(readVarLong());
+	}
+
+	/**
+	 * Reads zig-zag encoded value
+	 *
+	 * @return decoded value
+	 * @throws IndexOutOfBoundsException if value crosses limit
+	 */
+	public int readSignedVarInt() {
+		return VarIntCodec.decodeZigZag(readVarInt());
+	}
+
+	/**
+	 * Reads UTF-8 encoded string
+	 *
+	 * @param length encoded length in bytes
+	 * @return decoded string
+	 * @throws IndexOutOfBoundsException if string crosses limit
+	 */
+	@NotNull
+	public String readUtf8(int length) {
+		StringBuilder result = new StringBuilder(length);
+		readUtf8(length, result);
+		return result.toString();
+	}
+
+	/**
+	 * Reads UTF-8 encoded string and appends it to the given builder, so builder
+	 * could be reused to avoid garbage
+	 *
+	 * @param length encoded length in bytes
+	 * @param dst builder to append characters to
+	 * @return number of appended characters
+	 * @throws IndexOutOfBoundsException if string crosses limit
+	 */
+	public int readUtf8(int length, @NotNull StringBuilder dst) {
+		long index = advance(length);
+		return index + length <= runEnd || seek(index, length)
+				? Utf8Codec.getUtf8(run, index + runDelta, length, dst)
+				: Utf8Codec.getUtf8(memory, index, length, dst);
+	}
+
+	/**
+	 * Reads bytes to array
+	 *
+	 * @param dst array to read to
+	 * @param offset index of the first array element to fill
+	 * @param length number of bytes to read
+	 * @throws IndexOutOfBoundsException if bytes cross limit
+	 */
+	public void readBytes(@NotNull byte[] dst, int offset, int length) {
+		long index = advance(length);
+		memory.getBuffer(index, dst, offset, length);
+	}
+
+	/**
+	 * Copies bytes to other memory chunk as is
+	 *
+	 * @param dst memory to copy bytes to
+	 * @param dstIndex index of the first byte in destination
+	 * @param length number of bytes to copy
+	 * @throws IndexOutOfBoundsException if bytes cross limit
+	 */
+	public void readTo(@NotNull MemoryAccessW dst, long dstIndex, long length) {
+		long index = advance(length);
+		memory.copyTo(index, dst, dstIndex, length);
+	}
+}
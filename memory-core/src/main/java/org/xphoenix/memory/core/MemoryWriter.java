@@ -0,0 +1,268 @@
+package org.xphoenix.memory.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Sequential writer of memory chunk
+ *
+ * <p> Meant for encoders and log appenders: one writer is created per encoder
+ * and wrapped around the next memory instead of tracking position by hand.
+ * Values are written in memory byte order, variable length integers and
+ * strings as {@link VarIntCodec} and {@link Utf8Codec} encode them, so
+ * {@link MemoryReader} reads them back.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class MemoryWriter extends MemoryCursor<MemoryAccessW> {
+
+	/*
+	 * Initial target for not yet wrapped writer
+	 */
+	private static final MemoryAccessW EMPTY = MemoryAccessUnsafeImpl.wrap(new byte[0]);
+
+	/**
+	 * Creates empty writer, it must be wrapped around some memory before use
+	 */
+	public MemoryWriter() {
+		super(EMPTY, 0, 0);
+	}
+
+	/**
+	 * Creates writer of the whole memory
+	 *
+	 * @param memory memory to write
+	 */
+	public MemoryWriter(@NotNull MemoryAccessW memory) {
+		super(memory, 0, memory.size());
+	}
+
+	/**
+	 * Points writer to the whole given memory
+	 *
+	 * @param memory memory to write
+	 * @return this writer
+	 */
+	@NotNull
+	public MemoryWriter wrap(@NotNull MemoryAccessW memory) {
+		return wrap(memory, 0, memory.size());
+	}
+
+	/**
+	 * Points writer to [position, limit) region of the given memory
+	 *
+	 * @param memory memory to write
+	 * @param position index of the first byte to write
+	 * @param limit index of the first byte after region
+	 * @return this writer
+	 * @throws IndexOutOfBoundsException if region is out of memory bounds
+	 */
+	@NotNull
+	public MemoryWriter wrap(@NotNull MemoryAccessW memory, long position, long limit) {
+		point(memory, position, limit);
+		return this;
+	}
+
+	@NotNull
+	public MemoryWriter writeByte(byte value) {
+		long index = advance(1);
+		if (index < runEnd || seek(index, 1)) {
+			run.putByte(index + runDelta, value);
+		} else {
+			memory.putByte(index, value);
+		}
+		return this;
+	}
+
+	@NotNull
+	public MemoryWriter writeChar(char value) {
+		long index = advance(2);
+		if (index + 2 <= runEnd || seek(index, 2)) {
+			run.putChar(index + runDelta, value);
+		} else {
+			memory.putChar(index, value);
+		}
+		return this;
+	}
+
+	@NotNull
+	public MemoryWriter writeShort(short value) {
+		long index = advance(2);
+		if (index + 2 <= runEnd || seek(index, 2)) {
+			run.putShort(index + runDelta, value);
+		} else {
+			memory.putShort(index, value);
+		}
+		return this;
+	}
+
+	@NotNull
+	public MemoryWriter writeInt(int value) {
+		long index = advance(4);
+		if (index + 4 <= runEnd || seek(index, 4)) {
+			run.putInt(index + runDelta, value);
+		} else {
+			memory.putInt(index, value);
+		}
+		return this;
+	}
+
+	@NotNull
+	public MemoryWriter writeLong(long value) {
+		long index = advance(8);
+		if (index + 8 <= runEnd || seek(index, 8)) {
+			run.putLong(index + runDelta, value);
+		} else {
+			memory.putLong(index, value);
+		}
+		return this;
+	}
+
+	@NotNull
+	public MemoryWriter writeFloat(float value) {
+		long index = advance(4);
+		if (index + 4 <= runEnd || seek(index, 4)) {
+			run.putFloat(index + runDelta, value);
+		} else {
+			memory.putFloat(index, value);
+		}
+		return this;
+	}
+
+	@NotNull
+	public MemoryWriter writeDouble(double value) {
+		long index = advance(8);
+		if (index + 8 <= runEnd || seek(index, 8)) {
+			run.putDouble(index + runDelta, value);
+		} else {
+			memory.putDouble(index, value);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes variable length value, see {@link VarIntCodec#putVarLong(MemoryAccessW, long, long)}
+	 *
+	 * @param value value to write, as unsigned
+	 * @return this writer
+	 * @throws IndexOutOfBoundsException if value crosses limit
+	 */
+	@NotNull
+	public MemoryWriter writeVarLong(long value) {
+		int length = VarIntCodec.sizeOfVarLong(value);
+		long index = advance(length);
+		if (index + length <= runEnd || seek(index, length)) {
+			VarIntCodec.putVarLong(run, index + runDelta, value);
+		} else {
+			VarIntCodec.putVarLong(memory, index, value);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes variable length value, see {@link VarIntCodec#putVarInt(MemoryAccessW, long, int)}
+	 *
+	 * @param value value to write, as unsigned
+	 * @return this writer
+	 * @throws IndexOutOfBoundsException if value crosses limit
+	 */
+	@NotNull
+	public MemoryWriter writeVarInt(int value) {
+		return writeVarLong(value & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Writes zig-zag encoded value
+	 *
+	 * @param value value to write
+	 * @return this writer
+	 * @throws IndexOutOfBoundsException if value crosses limit
+	 */
+	@NotNull
+	public MemoryWriter writeSignedVarLong(long value) {
+		return writeVarLong(VarIntCodec.encodeZigZag(value));
+	}
+
+	/**
+	 * Writes zig-zag encoded value
+	 *
+	 * @param value value to write
+	 * @return this writer
+	 * @throws IndexOutOfBoundsException if value crosses limit
+	 */
+	@NotNull
+	public MemoryWriter writeSignedVarInt(int value) {
+		return writeVarInt(VarIntCodec.encodeZigZag(value));
+	}
+
+	/**
+	 * Writes UTF-8 encoded string, its length must be written by caller if
+	 * needed, see {@link Utf8Codec#sizeOfUtf8(CharSequence)}
+	 *
+	 * @param value string to write
+	 * @return encoded length
+	 * @throws IndexOutOfBoundsException if string crosses limit
+	 */
+	public int writeUtf8(@NotNull CharSequence value) {
+		// Every char takes at most 3 bytes, so exact length is needed near limit only
+		long index = position;
+		long length = 3L * value.length();
+		if (index + length > limit) {
+			length = Utf8Codec.sizeOfUtf8(value);
+		}
+		advance(length);
+
+		int written = index + length <= runEnd || seek(index, length)
+				? Utf8Codec.putUtf8(run, index + runDelta, value)
+				: Utf8Codec.putUtf8(memory, index, value);
+		position = index + written;
+		return written;
+	}
+
+	/**
+	 * Writes bytes from array
+	 *
+	 * @param src array to write
+	 * @param offset index of the first array element to write
+	 * @param length number of bytes to write
+	 * @return this writer
+	 * @throws IndexOutOfBoundsException if bytes cross limit
+	 */
+	@NotNull
+	public MemoryWriter writeBytes(@NotNull byte[] src, int offset, int length) {
+		long index = advance(length);
+		memory.putBuffer(index, src, offset, length);
+		return this;
+	}
+
+	/**
+	 * Copies bytes from other memory chunk as is
+	 *
+	 * @param src memory to copy bytes from
+	 * @param srcIndex index of the first byte in source
+	 * @param length number of bytes to copy
+	 * @return this writer
+	 * @throws IndexOutOfBoundsException if bytes cross limit
+	 */
+	@NotNull
+	public MemoryWriter writeFrom(@NotNull MemoryAccessR src, long srcIndex, long length) {
+		long index = advance(length);
+		src.copyTo(srcIndex, memory, index, length);
+		return this;
+	}
+
+	/**
+	 * Fills bytes with the given value, i.e. to zero padding
+	 *
+	 * @param length number of bytes to fill
+	 * @param value byte value
+	 * @return this writer
+	 * @throws IndexOutOfBoundsException if bytes cross limit
+	 */
+	@NotNull
+	public MemoryWriter fill(long length, byte value) {
+		long index = advance(length);
+		memory.fill(index, length, value);
+		return this;
+	}
+}
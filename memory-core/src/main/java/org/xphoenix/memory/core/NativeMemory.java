@@ -0,0 +1,269 @@
+package org.xphoenix.memory.core;
+
+import java.io.Closeable;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xphoenix.memory.UnsafeUtils;
+
+/**
+ * Off heap memory allocated directly by Unsafe#allocateMemory
+ *
+ * <p> Unlike {@link ByteBuffer#allocateDirect(int)} allocation has no global
+ * reservation lock, is not limited by 2GB and optionally skips zeroing. Memory
+ * is released explicitly by {@link #close()}, instance must not be used after.
+ * </p>
+ *
+ * <p> Leak tracking could be turned on by {@value #LEAK_TRACKING_PROPERTY} system
+ * property or {@link #setLeakTracking(boolean)}. When it is on allocation site is
+ * recorded for each chunk and chunks collected by GC without close are reported
+ * and released.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class NativeMemory extends MemoryAccessUnsafeImpl implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(NativeMemory.class);
+
+	/**
+	 * System property to turn leak tracking on
+	 */
+	public static final String LEAK_TRACKING_PROPERTY = "org.xphoenix.memory.leaks";
+
+	/*
+	 * Tracked allocations which are not closed yet
+	 */
+	private static final Set<Allocation> allocations = Collections.newSetFromMap(new ConcurrentHashMap<Allocation, Boolean>());
+
+	/*
+	 * Allocations collected by GC
+	 */
+	private static final ReferenceQueue<NativeMemory> collected = new ReferenceQueue<>();
+
+	private static volatile boolean trackLeaks = Boolean.getBoolean(LEAK_TRACKING_PROPERTY);
+
+	/**
+	 * Allocates memory chunk with bounds checks and native byte order. Memory
+	 * is not zeroed
+	 *
+	 * @param size chunk size in bytes
+	 * @return allocated memory
+	 */
+	public static NativeMemory allocate(long size) {
+		return allocate(BoundsChecker.REAL, ByteOrderConvertor.NO_OP, size, false);
+	}
+
+	/**
+	 * Allocates memory chunk with bounds checks and native byte order
+	 *
+	 * @param size chunk size in bytes
+	 * @param zero true if memory must be filled with zeros
+	 * @return allocated memory
+	 */
+	public static NativeMemory allocate(long size, boolean zero) {
+		return allocate(BoundsChecker.REAL, ByteOrderConvertor.NO_OP, size, zero);
+	}
+
+	/**
+	 * Allocates memory chunk
+	 *
+	 * @param checker {@link MemoryAccessUnsafeImpl#MemoryAccessUnsafeImpl(BoundsChecker, ByteOrderConvertor)}
+	 * @param convertor {@link MemoryAccessUnsafeImpl#MemoryAccessUnsafeImpl(BoundsChecker, ByteOrderConvertor)}
+	 * @param size chunk size in bytes
+	 * @param zero true if memory must be filled with zeros
+	 * @return allocated memory
+	 * @throws OutOfMemoryError if memory could not be allocated
+	 */
+	public static NativeMemory allocate(@NotNull BoundsChecker checker, @NotNull ByteOrderConvertor convertor, long size, boolean zero) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Memory size must be positive: "+size);
+		}
+
+		reclaimLeaks();
+		long address = UnsafeUtils.allocateMemory(size);
+		if (zero) {
+			UnsafeUtils.setMemory(address, size, (byte)0);
+		}
+		return new NativeMemory(checker, convertor, address, size);
+	}
+
+	/**
+	 * Turns leak tracking on or off. Allocations made before the call are not
+	 * affected
+	 *
+	 * @param enabled true to record allocation sites
+	 */
+	public static void setLeakTracking(boolean enabled) {
+		trackLeaks = enabled;
+	}
+
+	/**
+	 * Checks if leak tracking is on
+	 *
+	 * @return true if allocation sites are recorded
+	 */
+	public static boolean isLeakTracking() {
+		return trackLeaks;
+	}
+
+	/**
+	 * Returns allocation sites of all tracked chunks which are not closed yet
+	 *
+	 * @return allocation sites
+	 */
+	public static List<Throwable> getTrackedAllocations() {
+		List<Throwable> result = new ArrayList<>(allocations.size());
+		for (Allocation a : allocations) {
+			result.add(a.site);
+		}
+		return result;
+	}
+
+	/**
+	 * Reports and releases tracked chunks collected by GC without close.
+	 * Called on each allocation
+	 *
+	 * @return number of released chunks
+	 */
+	public static int reclaimLeaks() {
+		int count = 0;
+		for (Reference<? extends NativeMemory> ref = collected.poll(); ref != null; ref = collected.poll()) {
+			Allocation a = (Allocation) ref;
+			if (allocations.remove(a)) {
+				LOG.warn("Native memory leak: {} bytes were not released, allocated at:", a.size, a.site);
+				UnsafeUtils.freeMemory(a.address);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Address of the allocated memory, 0 after close. Plain fields as every
+	 * access reads them, close is teardown after all users are done
+	 */
+	private long address;
+
+	private long size;
+
+	/*
+	 * Leak tracking record, null if tracking was off on allocation
+	 */
+	private final Allocation allocation;
+
+	private NativeMemory(@NotNull BoundsChecker checker, @NotNull ByteOrderConvertor convertor, long address, long size) {
+		super(checker, convertor, (address & 7) == 0);
+		this.address = address;
+		this.size = size;
+		this.allocation = trackLeaks ? new Allocation(this, address, size) : null;
+		if (allocation != null) {
+			allocations.add(allocation);
+		}
+	}
+
+	/**
+	 * Returns address of the first allocated byte
+	 *
+	 * @return memory address, 0 if memory is released
+	 */
+	public long address() {
+		return address;
+	}
+
+	/**
+	 * Checks if memory is released
+	 *
+	 * @return true if {@link #close()} was called
+	 */
+	public boolean isClosed() {
+		return address == 0;
+	}
+
+	@Override
+	public long size() {
+		return size;
+	}
+
+	@Override
+	public ByteBuffer[] toByteBuffer() {
+		// Views refer this instance, so it is not collected and released by
+		// leak tracking while they are in use
+		return toByteBuffer(address, size, this);
+	}
+
+	/**
+	 * Releases memory. Subsequent calls do nothing
+	 *
+	 * <p> Close is single threaded teardown: it must happen after all accesses
+	 * of other threads and be published to them by the same means the memory
+	 * was, e.g. by thread join or by a queue. Access racing with close could
+	 * crash JVM, concurrent close calls release memory once.
+	 * </p>
+	 */
+	@Override
+	public synchronized void close() {
+		long addr = address;
+		if (addr == 0) {
+			return;
+		}
+
+		// With REAL checker any access after close fails on bounds check
+		size = 0;
+		address = 0;
+		if (allocation != null) {
+			allocations.remove(allocation);
+			allocation.clear();
+		}
+		UnsafeUtils.freeMemory(addr);
+	}
+
+	@Override
+	public String toString() {
+		return "NativeMemory [checker="+checker.name()
+				+", order="+order.name()
+				+", address="+Long.toHexString(address)
+				+", size="+size
+				+"]";
+	}
+
+	@Override
+	protected long address(long index) {
+		return address + index;
+	}
+
+	@Override
+	protected Object object() {
+		return null;
+	}
+
+	/*
+	 * Leak tracking record. Must not refer NativeMemory instance, otherwise
+	 * it never becomes phantom reachable
+	 */
+	private static final class Allocation extends PhantomReference<NativeMemory> {
+
+		private final long address;
+
+		private final long size;
+
+		private final @NotNull Throwable site;
+
+		Allocation(@NotNull NativeMemory memory, long address, long size) {
+			super(memory, collected);
+			this.address = address;
+			this.size = size;
+			this.site = new Throwable("Allocation of "+size+" bytes");
+		}
+	}
+}
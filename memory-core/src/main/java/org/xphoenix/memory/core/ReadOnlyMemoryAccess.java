@@ -0,0 +1,264 @@
+package org.xphoenix.memory.core;
+
+import java.nio.ByteBuffer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Read only view of memory chunk
+ *
+ * <p> Memory implementations provide both read and write access, so memory
+ * which must not be changed, e.g. file mapped in read only mode, is exposed
+ * through that view. It could not be cast to {@link MemoryAccessW}, so an
+ * attempt to write fails instead of crashing JVM on write protected pages.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class ReadOnlyMemoryAccess implements MemoryAccessR {
+
+	private final @NotNull MemoryAccessR memory;
+
+	/**
+	 * Creates read only view
+	 *
+	 * @param memory memory to read
+	 */
+	public ReadOnlyMemoryAccess(@NotNull MemoryAccessR memory) {
+		this.memory = memory;
+	}
+
+	/**
+	 * Returns memory under the view, so code dispatching by implementation
+	 * could use its fast read paths. Must not leak to users
+	 *
+	 * @return viewed memory
+	 */
+	@NotNull
+	MemoryAccessR getMemory() {
+		return memory;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#size()
+	 */
+	@Override
+	public long size() {
+		return memory.size();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBoundsChecker()
+	 */
+	@Override
+	@NotNull
+	public BoundsChecker getBoundsChecker() {
+		return memory.getBoundsChecker();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getByteOrderConvertor()
+	 */
+	@Override
+	@NotNull
+	public ByteOrderConvertor getByteOrderConvertor() {
+		return memory.getByteOrderConvertor();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getByte(long)
+	 */
+	@Override
+	public byte getByte(long index) {
+		return memory.getByte(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(byte[] buffer, int index, int size) {
+		memory.getBuffer(buffer, index, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull byte[] buffer, int offset, int size) {
+		memory.getBuffer(index, buffer, offset, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, java.nio.ByteBuffer)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull ByteBuffer buffer) {
+		memory.getBuffer(index, buffer);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChar(long)
+	 */
+	@Override
+	public char getChar(long index) {
+		return memory.getChar(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDouble(long)
+	 */
+	@Override
+	public double getDouble(long index) {
+		return memory.getDouble(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloat(long)
+	 */
+	@Override
+	public float getFloat(long index) {
+		return memory.getFloat(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInt(long)
+	 */
+	@Override
+	public int getInt(long index) {
+		return memory.getInt(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLong(long)
+	 */
+	@Override
+	public long getLong(long index) {
+		return memory.getLong(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShort(long)
+	 */
+	@Override
+	public short getShort(long index) {
+		return memory.getShort(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getIntVolatile(long)
+	 */
+	@Override
+	public int getIntVolatile(long index) {
+		return memory.getIntVolatile(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongVolatile(long)
+	 */
+	@Override
+	public long getLongVolatile(long index) {
+		return memory.getLongVolatile(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChars(long, char[], int, int)
+	 */
+	@Override
+	public void getChars(long index, @NotNull char[] values, int offset, int length) {
+		memory.getChars(index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShorts(long, short[], int, int)
+	 */
+	@Override
+	public void getShorts(long index, @NotNull short[] values, int offset, int length) {
+		memory.getShorts(index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInts(long, int[], int, int)
+	 */
+	@Override
+	public void getInts(long index, @NotNull int[] values, int offset, int length) {
+		memory.getInts(index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloats(long, float[], int, int)
+	 */
+	@Override
+	public void getFloats(long index, @NotNull float[] values, int offset, int length) {
+		memory.getFloats(index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongs(long, long[], int, int)
+	 */
+	@Override
+	public void getLongs(long index, @NotNull long[] values, int offset, int length) {
+		memory.getLongs(index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDoubles(long, double[], int, int)
+	 */
+	@Override
+	public void getDoubles(long index, @NotNull double[] values, int offset, int length) {
+		memory.getDoubles(index, values, offset, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#copyTo(long, org.xphoenix.memory.core.MemoryAccessW, long, long)
+	 */
+	@Override
+	public void copyTo(long index, @NotNull MemoryAccessW dst, long dstIndex, long length) {
+		memory.copyTo(index, dst, dstIndex, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#mismatch(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public long mismatch(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		return memory.mismatch(index, other, otherIndex, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#compare(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public int compare(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		return memory.compare(index, other, otherIndex, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#isAligned(long, int)
+	 */
+	@Override
+	public boolean isAligned(long index, int alignment) {
+		return memory.isAligned(index, alignment);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#alignUp(long, int)
+	 */
+	@Override
+	public long alignUp(long index, int alignment) {
+		return memory.alignUp(index, alignment);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#slice(long, long)
+	 */
+	@Override
+	public MemoryAccessR slice(long offset, long length) {
+		return new ReadOnlyMemoryAccess(memory.slice(offset, length));
+	}
+
+	@Override
+	public String toString() {
+		return "ReadOnlyMemoryAccess [memory="+memory+"]";
+	}
+}
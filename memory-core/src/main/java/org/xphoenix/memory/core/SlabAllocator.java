@@ -0,0 +1,474 @@
+package org.xphoenix.memory.core;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thread safe allocator of fixed size blocks over one large memory chunk
+ *
+ * <p> Memory is split into slabs of the max block size, each slab is given to one
+ * size class on first demand and is carved into blocks of that class. Size classes
+ * are powers of two between min and max block size. Blocks are returned as offsets
+ * in allocator memory, so allocation creates no objects, use
+ * {@link MemoryAccessFlyweight} to access them.
+ * </p>
+ *
+ * <p> Free blocks of each class are kept in lock free stack linked through the first
+ * 8 bytes of the blocks themselves. Every thread has small cache of free blocks per
+ * class and moves blocks from/to shared stack by batches, so most allocations do
+ * not touch shared state. Blocks cached by thread stay unavailable to others till
+ * {@link #flushThreadCache()}, so threads which stop using allocator should call it.
+ * Caches of dead threads are drained when other thread starts to use allocator
+ * or when shared stack of the class is empty.
+ * Slabs are never given back, once slab is assigned to the class it keeps it.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class SlabAllocator {
+
+	public static final int DEFAULT_MIN_BLOCK = 32;
+
+	public static final int DEFAULT_MAX_BLOCK = 1 << 20;
+
+	/*
+	 * Max bytes kept in one thread cache per size class, and max number of blocks
+	 */
+	private static final int CACHE_BYTES = 256 * 1024;
+
+	private static final int CACHE_BLOCKS = 64;
+
+	/*
+	 * Free stack head: modification tag in high bits and reference to the top block,
+	 * which is block offset in min block units plus one, so zero is empty stack
+	 */
+	private static final int REF_BITS = 40;
+
+	private static final long REF_MASK = (1L << REF_BITS) - 1;
+
+	private static final long TAG = 1L << REF_BITS;
+
+	private static final byte UNASSIGNED = -1;
+
+	private final @NotNull MemoryAccessW memory;
+
+	private final int minShift;
+
+	private final int slabShift;
+
+	private final int classes;
+
+	/*
+	 * Number of blocks cached by thread per class, zero disables cache for class
+	 */
+	private final int[] cacheLimit;
+
+	/*
+	 * Size class of each slab
+	 */
+	private final byte[] slabClass;
+
+	/*
+	 * Number of slabs given to classes
+	 */
+	private final AtomicLong assigned = new AtomicLong();
+
+	private final AtomicLongArray classSlabs;
+
+	private final AtomicLongArray heads;
+
+	/*
+	 * Blocks allocated minus blocks freed by threads which caches were drained
+	 */
+	private final AtomicLongArray retired;
+
+	private final ThreadCaches<Cache> caches = new ThreadCaches<Cache>() {
+		@Override
+		Cache create() {
+			return new Cache(cacheLimit);
+		}
+
+		@Override
+		void drain(Cache c) {
+			for (int cls=0; cls < classes; cls++) {
+				flush(c, cls, c.count[cls]);
+				retired.addAndGet(cls, c.allocated[cls]);
+			}
+		}
+	};
+
+	/**
+	 * Creates allocator with size classes from {@link #DEFAULT_MIN_BLOCK} to
+	 * {@link #DEFAULT_MAX_BLOCK}
+	 *
+	 * @param memory memory to allocate blocks from
+	 */
+	public SlabAllocator(@NotNull MemoryAccessW memory) {
+		this(memory, DEFAULT_MIN_BLOCK, DEFAULT_MAX_BLOCK);
+	}
+
+	/**
+	 * Creates allocator
+	 *
+	 * @param memory memory to allocate blocks from
+	 * @param minBlock size of the smallest class, power of two not less then 8
+	 * @param maxBlock size of the largest class and slab size, power of two
+	 */
+	public SlabAllocator(@NotNull MemoryAccessW memory, int minBlock, int maxBlock) {
+		if (minBlock < 8 || Integer.bitCount(minBlock) != 1) {
+			throw new IllegalArgumentException("Min block must be a power of two not less then 8: "+minBlock);
+		} else if (maxBlock < minBlock || Integer.bitCount(maxBlock) != 1) {
+			throw new IllegalArgumentException("Max block must be a power of two not less then min block: "+maxBlock);
+		}
+
+		this.memory = memory;
+		this.minShift = Integer.numberOfTrailingZeros(minBlock);
+		this.slabShift = Integer.numberOfTrailingZeros(maxBlock);
+		this.classes = slabShift - minShift + 1;
+
+		if ((memory.size() >>> minShift) >= REF_MASK) {
+			throw new IllegalArgumentException("Memory is too large for min block "+minBlock+": "+memory.size());
+		}
+
+		long slabs = memory.size() >>> slabShift;
+		if (slabs > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Memory is too large for max block "+maxBlock+": "+memory.size());
+		}
+
+		this.slabClass = new byte[(int)slabs];
+		Arrays.fill(slabClass, UNASSIGNED);
+		this.classSlabs = new AtomicLongArray(classes);
+		this.heads = new AtomicLongArray(classes);
+		this.retired = new AtomicLongArray(classes);
+		this.cacheLimit = new int[classes];
+		for (int i=0; i < classes; i++) {
+			cacheLimit[i] = Math.min(CACHE_BLOCKS, CACHE_BYTES >> (minShift + i));
+		}
+	}
+
+	/**
+	 * Returns memory blocks are allocated from
+	 *
+	 * @return allocator memory
+	 */
+	public MemoryAccessW getMemory() {
+		return memory;
+	}
+
+	/**
+	 * Allocates block of the smallest class which fits the given size
+	 *
+	 * @param size requested size in bytes
+	 * @return index of the first block byte in {@link #getMemory()}
+	 * @throws IllegalStateException if there is no free block and no free slab
+	 */
+	public long allocate(int size) {
+		int cls = sizeClass(size);
+		Cache c = caches.get();
+		long offset = c.count[cls] > 0 ? c.blocks[cls][--c.count[cls]] : refill(c, cls);
+		c.allocated[cls]++;
+		return offset;
+	}
+
+	/**
+	 * Returns block to allocator. Block could be freed by any thread
+	 *
+	 * @param offset offset returned by {@link #allocate(int)}
+	 */
+	public void free(long offset) {
+		int cls = classOf(offset);
+		Cache c = caches.get();
+		int limit = cacheLimit[cls];
+
+		if (limit == 0) {
+			push(cls, offset, offset);
+		} else {
+			if (c.count[cls] == limit) {
+				flush(c, cls, Math.max(1, limit >> 1));
+			}
+			c.blocks[cls][c.count[cls]++] = offset;
+		}
+		c.allocated[cls]--;
+	}
+
+	/**
+	 * Returns size of the allocated block, it could be greater then requested size
+	 *
+	 * @param offset offset returned by {@link #allocate(int)}
+	 * @return block size in bytes
+	 */
+	public int blockSize(long offset) {
+		return classSize(classOf(offset));
+	}
+
+	/**
+	 * Gives blocks cached by the current thread back to shared free lists
+	 */
+	public void flushThreadCache() {
+		Cache c = caches.get();
+		for (int cls=0; cls < classes; cls++) {
+			flush(c, cls, c.count[cls]);
+		}
+	}
+
+	/**
+	 * Returns number of size classes
+	 *
+	 * @return number of size classes
+	 */
+	public int sizeClasses() {
+		return classes;
+	}
+
+	/**
+	 * Returns block size of the class
+	 *
+	 * @param sizeClass class index, from 0 to {@link #sizeClasses()}
+	 * @return block size in bytes
+	 */
+	public int classSize(int sizeClass) {
+		return 1 << (minShift + sizeClass);
+	}
+
+	/**
+	 * Returns number of slabs given to the class
+	 *
+	 * @param sizeClass class index
+	 * @return number of slabs
+	 */
+	public long slabs(int sizeClass) {
+		return classSlabs.get(sizeClass);
+	}
+
+	/**
+	 * Returns number of allocated blocks of the class. Value is approximate while
+	 * other threads allocate or free blocks
+	 *
+	 * @param sizeClass class index
+	 * @return number of blocks
+	 */
+	public long usedBlocks(int sizeClass) {
+		long used = retired.get(sizeClass);
+		for (Cache c : caches.caches()) {
+			used += c.allocated[sizeClass];
+		}
+		return used;
+	}
+
+	/**
+	 * Returns share of allocated blocks in slabs of the class
+	 *
+	 * @param sizeClass class index
+	 * @return occupancy from 0 to 1
+	 */
+	public double occupancy(int sizeClass) {
+		long blocks = slabs(sizeClass) << (slabShift - minShift - sizeClass);
+		return blocks == 0 ? 0 : (double)usedBlocks(sizeClass) / blocks;
+	}
+
+	/**
+	 * Returns number of bytes in allocated blocks
+	 *
+	 * @return allocated bytes
+	 */
+	public long used() {
+		long used = 0;
+		for (int cls=0; cls < classes; cls++) {
+			used += usedBlocks(cls) << (minShift + cls);
+		}
+		return used;
+	}
+
+	/**
+	 * Returns number of bytes in slabs given to size classes
+	 *
+	 * @return reserved bytes
+	 */
+	public long reserved() {
+		return assigned.get() << slabShift;
+	}
+
+	/**
+	 * Returns number of bytes never given to any size class
+	 *
+	 * @return free bytes
+	 */
+	public long remaining() {
+		return memory.size() - reserved();
+	}
+
+	/**
+	 * Returns share of reserved memory which is not allocated, i.e. free
+	 * blocks in the slabs of other classes
+	 *
+	 * @return fragmentation from 0 to 1
+	 */
+	public double fragmentation() {
+		long reserved = reserved();
+		return reserved == 0 ? 0 : 1 - (double)used() / reserved;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder("SlabAllocator [used=").append(used())
+				.append(", reserved=").append(reserved())
+				.append(", capacity=").append(memory.size())
+				.append(", classes={");
+		for (int cls=0; cls < classes; cls++) {
+			if (slabs(cls) != 0) {
+				b.append(classSize(cls)).append('=').append(usedBlocks(cls)).append('/').append(slabs(cls)).append(' ');
+			}
+		}
+		return b.append("}]").toString();
+	}
+
+	private int sizeClass(int size) {
+		if (size <= 0 || size > 1 << slabShift) {
+			throw new IllegalArgumentException("Block size must be in [1, "+(1 << slabShift)+"]: "+size);
+		}
+		return Math.max(0, 32 - Integer.numberOfLeadingZeros(size - 1) - minShift);
+	}
+
+	private int classOf(long offset) {
+		long slab = offset >>> slabShift;
+		if (offset < 0 || slab >= slabClass.length || slabClass[(int)slab] == UNASSIGNED) {
+			throw new IllegalArgumentException("Offset is not allocated by this allocator: "+offset);
+		}
+
+		int cls = slabClass[(int)slab];
+		if ((offset & ((1L << (minShift + cls)) - 1)) != 0) {
+			throw new IllegalArgumentException("Offset is not a block start: "+offset);
+		}
+		return cls;
+	}
+
+	/*
+	 * Takes block from shared stack, caches of dead threads or new slab, moves
+	 * half of cache limit blocks more to the thread cache
+	 */
+	private long refill(Cache c, int cls) {
+		long offset = pop(cls);
+		if (offset < 0 && caches.drainDead() > 0) {
+			offset = pop(cls);
+		}
+		if (offset < 0) {
+			return carve(c, cls);
+		}
+
+		int batch = cacheLimit[cls] >> 1;
+		for (long next; c.count[cls] < batch && (next = pop(cls)) >= 0;) {
+			c.blocks[cls][c.count[cls]++] = next;
+		}
+		return offset;
+	}
+
+	/*
+	 * Assigns new slab to the class, returns its first block, fills thread cache
+	 * and pushes the rest blocks to the shared stack
+	 */
+	private long carve(Cache c, int cls) {
+		long slab;
+		do {
+			slab = assigned.get();
+			if (slab >= slabClass.length) {
+				throw new IllegalStateException("Slab allocator has no free "+classSize(cls)+" bytes block: "+this);
+			}
+		} while (!assigned.compareAndSet(slab, slab + 1));
+
+		slabClass[(int)slab] = (byte)cls;
+		classSlabs.incrementAndGet(cls);
+
+		int shift = minShift + cls;
+		long base = slab << slabShift;
+		long end = base + (1L << slabShift);
+		long offset = base + (1L << shift);
+
+		for (; offset < end && c.count[cls] < cacheLimit[cls]; offset += 1L << shift) {
+			c.blocks[cls][c.count[cls]++] = offset;
+		}
+
+		if (offset < end) {
+			long first = offset;
+			for (; offset + (1L << shift) < end; offset += 1L << shift) {
+				memory.putLong(offset, ref(offset + (1L << shift)));
+			}
+			push(cls, first, offset);
+		}
+		return base;
+	}
+
+	/*
+	 * Pushes given number of the thread cache blocks to the shared stack
+	 */
+	private void flush(Cache c, int cls, int count) {
+		if (count == 0) {
+			return;
+		}
+
+		long[] blocks = c.blocks[cls];
+		int from = c.count[cls] - count;
+		for (int i=from; i < c.count[cls] - 1; i++) {
+			memory.putLong(blocks[i], ref(blocks[i + 1]));
+		}
+		push(cls, blocks[from], blocks[c.count[cls] - 1]);
+		c.count[cls] = from;
+	}
+
+	/*
+	 * Pushes chain of blocks linked from first to last on top of the class stack
+	 */
+	private void push(int cls, long first, long last) {
+		long ref = ref(first);
+		long head;
+		do {
+			head = heads.get(cls);
+			memory.putLong(last, head & REF_MASK);
+		} while (!heads.compareAndSet(cls, head, ((head & ~REF_MASK) + TAG) | ref));
+	}
+
+	/*
+	 * Pops block from the class stack, returns -1 if stack is empty. Next reference
+	 * could be read from the block already taken by other thread, but then tag is
+	 * changed and CAS fails
+	 */
+	private long pop(int cls) {
+		long head;
+		long offset;
+		do {
+			head = heads.get(cls);
+			if ((head & REF_MASK) == 0) {
+				return -1;
+			}
+			offset = ((head & REF_MASK) - 1) << minShift;
+		} while (!heads.compareAndSet(cls, head, ((head & ~REF_MASK) + TAG) | (memory.getLong(offset) & REF_MASK)));
+		return offset;
+	}
+
+	private long ref(long offset) {
+		return (offset >>> minShift) + 1;
+	}
+
+	/*
+	 * Free blocks cached by one thread and number of blocks allocated by it
+	 */
+	private static final class Cache {
+
+		private final long[][] blocks;
+
+		private final int[] count;
+
+		private final long[] allocated;
+
+		private Cache(int[] limits) {
+			this.blocks = new long[limits.length][];
+			this.count = new int[limits.length];
+			this.allocated = new long[limits.length];
+			for (int i=0; i < limits.length; i++) {
+				blocks[i] = new long[limits[i]];
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package org.xphoenix.memory.core;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Per thread caches of free items, i.e. blocks of {@link SlabAllocator} or chunks
+ * of {@link MemoryAccessPool}
+ *
+ * <p> Every cache is registered together with weak reference to its thread. Thread
+ * death is not observable, so {@link #drainDead()} checks registered threads and
+ * gives caches of the dead ones to {@link #drain(Object)}. Owners call it when
+ * new cache is created and when shared free items are exhausted, so items cached
+ * by dead threads are not lost and registry does not grow with thread churn.
+ * </p>
+ *
+ * @param <C> type of the cache
+ * @author andrphi
+ */
+abstract class ThreadCaches<C> {
+
+	private final List<Entry<C>> entries = new CopyOnWriteArrayList<>();
+
+	private final ThreadLocal<C> local = new ThreadLocal<C>() {
+		@Override
+		protected C initialValue() {
+			drainDead();
+			C cache = create();
+			entries.add(new Entry<>(Thread.currentThread(), cache));
+			return cache;
+		}
+	};
+
+	/**
+	 * Returns cache of the current thread, creates it on first call
+	 *
+	 * @return cache of the current thread
+	 */
+	@NotNull
+	C get() {
+		return local.get();
+	}
+
+	/**
+	 * Returns caches of all registered threads, including dead ones which are
+	 * not drained yet. Caches of other threads could be modified concurrently
+	 *
+	 * @return registered caches
+	 */
+	@NotNull
+	List<C> caches() {
+		List<C> result = new ArrayList<>(entries.size());
+		for (Entry<C> e : entries) {
+			result.add(e.cache);
+		}
+		return result;
+	}
+
+	/**
+	 * Drains and deregisters caches of threads which are not alive anymore. Each
+	 * cache is drained once even if method is called concurrently
+	 *
+	 * @return number of drained caches
+	 */
+	int drainDead() {
+		int count = 0;
+		for (Entry<C> e : entries) {
+			// Thread termination happens before isAlive returns false, so all
+			// changes made by thread to its cache are visible here
+			Thread thread = e.get();
+			if ((thread == null || !thread.isAlive()) && entries.remove(e)) {
+				drain(e.cache);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Creates cache for the current thread
+	 *
+	 * @return new cache
+	 */
+	@NotNull
+	abstract C create();
+
+	/**
+	 * Gives items of the dead thread cache back to the owner
+	 *
+	 * @param cache cache of the dead thread
+	 */
+	abstract void drain(@NotNull C cache);
+
+	/*
+	 * Cache must not refer its thread, otherwise thread is never collected
+	 */
+	private static final class Entry<C> extends WeakReference<Thread> {
+
+		private final @NotNull C cache;
+
+		Entry(@NotNull Thread thread, @NotNull C cache) {
+			super(thread);
+			this.cache = cache;
+		}
+	}
+}
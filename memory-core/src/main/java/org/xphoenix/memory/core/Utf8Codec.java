@@ -0,0 +1,268 @@
+package org.xphoenix.memory.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * UTF-8 codec over memory chunks
+ *
+ * <p> Strings are written and read directly, without intermediate byte arrays.
+ * Stored strings could be compared with Java strings without decoding, so key
+ * lookup creates no garbage at all. Runs of ASCII characters are handled by 8
+ * bytes at once when they lie in one segment.
+ * </p>
+ *
+ * <p> Like {@link String#getBytes(java.nio.charset.Charset)} encoder replaces
+ * unpaired surrogates by '?', decoder replaces malformed sequences by U+FFFD.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class Utf8Codec {
+
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	private static final int REPLACEMENT = 0xFFFD;
+
+	private Utf8Codec() {
+	}
+
+	/**
+	 * Returns number of bytes needed to encode the string
+	 *
+	 * @param value string to encode
+	 * @return encoded length
+	 */
+	public static int sizeOfUtf8(@NotNull CharSequence value) {
+		int length = value.length();
+		int size = length;
+		for (int i=0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c >= 0x800) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					size += 2;
+					i++;
+				} else if (!Character.isSurrogate(c)) {
+					size += 2;
+				}
+			} else if (c >= 0x80) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Encodes the string
+	 *
+	 * @param memory memory to write to
+	 * @param index index of the first encoded byte
+	 * @param value string to encode
+	 * @return encoded length
+	 */
+	public static int putUtf8(@NotNull MemoryAccessW memory, long index, @NotNull CharSequence value) {
+		int length = value.length();
+		long position = index;
+
+		for (int i=0; i < length;) {
+			if (length - i >= 8 && MemoryAccessUnsafeImpl.contiguous(memory, position) >= 8) {
+				long word = asciiWord(value, i);
+				if (word >= 0) {
+					MemoryAccessUnsafeImpl.putLittleEndian(memory, position, word, 8);
+					position += 8;
+					i += 8;
+					continue;
+				}
+			}
+
+			char c = value.charAt(i++);
+			if (c < 0x80) {
+				memory.putByte(position++, (byte)c);
+			} else if (c < 0x800) {
+				memory.putByte(position++, (byte)(0xC0 | c >> 6));
+				memory.putByte(position++, (byte)(0x80 | c & 0x3F));
+			} else if (!Character.isSurrogate(c)) {
+				memory.putByte(position++, (byte)(0xE0 | c >> 12));
+				memory.putByte(position++, (byte)(0x80 | c >> 6 & 0x3F));
+				memory.putByte(position++, (byte)(0x80 | c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i < length && Character.isLowSurrogate(value.charAt(i))) {
+				int cp = Character.toCodePoint(c, value.charAt(i++));
+				memory.putByte(position++, (byte)(0xF0 | cp >> 18));
+				memory.putByte(position++, (byte)(0x80 | cp >> 12 & 0x3F));
+				memory.putByte(position++, (byte)(0x80 | cp >> 6 & 0x3F));
+				memory.putByte(position++, (byte)(0x80 | cp & 0x3F));
+			} else {
+				memory.putByte(position++, (byte)'?');
+			}
+		}
+		return (int)(position - index);
+	}
+
+	/**
+	 * Decodes string
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @param length encoded length in bytes
+	 * @return decoded string
+	 */
+	@NotNull
+	public static String getUtf8(@NotNull MemoryAccessR memory, long index, int length) {
+		StringBuilder result = new StringBuilder(length);
+		getUtf8(memory, index, length, result);
+		return result.toString();
+	}
+
+	/**
+	 * Decodes string and appends it to the given builder, so builder could be
+	 * reused to avoid garbage
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @param length encoded length in bytes
+	 * @param dst builder to append characters to
+	 * @return number of appended characters
+	 */
+	public static int getUtf8(@NotNull MemoryAccessR memory, long index, int length, @NotNull StringBuilder dst) {
+		int start = dst.length();
+		long end = index + length;
+
+		for (long position = index; position < end;) {
+			if (end - position >= 8 && MemoryAccessUnsafeImpl.contiguous(memory, position) >= 8) {
+				long word = MemoryAccessUnsafeImpl.getLittleEndianLong(memory, position);
+				if ((word & HIGH_BITS) == 0) {
+					for (int shift=0; shift < 64; shift += 8) {
+						dst.append((char)(word >>> shift & 0x7F));
+					}
+					position += 8;
+					continue;
+				}
+			}
+
+			long decoded = decode(memory, position, end);
+			dst.appendCodePoint((int)decoded);
+			position += decoded >>> 32;
+		}
+		return dst.length() - start;
+	}
+
+	/**
+	 * Compares stored string with the given one by code points, which is the same
+	 * as comparison of their UTF-8 bytes. Unpaired surrogates are compared as '?',
+	 * the same way they are encoded. Note that {@link String#compareTo(String)}
+	 * compares UTF-16 chars and orders supplementary characters differently
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @param length encoded length in bytes
+	 * @param value string to compare with
+	 * @return negative, zero or positive if stored string is less, equal or greater
+	 */
+	public static int compareUtf8(@NotNull MemoryAccessR memory, long index, int length, @NotNull CharSequence value) {
+		long end = index + length;
+		long position = index;
+		int count = value.length();
+		int i = 0;
+
+		while (position < end && i < count) {
+			if (end - position >= 8 && count - i >= 8 && MemoryAccessUnsafeImpl.contiguous(memory, position) >= 8) {
+				long word = asciiWord(value, i);
+				if (word >= 0 && word == MemoryAccessUnsafeImpl.getLittleEndianLong(memory, position)) {
+					position += 8;
+					i += 8;
+					continue;
+				}
+			}
+
+			long decoded = decode(memory, position, end);
+			int cp = Character.codePointAt(value, i);
+			i += Character.charCount(cp);
+			if (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE) {
+				cp = '?';
+			}
+			if ((int)decoded != cp) {
+				return (int)decoded < cp ? -1 : 1;
+			}
+			position += decoded >>> 32;
+		}
+
+		return position < end ? 1 : i < count ? -1 : 0;
+	}
+
+	/**
+	 * Checks if stored string is equal to the given one
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @param length encoded length in bytes
+	 * @param value string to compare with
+	 * @return true if strings are equal
+	 */
+	public static boolean equalsUtf8(@NotNull MemoryAccessR memory, long index, int length, @NotNull CharSequence value) {
+		// Every char takes from 1 to 3 bytes
+		if (length < value.length() || length > 3L * value.length()) {
+			return false;
+		}
+		return compareUtf8(memory, index, length, value) == 0;
+	}
+
+	/*
+	 * Packs 8 chars starting from the given one as little endian ASCII bytes,
+	 * returns -1 if any of them is not ASCII
+	 */
+	private static long asciiWord(CharSequence value, int offset) {
+		long word = 0;
+		int all = 0;
+		for (int i=0; i < 8; i++) {
+			char c = value.charAt(offset + i);
+			all |= c;
+			word |= (long)c << (i << 3);
+		}
+		return all < 0x80 ? word : -1;
+	}
+
+	/*
+	 * Decodes code point at the given position, returns its encoded length
+	 * in the high int and code point in the low one. Like JDK decoder replaces
+	 * maximal invalid subpart of the sequence by one U+FFFD
+	 */
+	private static long decode(MemoryAccessR memory, long position, long end) {
+		int b = memory.getByte(position) & 0xFF;
+		int need;
+		int low = 0x80;
+		int high = 0xBF;
+
+		if (b < 0x80) {
+			return 1L << 32 | b;
+		} else if (b >= 0xC2 && b <= 0xDF) {
+			need = 1;
+		} else if (b >= 0xE0 && b <= 0xEF) {
+			// Overlong and surrogates are rejected by the second byte range
+			need = 2;
+			low = b == 0xE0 ? 0xA0 : 0x80;
+			high = b == 0xED ? 0x9F : 0xBF;
+		} else if (b >= 0xF0 && b <= 0xF4) {
+			// Overlong and above U+10FFFF are rejected by the second byte range
+			need = 3;
+			low = b == 0xF0 ? 0x90 : 0x80;
+			high = b == 0xF4 ? 0x8F : 0xBF;
+		} else {
+			return 1L << 32 | REPLACEMENT;
+		}
+
+		int cp = b & (0x3F >> need);
+		for (int i=1; i <= need; i++) {
+			if (position + i >= end) {
+				return (long)i << 32 | REPLACEMENT;
+			}
+
+			b = memory.getByte(position + i) & 0xFF;
+			if (b < low || b > high) {
+				return (long)i << 32 | REPLACEMENT;
+			}
+			cp = cp << 6 | b & 0x3F;
+			low = 0x80;
+			high = 0xBF;
+		}
+		return (long)(need + 1) << 32 | cp;
+	}
+}
@@ -0,0 +1,308 @@
+package org.xphoenix.memory.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Variable length integer codecs over memory chunks
+ *
+ * <p> Encoding is the protobuf base 128 varint: 7 bits per byte, least significant
+ * group first, high bit set on every byte except the last one. Signed values
+ * are zig-zag encoded first, so small negative numbers take few bytes too.
+ * Note that protobuf writes negative int32 as 10 bytes long value, use
+ * {@link #putVarLong(MemoryAccessW, long, long)} for such fields.
+ * </p>
+ *
+ * <p> When at least 8 bytes are available decoder reads them by one getLong and
+ * finds the last byte and 7 bits groups in register, instead of reading byte
+ * by byte. Encoder writes the whole value by at most three stores and never
+ * touches bytes after the encoded value.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class VarIntCodec {
+
+	/**
+	 * Max length of encoded int
+	 */
+	public static final int MAX_VAR_INT_LENGTH = 5;
+
+	/**
+	 * Max length of encoded long
+	 */
+	public static final int MAX_VAR_LONG_LENGTH = 10;
+
+	private static final long CONTINUATION = 0x8080808080808080L;
+
+	private VarIntCodec() {
+	}
+
+	/**
+	 * Returns number of bytes needed to encode value
+	 *
+	 * @param value value to encode, as unsigned
+	 * @return encoded length
+	 */
+	public static int sizeOfVarLong(long value) {
+		// (bits + 6) / 7 without division, zero takes one byte
+		int bits = 64 - Long.numberOfLeadingZeros(value | 1);
+		return (bits * 9 + 64) >>> 6;
+	}
+
+	/**
+	 * Returns number of bytes needed to encode value
+	 *
+	 * @param value value to encode, as unsigned
+	 * @return encoded length
+	 */
+	public static int sizeOfVarInt(int value) {
+		return sizeOfVarLong(value & 0xFFFFFFFFL);
+	}
+
+	public static long encodeZigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	public static long decodeZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public static int encodeZigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	public static int decodeZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Encodes value
+	 *
+	 * @param memory memory to write to
+	 * @param index index of the first encoded byte
+	 * @param value value to encode, as unsigned
+	 * @return encoded length
+	 */
+	public static int putVarLong(@NotNull MemoryAccessW memory, long index, long value) {
+		if ((value & ~0x7FL) == 0) {
+			memory.putByte(index, (byte)value);
+			return 1;
+		}
+
+		int length = sizeOfVarLong(value);
+		if (length > 8 || MemoryAccessUnsafeImpl.contiguous(memory, index) < length) {
+			// Rare 9-10 bytes values or value crossing segment boundary
+			int i = 0;
+			for (; (value & ~0x7FL) != 0; value >>>= 7) {
+				memory.putByte(index + i++, (byte)(value | 0x80));
+			}
+			memory.putByte(index + i, (byte)value);
+			return i + 1;
+		}
+
+		long word = spread(value) | (CONTINUATION >>> (72 - 8 * length));
+		MemoryAccessUnsafeImpl.putLittleEndian(memory, index, word, length);
+		return length;
+	}
+
+	/**
+	 * Encodes value
+	 *
+	 * @param memory memory to write to
+	 * @param index index of the first encoded byte
+	 * @param value value to encode, as unsigned
+	 * @return encoded length
+	 */
+	public static int putVarInt(@NotNull MemoryAccessW memory, long index, int value) {
+		return putVarLong(memory, index, value & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Encodes zig-zag transformed value
+	 *
+	 * @param memory memory to write to
+	 * @param index index of the first encoded byte
+	 * @param value value to encode
+	 * @return encoded length
+	 */
+	public static int putSignedVarLong(@NotNull MemoryAccessW memory, long index, long value) {
+		return putVarLong(memory, index, encodeZigZag(value));
+	}
+
+	/**
+	 * Encodes zig-zag transformed value
+	 *
+	 * @param memory memory to write to
+	 * @param index index of the first encoded byte
+	 * @param value value to encode
+	 * @return encoded length
+	 */
+	public static int putSignedVarInt(@NotNull MemoryAccessW memory, long index, int value) {
+		return putVarInt(memory, index, encodeZigZag(value));
+	}
+
+	/**
+	 * Decodes value. Encoding is not always minimal, i.e. padded by 0x80 bytes,
+	 * so its length could differ from {@link #sizeOfVarLong(long)} of the result,
+	 * see {@link #getVarLong(MemoryAccessR, long, long[])} to get both at once
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @return decoded value
+	 * @throws IllegalArgumentException if value is longer then 10 bytes
+	 */
+	public static long getVarLong(@NotNull MemoryAccessR memory, long index) {
+		if (MemoryAccessUnsafeImpl.contiguous(memory, index) >= 8) {
+			long word = MemoryAccessUnsafeImpl.getLittleEndianLong(memory, index);
+			long stops = ~word & CONTINUATION;
+			if (stops != 0) {
+				int bits = Long.numberOfTrailingZeros(stops) + 1;
+				return gather(bits == 64 ? word : word & ((1L << bits) - 1));
+			}
+			return getVarLongTail(memory, index, gather(word), 8);
+		}
+		return getVarLongTail(memory, index, 0, 0);
+	}
+
+	/**
+	 * Decodes value truncated to 32 bits, so negative int written as 10 bytes
+	 * long is decoded too. Encoded length is not {@link #sizeOfVarInt(int)} of
+	 * the result then, see {@link #getVarLong(MemoryAccessR, long, long[])}
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @return decoded value
+	 * @throws IllegalArgumentException if value is longer then 10 bytes
+	 */
+	public static int getVarInt(@NotNull MemoryAccessR memory, long index) {
+		return (int)getVarLong(memory, index);
+	}
+
+	/**
+	 * Decodes value and returns its encoded length, so decoders advancing over
+	 * values do not scan them twice
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @param value holder, decoded value is stored to its first element
+	 * @return encoded length
+	 * @throws IllegalArgumentException if value is longer then 10 bytes
+	 */
+	public static int getVarLong(@NotNull MemoryAccessR memory, long index, @NotNull long[] value) {
+		if (MemoryAccessUnsafeImpl.contiguous(memory, index) >= 8) {
+			long word = MemoryAccessUnsafeImpl.getLittleEndianLong(memory, index);
+			long stops = ~word & CONTINUATION;
+			if (stops != 0) {
+				int bits = Long.numberOfTrailingZeros(stops) + 1;
+				value[0] = gather(bits == 64 ? word : word & ((1L << bits) - 1));
+				return bits >>> 3;
+			}
+			return getVarLongTail(memory, index, gather(word), 8, value);
+		}
+		return getVarLongTail(memory, index, 0, 0, value);
+	}
+
+	/**
+	 * Decodes zig-zag transformed value
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @return decoded value
+	 */
+	public static long getSignedVarLong(@NotNull MemoryAccessR memory, long index) {
+		return decodeZigZag(getVarLong(memory, index));
+	}
+
+	/**
+	 * Decodes zig-zag transformed value
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @return decoded value
+	 */
+	public static int getSignedVarInt(@NotNull MemoryAccessR memory, long index) {
+		return decodeZigZag(getVarInt(memory, index));
+	}
+
+	/**
+	 * Returns length of the encoded value without decoding it, i.e. to skip it
+	 *
+	 * @param memory memory to read from
+	 * @param index index of the first encoded byte
+	 * @return encoded length
+	 * @throws IllegalArgumentException if value is longer then 10 bytes
+	 */
+	public static int lengthOf(@NotNull MemoryAccessR memory, long index) {
+		if (MemoryAccessUnsafeImpl.contiguous(memory, index) >= 8) {
+			long stops = ~MemoryAccessUnsafeImpl.getLittleEndianLong(memory, index) & CONTINUATION;
+			if (stops != 0) {
+				return (Long.numberOfTrailingZeros(stops) >>> 3) + 1;
+			}
+		}
+
+		for (int i=0; i < MAX_VAR_LONG_LENGTH; i++) {
+			if (memory.getByte(index + i) >= 0) {
+				return i + 1;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint at "+index);
+	}
+
+	/*
+	 * Decodes byte by byte starting from the given position
+	 */
+	private static long getVarLongTail(MemoryAccessR memory, long index, long result, int position) {
+		for (int i=position; i < MAX_VAR_LONG_LENGTH; i++) {
+			byte b = memory.getByte(index + i);
+			result |= (long)(b & 0x7F) << (7 * i);
+			if (b >= 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint at "+index);
+	}
+
+	/*
+	 * Decodes byte by byte starting from the given position, stores value
+	 * to holder and returns encoded length
+	 */
+	private static int getVarLongTail(MemoryAccessR memory, long index, long result, int position, long[] value) {
+		for (int i=position; i < MAX_VAR_LONG_LENGTH; i++) {
+			byte b = memory.getByte(index + i);
+			result |= (long)(b & 0x7F) << (7 * i);
+			if (b >= 0) {
+				value[0] = result;
+				return i + 1;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint at "+index);
+	}
+
+	/*
+	 * Moves 7 bits groups of the low 56 bits to separate bytes
+	 */
+	private static long spread(long value) {
+		return (value & 0x7FL)
+				| (value << 1) & (0x7FL << 8)
+				| (value << 2) & (0x7FL << 16)
+				| (value << 3) & (0x7FL << 24)
+				| (value << 4) & (0x7FL << 32)
+				| (value << 5) & (0x7FL << 40)
+				| (value << 6) & (0x7FL << 48)
+				| (value << 7) & (0x7FL << 56);
+	}
+
+	/*
+	 * Collects 7 low bits of each byte into 56 bits value, reverse of spread
+	 */
+	private static long gather(long word) {
+		return (word & 0x7FL)
+				| (word >>> 1) & (0x7FL << 7)
+				| (word >>> 2) & (0x7FL << 14)
+				| (word >>> 3) & (0x7FL << 21)
+				| (word >>> 4) & (0x7FL << 28)
+				| (word >>> 5) & (0x7FL << 35)
+				| (word >>> 6) & (0x7FL << 42)
+				| (word >>> 7) & (0x7FL << 49);
+	}
+}
@@ -0,0 +1,441 @@
+package org.xphoenix.memory.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Access statistics collected by {@link MetricsMemoryAccess}
+ *
+ * <p> Counters are striped, so threads accessing the same memory do not contend
+ * on them. Latency is measured only for sampled accesses and kept in the log2
+ * histogram, so percentiles are known within factor of two. When statistics are
+ * disabled each access costs one volatile read.
+ * </p>
+ *
+ * <p> One instance could be shared by several memory chunks and exported to JMX
+ * by {@link #register(String)}.
+ * </p>
+ *
+ * @author andrphi
+ */
+public class MemoryAccessMetrics implements MemoryAccessMetricsMBean {
+
+	/**
+	 * JMX domain of registered metrics
+	 */
+	public static final String JMX_DOMAIN = "org.xphoenix.memory";
+
+	/**
+	 * Returned by {@link #start()} when statistics are disabled
+	 */
+	static final long DISABLED = Long.MIN_VALUE;
+
+	/**
+	 * Returned by {@link #start()} when access latency is not measured
+	 */
+	static final long NOT_SAMPLED = Long.MIN_VALUE + 1;
+
+	private static final int BUCKETS = 64;
+
+	private final StripedCounter reads = new StripedCounter();
+
+	private final StripedCounter writes = new StripedCounter();
+
+	private final StripedCounter bytesRead = new StripedCounter();
+
+	private final StripedCounter bytesWritten = new StripedCounter();
+
+	private final StripedCounter casSuccesses = new StripedCounter();
+
+	private final StripedCounter casFailures = new StripedCounter();
+
+	private final StripedCounter atomicUpdates = new StripedCounter();
+
+	/*
+	 * Bucket i counts latencies in [2^(i-1), 2^i) nanoseconds
+	 */
+	private final AtomicLongArray readLatency = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLongArray writeLatency = new AtomicLongArray(BUCKETS);
+
+	private volatile boolean enabled;
+
+	private volatile int samplingRate;
+
+	private ObjectName name;
+
+	/**
+	 * Creates enabled metrics without latency sampling
+	 */
+	public MemoryAccessMetrics() {
+		this(true, 0);
+	}
+
+	/**
+	 * Creates metrics
+	 *
+	 * @param enabled if statistics are collected
+	 * @param samplingRate measure latency of one of N accesses, zero to never measure
+	 * @throws IllegalArgumentException if rate is negative
+	 */
+	public MemoryAccessMetrics(boolean enabled, int samplingRate) {
+		setSamplingRate(samplingRate);
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Registers metrics in the platform MBean server
+	 *
+	 * @param name value of the name key of object name
+	 * @return registered object name
+	 * @throws IllegalStateException if metrics are already registered or registration failed
+	 */
+	@NotNull
+	public synchronized ObjectName register(@NotNull String name) {
+		if (this.name != null) {
+			throw new IllegalStateException("Metrics are already registered as "+this.name);
+		}
+
+		try {
+			ObjectName objectName = new ObjectName(JMX_DOMAIN+":type=MemoryAccess,name="+ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.name = objectName;
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Failed to register metrics "+name, e);
+		}
+	}
+
+	/**
+	 * Removes metrics from the platform MBean server, does nothing if metrics
+	 * are not registered
+	 */
+	public synchronized void unregister() {
+		if (name == null) {
+			return;
+		}
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("Failed to unregister metrics "+name, e);
+		} finally {
+			name = null;
+		}
+	}
+
+	/**
+	 * Starts access, must be passed to the matching completion method
+	 *
+	 * @return access start time or one of marker values
+	 */
+	long start() {
+		if (!enabled) {
+			return DISABLED;
+		}
+
+		int rate = samplingRate;
+		if (rate == 0 || (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0)) {
+			return NOT_SAMPLED;
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Completes read access
+	 *
+	 * @param bytes number of read bytes
+	 * @param start value returned by {@link #start()}
+	 */
+	void read(long bytes, long start) {
+		if (start == DISABLED) {
+			return;
+		}
+
+		reads.increment();
+		bytesRead.add(bytes);
+		if (start != NOT_SAMPLED) {
+			record(readLatency, start);
+		}
+	}
+
+	/**
+	 * Completes write access
+	 *
+	 * @param bytes number of written bytes
+	 * @param start value returned by {@link #start()}
+	 */
+	void write(long bytes, long start) {
+		if (start == DISABLED) {
+			return;
+		}
+
+		writes.increment();
+		bytesWritten.add(bytes);
+		if (start != NOT_SAMPLED) {
+			record(writeLatency, start);
+		}
+	}
+
+	/**
+	 * Completes compare and swap
+	 *
+	 * @param bytes size of the swapped value
+	 * @param success if value was swapped
+	 * @param start value returned by {@link #start()}
+	 */
+	void cas(int bytes, boolean success, long start) {
+		if (start == DISABLED) {
+			return;
+		}
+
+		(success ? casSuccesses : casFailures).increment();
+		write(bytes, start);
+	}
+
+	/**
+	 * Completes getAndAdd or getAndSet
+	 *
+	 * @param bytes size of the updated value
+	 * @param start value returned by {@link #start()}
+	 */
+	void update(int bytes, long start) {
+		if (start == DISABLED) {
+			return;
+		}
+
+		atomicUpdates.increment();
+		write(bytes, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#isEnabled()
+	 */
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#setEnabled(boolean)
+	 */
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getSamplingRate()
+	 */
+	@Override
+	public int getSamplingRate() {
+		return samplingRate;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#setSamplingRate(int)
+	 */
+	@Override
+	public void setSamplingRate(int rate) {
+		if (rate < 0) {
+			throw new IllegalArgumentException("Sampling rate must not be negative: "+rate);
+		}
+		this.samplingRate = rate;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getReads()
+	 */
+	@Override
+	public long getReads() {
+		return reads.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getWrites()
+	 */
+	@Override
+	public long getWrites() {
+		return writes.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getBytesRead()
+	 */
+	@Override
+	public long getBytesRead() {
+		return bytesRead.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getBytesWritten()
+	 */
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getCasSuccesses()
+	 */
+	@Override
+	public long getCasSuccesses() {
+		return casSuccesses.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getCasFailures()
+	 */
+	@Override
+	public long getCasFailures() {
+		return casFailures.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getCasFailureRatio()
+	 */
+	@Override
+	public double getCasFailureRatio() {
+		long failures = casFailures.sum();
+		long total = failures + casSuccesses.sum();
+		return total == 0 ? 0 : (double)failures / total;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getAtomicUpdates()
+	 */
+	@Override
+	public long getAtomicUpdates() {
+		return atomicUpdates.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getSampledReads()
+	 */
+	@Override
+	public long getSampledReads() {
+		return total(readLatency);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getSampledWrites()
+	 */
+	@Override
+	public long getSampledWrites() {
+		return total(writeLatency);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getReadLatencyPercentile(double)
+	 */
+	@Override
+	public long getReadLatencyPercentile(double percentile) {
+		return percentile(readLatency, percentile);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getWriteLatencyPercentile(double)
+	 */
+	@Override
+	public long getWriteLatencyPercentile(double percentile) {
+		return percentile(writeLatency, percentile);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getReadLatencyP50()
+	 */
+	@Override
+	public long getReadLatencyP50() {
+		return percentile(readLatency, 50);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getReadLatencyP99()
+	 */
+	@Override
+	public long getReadLatencyP99() {
+		return percentile(readLatency, 99);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getWriteLatencyP50()
+	 */
+	@Override
+	public long getWriteLatencyP50() {
+		return percentile(writeLatency, 50);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#getWriteLatencyP99()
+	 */
+	@Override
+	public long getWriteLatencyP99() {
+		return percentile(writeLatency, 99);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.metrics.MemoryAccessMetricsMBean#reset()
+	 */
+	@Override
+	public void reset() {
+		reads.reset();
+		writes.reset();
+		bytesRead.reset();
+		bytesWritten.reset();
+		casSuccesses.reset();
+		casFailures.reset();
+		atomicUpdates.reset();
+		for (int i=0; i < BUCKETS; i++) {
+			readLatency.set(i, 0);
+			writeLatency.set(i, 0);
+		}
+	}
+
+	private static void record(AtomicLongArray histogram, long start) {
+		long latency = Math.max(0, System.nanoTime() - start);
+		histogram.incrementAndGet(64 - Long.numberOfLeadingZeros(latency) & (BUCKETS - 1));
+	}
+
+	private static long total(AtomicLongArray histogram) {
+		long total = 0;
+		for (int i=0; i < BUCKETS; i++) {
+			total += histogram.get(i);
+		}
+		return total;
+	}
+
+	/*
+	 * Returns upper bound of the bucket where percentile falls, zero if nothing
+	 * is sampled yet
+	 */
+	private static long percentile(AtomicLongArray histogram, double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be in [0, 100]: "+percentile);
+		}
+
+		long total = total(histogram);
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long)Math.ceil(total * percentile / 100));
+		long seen = 0;
+		for (int i=0; i < BUCKETS; i++) {
+			seen += histogram.get(i);
+			if (seen >= rank) {
+				return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+}
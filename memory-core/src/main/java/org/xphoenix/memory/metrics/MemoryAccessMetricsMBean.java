@@ -0,0 +1,66 @@
+package org.xphoenix.memory.metrics;
+
+/**
+ * JMX view of {@link MemoryAccessMetrics}
+ *
+ * @author andrphi
+ */
+public interface MemoryAccessMetricsMBean {
+
+	public boolean isEnabled();
+
+	public void setEnabled(boolean enabled);
+
+	/**
+	 * Returns how often latency is measured, one of N accesses, zero if never
+	 */
+	public int getSamplingRate();
+
+	public void setSamplingRate(int rate);
+
+	public long getReads();
+
+	public long getWrites();
+
+	public long getBytesRead();
+
+	public long getBytesWritten();
+
+	public long getCasSuccesses();
+
+	public long getCasFailures();
+
+	/**
+	 * Returns share of failed compare and swap operations, from 0 to 1
+	 */
+	public double getCasFailureRatio();
+
+	/**
+	 * Returns number of getAndAdd and getAndSet operations
+	 */
+	public long getAtomicUpdates();
+
+	public long getSampledReads();
+
+	public long getSampledWrites();
+
+	/**
+	 * Returns upper bound of the given read latency percentile, in nanoseconds
+	 */
+	public long getReadLatencyPercentile(double percentile);
+
+	/**
+	 * Returns upper bound of the given write latency percentile, in nanoseconds
+	 */
+	public long getWriteLatencyPercentile(double percentile);
+
+	public long getReadLatencyP50();
+
+	public long getReadLatencyP99();
+
+	public long getWriteLatencyP50();
+
+	public long getWriteLatencyP99();
+
+	public void reset();
+}
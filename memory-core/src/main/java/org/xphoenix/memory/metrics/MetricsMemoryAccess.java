@@ -0,0 +1,677 @@
+package org.xphoenix.memory.metrics;
+
+import java.nio.ByteBuffer;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ByteBufferViews;
+import org.xphoenix.memory.core.ByteOrderConvertor;
+import org.xphoenix.memory.core.MemoryAccessR;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Decorator which records accesses to the wrapped memory into
+ * {@link MemoryAccessMetrics}
+ *
+ * <p> Every access is counted with number of moved bytes, compare and swap
+ * results are counted separately. Slices of the decorator share its metrics.
+ * </p>
+ *
+ * <p> Use {@link #wrap(MemoryAccessW, MemoryAccessMetrics)} to decorate memory
+ * only when {@value #METRICS_PROPERTY} system property is set, so production
+ * code pays nothing at all for statistics it does not collect. Statistics
+ * could also be turned off at runtime by {@link MemoryAccessMetrics#setEnabled(boolean)},
+ * then every access costs one volatile read.
+ * </p>
+ *
+ * @author andrphi
+ */
+public class MetricsMemoryAccess implements MemoryAccessW {
+
+	/**
+	 * System property which turns on decoration by {@link #wrap(MemoryAccessW, MemoryAccessMetrics)}
+	 */
+	public static final String METRICS_PROPERTY = "org.xphoenix.memory.metrics";
+
+	private static final boolean WRAP = Boolean.getBoolean(METRICS_PROPERTY);
+
+	private final @NotNull MemoryAccessW memory;
+
+	private final @NotNull MemoryAccessMetrics metrics;
+
+	/**
+	 * Creates decorator
+	 *
+	 * @param memory memory to record accesses to
+	 * @param metrics statistics to record accesses into
+	 */
+	public MetricsMemoryAccess(@NotNull MemoryAccessW memory, @NotNull MemoryAccessMetrics metrics) {
+		this.memory = memory;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Decorates memory if {@value #METRICS_PROPERTY} system property is set
+	 *
+	 * @param memory memory to record accesses to
+	 * @param metrics statistics to record accesses into
+	 * @return decorator or the given memory itself
+	 */
+	@NotNull
+	public static MemoryAccessW wrap(@NotNull MemoryAccessW memory, @NotNull MemoryAccessMetrics metrics) {
+		return WRAP ? new MetricsMemoryAccess(memory, metrics) : memory;
+	}
+
+	/**
+	 * Returns decorated memory
+	 *
+	 * @return wrapped memory
+	 */
+	@NotNull
+	public MemoryAccessW getMemory() {
+		return memory;
+	}
+
+	/**
+	 * Returns statistics accesses are recorded into
+	 *
+	 * @return metrics
+	 */
+	@NotNull
+	public MemoryAccessMetrics getMetrics() {
+		return metrics;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#size()
+	 */
+	@Override
+	public long size() {
+		return memory.size();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBoundsChecker()
+	 */
+	@Override
+	public BoundsChecker getBoundsChecker() {
+		return memory.getBoundsChecker();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getByteOrderConvertor()
+	 */
+	@Override
+	public ByteOrderConvertor getByteOrderConvertor() {
+		return memory.getByteOrderConvertor();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getByte(long)
+	 */
+	@Override
+	public byte getByte(long index) {
+		long start = metrics.start();
+		byte value = memory.getByte(index);
+		metrics.read(1, start);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(byte[] buffer, int index, int size) {
+		getBuffer(index, buffer, 0, size);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, byte[], int, int)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull byte[] buffer, int offset, int size) {
+		long start = metrics.start();
+		memory.getBuffer(index, buffer, offset, size);
+		metrics.read(size, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getBuffer(long, java.nio.ByteBuffer)
+	 */
+	@Override
+	public void getBuffer(long index, @NotNull ByteBuffer buffer) {
+		int size = buffer.remaining();
+		long start = metrics.start();
+		memory.getBuffer(index, buffer);
+		metrics.read(size, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChar(long)
+	 */
+	@Override
+	public char getChar(long index) {
+		long start = metrics.start();
+		char value = memory.getChar(index);
+		metrics.read(2, start);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDouble(long)
+	 */
+	@Override
+	public double getDouble(long index) {
+		long start = metrics.start();
+		double value = memory.getDouble(index);
+		metrics.read(8, start);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloat(long)
+	 */
+	@Override
+	public float getFloat(long index) {
+		long start = metrics.start();
+		float value = memory.getFloat(index);
+		metrics.read(4, start);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInt(long)
+	 */
+	@Override
+	public int getInt(long index) {
+		long start = metrics.start();
+		int value = memory.getInt(index);
+		metrics.read(4, start);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLong(long)
+	 */
+	@Override
+	public long getLong(long index) {
+		long start = metrics.start();
+		long value = memory.getLong(index);
+		metrics.read(8, start);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShort(long)
+	 */
+	@Override
+	public short getShort(long index) {
+		long start = metrics.start();
+		short value = memory.getShort(index);
+		metrics.read(2, start);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getIntVolatile(long)
+	 */
+	@Override
+	public int getIntVolatile(long index) {
+		long start = metrics.start();
+		int value = memory.getIntVolatile(index);
+		metrics.read(4, start);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongVolatile(long)
+	 */
+	@Override
+	public long getLongVolatile(long index) {
+		long start = metrics.start();
+		long value = memory.getLongVolatile(index);
+		metrics.read(8, start);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getChars(long, char[], int, int)
+	 */
+	@Override
+	public void getChars(long index, @NotNull char[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.getChars(index, values, offset, length);
+		metrics.read((long)length << 1, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getShorts(long, short[], int, int)
+	 */
+	@Override
+	public void getShorts(long index, @NotNull short[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.getShorts(index, values, offset, length);
+		metrics.read((long)length << 1, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getInts(long, int[], int, int)
+	 */
+	@Override
+	public void getInts(long index, @NotNull int[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.getInts(index, values, offset, length);
+		metrics.read((long)length << 2, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getFloats(long, float[], int, int)
+	 */
+	@Override
+	public void getFloats(long index, @NotNull float[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.getFloats(index, values, offset, length);
+		metrics.read((long)length << 2, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getLongs(long, long[], int, int)
+	 */
+	@Override
+	public void getLongs(long index, @NotNull long[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.getLongs(index, values, offset, length);
+		metrics.read((long)length << 3, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#getDoubles(long, double[], int, int)
+	 */
+	@Override
+	public void getDoubles(long index, @NotNull double[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.getDoubles(index, values, offset, length);
+		metrics.read((long)length << 3, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#copyTo(long, org.xphoenix.memory.core.MemoryAccessW, long, long)
+	 */
+	@Override
+	public void copyTo(long index, @NotNull MemoryAccessW dst, long dstIndex, long length) {
+		long start = metrics.start();
+		memory.copyTo(index, dst, dstIndex, length);
+		metrics.read(length, start);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#mismatch(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public long mismatch(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		long start = metrics.start();
+		long result = memory.mismatch(index, other, otherIndex, length);
+		metrics.read(result < 0 ? length : result + 1, start);
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#compare(long, org.xphoenix.memory.core.MemoryAccessR, long, long)
+	 */
+	@Override
+	public int compare(long index, @NotNull MemoryAccessR other, long otherIndex, long length) {
+		long start = metrics.start();
+		int result = memory.compare(index, other, otherIndex, length);
+		metrics.read(length, start);
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#isAligned(long, int)
+	 */
+	@Override
+	public boolean isAligned(long index, int alignment) {
+		return memory.isAligned(index, alignment);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessR#alignUp(long, int)
+	 */
+	@Override
+	public long alignUp(long index, int alignment) {
+		return memory.alignUp(index, alignment);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putBuffer(long, java.nio.ByteBuffer)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putBuffer(long index, @NotNull ByteBuffer value) {
+		int size = value.remaining();
+		long start = metrics.start();
+		memory.putBuffer(index, value);
+		metrics.write(size, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putBuffer(long, byte[], int, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putBuffer(long index, @NotNull byte[] value, int offset, int size) {
+		long start = metrics.start();
+		memory.putBuffer(index, value, offset, size);
+		metrics.write(size, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putByte(long, byte)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putByte(long index, byte value) {
+		long start = metrics.start();
+		memory.putByte(index, value);
+		metrics.write(1, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putChar(long, char)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putChar(long index, char value) {
+		long start = metrics.start();
+		memory.putChar(index, value);
+		metrics.write(2, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putDouble(long, double)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putDouble(long index, double value) {
+		long start = metrics.start();
+		memory.putDouble(index, value);
+		metrics.write(8, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putFloat(long, float)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putFloat(long index, float value) {
+		long start = metrics.start();
+		memory.putFloat(index, value);
+		metrics.write(4, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putInt(long, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putInt(long index, int value) {
+		long start = metrics.start();
+		memory.putInt(index, value);
+		metrics.write(4, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLong(long, long)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putLong(long index, long value) {
+		long start = metrics.start();
+		memory.putLong(index, value);
+		metrics.write(8, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putShort(long, short)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putShort(long index, short value) {
+		long start = metrics.start();
+		memory.putShort(index, value);
+		metrics.write(2, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putChars(long, char[], int, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putChars(long index, @NotNull char[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.putChars(index, values, offset, length);
+		metrics.write((long)length << 1, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putShorts(long, short[], int, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putShorts(long index, @NotNull short[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.putShorts(index, values, offset, length);
+		metrics.write((long)length << 1, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putInts(long, int[], int, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putInts(long index, @NotNull int[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.putInts(index, values, offset, length);
+		metrics.write((long)length << 2, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putFloats(long, float[], int, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putFloats(long index, @NotNull float[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.putFloats(index, values, offset, length);
+		metrics.write((long)length << 2, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongs(long, long[], int, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putLongs(long index, @NotNull long[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.putLongs(index, values, offset, length);
+		metrics.write((long)length << 3, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putDoubles(long, double[], int, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putDoubles(long index, @NotNull double[] values, int offset, int length) {
+		long start = metrics.start();
+		memory.putDoubles(index, values, offset, length);
+		metrics.write((long)length << 3, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#fill(long, long, byte)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW fill(long index, long length, byte value) {
+		long start = metrics.start();
+		memory.fill(index, length, value);
+		metrics.write(length, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#compareAndSwap(long, int, int)
+	 */
+	@Override
+	public boolean compareAndSwap(long index, int expected, int value) {
+		long start = metrics.start();
+		boolean success = memory.compareAndSwap(index, expected, value);
+		metrics.cas(4, success, start);
+		return success;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#compareAndSwap(long, long, long)
+	 */
+	@Override
+	public boolean compareAndSwap(long index, long expected, long value) {
+		long start = metrics.start();
+		boolean success = memory.compareAndSwap(index, expected, value);
+		metrics.cas(8, success, start);
+		return success;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddInt(long, int)
+	 */
+	@Override
+	public int getAndAddInt(long index, int delta) {
+		long start = metrics.start();
+		int result = memory.getAndAddInt(index, delta);
+		metrics.update(4, start);
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndAddLong(long, long)
+	 */
+	@Override
+	public long getAndAddLong(long index, long delta) {
+		long start = metrics.start();
+		long result = memory.getAndAddLong(index, delta);
+		metrics.update(8, start);
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetInt(long, int)
+	 */
+	@Override
+	public int getAndSetInt(long index, int value) {
+		long start = metrics.start();
+		int result = memory.getAndSetInt(index, value);
+		metrics.update(4, start);
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#getAndSetLong(long, long)
+	 */
+	@Override
+	public long getAndSetLong(long index, long value) {
+		long start = metrics.start();
+		long result = memory.getAndSetLong(index, value);
+		metrics.update(8, start);
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putIntVolatile(long, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putIntVolatile(long index, int value) {
+		long start = metrics.start();
+		memory.putIntVolatile(index, value);
+		metrics.write(4, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putLongVolatile(long, long)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putLongVolatile(long index, long value) {
+		long start = metrics.start();
+		memory.putLongVolatile(index, value);
+		metrics.write(8, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedInt(long, int)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putOrderedInt(long index, int value) {
+		long start = metrics.start();
+		memory.putOrderedInt(index, value);
+		metrics.write(4, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#putOrderedLong(long, long)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW putOrderedLong(long index, long value) {
+		long start = metrics.start();
+		memory.putOrderedLong(index, value);
+		metrics.write(8, start);
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#toByteBuffer()
+	 */
+	@Override
+	@NotNull
+	public ByteBuffer[] toByteBuffer() {
+		return memory.toByteBuffer();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#toByteBuffer(long, long, org.xphoenix.memory.core.ByteBufferViews)
+	 */
+	@Override
+	public int toByteBuffer(long index, long length, @NotNull ByteBufferViews views) {
+		return memory.toByteBuffer(index, length, views);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.MemoryAccessW#slice(long, long)
+	 */
+	@Override
+	@NotNull
+	public MemoryAccessW slice(long offset, long length) {
+		return new MetricsMemoryAccess(memory.slice(offset, length), metrics);
+	}
+}
@@ -0,0 +1,58 @@
+package org.xphoenix.memory.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter which spreads updates over a few cache line padded cells, so threads
+ * updating it concurrently mostly do not contend. Like LongAdder, which is not
+ * available in Java 7
+ *
+ * @author andrphi
+ */
+final class StripedCounter {
+
+	/*
+	 * Cells are 128 bytes apart, adjacent line prefetch included
+	 */
+	private static final int PAD_SHIFT = 4;
+
+	private final AtomicLongArray cells;
+
+	private final int mask;
+
+	StripedCounter() {
+		int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+		this.cells = new AtomicLongArray(stripes << PAD_SHIFT);
+		this.mask = stripes - 1;
+	}
+
+	void add(long delta) {
+		cells.getAndAdd(stripe() << PAD_SHIFT, delta);
+	}
+
+	void increment() {
+		add(1);
+	}
+
+	long sum() {
+		long sum = 0;
+		for (int i=0; i <= mask; i++) {
+			sum += cells.get(i << PAD_SHIFT);
+		}
+		return sum;
+	}
+
+	void reset() {
+		for (int i=0; i <= mask; i++) {
+			cells.set(i << PAD_SHIFT, 0);
+		}
+	}
+
+	/*
+	 * Thread id is stable, so each thread always hits the same cell
+	 */
+	private int stripe() {
+		long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+		return (int)(id >>> 32) & mask;
+	}
+}
@@ -0,0 +1,98 @@
+package org.xphoenix.memory.collections;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ByteOrderConvertor;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+public class DoubleBigArrayTest {
+
+	@Test
+	public void testSortSpecialValues() {
+		double[] values = { 3.5, Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, 1, -2, 0.0, Double.POSITIVE_INFINITY,
+				-0.0, 5, 4, 3, 2, 1, 0, -1, -3, 7, 11, 13 };
+		DoubleBigArray array = new DoubleBigArray(MemoryAccessUnsafeImpl.wrap(new byte[8 * values.length]));
+		array.set(0, values, 0, values.length);
+
+		array.sort(0, array.length());
+		Arrays.sort(values);
+		double[] result = new double[values.length];
+		array.get(0, result, 0, result.length);
+		for (int i=0; i < values.length; i++) {
+			assertEquals("Element#"+i, Double.doubleToLongBits(values[i]), Double.doubleToLongBits(result[i]));
+		}
+
+		assertEquals("NaN", values.length - 1, array.binarySearch(0, array.length(), Double.NaN));
+		assertEquals("Missing", Arrays.binarySearch(values, 6.0), array.binarySearch(0, array.length(), 6.0));
+	}
+
+	@Test
+	public void testBulkAndSort() {
+		DoubleBigArray array = new DoubleBigArray(MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.SWAP, ByteBuffer.allocateDirect(8 * 3000)));
+		Random random = new Random(0);
+		double[] expected = new double[3000];
+		for (int i=0; i < expected.length; i++) {
+			expected[i] = random.nextGaussian();
+		}
+		array.set(0, expected, 0, 1000);
+		array.set(1000, expected, 1000, 2000);
+
+		array.sort(0, array.length());
+		Arrays.sort(expected);
+		double[] result = new double[3001];
+		array.get(0, result, 1, 3000);
+		assertArrayEquals("Sorted", expected, Arrays.copyOfRange(result, 1, 3001), 0);
+		assertEquals("Search", 1234, array.binarySearch(0, array.length(), expected[1234]));
+
+		array.fill(5, 10, 1.5);
+		assertEquals("Filled", 1.5, array.get(9), 0);
+		assertEquals("Not filled", expected[10], array.get(10), 0);
+	}
+
+	@Test
+	public void testIndexBounds() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, new byte[8 * 12]);
+		DoubleBigArray array = new DoubleBigArray(memory, 8, 10);
+		for (long index : new long[]{-1, 10, Long.MIN_VALUE}) {
+			try {
+				array.set(index, 1.0);
+				fail("Set#"+index);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+			try {
+				array.get(index);
+				fail("Get#"+index);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+		}
+
+		try {
+			array.set(5, new double[6], 0, 6);
+			fail("Bulk set crosses end");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+		try {
+			array.get(0, new double[4], 0, -1);
+			fail("Negative count");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+		assertEquals("Tail neighbour", 0, memory.getLong(88));
+		assertEquals("Head neighbour", 0, memory.getLong(0));
+	}
+
+	@Test(expected=ArrayIndexOutOfBoundsException.class)
+	public void testRange() {
+		new DoubleBigArray(MemoryAccessUnsafeImpl.wrap(new byte[64])).binarySearch(0, 9, 1.0);
+	}
+}
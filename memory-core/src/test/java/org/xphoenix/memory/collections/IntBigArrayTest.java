@@ -0,0 +1,118 @@
+package org.xphoenix.memory.collections;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.MemoryAccessAggregationImpl;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+public class IntBigArrayTest {
+
+	@Test
+	public void testSortAndFill() {
+		IntBigArray array = new IntBigArray(MemoryAccessUnsafeImpl.wrap(new byte[4 * 5000]));
+		Random random = new Random(0);
+		int[] expected = new int[(int)array.length()];
+		for (int i=0; i < expected.length; i++) {
+			expected[i] = random.nextInt();
+		}
+		array.set(0, expected, 0, expected.length);
+
+		array.sort(100, 4000);
+		Arrays.sort(expected, 100, 4000);
+		for (int i=0; i < expected.length; i++) {
+			assertEquals("Element#"+i, expected[i], array.get(i));
+		}
+		assertEquals("Search", 100 + 5, array.binarySearch(100, 4000, expected[105]));
+
+		array.fill(0, array.length(), 0);
+		array.fill(10, 20, 0x7F7F7F7F);
+		assertEquals("Filled", 0x7F7F7F7F, array.get(19));
+		assertEquals("Tail", 0, array.get(20));
+	}
+
+	@Test
+	public void testBulkAcrossSegments() {
+		// Segments are not multiple of element size, so values straddle boundaries
+		MemoryAccessW memory = MemoryAccessAggregationImpl.aggregate(new MemoryAccessW[]{
+				MemoryAccessUnsafeImpl.wrap(new byte[101]),
+				MemoryAccessUnsafeImpl.wrap(new byte[101]),
+				MemoryAccessUnsafeImpl.wrap(new byte[101]),
+				null
+		});
+		IntBigArray array = new IntBigArray(memory, 3, 70);
+
+		int[] values = new int[80];
+		for (int i=0; i < values.length; i++) {
+			values[i] = i * 31 - 1000;
+		}
+		array.set(5, values, 10, 60);
+		for (int i=0; i < 60; i++) {
+			assertEquals("Element#"+i, values[10 + i], array.get(5 + i));
+		}
+
+		int[] result = new int[64];
+		array.get(5, result, 2, 60);
+		assertArrayEquals("Bulk get", Arrays.copyOfRange(values, 10, 70), Arrays.copyOfRange(result, 2, 62));
+
+		array.fill(0, array.length(), -2);
+		array.sort(0, array.length());
+		assertEquals("Equal elements", -2, array.get(69));
+	}
+
+	@Test
+	public void testIndexBounds() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, new byte[4 * 12]);
+		IntBigArray array = new IntBigArray(memory, 4, 10);
+		for (long index : new long[]{-1, 10, 1L << 62}) {
+			try {
+				array.set(index, 1);
+				fail("Set#"+index);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+			try {
+				array.get(index);
+				fail("Get#"+index);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+		}
+
+		try {
+			array.set(9, new int[2], 0, 2);
+			fail("Bulk set crosses end");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+		try {
+			array.get(-1, new int[2], 0, 2);
+			fail("Bulk get before start");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+		try {
+			array.get(0, new int[2], 0, 3);
+			fail("Bulk get out of java array");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+		assertEquals("Tail neighbour", 0, memory.getInt(44));
+		assertEquals("Head neighbour", 0, memory.getInt(0));
+
+		array.set(9, 5);
+		array.set(0, new int[]{1, 2}, 0, 2);
+		assertEquals("Last", 5, array.get(9));
+		assertEquals("First", 1, array.get(0));
+	}
+
+	@Test(expected=ArrayIndexOutOfBoundsException.class)
+	public void testRange() {
+		new IntBigArray(MemoryAccessUnsafeImpl.wrap(new byte[64])).fill(10, 17, 1);
+	}
+}
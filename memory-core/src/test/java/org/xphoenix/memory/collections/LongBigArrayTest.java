@@ -0,0 +1,114 @@
+package org.xphoenix.memory.collections;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ByteOrderConvertor;
+import org.xphoenix.memory.core.MemoryAccessAggregationImpl;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+public class LongBigArrayTest {
+
+	@Test
+	public void testSortAndSearch() {
+		// Segments are not multiple of element size, so values straddle boundaries
+		MemoryAccessW memory = MemoryAccessAggregationImpl.aggregate(new MemoryAccessW[]{
+				MemoryAccessUnsafeImpl.wrap(new byte[1001]),
+				MemoryAccessUnsafeImpl.wrap(new byte[1001]),
+				MemoryAccessUnsafeImpl.wrap(new byte[1001]),
+				null
+		});
+		LongBigArray array = new LongBigArray(memory);
+		assertEquals("Length", 3003 / 8, array.length());
+
+		Random random = new Random(0);
+		long[] expected = new long[(int)array.length()];
+		for (int i=0; i < expected.length; i++) {
+			expected[i] = random.nextInt(100) - 50;
+			array.set(i, expected[i]);
+		}
+
+		array.sort(0, array.length());
+		Arrays.sort(expected);
+		long[] result = new long[expected.length];
+		array.get(0, result, 0, result.length);
+		assertArrayEquals("Sorted", expected, result);
+
+		for (long key = -60; key < 60; key++) {
+			int index = Arrays.binarySearch(expected, key);
+			long found = array.binarySearch(0, array.length(), key);
+			if (index < 0) {
+				assertEquals("Missing#"+key, index, found);
+			} else {
+				assertEquals("Found#"+key, key, array.get(found));
+			}
+		}
+	}
+
+	@Test
+	public void testSortPresorted() {
+		LongBigArray array = new LongBigArray(MemoryAccessUnsafeImpl.wrap(ByteBuffer.allocateDirect(8 * 10000)));
+		for (long i=0; i < array.length(); i++) {
+			array.set(i, array.length() - i);
+		}
+		array.sort(0, array.length());
+		for (long i=0; i < array.length(); i++) {
+			assertEquals("Element#"+i, i + 1, array.get(i));
+		}
+
+		array.fill(0, array.length(), 7);
+		array.sort(0, array.length());
+		assertEquals("Equal elements", 7, array.get(array.length() - 1));
+	}
+
+	@Test
+	public void testFill() {
+		LongBigArray array = new LongBigArray(MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.SWAP, ByteBuffer.allocateDirect(8 * 3000)), 8, 2998);
+		array.fill(0, array.length(), -1);
+		array.fill(1, 2990, 0x0102030405060708L);
+		assertEquals("Head", -1, array.get(0));
+		assertEquals("Filled", 0x0102030405060708L, array.get(1));
+		assertEquals("Filled", 0x0102030405060708L, array.get(2989));
+		assertEquals("Tail", -1, array.get(2990));
+	}
+
+	@Test
+	public void testIndexBounds() {
+		// Array in the middle of memory, neighbours must stay untouched
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, new byte[8 * 12]);
+		LongBigArray array = new LongBigArray(memory, 8, 10);
+		for (long index : new long[]{-1, 10, Long.MAX_VALUE}) {
+			try {
+				array.set(index, 1L);
+				fail("Set#"+index);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+			try {
+				array.get(index);
+				fail("Get#"+index);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+		}
+		try {
+			array.set(8, new long[3], 0, 3);
+			fail("Bulk set crosses end");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+		assertEquals("Tail neighbour", 0, memory.getLong(88));
+		assertEquals("Head neighbour", 0, memory.getLong(0));
+	}
+
+	@Test(expected=ArrayIndexOutOfBoundsException.class)
+	public void testRange() {
+		new LongBigArray(MemoryAccessUnsafeImpl.wrap(new byte[64])).sort(0, 9);
+	}
+}
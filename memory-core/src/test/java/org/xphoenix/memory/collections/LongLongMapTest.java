@@ -0,0 +1,112 @@
+package org.xphoenix.memory.collections;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+public class LongLongMapTest {
+
+	@Test
+	public void testPutGetRemove() {
+		LongLongMap map = LongLongMap.create(MemoryAccessUnsafeImpl.wrap(new byte[(int)LongLongMap.sizeOf(1000, 0.75)]));
+		Map<Long, Long> expected = new HashMap<>();
+		Random random = new Random(0);
+
+		for (int i=0; i < 10000; i++) {
+			long key = random.nextInt(500) - 250;
+			if (random.nextInt(4) == 0) {
+				assertEquals("Remove#"+i, expected.remove(key) != null, map.remove(key));
+			} else {
+				assertEquals("Put#"+i, !expected.containsKey(key), map.put(key, i));
+				expected.put(key, (long)i);
+			}
+			if (map.remaining() == 0) {
+				map = map.resize(MemoryAccessUnsafeImpl.wrap(new byte[(int)LongLongMap.sizeOf(map.size() * 2, 0.75)]));
+			}
+		}
+
+		assertEquals("Size", expected.size(), map.size());
+		for (long key = -250; key < 250; key++) {
+			Long value = expected.get(key);
+			assertEquals("Key#"+key, value == null ? -1 : value, map.get(key, -1));
+			assertEquals("Contains#"+key, value != null, map.containsKey(key));
+		}
+	}
+
+	@Test
+	public void testMarkerKeys() {
+		LongLongMap map = LongLongMap.create(MemoryAccessUnsafeImpl.wrap(new byte[1024]));
+		assertTrue("Zero", map.put(0, 1));
+		assertTrue("Min", map.put(Long.MIN_VALUE, 2));
+		assertFalse("Zero replaced", map.put(0, 3));
+		assertEquals("Size", 2, map.size());
+		assertEquals("Zero", 3, map.get(0, -1));
+		assertEquals("Min", 2, map.get(Long.MIN_VALUE, -1));
+
+		assertTrue("Zero removed", map.remove(0));
+		assertFalse("Zero", map.containsKey(0));
+		assertEquals("Size", 1, map.size());
+	}
+
+	@Test
+	public void testReopen() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(ByteBuffer.allocateDirect(8192));
+		LongLongMap map = LongLongMap.create(memory);
+		for (long i=1; i <= 100; i++) {
+			map.put(i * 31, i);
+		}
+		map.remove(31);
+
+		LongLongMap reopened = LongLongMap.open(memory);
+		assertEquals("Size", 99, reopened.size());
+		assertEquals("Capacity", map.capacity(), reopened.capacity());
+		assertEquals("Removed", -1, reopened.get(31, -1));
+		assertEquals("Value", 100, reopened.get(3100, -1));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testOpenGarbage() {
+		LongLongMap.open(MemoryAccessUnsafeImpl.wrap(new byte[1024]));
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testFull() {
+		LongLongMap map = LongLongMap.create(MemoryAccessUnsafeImpl.wrap(new byte[(int)LongLongMap.sizeOf(10, 0.5)]), 0.5);
+		for (long i=1; i < 1000; i++) {
+			map.put(i, i);
+		}
+	}
+
+	@Test
+	public void testConcurrentReader() throws InterruptedException {
+		final LongLongMap map = LongLongMap.create(MemoryAccessUnsafeImpl.wrap(ByteBuffer.allocateDirect((int)LongLongMap.sizeOf(100000, 0.75))));
+		final boolean[] failed = new boolean[1];
+		Thread reader = new Thread() {
+			@Override
+			public void run() {
+				for (long key = 1; key <= 100000; ) {
+					long value = map.get(key, -1);
+					if (value == -1) {
+						continue;
+					} else if (value != key * 2) {
+						failed[0] = true;
+					}
+					key++;
+				}
+			}
+		};
+		reader.start();
+		for (long key = 1; key <= 100000; key++) {
+			map.put(key, key * 2);
+		}
+		reader.join();
+		assertFalse("Reader saw garbage value", failed[0]);
+	}
+}
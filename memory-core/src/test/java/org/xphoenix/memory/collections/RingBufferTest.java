@@ -0,0 +1,255 @@
+package org.xphoenix.memory.collections;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+import org.xphoenix.memory.core.MemoryAccessR;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+public class RingBufferTest {
+
+	private static final int CAPACITY = 1024;
+
+	@Test
+	public void testWriteRead() {
+		for (RingBuffer ring : rings()) {
+			Collector collector = new Collector();
+			assertTrue("Empty", ring.isEmpty());
+			assertEquals("Capacity", CAPACITY, ring.capacity());
+
+			assertTrue("Write", ring.write(1, new byte[]{1, 2, 3}, 0, 3));
+			assertTrue("Write", ring.write(2, new byte[0], 0, 0));
+			assertEquals("Size", 16 + 8, ring.size());
+
+			assertEquals("Read", 2, ring.read(collector, 10));
+			assertEquals("Messages", "1:[1, 2, 3]", collector.messages.get(0));
+			assertEquals("Messages", "2:[]", collector.messages.get(1));
+			assertTrue("Empty", ring.isEmpty());
+			assertEquals("Read", 0, ring.read(collector, 10));
+		}
+	}
+
+	@Test
+	public void testWrapAndFull() {
+		for (RingBuffer ring : rings()) {
+			Random random = new Random(0);
+			Collector collector = new Collector();
+			List<String> expected = new ArrayList<>();
+
+			for (int i=0; i < 1000; i++) {
+				byte[] payload = new byte[random.nextInt(ring.maxMessageLength() + 1)];
+				random.nextBytes(payload);
+
+				while (!ring.write(i, payload, 0, payload.length)) {
+					assertTrue("Progress#"+i, ring.read(collector, 3) > 0);
+				}
+				expected.add(i+":"+Arrays.toString(payload));
+			}
+
+			while (ring.read(collector, Integer.MAX_VALUE) > 0);
+			assertEquals("Messages", expected, collector.messages);
+			assertTrue("Empty", ring.isEmpty());
+		}
+	}
+
+	@Test
+	public void testClaimCommit() {
+		for (RingBuffer ring : rings()) {
+			Collector collector = new Collector();
+			long first = ring.claim(1, 8);
+			long second = ring.claim(2, 8);
+			ring.getMemory().putLong(second, 2);
+			ring.commit(second);
+
+			assertEquals("Blocked by uncommitted", 0, ring.read(collector, 10));
+
+			ring.getMemory().putLong(first, 1);
+			ring.commit(first);
+			assertEquals("Read", 2, ring.read(collector, 10));
+		}
+	}
+
+	@Test
+	public void testBatch() {
+		for (RingBuffer ring : rings()) {
+			Collector collector = new Collector();
+			long batch = ring.tryClaim(RingBuffer.recordSize(3) * 3);
+			long record = batch;
+
+			ring.getMemory().putBuffer(ring.append(record, 1, 3), new byte[]{1, 2, 3}, 0, 3);
+			record += RingBuffer.recordSize(3);
+			ring.append(record, 2, 0);
+			record += RingBuffer.recordSize(0);
+			assertTrue("Write after batch", ring.write(3, new byte[]{4}, 0, 1));
+
+			assertEquals("Blocked by uncommitted batch", 0, ring.read(collector, 10));
+			ring.commitBatch(batch, record);
+			assertEquals("Read", 3, ring.read(collector, 10));
+			assertEquals("Messages", Arrays.asList("1:[1, 2, 3]", "2:[]", "3:[4]"), collector.messages);
+			assertTrue("Empty", ring.isEmpty());
+		}
+	}
+
+	@Test
+	public void testBatchWrap() {
+		for (RingBuffer ring : rings()) {
+			Random random = new Random(0);
+			Collector collector = new Collector();
+			List<String> expected = new ArrayList<>();
+
+			for (int i=0; i < 300; i++) {
+				int[] lengths = new int[1 + random.nextInt(4)];
+				int bytes = 0;
+				for (int j=0; j < lengths.length; j++) {
+					lengths[j] = random.nextInt(20);
+					bytes += RingBuffer.recordSize(lengths[j]);
+				}
+
+				long batch;
+				while ((batch = ring.tryClaim(bytes)) < 0) {
+					assertTrue("Progress#"+i, ring.read(collector, 2) > 0);
+				}
+
+				long record = batch;
+				for (int j=0; j < lengths.length; j++) {
+					byte[] payload = new byte[lengths[j]];
+					random.nextBytes(payload);
+					ring.getMemory().putBuffer(ring.append(record, i, payload.length), payload, 0, payload.length);
+					record += RingBuffer.recordSize(payload.length);
+					expected.add(i+":"+Arrays.toString(payload));
+				}
+				ring.commitBatch(batch, record);
+			}
+
+			while (ring.read(collector, Integer.MAX_VALUE) > 0);
+			assertEquals("Messages", expected, collector.messages);
+			assertTrue("Empty", ring.isEmpty());
+		}
+	}
+
+	@Test
+	public void testBatchBounds() {
+		RingBuffer ring = rings()[1];
+		long batch = ring.tryClaim(32);
+		try {
+			ring.commitBatch(batch, batch + 40);
+			fail("Records after claimed region");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		// Unused part of batch is skipped
+		ring.append(batch, 1, 0);
+		ring.commitBatch(batch, batch + 8);
+		assertEquals("Read", 1, ring.read(new Collector(), 10));
+		assertTrue("Empty", ring.isEmpty());
+
+		try {
+			ring.tryClaim(12);
+			fail("Unaligned batch");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testReopen() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(ByteBuffer.allocateDirect((int)RingBuffer.sizeOf(CAPACITY)));
+		RingBuffer producer = ManyToOneRingBuffer.create(memory);
+		assertTrue("Write", producer.write(5, new byte[]{7}, 0, 1));
+
+		Collector collector = new Collector();
+		RingBuffer consumer = ManyToOneRingBuffer.open(memory);
+		assertEquals("Read", 1, consumer.read(collector, 1));
+		assertEquals("Message", "5:[7]", collector.messages.get(0));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testOpenOtherVariant() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(new byte[(int)RingBuffer.sizeOf(CAPACITY)]);
+		OneToOneRingBuffer.create(memory);
+		ManyToOneRingBuffer.open(memory);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testTooLongMessage() {
+		RingBuffer ring = rings()[0];
+		ring.claim(1, ring.maxMessageLength() + 1);
+	}
+
+	@Test
+	public void testManyProducers() throws Exception {
+		final RingBuffer ring = ManyToOneRingBuffer.create(MemoryAccessUnsafeImpl.wrap(ByteBuffer.allocateDirect((int)RingBuffer.sizeOf(CAPACITY))));
+		final int producers = 4;
+		final int messages = 10000;
+
+		Thread[] threads = new Thread[producers];
+		for (int t=0; t < producers; t++) {
+			final int producer = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i=0; i < messages; i++) {
+						long index;
+						while ((index = ring.claim(producer, 8)) < 0) {
+							Thread.yield();
+						}
+						ring.getMemory().putLong(index, i);
+						ring.commit(index);
+					}
+				}
+			};
+			threads[t].start();
+		}
+
+		final long[] next = new long[producers];
+		final int[] total = new int[1];
+		RingBuffer.MessageHandler handler = new RingBuffer.MessageHandler() {
+			@Override
+			public void onMessage(int type, @NotNull MemoryAccessR memory, long index, int length) {
+				assertEquals("Order of producer#"+type, next[type]++, memory.getLong(index));
+				total[0]++;
+			}
+		};
+
+		while (total[0] < producers * messages) {
+			if (ring.read(handler, 100) == 0) {
+				Thread.yield();
+			}
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue("Empty", ring.isEmpty());
+	}
+
+	private static RingBuffer[] rings() {
+		return new RingBuffer[] {
+				OneToOneRingBuffer.create(MemoryAccessUnsafeImpl.wrap(new byte[(int)RingBuffer.sizeOf(CAPACITY)])),
+				ManyToOneRingBuffer.create(MemoryAccessUnsafeImpl.wrap(ByteBuffer.allocateDirect((int)RingBuffer.sizeOf(CAPACITY) + 100))),
+		};
+	}
+
+	private static final class Collector implements RingBuffer.MessageHandler {
+
+		private final List<String> messages = new ArrayList<>();
+
+		@Override
+		public void onMessage(int type, @NotNull MemoryAccessR memory, long index, int length) {
+			byte[] payload = new byte[length];
+			for (int i=0; i < length; i++) {
+				payload[i] = memory.getByte(index + i);
+			}
+			messages.add(type+":"+Arrays.toString(payload));
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ArenaTest {
+
+	@Test
+	public void testAllocate() {
+		Arena arena = new Arena(MemoryAccessUnsafeImpl.wrap(new byte[64]));
+
+		MemoryAccessW first = arena.allocate(3);
+		MemoryAccessW second = arena.allocate(16, 8);
+		assertEquals("Size", 16, second.size());
+		assertEquals("Used", 24, arena.used());
+		assertEquals("Remaining", 40, arena.remaining());
+
+		first.putByte(2, (byte)1);
+		second.putLong(0, 42L);
+		assertEquals("Arena memory", 42L, arena.getMemory().getLong(8));
+		assertEquals("Arena memory", 1, arena.getMemory().getByte(2));
+	}
+
+	@Test
+	public void testReset() {
+		Arena arena = new Arena(MemoryAccessUnsafeImpl.wrap(new byte[64]));
+		assertEquals("Offset", 0, arena.allocateOffset(60, 1));
+
+		arena.reset();
+		assertEquals("Used", 0, arena.used());
+		assertEquals("Offset", 0, arena.allocateOffset(64, 1));
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testExhausted() {
+		Arena arena = new Arena(MemoryAccessUnsafeImpl.wrap(new byte[64]));
+		arena.allocate(60);
+		arena.allocate(8);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testAlignment() {
+		new Arena(MemoryAccessUnsafeImpl.wrap(new byte[64])).allocateOffset(8, 3);
+	}
+}
@@ -0,0 +1,137 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class ByteBufferViewsTest {
+
+	@Test
+	public void testRangeViews() {
+		ByteBufferViews views = new ByteBufferViews(1);
+		for (MemoryAccessW memory : MemoryReaderTest.memories(100)) {
+			for (int i=0; i < memory.size(); i++) {
+				memory.putByte(i, (byte)(i * 7));
+			}
+
+			int count = memory.toByteBuffer(5, 90, views.clear());
+			assertEquals("Count "+memory, count, views.count());
+			assertEquals("Remaining "+memory, 90, views.remaining());
+
+			int expected = 5;
+			for (int i=0; i < views.count(); i++) {
+				ByteBuffer buf = views.get(i);
+				while (buf.hasRemaining()) {
+					assertEquals("Byte#"+expected+" "+memory, (byte)(expected * 7), buf.get());
+					expected++;
+				}
+			}
+			assertEquals("Bytes "+memory, 95, expected);
+			assertEquals("Empty range "+memory, 0, memory.toByteBuffer(memory.size(), 0, views.clear()));
+		}
+	}
+
+	@Test
+	public void testViewsAreReused() {
+		ByteBufferViews views = new ByteBufferViews();
+		for (MemoryAccessW memory : MemoryReaderTest.memories(100)) {
+			memory.toByteBuffer(0, memory.size(), views.clear());
+			ByteBuffer[] first = views.toArray();
+			first[0].position(first[0].limit());
+
+			memory.toByteBuffer(1, memory.size() - 2, views.clear());
+			assertEquals("Count "+memory, first.length, views.count());
+			for (int i=0; i < first.length; i++) {
+				assertSame("View#"+i+" "+memory, first[i], views.get(i));
+			}
+			assertEquals("Remaining "+memory, memory.size() - 2, views.remaining());
+		}
+	}
+
+	@Test
+	public void testViewsWrite() {
+		for (MemoryAccessW memory : MemoryReaderTest.memories(64)) {
+			ByteBufferViews views = new ByteBufferViews();
+			memory.toByteBuffer(10, 40, views);
+			byte value = 0;
+			for (int i=0; i < views.count(); i++) {
+				while (views.get(i).hasRemaining()) {
+					views.get(i).put(value++);
+				}
+			}
+			for (int i=0; i < 40; i++) {
+				assertEquals("Byte#"+i+" "+memory, (byte)i, memory.getByte(10 + i));
+			}
+		}
+	}
+
+	@Test
+	public void testForEachByteBuffer() {
+		MemoryAccessW memory = MemoryReaderTest.memories(100)[2];
+		final long[] visited = new long[2];
+		ByteBufferViews views = new ByteBufferViews();
+
+		assertTrue("All visited", views.forEachByteBuffer(memory, 3, 50, new ByteBufferVisitor() {
+			@Override
+			public boolean visit(ByteBuffer buffer) {
+				visited[0]++;
+				visited[1] += buffer.remaining();
+				return true;
+			}
+		}));
+		assertEquals("Views", views.count(), visited[0]);
+		assertEquals("Bytes", 50, visited[1]);
+
+		visited[0] = 0;
+		assertFalse("Stopped", views.forEachByteBuffer(memory, 3, 50, new ByteBufferVisitor() {
+			@Override
+			public boolean visit(ByteBuffer buffer) {
+				visited[0]++;
+				return false;
+			}
+		}));
+		assertEquals("Stopped views", 1, visited[0]);
+	}
+
+	@Test
+	public void testViewsKeepMemory() throws InterruptedException {
+		NativeMemory.setLeakTracking(true);
+		try {
+			int before = NativeMemory.getTrackedAllocations().size();
+			NativeMemory memory = NativeMemory.allocate(64);
+			memory.putByte(40, (byte)42);
+			ByteBufferViews views = new ByteBufferViews();
+			memory.slice(32, 16).toByteBuffer(0, 16, views);
+			memory = null;
+
+			for (int i=0; i < 3; i++) {
+				System.gc();
+				Thread.sleep(10);
+				NativeMemory.reclaimLeaks();
+			}
+			assertEquals("Tracked", before + 1, NativeMemory.getTrackedAllocations().size());
+			assertEquals("View", 42, views.get(0).get(8));
+
+			views = null;
+			System.gc();
+			Thread.sleep(10);
+			NativeMemory.reclaimLeaks();
+		} finally {
+			NativeMemory.setLeakTracking(false);
+		}
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testOutOfBounds() {
+		MemoryReaderTest.memories(16)[3].toByteBuffer(10, 7, new ByteBufferViews());
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testGetOutOfCount() {
+		ByteBufferViews views = new ByteBufferViews();
+		MemoryAccessUnsafeImpl.wrap(new byte[8]).toByteBuffer(0, 8, views);
+		views.get(1);
+	}
+}
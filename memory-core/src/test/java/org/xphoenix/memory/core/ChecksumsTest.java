@@ -0,0 +1,87 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+public class ChecksumsTest {
+
+	private static final byte[] DATA = new byte[100];
+
+	static {
+		for (int i=0; i < DATA.length; i++) {
+			DATA[i] = (byte)(i * 31 + 7);
+		}
+	}
+
+	@Test
+	public void testReferenceValues() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(new byte[128]);
+		check(memory, 0, "", 0xEF46DB3751D8E999L, 0, 0);
+		check(memory, 1, "a", 0xD24EC4F1A98C6E5BL, 0x3C2569B2, 0xC1D04330);
+		check(memory, 2, "abc", 0x44BC2CF5AD770999L, 0xB3DD93FA, 0x364B3FB7);
+		assertEquals("Seeded xxHash", 0xBEA9CA8199328908L, Checksums.xxHash64(memory, 2, 3, 1));
+		assertEquals("Seeded murmur3", 0xC84A62DD, Checksums.murmur3(memory, 2, 3, 0x9747B28C));
+		check(memory, 3, "123456789", 0x8CB841DB40E6AE83L, 0xB4FEF382, 0xE3069283);
+	}
+
+	@Test
+	public void testAllMemoryKinds() {
+		NativeMemory nativeMemory = NativeMemory.allocate(DATA.length + 8);
+		try {
+			MemoryAccessW[] memories = {
+				MemoryAccessUnsafeImpl.wrap(new byte[DATA.length + 8]),
+				MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.SWAP, ByteBuffer.allocateDirect(DATA.length + 8)),
+				nativeMemory,
+				new MemoryAccessAggregationImpl<>(new MemoryAccessW[]{
+						MemoryAccessUnsafeImpl.wrap(new byte[13]),
+						MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.NO_OP, ByteBuffer.allocateDirect(13)),
+						MemoryAccessUnsafeImpl.wrap(new byte[13]),
+						MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.NO_OP, ByteBuffer.allocateDirect(13)),
+						MemoryAccessUnsafeImpl.wrap(new byte[13]),
+						MemoryAccessUnsafeImpl.wrap(new byte[13]),
+						MemoryAccessUnsafeImpl.wrap(new byte[13]),
+						MemoryAccessUnsafeImpl.wrap(new byte[13]),
+						MemoryAccessUnsafeImpl.wrap(new byte[13]),
+						null
+					}, 5),
+				MemoryAccessUnsafeImpl.wrap(new byte[DATA.length + 20]).slice(6, DATA.length + 8),
+			};
+
+			for (MemoryAccessW memory : memories) {
+				memory.putBuffer(5, DATA, 0, DATA.length);
+				assertEquals("xxHash of "+memory, 0xEFA0AD2D3E70C151L, Checksums.hash(memory, 5, DATA.length));
+				assertEquals("Seeded xxHash of "+memory, 0xCD8103AECD2ED5CFL, Checksums.xxHash64(memory, 5, DATA.length, 1));
+				assertEquals("murmur3 of "+memory, 0x34C6BB9C, Checksums.murmur3(memory, 5, DATA.length, 0));
+				assertEquals("CRC32C of "+memory, 0xE26C441C, Checksums.crc32c(memory, 5, DATA.length));
+				assertEquals("Table CRC32C of "+memory, 0xE26C441C, ~Checksums.updateCrc32c(~0, memory, 5, DATA.length));
+			}
+		} finally {
+			nativeMemory.close();
+		}
+	}
+
+	@Test
+	public void testIncrementalTableCrc() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(DATA.clone());
+		int crc = Checksums.updateCrc32c(~0, memory, 0, 37);
+		crc = Checksums.updateCrc32c(crc, memory, 37, DATA.length - 37);
+		assertEquals("CRC32C", 0xE26C441C, ~crc);
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testOutOfBounds() {
+		Checksums.crc32c(MemoryAccessUnsafeImpl.wrap(new byte[16]), 8, 9);
+	}
+
+	private static void check(MemoryAccessW memory, long index, String value, long xxHash, int murmur3, int crc32c) {
+		byte[] bytes = value.getBytes(Charset.forName("US-ASCII"));
+		memory.putBuffer(index, bytes, 0, bytes.length);
+		assertEquals("xxHash of "+value, xxHash, Checksums.hash(memory, index, bytes.length));
+		assertEquals("murmur3 of "+value, murmur3, Checksums.murmur3(memory, index, bytes.length, 0));
+		assertEquals("CRC32C of "+value, crc32c, Checksums.crc32c(memory, index, bytes.length));
+	}
+}
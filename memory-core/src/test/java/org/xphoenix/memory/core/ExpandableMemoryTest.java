@@ -0,0 +1,265 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ExpandableMemoryTest {
+
+	private static final int SEGMENT_SIZE = 16;
+
+	@Test
+	public void testGrowOnWrite() {
+		ExpandableMemory memory = heap(ByteOrderConvertor.NO_OP);
+		assertEquals("Initial size", SEGMENT_SIZE, memory.size());
+
+		memory.putLong(100, 42);
+		assertEquals("Grown size", 112, memory.size());
+		assertEquals("Value", 42, memory.getLong(100));
+		assertEquals("Untouched", 0, memory.getLong(0));
+
+		memory.ensureCapacity(1000);
+		assertEquals("Ensured size", 1008, memory.size());
+		assertEquals("Value after growth", 42, memory.getLong(100));
+	}
+
+	@Test
+	public void testCrossingValuesLayout() {
+		for (ByteOrderConvertor order : new ByteOrderConvertor[] {ByteOrderConvertor.NO_OP, ByteOrderConvertor.SWAP}) {
+			ExpandableMemory memory = heap(order);
+			MemoryAccessW plain = MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, order, new byte[64]);
+
+			for (int index=8; index < 24; index++) {
+				memory.putLong(index, 0x0102030405060708L * index);
+				plain.putLong(index, 0x0102030405060708L * index);
+				assertEquals("Long#"+index, plain.getLong(index), memory.getLong(index));
+				assertEquals("Int#"+index, plain.getInt(index + 2), memory.getInt(index + 2));
+				assertEquals("Short#"+index, plain.getShort(index + 5), memory.getShort(index + 5));
+				for (int i=0; i < 8; i++) {
+					assertEquals("Byte#"+(index + i), plain.getByte(index + i), memory.getByte(index + i));
+				}
+			}
+
+			memory.putDouble(29, 1.5).putFloat(46, 2.5f).putChar(63, '\u044B');
+			assertEquals("Double", 1.5, memory.getDouble(29), 0);
+			assertEquals("Float", 2.5f, memory.getFloat(46), 0);
+			assertEquals("Char", '\u044B', memory.getChar(63));
+		}
+	}
+
+	@Test
+	public void testBulkAcrossSegments() {
+		ExpandableMemory memory = heap(ByteOrderConvertor.NO_OP);
+		long[] longs = new long[20];
+		int[] ints = new int[20];
+		for (int i=0; i < longs.length; i++) {
+			longs[i] = i * 0x1111111111L;
+			ints[i] = i * 7;
+		}
+
+		memory.putLongs(3, longs, 0, longs.length);
+		long[] longsRead = new long[20];
+		memory.getLongs(3, longsRead, 0, longsRead.length);
+		assertArrayEquals("Longs", longs, longsRead);
+		assertEquals("Long", longs[5], memory.getLong(3 + 5 * 8));
+
+		memory.putInts(301, ints, 0, ints.length);
+		int[] intsRead = new int[20];
+		memory.getInts(301, intsRead, 0, intsRead.length);
+		assertArrayEquals("Ints", ints, intsRead);
+
+		byte[] bytes = new byte[50];
+		new Random(1).nextBytes(bytes);
+		memory.putBuffer(7, bytes, 0, bytes.length);
+		byte[] bytesRead = new byte[50];
+		memory.getBuffer(7, bytesRead, 0, bytesRead.length);
+		assertArrayEquals("Bytes", bytes, bytesRead);
+
+		ByteBuffer buffer = ByteBuffer.allocate(50);
+		memory.getBuffer(7, buffer);
+		assertArrayEquals("ByteBuffer", bytes, buffer.array());
+		buffer.flip();
+		memory.putBuffer(500, buffer);
+		assertEquals("Consumed", 0, buffer.remaining());
+		assertEquals("Mismatch", -1, memory.mismatch(7, memory, 500, 50));
+		assertEquals("Compare", 0, memory.compare(500, MemoryAccessUnsafeImpl.wrap(bytes), 0, 50));
+
+		memory.fill(10, 30, (byte)5);
+		assertEquals("Fill", 5, memory.getByte(39));
+		assertEquals("Mismatch after fill", 3, memory.mismatch(7, memory, 500, 50));
+	}
+
+	@Test
+	public void testOverlappingCopy() {
+		ExpandableMemory memory = heap(ByteOrderConvertor.NO_OP);
+		byte[] expected = new byte[100];
+		for (int i=0; i < 60; i++) {
+			memory.putByte(i, (byte)i);
+			expected[i] = (byte)i;
+		}
+
+		memory.copyTo(0, memory, 5, 60);
+		System.arraycopy(expected.clone(), 0, expected, 5, 60);
+		memory.copyTo(10, memory, 3, 50);
+		System.arraycopy(expected.clone(), 10, expected, 3, 50);
+
+		byte[] actual = new byte[100];
+		memory.getBuffer(0, actual, 0, 65);
+		assertArrayEquals("Copied", expected, actual);
+
+		MemoryAccessW plain = MemoryAccessUnsafeImpl.wrap(new byte[40]);
+		memory.copyTo(3, plain, 0, 40);
+		plain.copyTo(0, memory, 200, 40);
+		assertEquals("Copied from plain", -1, memory.mismatch(3, memory, 200, 40));
+	}
+
+	@Test
+	public void testAtomics() {
+		ExpandableMemory memory = heap(ByteOrderConvertor.NO_OP);
+		assertTrue("CAS grows", memory.compareAndSwap(40, 0L, 7L));
+		assertEquals("Size", 48, memory.size());
+		assertEquals("GetAndAdd", 7, memory.getAndAddLong(40, 1));
+		assertEquals("Volatile", 8, memory.getLongVolatile(40));
+		memory.putOrderedInt(60, 3);
+		assertEquals("GetAndSet", 3, memory.getAndSetInt(60, 4));
+		assertEquals("Int", 4, memory.getIntVolatile(60));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testAtomicCrossingSegments() {
+		heap(ByteOrderConvertor.NO_OP).getAndAddLong(12, 1);
+	}
+
+	@Test(expected=ArrayIndexOutOfBoundsException.class)
+	public void testReadAfterEnd() {
+		heap(ByteOrderConvertor.NO_OP).getLong(SEGMENT_SIZE - 4);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testMaxSize() {
+		ExpandableMemory memory = new ExpandableMemory(ExpandableMemory.heapSegments(BoundsChecker.REAL, ByteOrderConvertor.NO_OP), SEGMENT_SIZE, 64);
+		memory.putLong(56, 1);
+		memory.putByte(64, (byte)1);
+	}
+
+	@Test
+	public void testMaxSizeLimit() {
+		// Segment number is int, so default max size is limited by segments count
+		ExpandableMemory memory = heap(ByteOrderConvertor.NO_OP);
+		assertEquals("Max size", (long)Integer.MAX_VALUE * SEGMENT_SIZE, memory.getMaxSize());
+		try {
+			memory.putByte(memory.getMaxSize(), (byte)1);
+			fail("Write after max size");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertEquals("Size", SEGMENT_SIZE, memory.size());
+	}
+
+	@Test
+	public void testNegativeRegion() {
+		ExpandableMemory memory = new ExpandableMemory(ExpandableMemory.heapSegments(BoundsChecker.NO_OP, ByteOrderConvertor.NO_OP), SEGMENT_SIZE);
+		try {
+			memory.putLong(-8, 1);
+			fail("Negative index");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+		try {
+			memory.copyFrom(4, MemoryAccessUnsafeImpl.wrap(new byte[8]), 0, -1);
+			fail("Negative length");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+		try {
+			memory.putLong(Long.MAX_VALUE - 4, 1);
+			fail("Overflowing region");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+		assertEquals("Size", SEGMENT_SIZE, memory.size());
+	}
+
+	@Test
+	public void testNativeSegments() {
+		ExpandableMemory memory = new ExpandableMemory(ExpandableMemory.nativeSegments(BoundsChecker.REAL, ByteOrderConvertor.NO_OP), 4096);
+		memory.putLong(10000, 5);
+		assertEquals("Value", 5, memory.getLong(10000));
+		assertTrue("Segment aligned", memory.isAligned(4096, 8));
+		memory.close();
+		try {
+			memory.putLong(100000, 1);
+			fail("Growth after close");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testCodecs() {
+		ExpandableMemory memory = heap(ByteOrderConvertor.SWAP);
+		MemoryWriter writer = new MemoryWriter(memory);
+		for (int i=0; i < 10; i++) {
+			// Writer limit is fixed on wrap, so memory is grown ahead
+			memory.ensureCapacity(writer.position() + 64);
+			writer.wrap(memory, writer.position(), memory.size());
+			writer.writeVarLong(1L << (6 * i)).writeLong(i).writeUtf8("\u043A\u043B\u044E\u0447"+i);
+		}
+
+		MemoryReader reader = new MemoryReader().wrap(memory, 0, writer.position());
+		for (int i=0; i < 10; i++) {
+			assertEquals("VarLong#"+i, 1L << (6 * i), reader.readVarLong());
+			assertEquals("Long#"+i, i, reader.readLong());
+			assertEquals("Utf8#"+i, "\u043A\u043B\u044E\u0447"+i, reader.readUtf8(9));
+		}
+
+		byte[] bytes = new byte[(int)writer.position()];
+		memory.getBuffer(0, bytes, 0, bytes.length);
+		MemoryAccessR plain = MemoryAccessUnsafeImpl.wrap(bytes);
+		assertEquals("CRC32C", Checksums.crc32c(plain, 0, bytes.length), Checksums.crc32c(memory, 0, bytes.length));
+		assertEquals("xxHash", Checksums.hash(plain, 0, bytes.length), Checksums.hash(memory, 0, bytes.length));
+	}
+
+	@Test
+	public void testReadsConcurrentWithGrowth() throws Exception {
+		final ExpandableMemory memory = heap(ByteOrderConvertor.NO_OP);
+		final AtomicBoolean done = new AtomicBoolean();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		Thread reader = new Thread() {
+			@Override
+			public void run() {
+				try {
+					while (!done.get()) {
+						long size = memory.size();
+						long value = memory.getLongVolatile(size - 8);
+						if (value != 0 && value != size - 8) {
+							throw new AssertionError("Value "+value+" at "+(size - 8));
+						}
+					}
+				} catch (Throwable e) {
+					failure.set(e);
+				}
+			}
+		};
+		reader.start();
+
+		for (long index=0; index < 1 << 16; index += 8) {
+			memory.putLongVolatile(index, index);
+		}
+		done.set(true);
+		reader.join();
+
+		assertNull("Reader failure", failure.get());
+		assertEquals("Size", 1 << 16, memory.size());
+	}
+
+	private static ExpandableMemory heap(ByteOrderConvertor order) {
+		return new ExpandableMemory(ExpandableMemory.heapSegments(BoundsChecker.REAL, order), SEGMENT_SIZE);
+	}
+}
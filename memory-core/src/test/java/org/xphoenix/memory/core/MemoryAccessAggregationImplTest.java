@@ -80,12 +80,41 @@ public class MemoryAccessAggregationImplTest {
 				new MemoryAccessW[]{
 						MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE]),
 						MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE/2]),
+						MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE]),
 						null
 				},
 				0
 		);
 	}
 	
+	@Test
+	public void testShortLastSegment() {
+		MemoryAccessW acs = new MemoryAccessAggregationImpl(
+				new MemoryAccessW[]{
+						MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE]),
+						MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE/2]),
+						null
+				},
+				0,
+				SEGMENT_SIZE/2
+		);
+
+		assertEquals("Size", SEGMENT_SIZE + SEGMENT_SIZE/2, acs.size());
+		acs.putInt(SEGMENT_SIZE - 2, 0x11223344);
+		assertEquals("getInt", 0x11223344, acs.getInt(SEGMENT_SIZE - 2));
+
+		// By default the whole last segment is addressable
+		acs = new MemoryAccessAggregationImpl(
+				new MemoryAccessW[]{
+						MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE]),
+						MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE/2]),
+						null
+				},
+				0
+		);
+		assertEquals("Default size", SEGMENT_SIZE + SEGMENT_SIZE/2, acs.size());
+	}
+
 	@Test
 	public void testByte() {
 
@@ -144,4 +173,190 @@ public class MemoryAccessAggregationImplTest {
 			assertEquals("buf["+i+"]", buf[i], memory.getByte(i));
 		}
 	}
+
+	@Test
+	public void testBulkLongs() {
+		for (int offset=0; offset < 8; offset++) {
+			long[] values = new long[(SEGMENT_SIZE * 2 - offset) / 8];
+			for (int i=0; i < values.length; i++) {
+				values[i] = 0x1122334455667788L + i + offset;
+			}
+
+			memory.putLongs(offset, values, 0, values.length);
+			for (int i=0; i < values.length; i++) {
+				assertEquals("Long#"+offset+"#"+i, values[i], memory.getLong(offset + i * 8));
+			}
+
+			long[] result = new long[values.length];
+			memory.getLongs(offset, result, 0, values.length);
+			assertArrayEquals("Longs#"+offset, values, result);
+		}
+	}
+
+	@Test
+	public void testBulkShorts() {
+		short[] values = new short[SEGMENT_SIZE - 1];
+		for (int i=0; i < values.length; i++) {
+			values[i] = (short)(0x1122 + i);
+		}
+
+		memory.putShorts(1, values, 0, values.length);
+		short[] result = new short[values.length];
+		memory.getShorts(1, result, 0, values.length);
+		assertArrayEquals("Shorts", values, result);
+	}
+
+	@Test
+	public void testFill() {
+		memory.fill(0, memory.size(), (byte)0);
+		memory.fill(3, SEGMENT_SIZE, (byte)0x5A);
+		for (int i=0; i < memory.size(); i++) {
+			assertEquals("Byte#"+i, i >= 3 && i < 3 + SEGMENT_SIZE ? 0x5A : 0, memory.getByte(i));
+		}
+	}
+
+	@Test
+	public void testCopyOverlapping() {
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)i);
+		}
+
+		memory.copyTo(2, memory, 7, SEGMENT_SIZE);
+		for (int i=0; i < SEGMENT_SIZE; i++) {
+			assertEquals("Forward#"+i, 2 + i, memory.getByte(7 + i));
+		}
+
+		memory.copyTo(7, memory, 1, SEGMENT_SIZE);
+		for (int i=0; i < SEGMENT_SIZE; i++) {
+			assertEquals("Backward#"+i, 2 + i, memory.getByte(1 + i));
+		}
+	}
+
+	@Test
+	public void testCopyOverlappingSlices() {
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)i);
+		}
+
+		// Slices share aggregation, destination is above source
+		MemoryAccessW src = memory.slice(1, SEGMENT_SIZE + 4);
+		MemoryAccessW dst = memory.slice(4, SEGMENT_SIZE + 4);
+		src.copyTo(1, dst, 1, SEGMENT_SIZE + 2);
+		for (int i=0; i < SEGMENT_SIZE + 2; i++) {
+			assertEquals("Forward#"+i, 2 + i, memory.getByte(5 + i));
+		}
+		assertEquals("Before", 4, memory.getByte(4));
+
+		dst.copyTo(1, src, 0, SEGMENT_SIZE + 2);
+		for (int i=0; i < SEGMENT_SIZE + 2; i++) {
+			assertEquals("Backward#"+i, 2 + i, memory.getByte(1 + i));
+		}
+	}
+
+	@Test
+	public void testCopyAndMismatch() {
+		MemoryAccessW other = MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE * 2]);
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)(i * 3));
+		}
+
+		memory.copyTo(0, other, 0, memory.size());
+		assertEquals("Equal", -1, memory.mismatch(0, other, 0, memory.size()));
+		assertEquals("Equal", -1, other.mismatch(0, memory, 0, memory.size()));
+		assertEquals("Compare", 0, memory.compare(0, other, 0, memory.size()));
+
+		other.putByte(SEGMENT_SIZE + 1, (byte)0xFF);
+		assertEquals("Mismatch", SEGMENT_SIZE - 1, memory.mismatch(2, other, 2, memory.size() - 2));
+		assertEquals("Mismatch", SEGMENT_SIZE - 1, other.mismatch(2, memory, 2, memory.size() - 2));
+		assertTrue("Compare", memory.compare(0, other, 0, memory.size()) < 0);
+		assertTrue("Compare", other.compare(0, memory, 0, memory.size()) > 0);
+
+		other.fill(0, other.size(), (byte)1);
+		other.copyTo(0, memory, 5, SEGMENT_SIZE);
+		assertEquals("Mismatch", -1, memory.mismatch(5, other, 0, SEGMENT_SIZE));
+		assertEquals("Mismatch", SEGMENT_SIZE, memory.mismatch(5, other, 0, SEGMENT_SIZE + 1));
+	}
+
+	@Test
+	public void testGetBufferAcrossSegments() {
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)(i + 1));
+		}
+
+		byte[] result = new byte[SEGMENT_SIZE + 4];
+		memory.getBuffer(SEGMENT_SIZE - 3, result, 2, SEGMENT_SIZE);
+		for (int i=0; i < SEGMENT_SIZE; i++) {
+			assertEquals("Byte#"+i, SEGMENT_SIZE - 3 + i + 1, result[2 + i]);
+		}
+
+		memory.getBuffer(result, 0, (int)memory.size() - SEGMENT_SIZE + 4);
+		assertEquals("Last byte", 1, result[0]);
+	}
+
+	@Test
+	public void testByteBufferAcrossSegments() {
+		ByteBuffer[] sources = {
+				ByteBuffer.allocate(SEGMENT_SIZE + 2),
+				ByteBuffer.allocateDirect(SEGMENT_SIZE + 2),
+		};
+
+		for (ByteBuffer src : sources) {
+			for (int i=0; i < src.capacity(); i++) {
+				src.put(i, (byte)(i * 7));
+			}
+
+			for (ByteBuffer value : new ByteBuffer[]{ src.duplicate(), src.asReadOnlyBuffer() }) {
+				value.position(1);
+				memory.putBuffer(SEGMENT_SIZE - 4, value);
+				assertFalse("Consumed", value.hasRemaining());
+
+				ByteBuffer result = ByteBuffer.allocateDirect(SEGMENT_SIZE + 3);
+				result.position(2);
+				memory.getBuffer(SEGMENT_SIZE - 4, result);
+				assertFalse("Filled", result.hasRemaining());
+				for (int i=0; i < SEGMENT_SIZE + 1; i++) {
+					assertEquals("Byte#"+i, src.get(i + 1), result.get(i + 2));
+				}
+			}
+		}
+	}
+
+	@Test(expected=ArrayIndexOutOfBoundsException.class)
+	public void testGetBufferOutOfBounds() {
+		memory.getBuffer(SEGMENT_SIZE, new byte[SEGMENT_SIZE + 1], 0, SEGMENT_SIZE + 1);
+	}
+
+	@Test
+	public void testAtomics() {
+		memory.putLongVolatile(0, 5);
+		assertEquals("GetAndAddLong", 5, memory.getAndAddLong(0, 3));
+		assertEquals("GetAndSetLong", 8, memory.getAndSetLong(0, 1));
+		assertTrue("CAS long", memory.compareAndSwap(0, 1L, 2L));
+		assertEquals("Long", 2, memory.getLongVolatile(0));
+
+		memory.putOrderedInt(SEGMENT_SIZE, 7);
+		assertEquals("GetAndAddInt", 7, memory.getAndAddInt(SEGMENT_SIZE, -2));
+		assertEquals("GetAndSetInt", 5, memory.getAndSetInt(SEGMENT_SIZE, 1));
+		assertTrue("CAS int", memory.compareAndSwap(SEGMENT_SIZE, 1, 2));
+		assertEquals("Int", 2, memory.getIntVolatile(SEGMENT_SIZE));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testStraddlingAtomic() {
+		memory.getAndAddLong(SEGMENT_SIZE - 4, 1);
+	}
+
+	@Test
+	public void testAlignUpAcrossSegments() {
+		for (long index=0; index < memory.size(); index++) {
+			long aligned = memory.alignUp(index, 4);
+			assertTrue("AlignUp#"+index, aligned >= index);
+			for (long i=index; i < Math.min(aligned, memory.size()); i++) {
+				assertFalse("Skipped aligned#"+i, memory.isAligned(i, 4));
+			}
+			if (aligned < memory.size()) {
+				assertTrue("IsAligned#"+index, memory.isAligned(aligned, 4));
+			}
+		}
+	}
 }
@@ -0,0 +1,137 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.junit.Test;
+import org.xphoenix.memory.core.MemoryAccessPool.Backing;
+
+public class MemoryAccessPoolTest {
+
+	@Test
+	public void testAcquireRelease() {
+		for (Backing backing : Backing.values()) {
+			MemoryAccessPool pool = new MemoryAccessPool(backing);
+			MemoryAccessW memory = pool.acquire(100);
+			assertEquals("Class size", 128, memory.size());
+			assertEquals("Allocated", 128, pool.allocated());
+
+			memory.putLong(120, 42L);
+			assertEquals("Value", 42L, memory.getLong(120));
+			pool.release(memory);
+
+			assertSame("Reused", memory, pool.acquire(65));
+			assertNotSame("Other class", memory, pool.acquire(64));
+			assertEquals("Allocated", 128 + 64, pool.allocated());
+		}
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testDoubleRelease() {
+		MemoryAccessPool pool = new MemoryAccessPool(Backing.NATIVE);
+		MemoryAccessW memory = pool.acquire(10);
+		pool.release(memory);
+		pool.release(memory);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testForeignMemory() {
+		new MemoryAccessPool(Backing.DIRECT).release(MemoryAccessUnsafeImpl.wrap(new byte[64]));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testTooLarge() {
+		new MemoryAccessPool(Backing.DIRECT).acquire(MemoryAccessPool.DEFAULT_MAX_SIZE + 1);
+	}
+
+	@Test
+	public void testTrim() {
+		MemoryAccessPool pool = new MemoryAccessPool(Backing.DIRECT, BoundsChecker.REAL, ByteOrderConvertor.NO_OP, 64, 1 << 21, 0);
+		MemoryAccessW small = pool.acquire(64);
+		MemoryAccessW large = pool.acquire(1 << 21);
+		pool.release(small);
+		pool.release(large);
+
+		// Small chunk stays in thread cache, large one goes to shared stack
+		assertEquals("Trimmed", 1 << 21, pool.trim());
+		pool.flushThreadCache();
+		assertEquals("Trimmed", 64, pool.trim());
+		assertEquals("Allocated", 0, pool.allocated());
+	}
+
+	@Test
+	public void testDeadThreadCache() throws Exception {
+		final MemoryAccessPool pool = new MemoryAccessPool(Backing.NATIVE, BoundsChecker.REAL, ByteOrderConvertor.NO_OP, 64, 1024, 0);
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				MemoryAccessW first = pool.acquire(64);
+				MemoryAccessW second = pool.acquire(1024);
+				pool.release(first);
+				pool.release(second);
+			}
+		};
+		thread.start();
+		thread.join();
+
+		// Chunks stay in the dead thread cache till trim drains it
+		assertEquals("Allocated", 64 + 1024, pool.allocated());
+		assertEquals("Trimmed", 64 + 1024, pool.trim());
+		assertEquals("Allocated", 0, pool.allocated());
+	}
+
+	@Test
+	public void testDeadThreadCacheReuse() throws Exception {
+		final MemoryAccessPool pool = new MemoryAccessPool(Backing.DIRECT);
+		final MemoryAccessW[] chunk = new MemoryAccessW[1];
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				chunk[0] = pool.acquire(100);
+				pool.release(chunk[0]);
+			}
+		};
+		thread.start();
+		thread.join();
+
+		assertSame("Reused", chunk[0], pool.acquire(128));
+		assertEquals("Allocated", 128, pool.allocated());
+	}
+
+	@Test
+	public void testCrossThreadRelease() throws Exception {
+		final MemoryAccessPool pool = new MemoryAccessPool(Backing.NATIVE);
+		final BlockingQueue<MemoryAccessW> queue = new ArrayBlockingQueue<>(16);
+		final int count = 10000;
+
+		Thread consumer = new Thread() {
+			@Override
+			public void run() {
+				try {
+					for (int i=0; i < count; i++) {
+						MemoryAccessW memory = queue.take();
+						if (memory.getInt(0) != i) {
+							throw new AssertionError("Chunk is corrupted: "+i);
+						}
+						pool.release(memory);
+					}
+					pool.flushThreadCache();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		consumer.start();
+
+		for (int i=0; i < count; i++) {
+			MemoryAccessW memory = pool.acquire(256 << (i % 3));
+			memory.putInt(0, i);
+			queue.put(memory);
+		}
+		consumer.join();
+
+		assertTrue("Recycled", pool.allocated() < count * 256L);
+	}
+}
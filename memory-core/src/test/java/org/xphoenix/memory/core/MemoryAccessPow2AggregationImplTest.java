@@ -0,0 +1,119 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class MemoryAccessPow2AggregationImplTest {
+
+	private static final int SEGMENT_SIZE = 16;
+
+	private static final int SEGMENT_COUNT = 3;
+
+	@Parameterized.Parameters
+	public static Collection memoryAccessImpls() {
+		return Arrays.asList(new Object[][] {
+				{ ByteOrderConvertor.NO_OP, 0 },
+				{ ByteOrderConvertor.NO_OP, 5 },
+				{ ByteOrderConvertor.SWAP, 0 },
+				{ ByteOrderConvertor.SWAP, 11 },
+		});
+	}
+
+	private final @NotNull MemoryAccessW memory;
+
+	private final @NotNull MemoryAccessW reference;
+
+	public MemoryAccessPow2AggregationImplTest(@NotNull ByteOrderConvertor order, int firstSegmentOffset) {
+		MemoryAccessW[] segments = new MemoryAccessW[SEGMENT_COUNT + 1];
+		MemoryAccessW[] references = new MemoryAccessW[SEGMENT_COUNT + 1];
+		for (int i=0; i < SEGMENT_COUNT; i++) {
+			segments[i] = MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, order, ByteBuffer.allocateDirect(SEGMENT_SIZE));
+			references[i] = MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, order, ByteBuffer.allocateDirect(SEGMENT_SIZE));
+		}
+
+		this.memory = MemoryAccessAggregationImpl.aggregate(segments, firstSegmentOffset, SEGMENT_SIZE);
+		this.reference = new MemoryAccessAggregationImpl<>(references, firstSegmentOffset);
+	}
+
+	@Test
+	public void testFactory() {
+		assertTrue("Power of two", memory instanceof MemoryAccessPow2AggregationImpl);
+		assertFalse("Generic", MemoryAccessAggregationImpl.aggregate(new MemoryAccessW[] {
+				MemoryAccessUnsafeImpl.wrap(new byte[10]),
+				null
+		}) instanceof MemoryAccessPow2AggregationImpl);
+		assertEquals("Size", reference.size(), memory.size());
+	}
+
+	@Test(expected=RuntimeException.class)
+	public void testNotPowerOfTwo() {
+		new MemoryAccessPow2AggregationImpl<>(new MemoryAccessW[] {
+				MemoryAccessUnsafeImpl.wrap(new byte[12]),
+				null
+		});
+	}
+
+	@Test
+	public void testLong() {
+		for (int i=0; i <= memory.size() - 8; i++) {
+			long value = 0x0102030405060708L * (i + 1);
+			memory.putLong(i, value);
+			reference.putLong(i, value);
+			assertEquals("Long#"+i, value, memory.getLong(i));
+			assertBytes(i, 8);
+		}
+	}
+
+	@Test
+	public void testInt() {
+		for (int i=0; i <= memory.size() - 4; i++) {
+			int value = 0x01020304 * (i + 1);
+			memory.putInt(i, value);
+			reference.putInt(i, value);
+			assertEquals("Int#"+i, value, memory.getInt(i));
+			assertEquals("Float#"+i, reference.getFloat(i), memory.getFloat(i), 0);
+			assertBytes(i, 4);
+		}
+	}
+
+	@Test
+	public void testShortAndChar() {
+		for (int i=0; i <= memory.size() - 2; i++) {
+			memory.putShort(i, (short)(0x0102 * (i + 1)));
+			reference.putShort(i, (short)(0x0102 * (i + 1)));
+			assertEquals("Short#"+i, (short)(0x0102 * (i + 1)), memory.getShort(i));
+			assertBytes(i, 2);
+
+			memory.putChar(i, (char)(0xFE01 - i));
+			reference.putChar(i, (char)(0xFE01 - i));
+			assertEquals("Char#"+i, (char)(0xFE01 - i), memory.getChar(i));
+			assertBytes(i, 2);
+		}
+	}
+
+	@Test
+	public void testDouble() {
+		for (int i=0; i <= memory.size() - 8; i++) {
+			memory.putDouble(i, i * Math.PI);
+			assertEquals("Double#"+i, i * Math.PI, memory.getDouble(i), 0);
+		}
+	}
+
+	/*
+	 * Checks that layout across segment boundary matches generic aggregation
+	 */
+	private void assertBytes(int index, int length) {
+		for (int i=index; i < index + length; i++) {
+			assertEquals("Byte#"+i, reference.getByte(i), memory.getByte(i));
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class MemoryAccessSliceTest {
+
+	private static final int SEGMENT_SIZE = 16;
+
+	@Parameterized.Parameters
+	public static Collection memoryAccessImpls() {
+		return Arrays.asList(new Object[][] {
+				{ MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE * 2]) },
+				{ MemoryAccessUnsafeImpl.wrap(ByteBuffer.allocateDirect(SEGMENT_SIZE * 2)) },
+				{
+					new MemoryAccessAggregationImpl(
+						new MemoryAccessW[]{
+								MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE]),
+								MemoryAccessUnsafeImpl.wrap(new byte[SEGMENT_SIZE]),
+								null
+						},
+						0
+					)
+				},
+		});
+	}
+
+	private final @NotNull MemoryAccessW memory;
+
+	public MemoryAccessSliceTest(@NotNull MemoryAccessW memory) {
+		this.memory = memory;
+	}
+
+	@Test
+	public void testSharedMemory() {
+		MemoryAccessW slice = new MemoryAccessSlice(memory, 10, 12);
+		assertEquals("Size", 12, slice.size());
+		assertSame("BoundsChecker", memory.getBoundsChecker(), slice.getBoundsChecker());
+		assertSame("ByteOrderConvertor", memory.getByteOrderConvertor(), slice.getByteOrderConvertor());
+
+		slice.putLong(2, 0x1122334455667788L);
+		assertEquals("Parent", 0x1122334455667788L, memory.getLong(12));
+
+		memory.putInt(18, 0x11223344);
+		assertEquals("Slice", 0x11223344, slice.getInt(8));
+	}
+
+	@Test
+	public void testSlice() {
+		MemoryAccessW slice = memory.slice(10, 12);
+		assertEquals("Size", 12, slice.size());
+
+		slice.putLong(2, 0x1122334455667788L);
+		assertEquals("Parent", 0x1122334455667788L, memory.getLong(12));
+
+		MemoryAccessW nested = slice.slice(4, 8);
+		assertEquals("Nested", memory.getInt(14), nested.getInt(0));
+
+		nested.putShort(6, (short)0x1122);
+		assertEquals("Parent", (short)0x1122, memory.getShort(20));
+	}
+
+	@Test(expected=ArrayIndexOutOfBoundsException.class)
+	public void testSliceBounds() {
+		memory.slice(10, 12).getByte(12);
+	}
+
+	@Test
+	public void testFlyweight() {
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)i);
+		}
+
+		MemoryAccessFlyweight view = new MemoryAccessFlyweight();
+		assertEquals("Empty", 0, view.size());
+
+		for (int i=0; i + 4 <= memory.size(); i += 4) {
+			assertSame("Wrap", view, view.wrap(memory, i, 4));
+			assertEquals("Size", 4, view.size());
+			assertEquals("Byte#"+i, (byte)(i+3), view.getByte(3));
+		}
+
+		view.wrap(new MemoryAccessSlice(memory, 8, 8), 2, 4);
+		assertSame("Flattened", memory, view.getParent());
+		assertEquals("Offset", 10, view.getOffset());
+	}
+
+	@Test(expected=ArrayIndexOutOfBoundsException.class)
+	public void testBounds() {
+		new MemoryAccessSlice(memory, 10, 12).getByte(12);
+	}
+
+	@Test
+	public void testValueWidthBounds() {
+		MemoryAccessW parent = MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.NO_OP, ByteBuffer.allocateDirect(SEGMENT_SIZE * 2));
+		MemoryAccessW[] slices = {
+				new MemoryAccessSlice(parent, 8, 8),
+				parent.slice(8, 8),
+		};
+		for (MemoryAccessW slice : slices) {
+			try {
+				slice.putLong(1, -1L);
+				fail("Long crosses slice end: "+slice);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+			try {
+				slice.putInt(5, -1);
+				fail("Int crosses slice end: "+slice);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+			try {
+				slice.getShort(7);
+				fail("Short crosses slice end: "+slice);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+			try {
+				slice.getAndAddLong(8, 1);
+				fail("Atomic after slice end: "+slice);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				// expected
+			}
+			assertEquals("Neighbour", 0, parent.getLong(16));
+
+			slice.putLong(0, 1L);
+			assertEquals("Last long", 1L, slice.getLong(0));
+		}
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testOutOfParent() {
+		new MemoryAccessSlice(memory, 10, SEGMENT_SIZE * 2);
+	}
+
+	@Test
+	public void testToByteBuffer() {
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)i);
+		}
+
+		ByteBuffer[] buffers = new MemoryAccessSlice(memory, 10, 12).toByteBuffer();
+		int expected = 10;
+		for (ByteBuffer buf : buffers) {
+			while (buf.hasRemaining()) {
+				assertEquals("Byte#"+expected, (byte)expected, buf.get());
+				expected++;
+			}
+		}
+		assertEquals("Bytes", 22, expected);
+	}
+}
@@ -1,6 +1,10 @@
 package org.xphoenix.memory.core;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
@@ -130,4 +134,263 @@ public class MemoryAccessUnsafeImplTest {
 			assertEquals("Byte#"+i, value, memory.getByte(position));
 		}
 	}
+
+	@Test
+	public void testBulkLongs() {
+		long[] values = new long[size / 16];
+		for (int i=0; i < values.length; i++) {
+			values[i] = RANDOM.nextLong();
+		}
+
+		long position = 3;
+		memory.putLongs(position, values, 1, values.length - 1);
+		for (int i=1; i < values.length; i++) {
+			assertEquals("Long#"+i, values[i], memory.getLong(position + (i-1) * 8));
+		}
+
+		long[] result = new long[values.length];
+		memory.getLongs(position, result, 1, values.length - 1);
+		for (int i=1; i < values.length; i++) {
+			assertEquals("Longs#"+i, values[i], result[i]);
+		}
+	}
+
+	@Test
+	public void testBulkDoubles() {
+		double[] values = new double[size / 16];
+		for (int i=0; i < values.length; i++) {
+			values[i] = RANDOM.nextDouble();
+		}
+
+		memory.putDoubles(5, values, 0, values.length);
+		for (int i=0; i < values.length; i++) {
+			assertEquals("Double#"+i, values[i], memory.getDouble(5 + i * 8), 0);
+		}
+
+		double[] result = new double[values.length];
+		memory.getDoubles(5, result, 0, values.length);
+		assertArrayEquals("Doubles", values, result, 0);
+	}
+
+	@Test
+	public void testBulkInts() {
+		int[] values = new int[size / 8];
+		float[] floats = new float[size / 8];
+		for (int i=0; i < values.length; i++) {
+			values[i] = RANDOM.nextInt();
+			floats[i] = RANDOM.nextFloat();
+		}
+
+		memory.putInts(1, values, 0, values.length);
+		for (int i=0; i < values.length; i++) {
+			assertEquals("Int#"+i, values[i], memory.getInt(1 + i * 4));
+		}
+
+		int[] result = new int[values.length];
+		memory.getInts(1, result, 0, values.length);
+		assertArrayEquals("Ints", values, result);
+
+		memory.putFloats(0, floats, 0, floats.length);
+		float[] floatResult = new float[floats.length];
+		memory.getFloats(0, floatResult, 0, floats.length);
+		assertArrayEquals("Floats", floats, floatResult, 0);
+	}
+
+	@Test
+	public void testBulkShorts() {
+		short[] values = new short[size / 4];
+		char[] chars = new char[size / 4];
+		for (int i=0; i < values.length; i++) {
+			values[i] = (short)RANDOM.nextInt();
+			chars[i] = (char)RANDOM.nextInt();
+		}
+
+		memory.putShorts(0, values, 0, values.length);
+		for (int i=0; i < values.length; i++) {
+			assertEquals("Short#"+i, values[i], memory.getShort(i * 2));
+		}
+
+		short[] result = new short[values.length];
+		memory.getShorts(0, result, 0, values.length);
+		assertArrayEquals("Shorts", values, result);
+
+		memory.putChars(1, chars, 0, chars.length);
+		char[] charResult = new char[chars.length];
+		memory.getChars(1, charResult, 0, chars.length);
+		assertArrayEquals("Chars", chars, charResult);
+	}
+
+	@Test(expected=ArrayIndexOutOfBoundsException.class)
+	public void testBulkArrayBounds() {
+		memory.putLongs(0, new long[4], 2, 3);
+	}
+
+	@Test
+	public void testFillAndCopy() {
+		memory.fill(0, size, (byte)0x7F);
+		for (int i=0; i < size; i++) {
+			assertEquals("Fill#"+i, 0x7F, memory.getByte(i));
+		}
+
+		for (int i=0; i < size; i++) {
+			memory.putByte(i, (byte)i);
+		}
+		memory.copyTo(0, memory, 3, size - 3);
+		for (int i=3; i < size; i++) {
+			assertEquals("Overlap#"+i, (byte)(i - 3), memory.getByte(i));
+		}
+
+		MemoryAccessW copy = MemoryAccessUnsafeImpl.wrap(ByteBuffer.allocateDirect(size));
+		memory.copyTo(0, copy, 0, size);
+		assertEquals("Mismatch", -1, memory.mismatch(0, copy, 0, size));
+		assertEquals("Compare", 0, memory.compare(0, copy, 0, size));
+	}
+
+	@Test
+	public void testMismatch() {
+		MemoryAccessW other = MemoryAccessUnsafeImpl.wrap(new byte[size]);
+		memory.fill(0, size, (byte)0);
+		for (int i=0; i < Math.min(size, 40); i++) {
+			other.fill(0, size, (byte)0);
+			other.putByte(i, (byte)0x80);
+			assertEquals("Mismatch#"+i, i, memory.mismatch(0, other, 0, size));
+			assertTrue("Unsigned compare#"+i, memory.compare(0, other, 0, size) < 0);
+			assertEquals("Empty#"+i, -1, memory.mismatch(0, other, 0, i));
+		}
+	}
+
+	@Test
+	public void testByteBuffer() {
+		ByteBuffer value = ByteBuffer.allocate(64);
+		for (int i=0; i < value.capacity(); i++) {
+			value.put(i, (byte)(i + 3));
+		}
+
+		memory.putBuffer(size - 64, value.asReadOnlyBuffer());
+		memory.putBuffer(0, value);
+		assertEquals("Consumed", 64, value.position());
+
+		ByteBuffer result = ByteBuffer.allocateDirect(64);
+		memory.getBuffer(size - 64, result);
+		assertEquals("Filled", 64, result.position());
+		result.flip();
+		value.flip();
+		assertEquals("Content", value, result);
+
+		byte[] array = new byte[66];
+		memory.getBuffer(0, array, 2, 64);
+		for (int i=0; i < 64; i++) {
+			assertEquals("Byte#"+i, (byte)(i + 3), array[i + 2]);
+		}
+	}
+
+	@Test
+	public void testAtomics() {
+		for (int i=0; i < TEST_REPETITION_COUNT; i++) {
+			long position = RANDOM.nextInt((size >> 3) - 1) << 3;
+			long value = RANDOM.nextLong();
+			long delta = RANDOM.nextLong();
+
+			memory.putLongVolatile(position, value);
+			assertEquals("GetAndAddLong#"+i, value, memory.getAndAddLong(position, delta));
+			assertEquals("AddedLong#"+i, value + delta, memory.getLong(position));
+			assertEquals("GetAndSetLong#"+i, value + delta, memory.getAndSetLong(position, value));
+			assertEquals("VolatileLong#"+i, value, memory.getLongVolatile(position));
+
+			memory.putOrderedInt(position, (int)value);
+			assertEquals("GetAndAddInt#"+i, (int)value, memory.getAndAddInt(position, (int)delta));
+			assertEquals("AddedInt#"+i, (int)(value + delta), memory.getInt(position));
+			assertEquals("GetAndSetInt#"+i, (int)(value + delta), memory.getAndSetInt(position, (int)value));
+			assertEquals("VolatileInt#"+i, (int)value, memory.getIntVolatile(position));
+		}
+	}
+
+	@Test
+	public void testConcurrentGetAndAdd() throws InterruptedException {
+		final int threads = 4;
+		final int increments = 10000;
+		memory.putLong(0, 0);
+		memory.putInt(8, 0);
+
+		Thread[] workers = new Thread[threads];
+		for (int i=0; i < threads; i++) {
+			workers[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j=0; j < increments; j++) {
+						memory.getAndAddLong(0, 1);
+						memory.getAndAddInt(8, 1);
+					}
+				}
+			};
+			workers[i].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		assertEquals("Long counter", threads * increments, memory.getLongVolatile(0));
+		assertEquals("Int counter", threads * increments, memory.getIntVolatile(8));
+	}
+
+	@Test
+	public void testAlignment() {
+		for (int alignment=1; alignment <= 8; alignment <<= 1) {
+			for (long index=0; index < 16; index++) {
+				long aligned = memory.alignUp(index, alignment);
+				assertTrue("AlignUp", aligned >= index && aligned - index < alignment);
+				assertTrue("IsAligned", memory.isAligned(aligned, alignment));
+				assertEquals("Aligned", aligned == index, memory.isAligned(index, alignment));
+			}
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testAlignmentNotPowerOfTwo() {
+		memory.isAligned(0, 6);
+	}
+
+	@Test
+	public void testUnalignedAtomic() {
+		long index = memory.alignUp(0, 8) + 1;
+		try {
+			memory.compareAndSwap(index, 0L, 1L);
+			throw new AssertionError("Unaligned CAS must fail");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			memory.putOrderedInt(index + 2, 1);
+			throw new AssertionError("Unaligned ordered put must fail");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testAlignedView() {
+		MemoryAccessW aligned = ((MemoryAccessUnsafeImpl)memory.slice(memory.alignUp(0, 8), 64)).aligned();
+		assertSame("Already aligned", aligned, ((MemoryAccessUnsafeImpl)aligned).aligned());
+
+		aligned.putLongVolatile(8, 0);
+		assertTrue("CAS", aligned.compareAndSwap(8, 0L, 5L));
+		assertEquals("GetAndAdd", 5, aligned.getAndAddLong(8, 1));
+		assertEquals("Value", 6, aligned.getLongVolatile(8));
+
+		// Index alignment is checked only by real checker
+		if (memory.getBoundsChecker() == BoundsChecker.REAL) {
+			try {
+				aligned.getAndAddInt(2, 1);
+				throw new AssertionError("Unaligned index must fail");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		assertFalse("Unaligned slice", memory.slice(memory.alignUp(0, 8) + 4, 8).isAligned(0, 8));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testUnalignedView() {
+		((MemoryAccessUnsafeImpl)memory.slice(memory.alignUp(0, 8) + 1, 16)).aligned();
+	}
 }
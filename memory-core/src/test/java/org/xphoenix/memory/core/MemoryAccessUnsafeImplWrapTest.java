@@ -6,6 +6,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 import org.junit.Test;
+import org.xphoenix.memory.UnsafeUtils;
 import org.xphoenix.memory.core.BoundsChecker;
 import org.xphoenix.memory.core.ByteOrderConvertor;
 import org.xphoenix.memory.core.MemoryAccessW;
@@ -62,4 +63,22 @@ public class MemoryAccessUnsafeImplWrapTest {
 		access.putInt(4, 20);
 		assertEquals("Value#buf", 20, direct.getInt(4));
 	}
+
+	@Test
+	public void testAddressWrap() {
+		ByteBuffer direct = ByteBuffer.allocateDirect(16);
+		direct.putInt(0, 10);
+
+		MemoryAccessW access = MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.toNative(ByteOrder.BIG_ENDIAN), UnsafeUtils.getMemoryAddress(direct), direct.capacity());
+		assertEquals("Size", 16, access.size());
+		assertEquals("Value", 10, access.getInt(0));
+
+		access.putInt(4, 20);
+		assertEquals("Value#buf", 20, direct.getInt(4));
+
+		ByteBuffer[] view = access.toByteBuffer();
+		assertEquals("Buffers", 1, view.length);
+		assertEquals("Buffer capacity", 16, view[0].capacity());
+		assertEquals("Buffer value", 20, view[0].getInt(4));
+	}
 }
@@ -0,0 +1,65 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+import org.junit.Test;
+
+public class MemoryChannelsTest {
+
+	@Test
+	public void testFileRoundTrip() throws IOException {
+		File file = File.createTempFile("memory-channels", ".bin");
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			FileChannel channel = raf.getChannel();
+			for (MemoryAccessW memory : MemoryReaderTest.memories(100)) {
+				fill(memory);
+				channel.position(0);
+				assertEquals("Written "+memory, 90, MemoryChannels.writeTo(memory, 5, 90, channel));
+
+				ExpandableMemory copy = new ExpandableMemory(ExpandableMemory.heapSegments(BoundsChecker.REAL, ByteOrderConvertor.NO_OP), 16);
+				copy.ensureCapacity(128);
+				channel.position(0);
+				assertEquals("Read "+memory, 90, MemoryChannels.readFrom(channel, copy, 3, 90));
+				assertEquals("Same bytes "+memory, -1, memory.mismatch(5, copy, 3, 90));
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testStreamChannels() throws IOException {
+		MemoryAccessW memory = MemoryReaderTest.memories(64)[3];
+		fill(memory);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals("Written", 40, MemoryChannels.writeTo(memory, 10, 40, Channels.newChannel(out)));
+		byte[] bytes = out.toByteArray();
+		assertEquals("Bytes", -1, memory.mismatch(10, MemoryAccessUnsafeImpl.wrap(bytes), 0, 40));
+
+		MemoryAccessW target = MemoryReaderTest.memories(64)[2];
+		assertEquals("Partial read", 40, MemoryChannels.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes)), target, 0, 50));
+		assertEquals("Read bytes", -1, target.mismatch(0, memory, 10, 40));
+		assertEquals("End of stream", -1, MemoryChannels.readFrom(Channels.newChannel(new ByteArrayInputStream(new byte[0])), target, 0, 10));
+		assertEquals("Empty range", 0, MemoryChannels.writeTo(memory, 0, 0, Channels.newChannel(out)));
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testOutOfBounds() throws IOException {
+		MemoryChannels.writeTo(MemoryAccessUnsafeImpl.wrap(new byte[8]), 4, 8, Channels.newChannel(new ByteArrayOutputStream()));
+	}
+
+	private static void fill(MemoryAccessW memory) {
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)(i * 13 + 5));
+		}
+	}
+}
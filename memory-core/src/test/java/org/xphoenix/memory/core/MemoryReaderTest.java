@@ -0,0 +1,165 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class MemoryReaderTest {
+
+	@Test
+	public void testRoundTrip() {
+		for (MemoryAccessW memory : memories(256)) {
+			MemoryWriter writer = new MemoryWriter(memory);
+			for (int i=0; i < 5; i++) {
+				writer.writeByte((byte)i)
+						.writeLong(0x1122334455667788L * i)
+						.writeVarLong(1L << (7 * i))
+						.writeSignedVarInt(-i * 1000)
+						.writeInt(i)
+						.writeChar('\u044F')
+						.writeDouble(i / 3.0)
+						.writeShort((short)-i)
+						.writeFloat(i * 1.5f);
+				writer.writeUtf8("key\u00E9"+i);
+			}
+			long written = writer.position();
+
+			MemoryReader reader = new MemoryReader().wrap(memory, 0, written);
+			for (int i=0; i < 5; i++) {
+				String round = "Round#"+i+" "+memory;
+				assertEquals(round, (byte)i, reader.readByte());
+				assertEquals(round, 0x1122334455667788L * i, reader.readLong());
+				assertEquals(round, 1L << (7 * i), reader.readVarLong());
+				assertEquals(round, -i * 1000, reader.readSignedVarInt());
+				assertEquals(round, i, reader.readInt());
+				assertEquals(round, '\u044F', reader.readChar());
+				assertEquals(round, i / 3.0, reader.readDouble(), 0);
+				assertEquals(round, (short)-i, reader.readShort());
+				assertEquals(round, i * 1.5f, reader.readFloat(), 0);
+				assertEquals(round, "key\u00E9"+i, reader.readUtf8(6));
+			}
+			assertFalse("Remaining", reader.hasRemaining());
+		}
+	}
+
+	@Test
+	public void testSameAsAbsoluteAccess() {
+		for (MemoryAccessW memory : memories(128)) {
+			for (int i=0; i < memory.size(); i++) {
+				memory.putByte(i, (byte)(i * 7 + 1));
+			}
+
+			// Values at every offset, so some of them cross segments
+			MemoryReader reader = new MemoryReader(memory);
+			for (long index=0; index + 8 <= memory.size(); index++) {
+				reader.position(index);
+				assertEquals("Long#"+index, memory.getLong(index), reader.readLong());
+				reader.position(index);
+				assertEquals("Int#"+index, memory.getInt(index), reader.readInt());
+				assertEquals("Short#"+index, memory.getShort(index + 4), reader.readShort());
+			}
+		}
+	}
+
+	@Test
+	public void testSliceOfAggregation() {
+		MemoryAccessW memory = memories(64)[2];
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)i);
+		}
+
+		MemoryReader reader = new MemoryReader(memory.slice(5, 40));
+		for (int i=0; i < 40; i++) {
+			assertEquals("Byte#"+i, 5 + i, reader.readByte());
+		}
+	}
+
+	@Test
+	public void testLimit() {
+		MemoryReader reader = new MemoryReader().wrap(MemoryAccessUnsafeImpl.wrap(new byte[16]), 4, 12);
+		assertEquals("Remaining", 8, reader.remaining());
+		reader.skip(6);
+		try {
+			reader.readInt();
+			fail("Read after limit");
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("Position", 10, reader.position());
+		}
+		assertEquals("Short", 0, reader.readShort());
+		try {
+			reader.readVarLong();
+			fail("Read after limit");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testTruncatedVarLong() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(new byte[16]);
+		memory.putByte(0, (byte)0x80).putByte(1, (byte)0x80).putByte(2, (byte)1);
+		try {
+			new MemoryReader().wrap(memory, 0, 2).readVarLong();
+			fail("VarLong crosses limit");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+		assertEquals("VarLong", 1L << 14, new MemoryReader(memory).readVarLong());
+	}
+
+	@Test
+	public void testPaddedVarLong() {
+		for (MemoryAccessW memory : memories(64)) {
+			// 5 encoded as 3 bytes, 0 as 2 bytes, then a marker
+			memory.putByte(10, (byte)0x85).putByte(11, (byte)0x80).putByte(12, (byte)0);
+			memory.putByte(13, (byte)0x80).putByte(14, (byte)0);
+			memory.putByte(15, (byte)42);
+
+			MemoryReader reader = new MemoryReader(memory);
+			reader.position(10);
+			assertEquals("Padded "+memory, 5, reader.readVarLong());
+			assertEquals("Position "+memory, 13, reader.position());
+			assertEquals("Padded zero "+memory, 0, reader.readVarInt());
+			assertEquals("Marker "+memory, 42, reader.readByte());
+		}
+	}
+
+	@Test
+	public void testCopy() {
+		MemoryAccessW memory = memories(64)[2];
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)i);
+		}
+
+		MemoryReader reader = new MemoryReader(memory);
+		byte[] bytes = new byte[20];
+		reader.readBytes(bytes, 0, 20);
+		assertEquals("Last byte", 19, bytes[19]);
+
+		MemoryAccessW copy = MemoryAccessUnsafeImpl.wrap(new byte[20]);
+		reader.readTo(copy, 0, 20);
+		assertEquals("Copied", 39, copy.getByte(19));
+		assertEquals("Position", 40, reader.position());
+	}
+
+	static MemoryAccessW[] memories(int size) {
+		int segment = 13;
+		int count = (size + segment - 1) / segment;
+		MemoryAccessW[] heap = new MemoryAccessW[count + 1];
+		MemoryAccessW[] direct = new MemoryAccessW[count + 1];
+		for (int i=0; i < count; i++) {
+			heap[i] = MemoryAccessUnsafeImpl.wrap(new byte[segment]);
+			direct[i] = MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.NO_OP, ByteBuffer.allocateDirect(segment));
+		}
+
+		return new MemoryAccessW[] {
+			MemoryAccessUnsafeImpl.wrap(new byte[size]),
+			MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.SWAP, ByteBuffer.allocateDirect(size)),
+			new MemoryAccessAggregationImpl<>(heap, 0, segment - (count * segment - size)),
+			new MemoryAccessAggregationImpl<>(direct, 3, segment - (count * segment - size)),
+			MemoryAccessUnsafeImpl.wrap(new byte[size + 16]).slice(3, size),
+		};
+	}
+}
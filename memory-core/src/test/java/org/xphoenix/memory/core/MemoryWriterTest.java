@@ -0,0 +1,76 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MemoryWriterTest {
+
+	@Test
+	public void testUtf8NearLimit() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(new byte[16]);
+		MemoryWriter writer = new MemoryWriter().wrap(memory, 0, 10);
+
+		assertEquals("Length", 6, writer.writeUtf8("abc\u00E9d"));
+		assertEquals("Position", 6, writer.position());
+		assertEquals("Length", 4, writer.writeUtf8("wxyz"));
+		try {
+			writer.writeUtf8("a");
+			fail("Write after limit");
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("Position", 10, writer.position());
+		}
+		assertEquals("String", "abc\u00E9dwxyz", Utf8Codec.getUtf8(memory, 0, 10));
+	}
+
+	@Test
+	public void testVarIntsAcrossSegments() {
+		for (MemoryAccessW memory : MemoryReaderTest.memories(200)) {
+			MemoryWriter writer = new MemoryWriter(memory);
+			long value = 1;
+			while (writer.remaining() >= VarIntCodec.MAX_VAR_LONG_LENGTH) {
+				writer.writeVarLong(value);
+				value = value * 3 + 1;
+			}
+			long end = writer.position();
+
+			MemoryReader reader = new MemoryReader().wrap(memory, 0, end);
+			long index = 0;
+			value = 1;
+			while (reader.hasRemaining()) {
+				assertEquals("VarLong at "+index, value, VarIntCodec.getVarLong(memory, index));
+				assertEquals("Reader at "+index, value, reader.readVarLong());
+				index = reader.position();
+				value = value * 3 + 1;
+			}
+		}
+	}
+
+	@Test
+	public void testBulk() {
+		MemoryAccessW memory = MemoryReaderTest.memories(64)[2];
+		MemoryWriter writer = new MemoryWriter(memory);
+
+		writer.writeBytes(new byte[] {1, 2, 3, 4}, 1, 3);
+		writer.fill(10, (byte)7);
+		writer.writeFrom(MemoryAccessUnsafeImpl.wrap(new byte[] {9, 8, 7, 6}), 0, 4);
+
+		assertEquals("Position", 17, writer.position());
+		assertEquals("Bytes", 4, memory.getByte(2));
+		assertEquals("Fill", 7, memory.getByte(12));
+		assertEquals("Copy", 6, memory.getByte(16));
+	}
+
+	@Test
+	public void testRewrap() {
+		MemoryAccessW first = MemoryAccessUnsafeImpl.wrap(new byte[8]);
+		MemoryAccessW second = MemoryReaderTest.memories(32)[3];
+		MemoryWriter writer = new MemoryWriter(first);
+
+		writer.writeLong(1);
+		writer.wrap(second, 10, 20).writeLong(2);
+		assertEquals("First", 1, first.getLong(0));
+		assertEquals("Second", 2, second.getLong(10));
+		assertEquals("Remaining", 2, writer.remaining());
+	}
+}
@@ -0,0 +1,109 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class NativeMemoryTest {
+
+	@After
+	public void tearDown() {
+		NativeMemory.setLeakTracking(false);
+	}
+
+	@Test
+	public void testAllocate() {
+		try (NativeMemory memory = NativeMemory.allocate(1024, true)) {
+			assertEquals("Size", 1024, memory.size());
+			assertSame("BoundsChecker", BoundsChecker.REAL, memory.getBoundsChecker());
+			for (int i=0; i < memory.size(); i++) {
+				assertEquals("Zero#"+i, 0, memory.getByte(i));
+			}
+
+			memory.putLong(8, 0x1122334455667788L);
+			assertEquals("getLong", 0x1122334455667788L, memory.getLong(8));
+			assertTrue("CAS", memory.compareAndSwap(8, 0x1122334455667788L, 1L));
+			assertEquals("getLong", 1L, memory.getLong(8));
+
+			ByteBuffer[] view = memory.toByteBuffer();
+			assertEquals("Buffers", 1, view.length);
+			assertEquals("Buffer capacity", 1024, view[0].capacity());
+		}
+	}
+
+	@Test
+	public void testClose() {
+		NativeMemory memory = NativeMemory.allocate(16);
+		assertFalse("Closed", memory.isClosed());
+
+		memory.close();
+		memory.close();
+		assertTrue("Closed", memory.isClosed());
+		assertEquals("Size", 0, memory.size());
+
+		try {
+			memory.getByte(0);
+			fail("Access after close must fail bounds check");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testLeakTracking() {
+		NativeMemory.setLeakTracking(true);
+		int before = NativeMemory.getTrackedAllocations().size();
+
+		NativeMemory memory = NativeMemory.allocate(16);
+		assertEquals("Tracked", before + 1, NativeMemory.getTrackedAllocations().size());
+
+		memory.close();
+		assertEquals("Tracked", before, NativeMemory.getTrackedAllocations().size());
+	}
+
+	@Test
+	public void testViewsKeepMemory() throws InterruptedException {
+		NativeMemory.setLeakTracking(true);
+		int before = NativeMemory.getTrackedAllocations().size();
+
+		NativeMemory memory = NativeMemory.allocate(64);
+		for (int i=0; i < 64; i++) {
+			memory.putByte(i, (byte)i);
+		}
+		ByteBuffer view = memory.toByteBuffer()[0];
+		MemoryAccessW slice = memory.slice(8, 16);
+		memory = null;
+
+		for (int i=0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(10);
+			NativeMemory.reclaimLeaks();
+		}
+		assertEquals("Tracked", before + 1, NativeMemory.getTrackedAllocations().size());
+		assertEquals("View", 63, view.get(63));
+		assertEquals("Slice", 8, slice.getByte(0));
+
+		view = null;
+		slice = null;
+		System.gc();
+		Thread.sleep(10);
+		NativeMemory.reclaimLeaks();
+	}
+
+	@Test
+	public void testAlignment() {
+		try (NativeMemory memory = NativeMemory.allocate(256)) {
+			// Allocator returns at least 8 bytes aligned memory
+			assertTrue("Aligned", memory.isAligned(0, 8));
+			assertSame("Aligned view", memory, memory.aligned());
+
+			long index = memory.alignUp(1, 64);
+			assertTrue("AlignUp", index >= 1 && index <= 64);
+			assertEquals("Address", 0, (memory.address() + index) & 63);
+			assertTrue("IsAligned", memory.isAligned(index, 64));
+		}
+	}
+}
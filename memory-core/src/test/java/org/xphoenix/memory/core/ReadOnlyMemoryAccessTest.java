@@ -0,0 +1,58 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ReadOnlyMemoryAccessTest {
+
+	@Test
+	public void testRead() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(new byte[32]);
+		memory.putLong(0, 0x1122334455667788L).putInt(8, 42).putByte(31, (byte)7);
+
+		MemoryAccessR view = new ReadOnlyMemoryAccess(memory);
+		assertFalse("Writable", view instanceof MemoryAccessW);
+		assertEquals("Size", 32, view.size());
+		assertEquals("getLong", 0x1122334455667788L, view.getLong(0));
+		assertEquals("getInt", 42, view.getInt(8));
+		assertEquals("mismatch", -1, view.mismatch(0, memory, 0, 32));
+
+		// View reflects changes made through writable memory
+		memory.putByte(12, (byte)5);
+		assertEquals("getByte", 5, view.getByte(12));
+
+		MemoryAccessR slice = view.slice(8, 24);
+		assertFalse("Writable slice", slice instanceof MemoryAccessW);
+		assertEquals("Slice getInt", 42, slice.getInt(0));
+		assertEquals("Slice getByte", 7, slice.getByte(23));
+
+		MemoryAccessW copy = MemoryAccessUnsafeImpl.wrap(new byte[8]);
+		view.copyTo(0, copy, 0, 8);
+		assertEquals("copyTo", 0x1122334455667788L, copy.getLong(0));
+	}
+
+	@Test
+	public void testFastPaths() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(new byte[64]);
+		for (int i=0; i < memory.size(); i++) {
+			memory.putByte(i, (byte)(i * 7 + 1));
+		}
+
+		// Dispatchers look under the view instead of falling back to bytes
+		MemoryAccessR view = new ReadOnlyMemoryAccess(memory);
+		assertEquals("contiguous", 60, MemoryAccessUnsafeImpl.contiguous(view, 4));
+		assertEquals("mismatch", -1, memory.mismatch(0, view, 0, 64));
+		assertEquals("crc32c", Checksums.crc32c(memory, 3, 50), Checksums.crc32c(view, 3, 50));
+
+		MemoryReader reader = new MemoryReader(view);
+		reader.position(4);
+		assertEquals("readLong", memory.getLong(4), reader.readLong());
+		assertSame("Reader run", memory, reader.run);
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testBounds() {
+		new ReadOnlyMemoryAccess(MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, new byte[8])).getLong(8);
+	}
+}
@@ -0,0 +1,139 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class SlabAllocatorTest {
+
+	@Test
+	public void testSizeClasses() {
+		SlabAllocator allocator = new SlabAllocator(MemoryAccessUnsafeImpl.wrap(new byte[8192]), 32, 1024);
+		assertEquals("Classes", 6, allocator.sizeClasses());
+
+		long small = allocator.allocate(1);
+		long exact = allocator.allocate(64);
+		long large = allocator.allocate(1000);
+		assertEquals("Small", 32, allocator.blockSize(small));
+		assertEquals("Exact", 64, allocator.blockSize(exact));
+		assertEquals("Large", 1024, allocator.blockSize(large));
+		assertEquals("Aligned", 0, exact % 64);
+
+		assertEquals("Slabs", 3, allocator.reserved() / 1024);
+		assertEquals("Used", 32 + 64 + 1024, allocator.used());
+		assertEquals("Used blocks", 1, allocator.usedBlocks(0));
+		assertEquals("Occupancy", 1.0 / 32, allocator.occupancy(0), 1e-9);
+		assertEquals("Fragmentation", 1 - 1120.0 / 3072, allocator.fragmentation(), 1e-9);
+	}
+
+	@Test
+	public void testReuse() {
+		SlabAllocator allocator = new SlabAllocator(MemoryAccessUnsafeImpl.wrap(new byte[4096]), 8, 1024);
+		Set<Long> blocks = new HashSet<>();
+		for (int i=0; i < 4 * 1024 / 16; i++) {
+			long offset = allocator.allocate(16);
+			assertTrue("Unique#"+i, blocks.add(offset));
+			allocator.getMemory().putLong(offset, i);
+		}
+		assertEquals("Remaining", 0, allocator.remaining());
+		assertEquals("Fragmentation", 0, allocator.fragmentation(), 1e-9);
+
+		for (long offset : blocks) {
+			allocator.free(offset);
+		}
+		assertEquals("Used", 0, allocator.used());
+
+		Set<Long> reused = new HashSet<>();
+		for (int i=0; i < blocks.size(); i++) {
+			reused.add(allocator.allocate(16));
+		}
+		assertEquals("Same blocks", blocks, reused);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testExhausted() {
+		SlabAllocator allocator = new SlabAllocator(MemoryAccessUnsafeImpl.wrap(new byte[2048]), 32, 1024);
+		allocator.allocate(32);
+		allocator.allocate(1024);
+		allocator.allocate(512);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testFreeNotBlock() {
+		SlabAllocator allocator = new SlabAllocator(MemoryAccessUnsafeImpl.wrap(new byte[2048]), 32, 1024);
+		long offset = allocator.allocate(64);
+		allocator.free(offset + 32);
+	}
+
+	@Test
+	public void testDeadThreadCache() throws Exception {
+		// One slab, so all blocks must come back from the dead thread cache
+		final SlabAllocator allocator = new SlabAllocator(MemoryAccessUnsafeImpl.wrap(new byte[1024]), 32, 1024);
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				long kept = allocator.allocate(32);
+				allocator.free(allocator.allocate(32));
+				allocator.getMemory().putLong(kept, 42);
+			}
+		};
+		thread.start();
+		thread.join();
+		assertEquals("Used blocks", 1, allocator.usedBlocks(0));
+
+		Set<Long> blocks = new HashSet<>();
+		for (int i=0; i < 1024 / 32 - 1; i++) {
+			assertTrue("Unique#"+i, blocks.add(allocator.allocate(32)));
+		}
+		assertEquals("Used blocks", 1024 / 32, allocator.usedBlocks(0));
+
+		for (long offset : blocks) {
+			allocator.free(offset);
+		}
+		assertEquals("Used blocks", 1, allocator.usedBlocks(0));
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		final SlabAllocator allocator = new SlabAllocator(MemoryAccessUnsafeImpl.wrap(ByteBuffer.allocateDirect(1 << 20)), 32, 4096);
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		Thread[] threads = new Thread[4];
+
+		for (int t=0; t < threads.length; t++) {
+			final long id = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						long[] owned = new long[200];
+						for (int round=0; round < 200; round++) {
+							for (int i=0; i < owned.length; i++) {
+								owned[i] = allocator.allocate(32 << (i % 4));
+								allocator.getMemory().putLong(owned[i], id << 32 | i);
+							}
+							for (int i=0; i < owned.length; i++) {
+								assertEquals("Block is shared", id << 32 | i, allocator.getMemory().getLong(owned[i]));
+								allocator.free(owned[i]);
+							}
+						}
+						allocator.flushThreadCache();
+					} catch (Throwable e) {
+						error.set(e);
+					}
+				}
+			};
+			threads[t].start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertNull("Error", error.get());
+		assertEquals("Used", 0, allocator.used());
+	}
+}
@@ -0,0 +1,119 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+public class Utf8CodecTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String[] STRINGS = {
+		"",
+		"key",
+		"plain ascii string longer then eight bytes",
+		"caf\u00E9 na\u00EFve r\u00E9sum\u00E9",
+		"\u041F\u0440\u0438\u0432\u0435\u0442, \u043C\u0438\u0440! \u4F60\u597D\u4E16\u754C",
+		"emoji \uD83D\uDE00 and \uD834\uDD1E clef after ascii run",
+	};
+
+	private static final MemoryAccessW[] MEMORY = {
+		MemoryAccessUnsafeImpl.wrap(new byte[256]),
+		MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.SWAP, ByteBuffer.allocateDirect(256)),
+		new MemoryAccessAggregationImpl<>(new MemoryAccessW[]{
+				MemoryAccessUnsafeImpl.wrap(new byte[37]),
+				MemoryAccessUnsafeImpl.wrap(new byte[37]),
+				MemoryAccessUnsafeImpl.wrap(new byte[37]),
+				MemoryAccessUnsafeImpl.wrap(new byte[37]),
+				null
+			}, 0),
+	};
+
+	@Test
+	public void testRoundTrip() {
+		for (MemoryAccessW memory : MEMORY) {
+			for (String value : STRINGS) {
+				for (int index=0; index < 11; index++) {
+					byte[] expected = value.getBytes(UTF8);
+					assertEquals("Size", expected.length, Utf8Codec.sizeOfUtf8(value));
+					assertEquals("Length", expected.length, Utf8Codec.putUtf8(memory, index, value));
+
+					byte[] actual = new byte[expected.length];
+					memory.getBuffer(index, actual, 0, actual.length);
+					assertArrayEquals("Bytes of "+value, expected, actual);
+					assertEquals("Decoded", value, Utf8Codec.getUtf8(memory, index, expected.length));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCompare() {
+		for (MemoryAccessW memory : MEMORY) {
+			for (String stored : STRINGS) {
+				int length = Utf8Codec.putUtf8(memory, 3, stored);
+				for (String other : STRINGS) {
+					int expected = Integer.signum(compareCodePoints(stored, other));
+					assertEquals(stored+" vs "+other, expected, Integer.signum(Utf8Codec.compareUtf8(memory, 3, length, other)));
+					assertEquals(stored+" equals "+other, expected == 0, Utf8Codec.equalsUtf8(memory, 3, length, other));
+				}
+				assertTrue("Prefix", Utf8Codec.compareUtf8(memory, 3, length, stored + "x") < 0);
+			}
+		}
+	}
+
+	@Test
+	public void testCompareUnpairedSurrogates() {
+		for (MemoryAccessW memory : MEMORY) {
+			// Surrogates are written as '?', so stored string equals its source
+			for (String value : new String[]{"a\uD800b", "low \uDC00", "reversed \uDE00\uD83D pair"}) {
+				int length = Utf8Codec.putUtf8(memory, 5, value);
+				assertEquals("Equal "+value, 0, Utf8Codec.compareUtf8(memory, 5, length, value));
+				assertTrue("Equal "+value, Utf8Codec.equalsUtf8(memory, 5, length, value));
+			}
+
+			int length = Utf8Codec.putUtf8(memory, 5, "a\uD800b");
+			assertEquals("Same as question mark", 0, Utf8Codec.compareUtf8(memory, 5, length, "a?b"));
+			assertTrue("Less", Utf8Codec.compareUtf8(memory, 5, length, "a@b") < 0);
+			assertTrue("Greater", Utf8Codec.compareUtf8(memory, 5, length, "a>b") > 0);
+		}
+	}
+
+	@Test
+	public void testReuseBuilder() {
+		MemoryAccessW memory = MEMORY[0];
+		StringBuilder builder = new StringBuilder("> ");
+		int length = Utf8Codec.putUtf8(memory, 0, STRINGS[4]);
+		assertEquals("Chars", STRINGS[4].length(), Utf8Codec.getUtf8(memory, 0, length, builder));
+		assertEquals("Appended", "> " + STRINGS[4], builder.toString());
+	}
+
+	@Test
+	public void testMalformed() {
+		MemoryAccessW memory = MEMORY[0];
+		byte[] bytes = {'a', (byte)0xC3, 'b', (byte)0xE4, (byte)0xBD, (byte)0xC0, (byte)0x80, (byte)0xFF};
+		memory.putBuffer(0, bytes, 0, bytes.length);
+		assertEquals("Replaced", new String(bytes, UTF8), Utf8Codec.getUtf8(memory, 0, bytes.length));
+
+		assertEquals("Unpaired surrogate", 1, Utf8Codec.putUtf8(memory, 0, "\ud800"));
+		assertEquals("Question mark", '?', memory.getByte(0));
+	}
+
+	private static int compareCodePoints(String a, String b) {
+		int i = 0;
+		int j = 0;
+		while (i < a.length() && j < b.length()) {
+			int x = a.codePointAt(i);
+			int y = b.codePointAt(j);
+			if (x != y) {
+				return x - y;
+			}
+			i += Character.charCount(x);
+			j += Character.charCount(y);
+		}
+		return (a.length() - i) - (b.length() - j);
+	}
+}
@@ -0,0 +1,116 @@
+package org.xphoenix.memory.core;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class VarIntCodecTest {
+
+	private static final MemoryAccessW[] MEMORY = {
+		MemoryAccessUnsafeImpl.wrap(new byte[64]),
+		MemoryAccessUnsafeImpl.wrap(BoundsChecker.REAL, ByteOrderConvertor.SWAP, ByteBuffer.allocateDirect(64)),
+		new MemoryAccessAggregationImpl<>(new MemoryAccessW[]{
+				MemoryAccessUnsafeImpl.wrap(new byte[13]),
+				MemoryAccessUnsafeImpl.wrap(new byte[13]),
+				MemoryAccessUnsafeImpl.wrap(new byte[13]),
+				null
+			}, 0),
+	};
+
+	@Test
+	public void testSizeOf() {
+		for (int bits=0; bits <= 64; bits++) {
+			long value = bits == 0 ? 0 : -1L >>> (64 - bits);
+			assertEquals("Bits#"+bits, Math.max(1, (bits + 6) / 7), VarIntCodec.sizeOfVarLong(value));
+		}
+		assertEquals("Negative int", 5, VarIntCodec.sizeOfVarInt(-1));
+	}
+
+	@Test
+	public void testProtobufEncoding() {
+		MemoryAccessW memory = MEMORY[0];
+		assertEquals("Length", 2, VarIntCodec.putVarInt(memory, 0, 300));
+		assertEquals("Byte#0", (byte)0xAC, memory.getByte(0));
+		assertEquals("Byte#1", 0x02, memory.getByte(1));
+
+		assertEquals("Length", 10, VarIntCodec.putVarLong(memory, 0, -1L));
+		for (int i=0; i < 9; i++) {
+			assertEquals("Byte#"+i, (byte)0xFF, memory.getByte(i));
+		}
+		assertEquals("Byte#9", 0x01, memory.getByte(9));
+		assertEquals("Negative int32", -1, VarIntCodec.getVarInt(memory, 0));
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Random random = new Random(0);
+		for (MemoryAccessW memory : MEMORY) {
+			for (int i=0; i < 10000; i++) {
+				long value = random.nextLong() >>> random.nextInt(64);
+				long index = random.nextInt((int)memory.size() - VarIntCodec.MAX_VAR_LONG_LENGTH + 1);
+				memory.fill(0, memory.size(), (byte)0x55);
+
+				int length = VarIntCodec.putVarLong(memory, index, value);
+				assertEquals("Length of "+value, VarIntCodec.sizeOfVarLong(value), length);
+				assertEquals("Value#"+memory, value, VarIntCodec.getVarLong(memory, index));
+				assertEquals("LengthOf "+value, length, VarIntCodec.lengthOf(memory, index));
+				long[] holder = new long[1];
+				assertEquals("Decoded length "+value, length, VarIntCodec.getVarLong(memory, index, holder));
+				assertEquals("Decoded "+value, value, holder[0]);
+				if (index + length < memory.size()) {
+					assertEquals("Untouched after", 0x55, memory.getByte(index + length));
+				}
+				if (index > 0) {
+					assertEquals("Untouched before", 0x55, memory.getByte(index - 1));
+				}
+
+				int signed = (int)random.nextLong() >> random.nextInt(32);
+				length = VarIntCodec.putSignedVarInt(memory, index, signed);
+				assertEquals("Signed length", VarIntCodec.sizeOfVarInt(VarIntCodec.encodeZigZag(signed)), length);
+				assertEquals("Signed", signed, VarIntCodec.getSignedVarInt(memory, index));
+			}
+		}
+	}
+
+	@Test
+	public void testTail() {
+		MemoryAccessW memory = MEMORY[0];
+		long index = memory.size() - 3;
+		assertEquals("Length", 3, VarIntCodec.putSignedVarLong(memory, index, -100000));
+		assertEquals("Value", -100000, VarIntCodec.getSignedVarLong(memory, index));
+		assertEquals("LengthOf", 3, VarIntCodec.lengthOf(memory, index));
+	}
+
+	@Test
+	public void testPadded() {
+		for (MemoryAccessW memory : MEMORY) {
+			// 5 as 4 bytes, not minimal encoding
+			for (long index : new long[]{0, 11, memory.size() - 4}) {
+				memory.putByte(index, (byte)0x85).putByte(index + 1, (byte)0x80).putByte(index + 2, (byte)0x80).putByte(index + 3, (byte)0);
+				long[] holder = new long[1];
+				assertEquals("Length#"+index, 4, VarIntCodec.getVarLong(memory, index, holder));
+				assertEquals("Value#"+index, 5, holder[0]);
+				assertEquals("Value only#"+index, 5, VarIntCodec.getVarLong(memory, index));
+			}
+		}
+	}
+
+	@Test
+	public void testZigZag() {
+		assertEquals("0", 0, VarIntCodec.encodeZigZag(0L));
+		assertEquals("-1", 1, VarIntCodec.encodeZigZag(-1L));
+		assertEquals("1", 2, VarIntCodec.encodeZigZag(1));
+		assertEquals("Min", -1, VarIntCodec.encodeZigZag(Integer.MIN_VALUE));
+		assertEquals("Min", Long.MIN_VALUE, VarIntCodec.decodeZigZag(-1L));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testMalformed() {
+		MemoryAccessW memory = MEMORY[0];
+		memory.fill(0, 16, (byte)0x80);
+		VarIntCodec.getVarLong(memory, 0);
+	}
+}
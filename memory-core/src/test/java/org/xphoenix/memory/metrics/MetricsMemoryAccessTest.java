@@ -0,0 +1,149 @@
+package org.xphoenix.memory.metrics;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+public class MetricsMemoryAccessTest {
+
+	@Test
+	public void testCounters() {
+		MemoryAccessMetrics metrics = new MemoryAccessMetrics();
+		MemoryAccessW memory = new MetricsMemoryAccess(MemoryAccessUnsafeImpl.wrap(new byte[64]), metrics);
+
+		memory.putLong(0, 42).putInt(8, 7).putBuffer(16, new byte[10], 0, 10);
+		assertEquals(42, memory.getLong(0));
+		assertEquals(7, memory.getInt(8));
+		memory.getInts(0, new int[4], 0, 4);
+
+		assertEquals(3, metrics.getWrites());
+		assertEquals(22, metrics.getBytesWritten());
+		assertEquals(3, metrics.getReads());
+		assertEquals(28, metrics.getBytesRead());
+
+		metrics.reset();
+		assertEquals(0, metrics.getReads());
+		assertEquals(0, metrics.getBytesWritten());
+	}
+
+	@Test
+	public void testCasRatio() {
+		MemoryAccessMetrics metrics = new MemoryAccessMetrics();
+		MemoryAccessW memory = new MetricsMemoryAccess(MemoryAccessUnsafeImpl.wrap(new byte[64]), metrics);
+
+		assertTrue(memory.compareAndSwap(0, 0L, 1L));
+		assertFalse(memory.compareAndSwap(0, 0L, 2L));
+		assertFalse(memory.compareAndSwap(0, 5, 2));
+		assertFalse(memory.compareAndSwap(0, 0L, 3L));
+		assertEquals(1, memory.getAndAddLong(0, 1));
+
+		assertEquals(1, metrics.getCasSuccesses());
+		assertEquals(3, metrics.getCasFailures());
+		assertEquals(0.75, metrics.getCasFailureRatio(), 1e-9);
+		assertEquals(1, metrics.getAtomicUpdates());
+		assertEquals(5, metrics.getWrites());
+	}
+
+	@Test
+	public void testDisabled() {
+		MemoryAccessMetrics metrics = new MemoryAccessMetrics(false, 1);
+		MemoryAccessW memory = new MetricsMemoryAccess(MemoryAccessUnsafeImpl.wrap(new byte[64]), metrics);
+
+		memory.putLong(0, 1);
+		memory.getLong(0);
+		assertEquals(0, metrics.getWrites());
+		assertEquals(0, metrics.getReads());
+
+		metrics.setEnabled(true);
+		memory.getLong(0);
+		assertEquals(1, metrics.getReads());
+	}
+
+	@Test
+	public void testWrapWithoutProperty() {
+		MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(new byte[8]);
+		assertSame(memory, MetricsMemoryAccess.wrap(memory, new MemoryAccessMetrics()));
+	}
+
+	@Test
+	public void testSliceSharesMetrics() {
+		MemoryAccessMetrics metrics = new MemoryAccessMetrics();
+		MemoryAccessW memory = new MetricsMemoryAccess(MemoryAccessUnsafeImpl.wrap(new byte[64]), metrics);
+		MemoryAccessW slice = memory.slice(8, 16);
+
+		slice.putInt(0, 5);
+		assertEquals(5, memory.getInt(8));
+		assertEquals(1, metrics.getWrites());
+		assertEquals(1, metrics.getReads());
+	}
+
+	@Test
+	public void testSampledLatency() {
+		MemoryAccessMetrics metrics = new MemoryAccessMetrics(true, 1);
+		MemoryAccessW memory = new MetricsMemoryAccess(MemoryAccessUnsafeImpl.wrap(new byte[64]), metrics);
+
+		for (int i=0; i < 100; i++) {
+			memory.getLong(0);
+		}
+		memory.putLong(0, 1);
+
+		assertEquals(100, metrics.getSampledReads());
+		assertEquals(1, metrics.getSampledWrites());
+		assertTrue(metrics.getReadLatencyP50() <= metrics.getReadLatencyP99());
+		assertTrue(metrics.getReadLatencyPercentile(100) >= metrics.getReadLatencyP99());
+
+		metrics.setSamplingRate(0);
+		memory.getLong(0);
+		assertEquals(100, metrics.getSampledReads());
+		assertEquals(101, metrics.getReads());
+	}
+
+	@Test
+	public void testConcurrentCounters() throws Exception {
+		final MemoryAccessMetrics metrics = new MemoryAccessMetrics();
+		final MemoryAccessW memory = new MetricsMemoryAccess(MemoryAccessUnsafeImpl.wrap(new byte[64]), metrics);
+		final int threads = 4;
+		final int increments = 10000;
+		final CountDownLatch done = new CountDownLatch(threads);
+
+		for (int t=0; t < threads; t++) {
+			new Thread() {
+				@Override
+				public void run() {
+					for (int i=0; i < increments; i++) {
+						memory.getAndAddLong(0, 1);
+					}
+					done.countDown();
+				}
+			}.start();
+		}
+		done.await();
+
+		assertEquals(threads * increments, memory.getLong(0));
+		assertEquals(threads * increments, metrics.getAtomicUpdates());
+		assertEquals(threads * increments * 8L, metrics.getBytesWritten());
+	}
+
+	@Test
+	public void testJmxRegistration() throws Exception {
+		MemoryAccessMetrics metrics = new MemoryAccessMetrics();
+		ObjectName name = metrics.register("test");
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			new MetricsMemoryAccess(MemoryAccessUnsafeImpl.wrap(new byte[8]), metrics).getLong(0);
+			assertEquals(1L, server.getAttribute(name, "Reads"));
+			assertEquals(8L, server.getAttribute(name, "BytesRead"));
+		} finally {
+			metrics.unregister();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+}
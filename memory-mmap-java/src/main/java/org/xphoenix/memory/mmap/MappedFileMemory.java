@@ -0,0 +1,383 @@
+package org.xphoenix.memory.mmap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.UnsafeUtils;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.MemoryAccessAggregationImpl;
+import org.xphoenix.memory.core.MemoryAccessR;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+import org.xphoenix.memory.core.ReadOnlyMemoryAccess;
+
+/**
+ * Maps file of any size into memory and provides access to it as a single memory chunk
+ *
+ * <p> JDK could map no more then 2GB in one {@link MappedByteBuffer}, so file is mapped
+ * as a chain of segments, each is wrapped by {@link MemoryAccessUnsafeImpl} and all of
+ * them are aggregated by {@link MemoryAccessAggregationImpl}. The last segment could be
+ * shorter then others if file size is not a multiple of segment size.
+ * </p>
+ *
+ * <p> Mapping must be closed explicitly. After {@link #close()} all memory chunks returned
+ * by that instance are invalid and must not be used, otherwise JVM will crash.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class MappedFileMemory implements Closeable {
+
+	/**
+	 * Default segment size, 1GB
+	 */
+	public static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+	/**
+	 * File mapping modes
+	 */
+	public enum Mode {
+		READ_ONLY (MapMode.READ_ONLY, "r"),
+		READ_WRITE(MapMode.READ_WRITE, "rw");
+
+		private final @NotNull MapMode mapMode;
+		private final @NotNull String fileMode;
+
+		private Mode(@NotNull MapMode mapMode, @NotNull String fileMode) {
+			this.mapMode = mapMode;
+			this.fileMode = fileMode;
+		}
+	}
+
+	/**
+	 * Maps the whole file with default segment size, bounds checks and big endian
+	 * byte order (the same as {@link java.nio.ByteBuffer} has)
+	 *
+	 * @param file file to map
+	 * @param mode mapping mode
+	 * @return file mapping
+	 * @throws IOException if file could not be opened or mapped
+	 */
+	public static MappedFileMemory map(@NotNull File file, @NotNull Mode mode) throws IOException {
+		return map(file, mode, file.length());
+	}
+
+	/**
+	 * Maps first <code>size</code> bytes of file. In {@link Mode#READ_WRITE} mode file is
+	 * extended if it is shorter then requested size
+	 *
+	 * @param file file to map
+	 * @param mode mapping mode
+	 * @param size number of bytes to map
+	 * @return file mapping
+	 * @throws IOException if file could not be opened or mapped
+	 */
+	public static MappedFileMemory map(@NotNull File file, @NotNull Mode mode, long size) throws IOException {
+		return map(file, mode, size, DEFAULT_SEGMENT_SIZE, BoundsChecker.REAL, ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * Maps first <code>size</code> bytes of file. In {@link Mode#READ_WRITE} mode file is
+	 * extended if it is shorter then requested size
+	 *
+	 * @param file file to map
+	 * @param mode mapping mode
+	 * @param size number of bytes to map, must be positive
+	 * @param segmentSize size of one mapped region, must be in (0, Integer.MAX_VALUE]
+	 * @param checker bounds checker for the mapped memory
+	 * @param order byte order of data in file
+	 * @return file mapping
+	 * @throws IOException if file could not be opened or mapped
+	 * @throws IllegalArgumentException if size or segment size is not positive
+	 */
+	public static MappedFileMemory map(@NotNull File file, @NotNull Mode mode, long size, long segmentSize,
+			@NotNull BoundsChecker checker, @NotNull ByteOrder order) throws IOException {
+		if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Segment size must be in (0, Integer.MAX_VALUE]: "+segmentSize);
+		} else if (size <= 0) {
+			throw new IllegalArgumentException("Size must be positive: "+size);
+		}
+
+		RandomAccessFile raf = new RandomAccessFile(file, mode.fileMode);
+		try {
+			if (raf.length() < size) {
+				if (mode == Mode.READ_ONLY) {
+					throw new IOException("File "+file+" is shorter then "+size+" bytes");
+				}
+				raf.setLength(size);
+			}
+
+			MappedFileMemory result = new MappedFileMemory(file, mode, raf, segmentSize, checker, order);
+			result.remap(size);
+			return result;
+		} catch (IOException | RuntimeException e) {
+			raf.close();
+			throw e;
+		}
+	}
+
+	private final @NotNull File file;
+
+	private final @NotNull Mode mode;
+
+	private final @NotNull RandomAccessFile raf;
+
+	private final @NotNull FileChannel channel;
+
+	private final long segmentSize;
+
+	private final @NotNull BoundsChecker checker;
+
+	private final @NotNull ByteOrder order;
+
+	/*
+	 * All buffers ever mapped by that instance. When file grows tail segment is
+	 * remapped, but old mapping stays alive until close as previously returned
+	 * memory chunks could still refer it
+	 */
+	private final @NotNull List<MappedByteBuffer> mappings = new ArrayList<>();
+
+	/*
+	 * Buffers and their MemoryAccess wrappers covering current file size
+	 */
+	private @NotNull MappedByteBuffer[] buffers = new MappedByteBuffer[0];
+
+	private @NotNull MemoryAccessW[] segments = new MemoryAccessW[0];
+
+	private volatile MemoryAccessAggregationImpl<MemoryAccessW> memory;
+
+	/*
+	 * Memory returned for read access, read only view in READ_ONLY mode
+	 */
+	private volatile MemoryAccessR readableMemory;
+
+	private volatile long size;
+
+	private boolean closed;
+
+	private MappedFileMemory(@NotNull File file, @NotNull Mode mode, @NotNull RandomAccessFile raf, long segmentSize,
+			@NotNull BoundsChecker checker, @NotNull ByteOrder order) {
+		this.file = file;
+		this.mode = mode;
+		this.raf = raf;
+		this.channel = raf.getChannel();
+		this.segmentSize = segmentSize;
+		this.checker = checker;
+		this.order = order;
+	}
+
+	/**
+	 * Returns mapped file
+	 *
+	 * @return mapped file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns mapping mode
+	 *
+	 * @return mapping mode
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Returns size of the single mapped region
+	 *
+	 * @return segment size in bytes
+	 */
+	public long getSegmentSize() {
+		return segmentSize;
+	}
+
+	/**
+	 * Returns number of mapped bytes
+	 *
+	 * @return mapped bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns read access to mapped memory. In {@link Mode#READ_ONLY} mode it
+	 * is {@link ReadOnlyMemoryAccess}, which could not be cast to writable one
+	 *
+	 * @return mapped memory
+	 */
+	public MemoryAccessR memory() {
+		return readableMemory;
+	}
+
+	/**
+	 * Returns write access to mapped memory
+	 *
+	 * @return mapped memory
+	 * @throws ReadOnlyBufferException if file is mapped in {@link Mode#READ_ONLY} mode
+	 */
+	public MemoryAccessW writableMemory() {
+		if (mode == Mode.READ_ONLY) {
+			throw new ReadOnlyBufferException();
+		}
+		return memory;
+	}
+
+	/**
+	 * Extends file and mapping to the given size.
+	 *
+	 * <p> Already mapped regions stays untouched, so data is not copied and memory
+	 * chunks returned before keep working, but they do not see the new tail. Use
+	 * returned instance to access the whole file
+	 * </p>
+	 *
+	 * @param newSize new file size
+	 * @return memory covering the whole mapping
+	 * @throws IOException if file could not be extended or mapped
+	 * @throws ReadOnlyBufferException if file is mapped in {@link Mode#READ_ONLY} mode
+	 */
+	public synchronized MemoryAccessW grow(long newSize) throws IOException {
+		if (mode == Mode.READ_ONLY) {
+			throw new ReadOnlyBufferException();
+		}
+
+		ensureOpen();
+		if (newSize > size) {
+			if (raf.length() < newSize) {
+				raf.setLength(newSize);
+			}
+			remap(newSize);
+		}
+		return memory;
+	}
+
+	/**
+	 * Writes mapped range to channel by {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+	 * so OS could send file pages to socket without copying them to user space.
+	 * Changes made in mapped memory are visible to the transfer as mapping shares
+	 * pages with the file
+	 *
+	 * @param index index of the first byte to write
+	 * @param length number of bytes to write
+	 * @param target channel to write to
+	 * @return number of written bytes, less then length if non-blocking channel is full
+	 * @throws IOException if transfer fails
+	 * @throws IndexOutOfBoundsException if range is out of mapped bytes
+	 */
+	public long transferTo(long index, long length, @NotNull WritableByteChannel target) throws IOException {
+		BoundsChecker.checkRegion(index, length, size);
+
+		long written = 0;
+		while (written < length) {
+			long count = channel.transferTo(index + written, length - written, target);
+			if (count <= 0) {
+				break;
+			}
+			written += count;
+		}
+		return written;
+	}
+
+	/**
+	 * Forces all changes made in mapped memory to be written to the storage device
+	 */
+	public synchronized void force() {
+		ensureOpen();
+		if (mode == Mode.READ_ONLY) {
+			return;
+		}
+
+		for (MappedByteBuffer buf : buffers) {
+			buf.force();
+		}
+	}
+
+	/**
+	 * Unmaps file and closes it. All memory chunks provided by the current
+	 * instance must not be used after that call
+	 *
+	 * @throws IOException if file could not be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+		try {
+			for (MappedByteBuffer buf : mappings) {
+				UnsafeUtils.freeDirectBuffer(buf);
+			}
+		} finally {
+			mappings.clear();
+			buffers = new MappedByteBuffer[0];
+			segments = new MemoryAccessW[0];
+			raf.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MappedFileMemory [file="+file
+				+", mode="+mode
+				+", size="+size
+				+", segmentSize="+segmentSize
+				+"]";
+	}
+
+	private void ensureOpen() {
+		if (closed) {
+			throw new IllegalStateException("Mapping is closed: "+file);
+		}
+	}
+
+	/*
+	 * Maps regions to cover first newSize bytes of file. All complete segments
+	 * are reused, only the tail is mapped again
+	 */
+	private void remap(long newSize) throws IOException {
+		assert newSize > 0 && segmentSize > 0;
+		int count = (int) Math.max(1, (newSize + segmentSize - 1) / segmentSize);
+		int reuse = buffers.length;
+		if (reuse > 0 && buffers[reuse-1].capacity() != segmentSize) {
+			reuse--;
+		}
+
+		MappedByteBuffer[] newBuffers = Arrays.copyOf(buffers, count);
+		MemoryAccessW[] newSegments = Arrays.copyOf(segments, count + 1);
+		for (int i=reuse; i < count; i++) {
+			long position = i * segmentSize;
+			long length = Math.min(segmentSize, newSize - position);
+
+			MappedByteBuffer buf = channel.map(mode.mapMode, position, length);
+			buf.order(order);
+			mappings.add(buf);
+
+			newBuffers[i] = buf;
+			newSegments[i] = MemoryAccessUnsafeImpl.wrap(checker, buf);
+		}
+		newSegments[count] = null;
+
+		long lastSegmentLimit = newSize - (count - 1) * segmentSize;
+		this.buffers = newBuffers;
+		this.segments = newSegments;
+		this.memory = MemoryAccessAggregationImpl.aggregate(newSegments, 0, lastSegmentLimit);
+		this.readableMemory = mode == Mode.READ_ONLY ? new ReadOnlyMemoryAccess(memory) : memory;
+		this.size = newSize;
+	}
+}
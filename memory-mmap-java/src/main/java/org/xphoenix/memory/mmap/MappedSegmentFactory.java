@@ -0,0 +1,132 @@
+package org.xphoenix.memory.mmap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOError;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.UnsafeUtils;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ExpandableMemory;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+/**
+ * Allocates segments of {@link ExpandableMemory} as consecutive regions of
+ * mapped file, so expandable memory is persisted in that file
+ *
+ * <p> File is extended when the next segment is mapped. Factory must be closed
+ * after the memory is closed, all segments it mapped are invalid after that.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class MappedSegmentFactory implements ExpandableMemory.SegmentFactory, Closeable {
+
+	private final @NotNull File file;
+
+	private final @NotNull RandomAccessFile raf;
+
+	private final @NotNull FileChannel channel;
+
+	private final @NotNull BoundsChecker checker;
+
+	private final @NotNull ByteOrder order;
+
+	/*
+	 * Mapped buffers of not yet freed segments
+	 */
+	private final @NotNull Map<MemoryAccessW, MappedByteBuffer> mappings = new IdentityHashMap<>();
+
+	/**
+	 * Opens file for read and write
+	 *
+	 * @param file file to map segments from
+	 * @param checker segments bounds checker
+	 * @param order segments byte order
+	 * @throws IOException if file could not be opened
+	 */
+	public MappedSegmentFactory(@NotNull File file, @NotNull BoundsChecker checker, @NotNull ByteOrder order) throws IOException {
+		this.file = file;
+		this.raf = new RandomAccessFile(file, "rw");
+		this.channel = raf.getChannel();
+		this.checker = checker;
+		this.order = order;
+	}
+
+	/**
+	 * Returns file segments are mapped from
+	 *
+	 * @return mapped file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.ExpandableMemory.SegmentFactory#allocate(int, int)
+	 */
+	@Override
+	public synchronized MemoryAccessW allocate(int segment, int size) {
+		try {
+			MappedByteBuffer buf = channel.map(MapMode.READ_WRITE, (long)segment * size, size);
+			buf.order(order);
+
+			MemoryAccessW memory = MemoryAccessUnsafeImpl.wrap(checker, buf);
+			mappings.put(memory, buf);
+			return memory;
+		} catch (IOException e) {
+			throw new IOError(e);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xphoenix.memory.core.ExpandableMemory.SegmentFactory#free(org.xphoenix.memory.core.MemoryAccessW)
+	 */
+	@Override
+	public synchronized void free(MemoryAccessW segment) {
+		MappedByteBuffer buf = mappings.remove(segment);
+		if (buf != null) {
+			UnsafeUtils.freeDirectBuffer(buf);
+		}
+	}
+
+	/**
+	 * Forces changes of all mapped segments to be written to the storage device
+	 */
+	public synchronized void force() {
+		for (MappedByteBuffer buf : mappings.values()) {
+			buf.force();
+		}
+	}
+
+	/**
+	 * Unmaps not yet freed segments and closes file
+	 *
+	 * @throws IOException if file could not be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			for (MappedByteBuffer buf : mappings.values()) {
+				UnsafeUtils.freeDirectBuffer(buf);
+			}
+		} finally {
+			mappings.clear();
+			raf.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MappedSegmentFactory [file="+file+", segments="+mappings.size()+"]";
+	}
+}
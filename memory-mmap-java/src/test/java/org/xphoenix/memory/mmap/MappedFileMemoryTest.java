@@ -0,0 +1,154 @@
+package org.xphoenix.memory.mmap;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.Channels;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.MemoryAccessR;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+public class MappedFileMemoryTest {
+
+	private static final long SEGMENT_SIZE = 64;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("mapped-file-memory", ".bin");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+		long size = SEGMENT_SIZE * 3 + 10;
+		try (MappedFileMemory mapping = map(MappedFileMemory.Mode.READ_WRITE, size)) {
+			MemoryAccessW memory = mapping.writableMemory();
+			assertEquals("Size", size, memory.size());
+			assertEquals("File size", size, file.length());
+
+			for (int i=0; i + 8 <= size; i++) {
+				memory.putLong(i, 0x1122334455667788L + i);
+				assertEquals("getLong#"+i, 0x1122334455667788L + i, memory.getLong(i));
+			}
+
+			// Some of values straddle segments boundary
+			for (int i=3; i + 8 <= size; i += 8) {
+				memory.putLong(i, 0x1122334455667788L + i);
+			}
+			mapping.force();
+		}
+
+		// Straddling and non straddling values must have the same layout in file
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			for (int i=3; i + 8 <= size; i += 8) {
+				raf.seek(i);
+				assertEquals("File long#"+i, 0x1122334455667788L + i, raf.readLong());
+			}
+		}
+	}
+
+	@Test
+	public void testReadOnly() throws IOException {
+		try (MappedFileMemory mapping = map(MappedFileMemory.Mode.READ_WRITE, SEGMENT_SIZE * 2 + 3)) {
+			MemoryAccessW memory = mapping.writableMemory();
+			for (int i=0; i < memory.size(); i++) {
+				memory.putByte(i, (byte)i);
+			}
+		}
+
+		try (MappedFileMemory mapping = MappedFileMemory.map(file, MappedFileMemory.Mode.READ_ONLY)) {
+			MemoryAccessR memory = mapping.memory();
+			assertEquals("Size", SEGMENT_SIZE * 2 + 3, memory.size());
+			for (int i=0; i < memory.size(); i++) {
+				assertEquals("getByte#"+i, (byte)i, memory.getByte(i));
+			}
+
+			assertFalse("Writable", memory instanceof MemoryAccessW);
+			assertFalse("Writable slice", memory.slice(1, 8) instanceof MemoryAccessW);
+
+			try {
+				mapping.writableMemory();
+				fail("Read only mapping must not provide write access");
+			} catch (ReadOnlyBufferException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testEmpty() throws IOException {
+		map(MappedFileMemory.Mode.READ_WRITE, 0);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testZeroSegmentSize() throws IOException {
+		MappedFileMemory.map(file, MappedFileMemory.Mode.READ_WRITE, SEGMENT_SIZE, 0, BoundsChecker.REAL, ByteOrder.BIG_ENDIAN);
+	}
+
+	@Test
+	public void testGrow() throws IOException {
+		try (MappedFileMemory mapping = map(MappedFileMemory.Mode.READ_WRITE, SEGMENT_SIZE + 5)) {
+			MemoryAccessW memory = mapping.writableMemory();
+			for (int i=0; i < memory.size(); i++) {
+				memory.putByte(i, (byte)i);
+			}
+
+			MemoryAccessW grown = mapping.grow(SEGMENT_SIZE * 4);
+			assertEquals("Size", SEGMENT_SIZE * 4, grown.size());
+			assertEquals("File size", SEGMENT_SIZE * 4, file.length());
+			assertEquals("Old size", SEGMENT_SIZE + 5, memory.size());
+			for (int i=0; i < SEGMENT_SIZE + 5; i++) {
+				assertEquals("getByte#"+i, (byte)i, grown.getByte(i));
+			}
+
+			grown.putLong(SEGMENT_SIZE * 4 - 8, 42L);
+			assertEquals("Tail", 42L, grown.getLong(SEGMENT_SIZE * 4 - 8));
+		}
+	}
+
+	@Test
+	public void testTransferTo() throws IOException {
+		try (MappedFileMemory mapping = map(MappedFileMemory.Mode.READ_WRITE, SEGMENT_SIZE * 2)) {
+			MemoryAccessW memory = mapping.writableMemory();
+			for (int i=0; i < memory.size(); i++) {
+				memory.putByte(i, (byte)i);
+			}
+			mapping.force();
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			assertEquals("Transferred", SEGMENT_SIZE, mapping.transferTo(SEGMENT_SIZE / 2, SEGMENT_SIZE, Channels.newChannel(out)));
+			byte[] bytes = out.toByteArray();
+			assertEquals("Length", SEGMENT_SIZE, bytes.length);
+			for (int i=0; i < bytes.length; i++) {
+				assertEquals("byte#"+i, (byte)(SEGMENT_SIZE / 2 + i), bytes[i]);
+			}
+		}
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testClosed() throws IOException {
+		MappedFileMemory mapping = map(MappedFileMemory.Mode.READ_WRITE, SEGMENT_SIZE);
+		mapping.close();
+		mapping.close();
+		mapping.force();
+	}
+
+	private MappedFileMemory map(MappedFileMemory.Mode mode, long size) throws IOException {
+		return MappedFileMemory.map(file, mode, size, SEGMENT_SIZE, BoundsChecker.REAL, ByteOrder.BIG_ENDIAN);
+	}
+}
@@ -0,0 +1,53 @@
+package org.xphoenix.memory.mmap;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ExpandableMemory;
+
+public class MappedSegmentFactoryTest {
+
+	private static final int SEGMENT_SIZE = 4096;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("mapped-segments", ".bin");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testExpandableMemory() throws IOException {
+		try (MappedSegmentFactory factory = new MappedSegmentFactory(file, BoundsChecker.REAL, ByteOrder.BIG_ENDIAN)) {
+			ExpandableMemory memory = new ExpandableMemory(factory, SEGMENT_SIZE);
+			memory.putLong(SEGMENT_SIZE - 4, 0x1122334455667788L);
+			memory.putLong(SEGMENT_SIZE * 3, 7);
+			factory.force();
+
+			assertEquals("Size", SEGMENT_SIZE * 4, memory.size());
+			assertEquals("File size", SEGMENT_SIZE * 4, file.length());
+			memory.close();
+		}
+
+		try (MappedSegmentFactory factory = new MappedSegmentFactory(file, BoundsChecker.REAL, ByteOrder.BIG_ENDIAN)) {
+			ExpandableMemory memory = new ExpandableMemory(factory, SEGMENT_SIZE);
+			memory.ensureCapacity(SEGMENT_SIZE * 4);
+			assertEquals("Crossing value", 0x1122334455667788L, memory.getLong(SEGMENT_SIZE - 4));
+			assertEquals("Big endian", 0x11, memory.getByte(SEGMENT_SIZE - 4));
+			assertEquals("Value", 7, memory.getLong(SEGMENT_SIZE * 3));
+			memory.close();
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * JNI bindings for org.xphoenix.memory.mmap.posix.PosixNative
+ *
+ * Each call is a thin wrapper over a single POSIX function. All argument
+ * validation (bounds, page alignment) is done on java side.
+ */
+#include <jni.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <stdint.h>
+#include <stdio.h>
+#include <string.h>
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <unistd.h>
+
+/* Must be in sync with PosixMappedMemory.Advice codes */
+#define ADVICE_NORMAL       0
+#define ADVICE_SEQUENTIAL   1
+#define ADVICE_RANDOM       2
+#define ADVICE_WILLNEED     3
+#define ADVICE_DONTNEED     4
+#define ADVICE_HUGEPAGE     5
+#define ADVICE_NOHUGEPAGE   6
+
+static void throwIOException(JNIEnv *env, const char *op, int error) {
+	char msg[256];
+	jclass cls;
+
+	snprintf(msg, sizeof(msg), "%s failed: %s", op, strerror(error));
+	cls = (*env)->FindClass(env, "java/io/IOException");
+	if (cls != NULL) {
+		(*env)->ThrowNew(env, cls, msg);
+	}
+}
+
+static void *toAddress(jlong address) {
+	return (void *)(intptr_t)address;
+}
+
+JNIEXPORT jlong JNICALL Java_org_xphoenix_memory_mmap_posix_PosixNative_map0
+		(JNIEnv *env, jclass cls, jstring path, jboolean writable, jlong size, jboolean populate) {
+	const char *cpath;
+	struct stat st;
+	void *address;
+	int flags = MAP_SHARED;
+	int prot = writable ? PROT_READ | PROT_WRITE : PROT_READ;
+	int fd, error;
+
+	cpath = (*env)->GetStringUTFChars(env, path, NULL);
+	if (cpath == NULL) {
+		return 0;
+	}
+
+	fd = open(cpath, writable ? O_RDWR | O_CREAT : O_RDONLY, 0644);
+	error = errno;
+	(*env)->ReleaseStringUTFChars(env, path, cpath);
+	if (fd < 0) {
+		throwIOException(env, "open", error);
+		return 0;
+	}
+
+	if (fstat(fd, &st) != 0) {
+		error = errno;
+		close(fd);
+		throwIOException(env, "fstat", error);
+		return 0;
+	}
+
+	if (st.st_size < size) {
+		if (!writable) {
+			close(fd);
+			throwIOException(env, "mmap", EINVAL);
+			return 0;
+		} else if (ftruncate(fd, (off_t)size) != 0) {
+			error = errno;
+			close(fd);
+			throwIOException(env, "ftruncate", error);
+			return 0;
+		}
+	}
+
+#ifdef MAP_POPULATE
+	if (populate) {
+		flags |= MAP_POPULATE;
+	}
+#endif
+
+	/* Mapping keeps file referenced, so descriptor could be closed right away */
+	address = mmap(NULL, (size_t)size, prot, flags, fd, 0);
+	error = errno;
+	close(fd);
+
+	if (address == MAP_FAILED) {
+		throwIOException(env, "mmap", error);
+		return 0;
+	}
+	return (jlong)(intptr_t)address;
+}
+
+JNIEXPORT void JNICALL Java_org_xphoenix_memory_mmap_posix_PosixNative_unmap0
+		(JNIEnv *env, jclass cls, jlong address, jlong size) {
+	if (munmap(toAddress(address), (size_t)size) != 0) {
+		throwIOException(env, "munmap", errno);
+	}
+}
+
+JNIEXPORT void JNICALL Java_org_xphoenix_memory_mmap_posix_PosixNative_sync0
+		(JNIEnv *env, jclass cls, jlong address, jlong size) {
+	if (msync(toAddress(address), (size_t)size, MS_SYNC) != 0) {
+		throwIOException(env, "msync", errno);
+	}
+}
+
+JNIEXPORT void JNICALL Java_org_xphoenix_memory_mmap_posix_PosixNative_madvise0
+		(JNIEnv *env, jclass cls, jlong address, jlong size, jint advice) {
+	int value;
+
+	switch (advice) {
+		case ADVICE_NORMAL:     value = MADV_NORMAL;     break;
+		case ADVICE_SEQUENTIAL: value = MADV_SEQUENTIAL; break;
+		case ADVICE_RANDOM:     value = MADV_RANDOM;     break;
+		case ADVICE_WILLNEED:   value = MADV_WILLNEED;   break;
+		case ADVICE_DONTNEED:   value = MADV_DONTNEED;   break;
+#ifdef MADV_HUGEPAGE
+		case ADVICE_HUGEPAGE:   value = MADV_HUGEPAGE;   break;
+		case ADVICE_NOHUGEPAGE: value = MADV_NOHUGEPAGE; break;
+#endif
+		default:
+			throwIOException(env, "madvise", ENOTSUP);
+			return;
+	}
+
+	if (madvise(toAddress(address), (size_t)size, value) != 0) {
+		throwIOException(env, "madvise", errno);
+	}
+}
+
+JNIEXPORT void JNICALL Java_org_xphoenix_memory_mmap_posix_PosixNative_mlock0
+		(JNIEnv *env, jclass cls, jlong address, jlong size) {
+	if (mlock(toAddress(address), (size_t)size) != 0) {
+		throwIOException(env, "mlock", errno);
+	}
+}
+
+JNIEXPORT void JNICALL Java_org_xphoenix_memory_mmap_posix_PosixNative_munlock0
+		(JNIEnv *env, jclass cls, jlong address, jlong size) {
+	if (munlock(toAddress(address), (size_t)size) != 0) {
+		throwIOException(env, "munlock", errno);
+	}
+}
+
+JNIEXPORT jlong JNICALL Java_org_xphoenix_memory_mmap_posix_PosixNative_pageSize0
+		(JNIEnv *env, jclass cls) {
+	return (jlong)sysconf(_SC_PAGESIZE);
+}
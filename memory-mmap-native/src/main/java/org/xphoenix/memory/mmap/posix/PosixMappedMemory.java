@@ -0,0 +1,370 @@
+package org.xphoenix.memory.mmap.posix;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+
+import org.jetbrains.annotations.NotNull;
+import org.xphoenix.memory.core.BoundsChecker;
+import org.xphoenix.memory.core.ByteOrderConvertor;
+import org.xphoenix.memory.core.MemoryAccessR;
+import org.xphoenix.memory.core.MemoryAccessUnsafeImpl;
+import org.xphoenix.memory.core.MemoryAccessW;
+import org.xphoenix.memory.core.ReadOnlyMemoryAccess;
+
+/**
+ * Maps the whole file into one contiguous virtual memory range with POSIX mmap
+ *
+ * <p> Unlike JDK mapping there is no 2GB limit, so file is accessed through a single
+ * {@link MemoryAccessUnsafeImpl} without segments dispatch. Mapping also exposes kernel
+ * hints (madvise), page locking (mlock) and huge pages control.
+ * </p>
+ *
+ * <p> Mapping must be closed explicitly. After {@link #close()} all memory chunks returned
+ * by that instance are invalid and must not be used, otherwise JVM will crash.
+ * </p>
+ *
+ * @author andrphi
+ */
+public final class PosixMappedMemory implements Closeable {
+
+	/**
+	 * File mapping modes
+	 */
+	public enum Mode {
+		READ_ONLY,
+		READ_WRITE
+	}
+
+	/**
+	 * Additional mapping options
+	 */
+	public enum Option {
+		/**
+		 * Prefault page tables (MAP_POPULATE), ignored on platforms without support
+		 */
+		POPULATE,
+
+		/**
+		 * Ask kernel to back mapping with transparent huge pages
+		 */
+		HUGE_PAGES,
+
+		/**
+		 * Lock mapping in RAM right after it is created
+		 */
+		LOCK
+	}
+
+	/**
+	 * Memory usage hints, see madvise(2)
+	 */
+	public enum Advice {
+		NORMAL(0),
+		SEQUENTIAL(1),
+		RANDOM(2),
+		WILLNEED(3),
+		DONTNEED(4),
+		HUGEPAGE(5),
+		NOHUGEPAGE(6);
+
+		/*
+		 * Code must be in sync with native library
+		 */
+		private final int code;
+
+		private Advice(int code) {
+			this.code = code;
+		}
+	}
+
+	/**
+	 * Checks if native library is available on current platform
+	 *
+	 * @return true if files could be mapped
+	 */
+	public static boolean isSupported() {
+		return PosixNative.isAvailable();
+	}
+
+	/**
+	 * Maps the whole file with bounds checks and big endian byte order (the same
+	 * as {@link java.nio.ByteBuffer} has)
+	 *
+	 * @param file file to map
+	 * @param mode mapping mode
+	 * @param options mapping options
+	 * @return file mapping
+	 * @throws IOException if file could not be opened or mapped
+	 */
+	public static PosixMappedMemory map(@NotNull File file, @NotNull Mode mode, @NotNull Option... options) throws IOException {
+		return map(file, mode, file.length(), options);
+	}
+
+	/**
+	 * Maps first <code>size</code> bytes of file. In {@link Mode#READ_WRITE} mode file is
+	 * created or extended if it is shorter then requested size
+	 *
+	 * @param file file to map
+	 * @param mode mapping mode
+	 * @param size number of bytes to map
+	 * @param options mapping options
+	 * @return file mapping
+	 * @throws IOException if file could not be opened or mapped
+	 */
+	public static PosixMappedMemory map(@NotNull File file, @NotNull Mode mode, long size, @NotNull Option... options) throws IOException {
+		return map(file, mode, size, BoundsChecker.REAL, ByteOrder.BIG_ENDIAN, options);
+	}
+
+	/**
+	 * Maps first <code>size</code> bytes of file. In {@link Mode#READ_WRITE} mode file is
+	 * created or extended if it is shorter then requested size
+	 *
+	 * @param file file to map
+	 * @param mode mapping mode
+	 * @param size number of bytes to map
+	 * @param checker bounds checker for the mapped memory
+	 * @param order byte order of data in file
+	 * @param options mapping options
+	 * @return file mapping
+	 * @throws IOException if file could not be opened or mapped
+	 * @throws UnsatisfiedLinkError if native library is not available
+	 */
+	public static PosixMappedMemory map(@NotNull File file, @NotNull Mode mode, long size,
+			@NotNull BoundsChecker checker, @NotNull ByteOrder order, @NotNull Option... options) throws IOException {
+		PosixNative.ensureAvailable();
+		if (size <= 0) {
+			throw new IllegalArgumentException("Mapping size must be positive: "+size);
+		}
+
+		boolean populate = false;
+		boolean hugePages = false;
+		boolean lock = false;
+		for (Option o : options) {
+			populate  |= o == Option.POPULATE;
+			hugePages |= o == Option.HUGE_PAGES;
+			lock      |= o == Option.LOCK;
+		}
+
+		long address = PosixNative.map0(file.getPath(), mode == Mode.READ_WRITE, size, populate);
+		PosixMappedMemory result = new PosixMappedMemory(file, mode, address, size, checker, order);
+		try {
+			if (hugePages) {
+				result.madvise(Advice.HUGEPAGE);
+			}
+			if (lock) {
+				result.lock();
+			}
+		} catch (IOException | RuntimeException e) {
+			result.close();
+			throw e;
+		}
+		return result;
+	}
+
+	private final @NotNull File file;
+
+	private final @NotNull Mode mode;
+
+	private final long address;
+
+	private final long size;
+
+	private final @NotNull MemoryAccessW memory;
+
+	/*
+	 * Read only view in READ_ONLY mode, so write through cast could not crash JVM
+	 */
+	private final @NotNull MemoryAccessR readableMemory;
+
+	private boolean closed;
+
+	private PosixMappedMemory(@NotNull File file, @NotNull Mode mode, long address, long size,
+			@NotNull BoundsChecker checker, @NotNull ByteOrder order) {
+		this.file = file;
+		this.mode = mode;
+		this.address = address;
+		this.size = size;
+		this.memory = MemoryAccessUnsafeImpl.wrap(checker, ByteOrderConvertor.toNative(order), address, size);
+		this.readableMemory = mode == Mode.READ_ONLY ? new ReadOnlyMemoryAccess(memory) : memory;
+	}
+
+	/**
+	 * Returns mapped file
+	 *
+	 * @return mapped file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns mapping mode
+	 *
+	 * @return mapping mode
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Returns address of the first mapped byte
+	 *
+	 * @return mapping address
+	 */
+	public long address() {
+		return address;
+	}
+
+	/**
+	 * Returns number of mapped bytes
+	 *
+	 * @return mapped bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns read access to mapped memory. In {@link Mode#READ_ONLY} mode it
+	 * is {@link ReadOnlyMemoryAccess}, which could not be cast to writable one
+	 *
+	 * @return mapped memory
+	 */
+	public MemoryAccessR memory() {
+		return readableMemory;
+	}
+
+	/**
+	 * Returns write access to mapped memory
+	 *
+	 * @return mapped memory
+	 * @throws ReadOnlyBufferException if file is mapped in {@link Mode#READ_ONLY} mode
+	 */
+	public MemoryAccessW writableMemory() {
+		if (mode == Mode.READ_ONLY) {
+			throw new ReadOnlyBufferException();
+		}
+		return memory;
+	}
+
+	/**
+	 * Gives kernel a hint about the whole mapping usage pattern
+	 *
+	 * @param advice usage hint
+	 * @throws IOException if kernel rejects hint
+	 */
+	public void madvise(@NotNull Advice advice) throws IOException {
+		madvise(advice, 0, size);
+	}
+
+	/**
+	 * Gives kernel a hint about usage pattern of the given region. Region
+	 * is extended to page boundaries
+	 *
+	 * @param advice usage hint
+	 * @param offset region start
+	 * @param length region length
+	 * @throws IOException if kernel rejects hint
+	 */
+	public synchronized void madvise(@NotNull Advice advice, long offset, long length) throws IOException {
+		long start = pageStart(offset, length);
+		PosixNative.madvise0(start, address + offset + length - start, advice.code);
+	}
+
+	/**
+	 * Locks the whole mapping in RAM
+	 *
+	 * @throws IOException if pages could not be locked, i.e RLIMIT_MEMLOCK is too low
+	 */
+	public void lock() throws IOException {
+		lock(0, size);
+	}
+
+	/**
+	 * Locks pages of the given region in RAM
+	 *
+	 * @param offset region start
+	 * @param length region length
+	 * @throws IOException if pages could not be locked, i.e RLIMIT_MEMLOCK is too low
+	 */
+	public synchronized void lock(long offset, long length) throws IOException {
+		long start = pageStart(offset, length);
+		PosixNative.mlock0(start, address + offset + length - start);
+	}
+
+	/**
+	 * Unlocks the whole mapping
+	 *
+	 * @throws IOException if pages could not be unlocked
+	 */
+	public void unlock() throws IOException {
+		unlock(0, size);
+	}
+
+	/**
+	 * Unlocks pages of the given region
+	 *
+	 * @param offset region start
+	 * @param length region length
+	 * @throws IOException if pages could not be unlocked
+	 */
+	public synchronized void unlock(long offset, long length) throws IOException {
+		long start = pageStart(offset, length);
+		PosixNative.munlock0(start, address + offset + length - start);
+	}
+
+	/**
+	 * Forces all changes made in mapped memory to be written to the storage device
+	 *
+	 * @throws IOException if msync fails
+	 */
+	public synchronized void force() throws IOException {
+		ensureOpen();
+		if (mode == Mode.READ_WRITE) {
+			PosixNative.sync0(address, size);
+		}
+	}
+
+	/**
+	 * Unmaps file. All memory chunks provided by the current instance must
+	 * not be used after that call
+	 *
+	 * @throws IOException if munmap fails
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			PosixNative.unmap0(address, size);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PosixMappedMemory [file="+file
+				+", mode="+mode
+				+", address="+Long.toHexString(address)
+				+", size="+size
+				+"]";
+	}
+
+	private void ensureOpen() {
+		if (closed) {
+			throw new IllegalStateException("Mapping is closed: "+file);
+		}
+	}
+
+	/*
+	 * Validates region and returns address of the page containing region start
+	 */
+	private long pageStart(long offset, long length) {
+		ensureOpen();
+		if (offset < 0 || length < 0 || offset + length > size) {
+			throw new IndexOutOfBoundsException("Region ["+offset+", "+(offset+length)+") is out of mapping: "+size);
+		}
+		return (address + offset) & -PosixNative.PAGE_SIZE;
+	}
+}
@@ -0,0 +1,122 @@
+package org.xphoenix.memory.mmap.posix;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * JNI bindings to POSIX memory mapping API
+ *
+ * <p> Library is looked up in the following order:
+ * <ol>
+ * 	<li> path given by {@value #LIBRARY_PROPERTY} system property </li>
+ * 	<li> library bundled into classpath root by <code>native</code> build profile </li>
+ * 	<li> {@value #LIBRARY_NAME} in <code>java.library.path</code> </li>
+ * </ol>
+ * </p>
+ *
+ * @author andrphi
+ */
+final class PosixNative {
+
+	/**
+	 * System property to override native library location
+	 */
+	static final String LIBRARY_PROPERTY = "org.xphoenix.memory.mmap.native.library";
+
+	/**
+	 * Native library name
+	 */
+	static final String LIBRARY_NAME = "memory-mmap-native";
+
+	/*
+	 * Library load failure, null if library is loaded
+	 */
+	private static final Throwable loadError;
+
+	/*
+	 * System page size, 0 if library is not loaded
+	 */
+	static final long PAGE_SIZE;
+
+	static {
+		Throwable error = null;
+		try {
+			load();
+		} catch (IOException | LinkageError e) {
+			error = e;
+		}
+
+		loadError = error;
+		PAGE_SIZE = error == null ? pageSize0() : 0;
+	}
+
+	private PosixNative() {
+	}
+
+	/**
+	 * Checks if native library is loaded
+	 *
+	 * @return true if native calls could be used
+	 */
+	static boolean isAvailable() {
+		return loadError == null;
+	}
+
+	/**
+	 * Throws error if native library is not loaded
+	 *
+	 * @throws UnsatisfiedLinkError if library is not available
+	 */
+	static void ensureAvailable() {
+		if (loadError != null) {
+			UnsatisfiedLinkError error = new UnsatisfiedLinkError("Native library "+LIBRARY_NAME+" is not available");
+			error.initCause(loadError);
+			throw error;
+		}
+	}
+
+	static native long map0(String path, boolean writable, long size, boolean populate) throws IOException;
+
+	static native void unmap0(long address, long size) throws IOException;
+
+	static native void sync0(long address, long size) throws IOException;
+
+	static native void madvise0(long address, long size, int advice) throws IOException;
+
+	static native void mlock0(long address, long size) throws IOException;
+
+	static native void munlock0(long address, long size) throws IOException;
+
+	static native long pageSize0();
+
+	private static void load() throws IOException {
+		String path = System.getProperty(LIBRARY_PROPERTY);
+		if (path != null) {
+			System.load(path);
+			return;
+		}
+
+		String name = System.mapLibraryName(LIBRARY_NAME);
+		try (InputStream in = PosixNative.class.getResourceAsStream("/" + name)) {
+			if (in == null) {
+				System.loadLibrary(LIBRARY_NAME);
+				return;
+			}
+
+			// Library could not be loaded from jar directly, so it is
+			// copied to temp file first
+			File tmp = File.createTempFile(LIBRARY_NAME, name.substring(name.lastIndexOf('.')));
+			tmp.deleteOnExit();
+			try (OutputStream out = new FileOutputStream(tmp)) {
+				byte[] buf = new byte[8192];
+				for (int n = in.read(buf); n > 0; n = in.read(buf)) {
+					out.write(buf, 0, n);
+				}
+			}
+			System.load(tmp.getAbsolutePath());
+		}
+	}
+}
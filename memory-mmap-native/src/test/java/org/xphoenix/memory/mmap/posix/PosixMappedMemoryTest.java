@@ -0,0 +1,99 @@
+package org.xphoenix.memory.mmap.posix;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ReadOnlyBufferException;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.xphoenix.memory.core.MemoryAccessR;
+import org.xphoenix.memory.core.MemoryAccessW;
+
+public class PosixMappedMemoryTest {
+
+	private static final long SIZE = 3 * 4096 + 17;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		Assume.assumeTrue("Native library is not available", PosixMappedMemory.isSupported());
+		file = File.createTempFile("posix-mapped-memory", ".bin");
+	}
+
+	@After
+	public void tearDown() {
+		if (file != null) {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+		try (PosixMappedMemory mapping = PosixMappedMemory.map(file, PosixMappedMemory.Mode.READ_WRITE, SIZE, PosixMappedMemory.Option.POPULATE)) {
+			MemoryAccessW memory = mapping.writableMemory();
+			assertEquals("Size", SIZE, memory.size());
+			assertEquals("File size", SIZE, file.length());
+
+			for (int i=0; i + 8 <= SIZE; i += 8) {
+				memory.putLong(i, 0x1122334455667788L + i);
+			}
+			mapping.force();
+		}
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			for (int i=0; i + 8 <= SIZE; i += 8) {
+				assertEquals("File long#"+i, 0x1122334455667788L + i, raf.readLong());
+			}
+		}
+
+		try (PosixMappedMemory mapping = PosixMappedMemory.map(file, PosixMappedMemory.Mode.READ_ONLY)) {
+			MemoryAccessR memory = mapping.memory();
+			assertFalse("Writable view", memory instanceof MemoryAccessW);
+			for (int i=0; i + 8 <= SIZE; i += 8) {
+				assertEquals("getLong#"+i, 0x1122334455667788L + i, memory.getLong(i));
+			}
+
+			try {
+				mapping.writableMemory();
+				fail("Read only mapping must not provide write access");
+			} catch (ReadOnlyBufferException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testAdvice() throws IOException {
+		try (PosixMappedMemory mapping = PosixMappedMemory.map(file, PosixMappedMemory.Mode.READ_WRITE, SIZE)) {
+			mapping.madvise(PosixMappedMemory.Advice.SEQUENTIAL);
+			mapping.madvise(PosixMappedMemory.Advice.RANDOM, 100, 5000);
+			mapping.madvise(PosixMappedMemory.Advice.WILLNEED, 4097, 10);
+			mapping.madvise(PosixMappedMemory.Advice.NORMAL);
+		}
+	}
+
+	@Test
+	public void testLock() throws IOException {
+		try (PosixMappedMemory mapping = PosixMappedMemory.map(file, PosixMappedMemory.Mode.READ_WRITE, SIZE)) {
+			try {
+				mapping.lock(0, 4096);
+			} catch (IOException e) {
+				Assume.assumeNoException("RLIMIT_MEMLOCK is too low", e);
+			}
+			mapping.unlock(0, 4096);
+		}
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testAdviceOutOfBounds() throws IOException {
+		try (PosixMappedMemory mapping = PosixMappedMemory.map(file, PosixMappedMemory.Mode.READ_WRITE, SIZE)) {
+			mapping.madvise(PosixMappedMemory.Advice.RANDOM, SIZE - 1, 2);
+		}
+	}
+}